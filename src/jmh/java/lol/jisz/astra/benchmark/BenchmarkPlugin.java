@@ -0,0 +1,64 @@
+package lol.jisz.astra.benchmark;
+
+import lol.jisz.astra.Astra;
+import lol.jisz.astra.api.Implements;
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.PluginDescriptionFile;
+import org.bukkit.plugin.java.JavaPluginLoader;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+
+/**
+ * Astra plugin used by the benchmarks, running on the {@link FakeServer}.
+ * <p>
+ * The plugin is built through the initialization constructor {@code JavaPlugin} keeps for tests,
+ * with a temporary data folder, and is never enabled: only the module system is initialized,
+ * which is all the task subsystem needs. The data folder gets an empty configuration, so no
+ * default configuration is looked up in a plugin jar that does not exist.
+ */
+public final class BenchmarkPlugin extends Astra {
+
+    private BenchmarkPlugin(File dataFolder) {
+        super(new JavaPluginLoader(Bukkit.getServer()),
+                new PluginDescriptionFile("AstraBenchmark", "benchmark", BenchmarkPlugin.class.getName()),
+                dataFolder, new File(dataFolder, "AstraBenchmark.jar"));
+    }
+
+    /**
+     * Installs the fake server, then creates a plugin instance and initializes the module system with it.
+     *
+     * @return The plugin
+     */
+    static BenchmarkPlugin create() {
+        FakeServer.install();
+        File dataFolder;
+        try {
+            dataFolder = Files.createTempDirectory("astra-benchmark").toFile();
+            Files.createFile(dataFolder.toPath().resolve("config.yml"));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not create the data folder of the benchmark plugin", e);
+        }
+
+        BenchmarkPlugin plugin = new BenchmarkPlugin(dataFolder);
+        Implements.init(plugin);
+        return plugin;
+    }
+
+    @Override
+    protected void onInitialize() {
+        // Nothing to initialize
+    }
+
+    @Override
+    protected void onShutdown() {
+        // Nothing to shut down
+    }
+
+    @Override
+    protected void onReload() {
+        // Nothing to reload
+    }
+}
@@ -0,0 +1,90 @@
+package lol.jisz.astra.benchmark;
+
+import lol.jisz.astra.database.AnnotationProcessor;
+import lol.jisz.astra.database.ClassCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the {@link ClassCodec} against plain reflection, copying every field of an object
+ * into a new instance, which is what mapping a stored object back and forth costs per object.
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ClassCodecBenchmark {
+
+    private Sample sample;
+    private ClassCodec<Sample> codec;
+    private List<ClassCodec.FieldAccessor> accessors;
+    private List<Field> fields;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        AnnotationProcessor processor = new AnnotationProcessor(null);
+        codec = processor.getCodec(Sample.class);
+        accessors = codec.getFields();
+        fields = processor.getClassFields(Sample.class);
+
+        sample = new Sample();
+        sample.name = "player";
+        sample.coins = 1500;
+        sample.experience = 48_000L;
+        sample.health = 18.5;
+        sample.online = true;
+        sample.world = "world_nether";
+    }
+
+    /**
+     * Copy through {@code getDeclaredConstructor}, {@link Field#get} and {@link Field#set},
+     * as the providers used to map objects.
+     */
+    @Benchmark
+    public Sample reflection() throws ReflectiveOperationException {
+        Constructor<Sample> constructor = Sample.class.getDeclaredConstructor();
+        constructor.setAccessible(true);
+        Sample copy = constructor.newInstance();
+        for (Field field : fields) {
+            field.set(copy, field.get(sample));
+        }
+        return copy;
+    }
+
+    /**
+     * Copy through the compiled codec of the class.
+     */
+    @Benchmark
+    public Sample codec() {
+        Sample copy = codec.newInstance();
+        for (ClassCodec.FieldAccessor accessor : accessors) {
+            accessor.set(copy, accessor.get(sample));
+        }
+        return copy;
+    }
+
+    public static class Sample {
+        private String name;
+        private int coins;
+        private long experience;
+        private double health;
+        private boolean online;
+        private String world;
+    }
+}
@@ -0,0 +1,234 @@
+package lol.jisz.astra.benchmark;
+
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitScheduler;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * In-process stand-in for the Bukkit scheduler.
+ * <p>
+ * A dedicated thread plays the main server thread. Ticks are accelerated: a tick ends as soon as
+ * the work due on it has run, and the next one starts right away when work is waiting, or after
+ * {@value #IDLE_TICK_MICROS} microseconds otherwise. Async work runs on a fixed pool of daemon
+ * threads, like the async pool of a real server. Only the methods used by Astra are implemented:
+ * {@code runTask*}, {@code cancelTask} and {@code cancelTasks}.
+ */
+final class FakeScheduler implements InvocationHandler {
+
+    private static final long IDLE_TICK_MICROS = 50;
+
+    private final BukkitScheduler proxy;
+    private final Logger logger;
+    private final Thread mainThread;
+    private final ExecutorService asyncPool;
+    private final ConcurrentLinkedQueue<FakeTask> incoming;
+    private final List<FakeTask> scheduled;
+    private final AtomicInteger taskIds;
+    private volatile long currentTick;
+
+    FakeScheduler(int asyncThreads, Logger logger) {
+        this.logger = logger;
+        this.proxy = (BukkitScheduler) Proxy.newProxyInstance(BukkitScheduler.class.getClassLoader(),
+                new Class<?>[]{BukkitScheduler.class}, this);
+        this.asyncPool = Executors.newFixedThreadPool(asyncThreads, runnable -> {
+            Thread thread = new Thread(runnable, "Fake-Async");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.incoming = new ConcurrentLinkedQueue<>();
+        this.scheduled = new ArrayList<>();
+        this.taskIds = new AtomicInteger();
+        this.mainThread = new Thread(this::tickLoop, "Fake-Server");
+        this.mainThread.setDaemon(true);
+        this.mainThread.start();
+    }
+
+    BukkitScheduler proxy() {
+        return proxy;
+    }
+
+    boolean isMainThread() {
+        return Thread.currentThread() == mainThread;
+    }
+
+    long getCurrentTick() {
+        return currentTick;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Object invoke(Object self, Method method, Object[] args) {
+        String name = method.getName();
+        switch (name) {
+            case "hashCode":
+                return System.identityHashCode(self);
+            case "equals":
+                return self == args[0];
+            case "toString":
+                return "FakeScheduler";
+            case "cancelTask":
+                cancel(task -> task.id == (int) args[0]);
+                return null;
+            case "cancelTasks":
+                cancel(task -> task.owner == args[0]);
+                return null;
+            default:
+                break;
+        }
+
+        if (!name.startsWith("runTask") || args == null || args.length < 2) {
+            return FakeServer.defaultValue(method.getReturnType());
+        }
+
+        Consumer<BukkitTask> action;
+        if (args[1] instanceof Runnable runnable) {
+            action = handle -> runnable.run();
+        } else if (args[1] instanceof Consumer<?> consumer) {
+            action = (Consumer<BukkitTask>) consumer;
+        } else {
+            return FakeServer.defaultValue(method.getReturnType());
+        }
+
+        boolean sync = !name.contains("Async");
+        long delay = args.length > 2 ? (long) args[2] : 0;
+        long period = args.length > 3 ? (long) args[3] : -1;
+        FakeTask task = new FakeTask(taskIds.incrementAndGet(), (Plugin) args[0], sync, action, period);
+        task.nextTick = currentTick + Math.max(1, delay);
+        incoming.offer(task);
+        LockSupport.unpark(mainThread);
+
+        return method.getReturnType() == void.class ? null : task;
+    }
+
+    private void cancel(Predicate<FakeTask> filter) {
+        for (FakeTask task : incoming) {
+            if (filter.test(task)) {
+                task.cancel();
+            }
+        }
+        synchronized (scheduled) {
+            for (FakeTask task : scheduled) {
+                if (filter.test(task)) {
+                    task.cancel();
+                }
+            }
+        }
+    }
+
+    private void tickLoop() {
+        while (true) {
+            long tick = currentTick + 1;
+            currentTick = tick;
+
+            FakeTask task;
+            synchronized (scheduled) {
+                while ((task = incoming.poll()) != null) {
+                    scheduled.add(task);
+                }
+            }
+
+            List<FakeTask> due = new ArrayList<>();
+            synchronized (scheduled) {
+                Iterator<FakeTask> iterator = scheduled.iterator();
+                while (iterator.hasNext()) {
+                    FakeTask candidate = iterator.next();
+                    if (candidate.cancelled) {
+                        iterator.remove();
+                    } else if (candidate.nextTick <= tick) {
+                        due.add(candidate);
+                        if (candidate.period > 0) {
+                            candidate.nextTick = tick + candidate.period;
+                        } else {
+                            iterator.remove();
+                        }
+                    }
+                }
+            }
+
+            for (FakeTask dueTask : due) {
+                if (dueTask.sync) {
+                    run(dueTask);
+                } else {
+                    asyncPool.execute(() -> run(dueTask));
+                }
+            }
+
+            if (incoming.isEmpty()) {
+                LockSupport.parkNanos(this, IDLE_TICK_MICROS * 1000);
+            }
+        }
+    }
+
+    private void run(FakeTask task) {
+        if (task.cancelled) {
+            return;
+        }
+        try {
+            task.action.accept(task);
+        } catch (Throwable t) {
+            logger.log(Level.SEVERE, "Task #" + task.id + " threw an exception", t);
+        }
+    }
+
+    /**
+     * Task scheduled on the fake scheduler.
+     */
+    private static final class FakeTask implements BukkitTask {
+        private final int id;
+        private final Plugin owner;
+        private final boolean sync;
+        private final Consumer<BukkitTask> action;
+        private final long period;
+        private volatile boolean cancelled;
+        private long nextTick;
+
+        private FakeTask(int id, Plugin owner, boolean sync, Consumer<BukkitTask> action, long period) {
+            this.id = id;
+            this.owner = owner;
+            this.sync = sync;
+            this.action = action;
+            this.period = period;
+        }
+
+        @Override
+        public int getTaskId() {
+            return id;
+        }
+
+        @Override
+        public Plugin getOwner() {
+            return owner;
+        }
+
+        @Override
+        public boolean isSync() {
+            return sync;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package lol.jisz.astra.benchmark;
+
+import lol.jisz.astra.utils.Text;
+import org.bukkit.Bukkit;
+import org.bukkit.Server;
+import org.bukkit.command.ConsoleCommandSender;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.logging.Logger;
+
+/**
+ * In-process stand-in for the Bukkit server, installed once per JVM.
+ * <p>
+ * It answers the few server methods used by the task subsystem: the scheduler, the main thread
+ * check, a steady 20 TPS load, and a console that writes to a standard logger. Every other method
+ * returns null, zero or false.
+ */
+final class FakeServer implements InvocationHandler {
+
+    private static final int ASYNC_THREADS = Math.max(4, Runtime.getRuntime().availableProcessors());
+    private static FakeServer instance;
+
+    private final FakeScheduler scheduler;
+    private final Logger logger;
+    private final ConsoleCommandSender console;
+
+    private FakeServer() {
+        this.logger = Logger.getLogger("FakeServer");
+        this.scheduler = new FakeScheduler(ASYNC_THREADS, logger);
+        this.console = (ConsoleCommandSender) Proxy.newProxyInstance(ConsoleCommandSender.class.getClassLoader(),
+                new Class<?>[]{ConsoleCommandSender.class}, this::onConsole);
+    }
+
+    /**
+     * Installs the fake server as the Bukkit server, unless it is already installed.
+     *
+     * @return The installed fake server
+     */
+    static synchronized FakeServer install() {
+        if (instance == null) {
+            instance = new FakeServer();
+            Bukkit.setServer((Server) Proxy.newProxyInstance(Server.class.getClassLoader(),
+                    new Class<?>[]{Server.class}, instance));
+        }
+        return instance;
+    }
+
+    FakeScheduler getScheduler() {
+        return scheduler;
+    }
+
+    @Override
+    public Object invoke(Object self, Method method, Object[] args) {
+        switch (method.getName()) {
+            case "hashCode":
+                return System.identityHashCode(self);
+            case "equals":
+                return self == args[0];
+            case "toString":
+            case "getName":
+                return "FakeServer";
+            case "getVersion":
+            case "getBukkitVersion":
+                return "benchmark";
+            case "getLogger":
+                return logger;
+            case "getConsoleSender":
+                return console;
+            case "getScheduler":
+                return scheduler.proxy();
+            case "isPrimaryThread":
+                return scheduler.isMainThread();
+            case "getCurrentTick":
+                return (int) scheduler.getCurrentTick();
+            case "getTPS":
+                return new double[]{20.0, 20.0, 20.0};
+            case "getAverageTickTime":
+                return 1.0;
+            default:
+                return defaultValue(method.getReturnType());
+        }
+    }
+
+    /**
+     * Writes the plain text messages sent to the console to the logger of the fake server.
+     */
+    private Object onConsole(Object self, Method method, Object[] args) {
+        if (method.getName().equals("sendMessage") && args != null && args.length == 1 && args[0] instanceof String message) {
+            logger.info(Text.stripColor(message));
+            return null;
+        }
+        if (method.getName().equals("hashCode")) {
+            return System.identityHashCode(self);
+        }
+        if (method.getName().equals("equals")) {
+            return self == args[0];
+        }
+        return defaultValue(method.getReturnType());
+    }
+
+    static Object defaultValue(Class<?> type) {
+        if (!type.isPrimitive() || type == void.class) {
+            return null;
+        }
+        if (type == boolean.class) {
+            return false;
+        }
+        if (type == char.class) {
+            return '\0';
+        }
+        if (type == long.class) {
+            return 0L;
+        }
+        if (type == float.class) {
+            return 0.0f;
+        }
+        if (type == double.class) {
+            return 0.0;
+        }
+        if (type == byte.class) {
+            return (byte) 0;
+        }
+        if (type == short.class) {
+            return (short) 0;
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,118 @@
+package lol.jisz.astra.benchmark;
+
+import lol.jisz.astra.task.AstraTask;
+import lol.jisz.astra.task.TaskManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Benchmarks of the {@link TaskManager}, running on the {@link FakeServer}.
+ * <p>
+ * Every benchmark waits for the tasks it scheduled to finish, so the scores measure the whole
+ * path from {@code scheduleTask} to the end of the task instead of how fast a queue fills up.
+ * Run with {@code -prof gc} (the default of the {@code benchmarks} profile) to get the bytes
+ * allocated per scheduled task, reported as {@code gc.alloc.rate.norm}.
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class TaskManagerBenchmark {
+
+    private static final int BATCH = 1024;
+
+    private TaskManager taskManager;
+    private final AtomicLong ids = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkPlugin.create();
+        taskManager = new TaskManager();
+        taskManager.enable();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        taskManager.disable();
+    }
+
+    /**
+     * Throughput of {@code scheduleTask} for asynchronous tasks with no dependencies, from a
+     * single producer. Also the benchmark to read the allocation per scheduled task from.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @OperationsPerInvocation(BATCH)
+    public void scheduleAsync() throws InterruptedException {
+        scheduleBatch();
+    }
+
+    /**
+     * Same as {@link #scheduleAsync()} with eight producers, so most tasks wait for a slot
+     * of the concurrency limit and are handed out by {@code processNextTasks} under contention.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @OperationsPerInvocation(BATCH)
+    @Threads(8)
+    public void scheduleAsyncContended() throws InterruptedException {
+        scheduleBatch();
+    }
+
+    /**
+     * Time from scheduling a parent task, whose child is already waiting on it, until the child
+     * finished. Compare with {@link #singleTaskLatency()} to get the cost of releasing the dependency.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void dependencyReleaseLatency() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        AstraTask parent = taskManager.registerTask(taskManager.createAsyncTask("parent-" + ids.incrementAndGet(), () -> { }));
+
+        AstraTask child = taskManager.createAsyncTask("child-" + ids.incrementAndGet(), done::countDown);
+        child.addDependency(parent.getId());
+        taskManager.scheduleTask(child);
+        taskManager.scheduleTask(parent);
+
+        done.await();
+    }
+
+    /**
+     * Time from scheduling a single asynchronous task until it finished.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void singleTaskLatency() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        taskManager.runAsync(done::countDown);
+        done.await();
+    }
+
+    private void scheduleBatch() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(BATCH);
+        for (int i = 0; i < BATCH; i++) {
+            taskManager.scheduleTask(taskManager.createAsyncTask(done::countDown));
+        }
+        done.await();
+    }
+}
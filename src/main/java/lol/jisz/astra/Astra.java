@@ -9,7 +9,11 @@ import lol.jisz.astra.command.CommandBase;
 import lol.jisz.astra.command.CommandManager;
 import lol.jisz.astra.utils.ClassScanner;
 import lol.jisz.astra.utils.Logger;
+import org.bukkit.plugin.PluginDescriptionFile;
 import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.plugin.java.JavaPluginLoader;
+
+import java.io.File;
 
 /**
  * Abstract base class for Astra plugins that provides core functionality for command management,
@@ -25,6 +29,27 @@ public abstract class Astra extends JavaPlugin {
     private static Logger logger;
     private static Astra instance;
 
+    /**
+     * Creates the plugin. Called by the plugin class loader of the server.
+     */
+    public Astra() {
+    }
+
+    /**
+     * Creates a plugin outside of a plugin class loader, for tests and benchmarks, through the
+     * initialization constructor of {@link JavaPlugin}. The plugin is not enabled: only its logger
+     * is set up, and callers initialize the parts of Astra they need themselves.
+     * @param loader Loader of the plugin, bound to the server the plugin runs on
+     * @param description Description of the plugin
+     * @param dataFolder Data folder of the plugin
+     * @param file File the plugin would be loaded from
+     */
+    protected Astra(JavaPluginLoader loader, PluginDescriptionFile description, File dataFolder, File file) {
+        super(loader, description, dataFolder, file);
+        instance = this;
+        logger = new Logger(this);
+    }
+
     @Override
     public void onEnable() {
         try {
@@ -5,11 +5,17 @@ import lol.jisz.astra.command.CommandBase;
 import lol.jisz.astra.command.sender.Sender;
 import lol.jisz.astra.task.TaskManager;
 import lol.jisz.astra.task.TaskPriority;
+import lol.jisz.astra.task.TaskTracer;
 import lol.jisz.astra.utils.Text;
 import org.bukkit.command.Command;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Date;
 import java.util.List;
 import java.util.Map;
 
@@ -49,9 +55,12 @@ public class AstraCommand extends CommandBase {
                 case "tasks":
                     sendTasksMessage(sender);
                     break;
+                case "trace":
+                    handleTrace(sender, args);
+                    break;
                 default:
                     sender.send(Text.colorize("&c ✘ Unknown command: &n" + subcommand));
-                    sender.send(Text.colorize("&eThe available subcommands are &ngithub&e and &ntasks&e."));
+                    sender.send(Text.colorize("&eThe available subcommands are &ngithub&e, &ntasks&e and &ntrace&e."));
             }
         } else {
             sender.send(Text.colorize("&cPlease provide a subcommand."));
@@ -108,6 +117,53 @@ public class AstraCommand extends CommandBase {
         tasksMessages.forEach(sender::send);
     }
 
+    private void handleTrace(Sender sender, String[] args) {
+        String action = args.length > 1 ? args[1].toLowerCase() : "";
+        switch (action) {
+            case "start":
+                int capacity = TaskTracer.DEFAULT_CAPACITY;
+                if (args.length > 2) {
+                    try {
+                        capacity = Integer.parseInt(args[2]);
+                    } catch (NumberFormatException e) {
+                        sender.send(Text.colorize("&c ✘ Invalid number of events: &n" + args[2]));
+                        return;
+                    }
+                }
+                int kept = TaskTracer.enable(capacity);
+                sender.send(Text.colorize("&a ✔ Task tracing started&7, keeping up to " + kept + " events per thread."));
+                break;
+            case "stop":
+                TaskTracer.disable();
+                sender.send(Text.colorize("&e ■ Task tracing stopped&7, use &n/astra trace export&7 to save it."));
+                break;
+            case "export":
+                exportTrace(sender);
+                break;
+            default:
+                sender.send(Text.colorize("&eUsage: &n/astra trace <start [events]|stop|export>"));
+        }
+    }
+
+    private void exportTrace(Sender sender) {
+        TaskManager taskManager = Implements.fetch(TaskManager.class);
+        String name = "trace-" + new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date()) + ".json";
+        Path file = new File(Implements.getPlugin().getDataFolder(), "traces").toPath().resolve(name);
+
+        taskManager.runAsync(() -> {
+            String message;
+            try {
+                int events = TaskTracer.exportChromeTrace(file);
+                message = "&a ✔ Exported " + events + " events to &f" + file
+                        + "&7, open it in chrome://tracing or ui.perfetto.dev.";
+            } catch (IOException e) {
+                message = "&c ✘ Could not export the trace: " + e.getMessage();
+            }
+            String result = message;
+            taskManager.getMainThreadDispatcher().execute(() -> sender.send(Text.colorize(result)));
+        });
+    }
+
     private int getTaskCountByPriority(Map<TaskPriority, Integer> tasksByPriority, TaskPriority priority) {
         return tasksByPriority.getOrDefault(priority, 0);
     }
@@ -117,12 +173,19 @@ public class AstraCommand extends CommandBase {
         List<String> completions = new ArrayList<>();
 
         if (args.length == 1) {
-            String[] subcommands = {"github", "tasks"};
+            String[] subcommands = {"github", "tasks", "trace"};
             for (String subcommand : subcommands) {
                 if (subcommand.toLowerCase().startsWith(args[0].toLowerCase())) {
                     completions.add(subcommand);
                 }
             }
+        } else if (args.length == 2 && args[0].equalsIgnoreCase("trace")) {
+            String[] actions = {"start", "stop", "export"};
+            for (String action : actions) {
+                if (action.startsWith(args[1].toLowerCase())) {
+                    completions.add(action);
+                }
+            }
         }
 
         return completions;
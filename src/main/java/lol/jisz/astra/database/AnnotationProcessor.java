@@ -24,6 +24,7 @@ public class AnnotationProcessor {
     private final Map<Class<?>, List<java.lang.reflect.Field>> classFieldsCache = new ConcurrentHashMap<>();
     private final Map<java.lang.reflect.Field, String> fieldNameMappingCache = new ConcurrentHashMap<>();
     private final Map<Class<?>, java.lang.reflect.Field> idFieldCache = new ConcurrentHashMap<>();
+    private final Map<Class<?>, ClassCodec<?>> codecCache = new ConcurrentHashMap<>();
 
     /**
      * Creates a new AnnotationProcessor
@@ -92,6 +93,21 @@ public class AnnotationProcessor {
         });
     }
 
+    /**
+     * Gets the compiled codec of a class, built from its fields the first time it is requested
+     * @param clazz The class to get the codec for
+     * @param <T> The class type
+     * @return The codec of the class
+     */
+    @SuppressWarnings("unchecked")
+    public <T> ClassCodec<T> getCodec(Class<T> clazz) {
+        ClassCodec<?> codec = codecCache.get(clazz);
+        if (codec == null) {
+            codec = codecCache.computeIfAbsent(clazz, c -> ClassCodec.compile(c, getClassFields(c)));
+        }
+        return (ClassCodec<T>) codec;
+    }
+
     /**
      * Gets the database field name for a Java field
      * @param field The Java field
@@ -213,5 +229,6 @@ public class AnnotationProcessor {
         classFieldsCache.clear();
         fieldNameMappingCache.clear();
         idFieldCache.clear();
+        codecCache.clear();
     }
 }
\ No newline at end of file
@@ -15,7 +15,10 @@ import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
 
 /**
  * Abstract base class for database implementations in Astra.
@@ -28,6 +31,12 @@ public abstract class AstraDatabase extends AbstractModule {
     private final Map<Class<?>, Function<String, ?>> valueConverters = new ConcurrentHashMap<>();
     
     private final Map<Class<?>, Boolean> complexObjectCache = new ConcurrentHashMap<>();
+    private final Set<Class<? extends StorageObject>> storageClasses = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Number of objects fetched per round trip by {@link #streamAll(Class)}.
+     */
+    public static final int DEFAULT_BATCH_SIZE = 500;
 
     protected Astra plugin;
     protected AnnotationProcessor annotationProcessor;
@@ -380,6 +389,152 @@ public abstract class AstraDatabase extends AbstractModule {
      */
     public abstract <T extends StorageObject> Set<T> findAllSync(Class<T> clazz);
 
+    /**
+     * Streams all objects of a specific class type, see {@link #streamAll(Class, int)}.
+     * Objects are fetched {@value #DEFAULT_BATCH_SIZE} at a time.
+     *
+     * @param clazz The class type of the objects to find.
+     * @param <T>   The type of the storage object.
+     * @return A Stream of the found objects, to be closed once consumed.
+     */
+    public <T extends StorageObject> Stream<T> streamAll(Class<T> clazz) {
+        return streamAll(clazz, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Streams all objects of a specific class type from a database cursor.
+     * Objects are created as the stream is consumed, and only one batch of them is fetched at a time,
+     * so a whole collection can be processed without holding it in memory. Unlike {@link #findAllSync(Class)},
+     * objects are not put in a Set, so they need no {@code equals} and none of them is dropped.
+     * <p>
+     * The stream keeps its cursor and its connection until it is closed, so it must be closed,
+     * preferably with a try-with-resources statement. The default implementation streams the result
+     * of {@link #findAllSync(Class)}; providers override it to read from a cursor.
+     *
+     * @param clazz     The class type of the objects to find.
+     * @param batchSize The number of objects fetched from the database per round trip.
+     * @param <T>       The type of the storage object.
+     * @return A Stream of the found objects, to be closed once consumed.
+     * @throws IllegalArgumentException if the batch size is not positive.
+     */
+    public <T extends StorageObject> Stream<T> streamAll(Class<T> clazz, int batchSize) {
+        checkBatchSize(batchSize);
+        return findAllSync(clazz).stream();
+    }
+
+    /**
+     * Synchronously processes all objects of a specific class type in batches.
+     * The next batch is only read from the database once the consumer returns, so a slow consumer
+     * holds back the cursor instead of letting objects pile up in memory. Every batch is a new list,
+     * which the consumer may keep.
+     *
+     * @param clazz     The class type of the objects to process.
+     * @param batchSize The maximum number of objects per batch, also used as the fetch size of the cursor.
+     * @param consumer  The action to run on every batch.
+     * @param <T>       The type of the storage object.
+     * @throws IllegalArgumentException if the batch size is not positive.
+     */
+    public <T extends StorageObject> void forEachBatch(Class<T> clazz, int batchSize, Consumer<List<T>> consumer) {
+        checkBatchSize(batchSize);
+        try (Stream<T> stream = streamAll(clazz, batchSize)) {
+            Iterator<T> iterator = stream.iterator();
+            List<T> batch = new ArrayList<>(batchSize);
+            while (iterator.hasNext()) {
+                batch.add(iterator.next());
+                if (batch.size() == batchSize) {
+                    consumer.accept(batch);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+            if (!batch.isEmpty()) {
+                consumer.accept(batch);
+            }
+        }
+    }
+
+    /**
+     * Asynchronously processes all objects of a specific class type in batches, see
+     * {@link #forEachBatch(Class, int, Consumer)}. The consumer runs on the thread reading the cursor.
+     *
+     * @param clazz     The class type of the objects to process.
+     * @param batchSize The maximum number of objects per batch.
+     * @param consumer  The action to run on every batch.
+     * @param <T>       The type of the storage object.
+     * @return A CompletableFuture completed once every batch has been processed.
+     */
+    public <T extends StorageObject> CompletableFuture<Void> forEachBatchAsync(Class<T> clazz, int batchSize, Consumer<List<T>> consumer) {
+        return CompletableFuture.runAsync(() -> forEachBatch(clazz, batchSize, consumer));
+    }
+
+    /**
+     * Asynchronously finds the objects matching a query.
+     *
+     * @param query The query.
+     * @param <T>   The type of the storage object.
+     * @return A CompletableFuture containing the matching objects, in the order of the query.
+     */
+    public <T extends StorageObject> CompletableFuture<List<T>> find(Query<T> query) {
+        return CompletableFuture.supplyAsync(() -> findSync(query));
+    }
+
+    /**
+     * Synchronously finds the objects matching a query.
+     * The default implementation filters, sorts and pages the objects of {@link #streamAll(Class)} in memory
+     * and loads every field; providers override it to run the query in the database.
+     *
+     * @param query The query.
+     * @param <T>   The type of the storage object.
+     * @return The matching objects, in the order of the query.
+     * @throws IllegalArgumentException if the query names a field the class does not store.
+     */
+    public <T extends StorageObject> List<T> findSync(Query<T> query) {
+        Predicate<T> predicate = query.toPredicate(annotationProcessor);
+        Comparator<T> comparator = query.toComparator(annotationProcessor);
+        try (Stream<T> stream = streamAll(query.getType())) {
+            Stream<T> results = stream.filter(predicate);
+            if (comparator != null) {
+                results = results.sorted(comparator);
+            }
+            results = results.skip(query.getSkip());
+            if (query.getLimit() > 0) {
+                results = results.limit(query.getLimit());
+            }
+            return results.toList();
+        }
+    }
+
+    /**
+     * Registers a storage class, so its table or collection and the indexes of its
+     * {@code @StorageField(indexed = true)} fields are created by {@link #initialize()}.
+     * Classes that are not registered get them the first time they are used.
+     *
+     * @param clazz The storage class.
+     */
+    public void registerStorageClass(Class<? extends StorageObject> clazz) {
+        storageClasses.add(clazz);
+    }
+
+    /**
+     * Gets the registered storage classes.
+     *
+     * @return The classes registered with {@link #registerStorageClass(Class)}.
+     */
+    protected Set<Class<? extends StorageObject>> getStorageClasses() {
+        return Collections.unmodifiableSet(storageClasses);
+    }
+
+    /**
+     * Checks the batch size given to the streaming methods.
+     *
+     * @param batchSize The batch size.
+     * @throws IllegalArgumentException if the batch size is not positive.
+     */
+    protected static void checkBatchSize(int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+        }
+    }
+
     /**
      * Asynchronously saves an object to the database.
      *
@@ -397,6 +552,20 @@ public abstract class AstraDatabase extends AbstractModule {
      */
     public abstract <T extends StorageObject> void saveSync(T object);
 
+    /**
+     * Synchronously saves several objects to the database.
+     * The default implementation saves them one by one; providers override it to write
+     * the whole collection in a single round trip.
+     *
+     * @param objects The objects to save.
+     * @param <T>     The type of the storage objects.
+     */
+    public <T extends StorageObject> void saveAllSync(Collection<T> objects) {
+        for (T object : objects) {
+            saveSync(object);
+        }
+    }
+
     /**
      * Asynchronously deletes an object from the database by its identifier.
      *
@@ -0,0 +1,86 @@
+package lol.jisz.astra.database;
+
+import lol.jisz.astra.task.BatchingExecutor;
+import lol.jisz.astra.task.VirtualThreadTaskExecutor;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Base class for databases that queue their writes and write them in batches.
+ * <p>
+ * Saves and deletes are queued per class with {@link #submitWrite(Class, Object)} and handed to
+ * {@link #writeBatch(Class, List)} together with the other writes of the class queued within a few
+ * milliseconds, turning a burst of saves into a single round trip. Writes of a class are written in
+ * the order they were queued, so a delete queued after a save of the same object is never overtaken
+ * by it. Writes run on a virtual thread executor created with the first write.
+ *
+ * @param <W> Type of the queued writes, a snapshot of the object such as its document or its row
+ */
+public abstract class BatchedWriteDatabase<W> extends AstraDatabase {
+
+    private static final int WRITE_BATCH_SIZE = 256;
+    private static final long WRITE_BATCH_DELAY_MILLIS = 5;
+    private static final int WRITE_MAX_PENDING = 8192;
+
+    private final Object writeBatcherLock = new Object();
+    private volatile BatchingExecutor<Class<?>, W> writeBatcher;
+    private VirtualThreadTaskExecutor writeExecutor;
+
+    /**
+     * Queues a write of a class. The write should be a snapshot of the object taken when it is
+     * queued, so later changes to the object do not leak into it.
+     *
+     * @param type  The class the write belongs to.
+     * @param write The write.
+     * @return A CompletableFuture completed once the batch holding the write has been written.
+     */
+    protected CompletableFuture<Void> submitWrite(Class<?> type, W write) {
+        return getWriteBatcher().submit(type, write);
+    }
+
+    /**
+     * Writes a batch of writes queued with {@link #submitWrite(Class, Object)}, in order.
+     *
+     * @param type   The class of the writes.
+     * @param writes The writes, in the order they were queued.
+     * @throws Exception If the batch could not be written, which fails every write in it.
+     */
+    protected abstract void writeBatch(Class<?> type, List<W> writes) throws Exception;
+
+    /**
+     * Writes every queued write still pending and stops accepting new ones.
+     * Providers call it from {@link #close()} before releasing their connection.
+     */
+    protected void closeWriteBatcher() {
+        synchronized (writeBatcherLock) {
+            if (writeBatcher == null) {
+                return;
+            }
+            if (!writeBatcher.close(10, TimeUnit.SECONDS)) {
+                logger().warning("Timed out writing " + writeBatcher.getPendingCount() + " pending queued writes");
+            }
+            writeExecutor.shutdown();
+            writeBatcher = null;
+            writeExecutor = null;
+        }
+    }
+
+    private BatchingExecutor<Class<?>, W> getWriteBatcher() {
+        BatchingExecutor<Class<?>, W> batcher = writeBatcher;
+        if (batcher == null) {
+            synchronized (writeBatcherLock) {
+                batcher = writeBatcher;
+                if (batcher == null) {
+                    writeExecutor = new VirtualThreadTaskExecutor("Astra-Database");
+                    batcher = new BatchingExecutor<>(getType() + " writes", WRITE_BATCH_SIZE,
+                            WRITE_BATCH_DELAY_MILLIS, TimeUnit.MILLISECONDS, WRITE_MAX_PENDING,
+                            writeExecutor, this::writeBatch);
+                    writeBatcher = batcher;
+                }
+            }
+        }
+        return batcher;
+    }
+}
@@ -0,0 +1,264 @@
+package lol.jisz.astra.database;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Compiled accessors of a storage class: a factory for new instances and a getter and setter per field.
+ * <p>
+ * Codecs are built once per class by {@link AnnotationProcessor#getCodec(Class)}. Every field gets a
+ * hidden class, defined from {@link FieldAccessTemplate}, holding its getter and setter method handles
+ * as constants, so the JIT compiler inlines the access like a plain field read or write. Method handles
+ * kept in instance fields would not be constant-folded, and would cost about as much as the method
+ * handles {@link Field#get(Object)} uses since JDK 18. When the class can be accessed with full
+ * privileges, the constructor is compiled into a {@link Supplier} with {@link LambdaMetafactory},
+ * making instantiation as cheap as a direct {@code new}; otherwise it is called through a method handle.
+ *
+ * @param <T> The storage class
+ */
+public final class ClassCodec<T> {
+
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+    private static final byte[] TEMPLATE = readTemplate();
+
+    private final Class<T> type;
+    private final Supplier<T> factory;
+    private final List<FieldAccessor> fields;
+
+    private ClassCodec(Class<T> type, Supplier<T> factory, List<FieldAccessor> fields) {
+        this.type = type;
+        this.factory = factory;
+        this.fields = fields;
+    }
+
+    /**
+     * Builds the codec of a class.
+     *
+     * @param type   The class
+     * @param fields The stored fields of the class, already made accessible
+     * @param <T>    The class type
+     * @return The codec of the class
+     */
+    static <T> ClassCodec<T> compile(Class<T> type, List<Field> fields) {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        List<FieldAccessor> accessors = new ArrayList<>(fields.size());
+        for (Field field : fields) {
+            accessors.add(new FieldAccessor(field, lookup));
+        }
+        return new ClassCodec<>(type, compileFactory(type, lookup), Collections.unmodifiableList(accessors));
+    }
+
+    /**
+     * Gets the class of the codec.
+     *
+     * @return The storage class
+     */
+    public Class<T> getType() {
+        return type;
+    }
+
+    /**
+     * Checks if the class has a constructor without parameters to create instances with.
+     *
+     * @return true if {@link #newInstance()} can be used
+     */
+    public boolean isInstantiable() {
+        return factory != null;
+    }
+
+    /**
+     * Creates an instance of the class with its constructor without parameters.
+     *
+     * @return The new instance
+     * @throws IllegalStateException if the class has no such constructor
+     */
+    public T newInstance() {
+        if (factory == null) {
+            throw new IllegalStateException(type.getName() + " has no constructor without parameters");
+        }
+        return factory.get();
+    }
+
+    /**
+     * Gets the accessors of the stored fields, in the order of {@link AnnotationProcessor#getClassFields(Class)}.
+     *
+     * @return The field accessors
+     */
+    public List<FieldAccessor> getFields() {
+        return fields;
+    }
+
+    /**
+     * Defines the hidden class accessing a field. If the template cannot be defined, the handles
+     * are invoked from instance fields instead, which works everywhere but is not inlined.
+     */
+    private static FieldAccess compileAccess(MethodHandles.Lookup lookup, MethodHandle getter, MethodHandle setter) {
+        if (TEMPLATE != null) {
+            try {
+                Class<?> hidden = lookup.defineHiddenClassWithClassData(TEMPLATE, List.of(getter, setter), true).lookupClass();
+                return (FieldAccess) hidden.getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | LinkageError | RuntimeException ignored) {
+                // Fall back to the plain handles below
+            }
+        }
+        return new FieldAccess() {
+            @Override
+            Object get(Object instance) throws Throwable {
+                return getter.invokeExact(instance);
+            }
+
+            @Override
+            void set(Object instance, Object value) throws Throwable {
+                setter.invokeExact(instance, value);
+            }
+        };
+    }
+
+    private static byte[] readTemplate() {
+        try (InputStream in = ClassCodec.class.getResourceAsStream(FieldAccessTemplate.class.getSimpleName() + ".class")) {
+            return in == null ? null : in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Supplier<T> compileFactory(Class<T> type, MethodHandles.Lookup lookup) {
+        if (type.isInterface() || Modifier.isAbstract(type.getModifiers())) {
+            return null;
+        }
+
+        Constructor<T> constructor;
+        try {
+            constructor = type.getDeclaredConstructor();
+            constructor.setAccessible(true);
+        } catch (NoSuchMethodException | RuntimeException e) {
+            return null;
+        }
+
+        try {
+            MethodHandles.Lookup privateLookup = MethodHandles.privateLookupIn(type, lookup);
+            if (privateLookup.hasFullPrivilegeAccess()) {
+                MethodHandle handle = privateLookup.findConstructor(type, MethodType.methodType(void.class));
+                CallSite site = LambdaMetafactory.metafactory(privateLookup, "get", MethodType.methodType(Supplier.class),
+                        MethodType.methodType(Object.class), handle, MethodType.methodType(type));
+                return (Supplier<T>) site.getTarget().invoke();
+            }
+        } catch (Throwable ignored) {
+            // Not accessible with full privileges, for example from another class loader
+        }
+
+        try {
+            MethodHandle handle = lookup.unreflectConstructor(constructor).asType(MethodType.methodType(Object.class));
+            return () -> {
+                try {
+                    return (T) handle.invokeExact();
+                } catch (RuntimeException | Error e) {
+                    throw e;
+                } catch (Throwable t) {
+                    throw new IllegalStateException("Failed to create an instance of " + type.getName(), t);
+                }
+            };
+        } catch (IllegalAccessException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Access to one field, implemented by the hidden classes defined from {@link FieldAccessTemplate}.
+     */
+    abstract static class FieldAccess {
+        abstract Object get(Object instance) throws Throwable;
+
+        abstract void set(Object instance, Object value) throws Throwable;
+    }
+
+    /**
+     * Getter and setter of a field.
+     */
+    public static final class FieldAccessor {
+        private final Field field;
+        private final FieldAccess access;
+        private final boolean writable;
+
+        private FieldAccessor(Field field, MethodHandles.Lookup lookup) {
+            this.field = field;
+            MethodHandle getter;
+            try {
+                getter = lookup.unreflectGetter(field).asType(GETTER_TYPE);
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException("Cannot access field: " + field.getName(), e);
+            }
+
+            MethodHandle setter;
+            try {
+                setter = lookup.unreflectSetter(field).asType(SETTER_TYPE);
+            } catch (IllegalAccessException e) {
+                // Final fields of records and hidden classes cannot be written
+                setter = null;
+            }
+            this.writable = setter != null;
+            this.access = compileAccess(lookup, getter, writable ? setter : MethodHandles.empty(SETTER_TYPE));
+        }
+
+        /**
+         * Gets the field.
+         *
+         * @return The field
+         */
+        public Field getField() {
+            return field;
+        }
+
+        /**
+         * Reads the field of an instance. Primitive values are boxed.
+         *
+         * @param instance The instance
+         * @return The value of the field
+         */
+        public Object get(Object instance) {
+            try {
+                return access.get(instance);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable t) {
+                throw new IllegalStateException("Failed to read field: " + field.getName(), t);
+            }
+        }
+
+        /**
+         * Writes the field of an instance. Primitive fields take their boxed type, without widening.
+         *
+         * @param instance The instance
+         * @param value    The new value of the field
+         * @throws ClassCastException    if the value does not fit the type of the field
+         * @throws IllegalStateException if the field cannot be written
+         */
+        public void set(Object instance, Object value) {
+            if (!writable) {
+                throw new IllegalStateException("Field cannot be written: " + field.getName());
+            }
+            try {
+                access.set(instance, value);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable t) {
+                throw new IllegalStateException("Failed to write field: " + field.getName(), t);
+            }
+        }
+    }
+}
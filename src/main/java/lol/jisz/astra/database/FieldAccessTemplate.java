@@ -0,0 +1,39 @@
+package lol.jisz.astra.database;
+
+import java.lang.constant.ConstantDescs;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+
+/**
+ * Template of the hidden classes {@link ClassCodec} defines per field.
+ * <p>
+ * This class is never used directly: its bytes are defined again as a hidden class for every field,
+ * with the getter and setter of the field as class data. Holding them in static final fields makes
+ * them constants to the JIT compiler, which can then inline the field access into the caller
+ * instead of invoking an unknown method handle.
+ */
+final class FieldAccessTemplate extends ClassCodec.FieldAccess {
+
+    private static final MethodHandle GETTER;
+    private static final MethodHandle SETTER;
+
+    static {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        try {
+            GETTER = MethodHandles.classDataAt(lookup, ConstantDescs.DEFAULT_NAME, MethodHandle.class, 0);
+            SETTER = MethodHandles.classDataAt(lookup, ConstantDescs.DEFAULT_NAME, MethodHandle.class, 1);
+        } catch (IllegalAccessException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    @Override
+    Object get(Object instance) throws Throwable {
+        return GETTER.invokeExact(instance);
+    }
+
+    @Override
+    void set(Object instance, Object value) throws Throwable {
+        SETTER.invokeExact(instance, value);
+    }
+}
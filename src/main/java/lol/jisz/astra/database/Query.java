@@ -0,0 +1,378 @@
+package lol.jisz.astra.database;
+
+import lol.jisz.astra.database.interfaces.StorageObject;
+
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Query on the objects of a storage class, run with {@link AstraDatabase#findSync(Query)}.
+ * <p>
+ * Fields are named after their Java field or their {@code @StorageField} name. Conditions are all
+ * required to match, and providers translate them to native queries, so a condition or a sort on a
+ * field marked {@code @StorageField(indexed = true)} is answered from the index of the field:
+ * <pre>{@code
+ * Query<PlayerData> top = Query.of(PlayerData.class)
+ *         .gte("kills", 10)
+ *         .sortDescending("kills")
+ *         .limit(100);
+ * List<PlayerData> players = database.findSync(top);
+ * }</pre>
+ * Enums are compared by name, as they are stored.
+ *
+ * @param <T> The storage class
+ */
+public final class Query<T extends StorageObject> {
+
+    private final Class<T> type;
+    private final List<Condition> conditions = new ArrayList<>();
+    private final List<Sort> sorts = new ArrayList<>();
+    private final Set<String> fields = new LinkedHashSet<>();
+    private int skip;
+    private int limit;
+
+    private Query(Class<T> type) {
+        this.type = type;
+    }
+
+    /**
+     * Creates a query matching every object of a class.
+     *
+     * @param type The storage class
+     * @param <T>  The storage class type
+     * @return The new query
+     */
+    public static <T extends StorageObject> Query<T> of(Class<T> type) {
+        return new Query<>(Objects.requireNonNull(type, "type"));
+    }
+
+    /**
+     * Requires a field to be equal to a value. A null value matches fields holding null.
+     *
+     * @param field The field name
+     * @param value The value
+     * @return This query
+     */
+    public Query<T> eq(String field, Object value) {
+        return where(field, Operator.EQ, value);
+    }
+
+    /**
+     * Requires a field to be greater than a value.
+     *
+     * @param field The field name
+     * @param value The exclusive lower bound
+     * @return This query
+     */
+    public Query<T> gt(String field, Object value) {
+        return where(field, Operator.GT, Objects.requireNonNull(value, "value"));
+    }
+
+    /**
+     * Requires a field to be greater than or equal to a value.
+     *
+     * @param field The field name
+     * @param value The inclusive lower bound
+     * @return This query
+     */
+    public Query<T> gte(String field, Object value) {
+        return where(field, Operator.GTE, Objects.requireNonNull(value, "value"));
+    }
+
+    /**
+     * Requires a field to be less than a value.
+     *
+     * @param field The field name
+     * @param value The exclusive upper bound
+     * @return This query
+     */
+    public Query<T> lt(String field, Object value) {
+        return where(field, Operator.LT, Objects.requireNonNull(value, "value"));
+    }
+
+    /**
+     * Requires a field to be less than or equal to a value.
+     *
+     * @param field The field name
+     * @param value The inclusive upper bound
+     * @return This query
+     */
+    public Query<T> lte(String field, Object value) {
+        return where(field, Operator.LTE, Objects.requireNonNull(value, "value"));
+    }
+
+    /**
+     * Requires a field to be within a range, both bounds included.
+     *
+     * @param field The field name
+     * @param from  The inclusive lower bound
+     * @param to    The inclusive upper bound
+     * @return This query
+     */
+    public Query<T> between(String field, Object from, Object to) {
+        return gte(field, from).lte(field, to);
+    }
+
+    /**
+     * Requires a field to be equal to one of several values. No values match no object.
+     *
+     * @param field  The field name
+     * @param values The values
+     * @return This query
+     */
+    public Query<T> in(String field, Collection<?> values) {
+        return where(field, Operator.IN, List.copyOf(values));
+    }
+
+    /**
+     * Sorts the results by a field, lowest first. Later sorts break the ties of earlier ones.
+     *
+     * @param field The field name
+     * @return This query
+     */
+    public Query<T> sortAscending(String field) {
+        sorts.add(new Sort(Objects.requireNonNull(field, "field"), true));
+        return this;
+    }
+
+    /**
+     * Sorts the results by a field, highest first. Later sorts break the ties of earlier ones.
+     *
+     * @param field The field name
+     * @return This query
+     */
+    public Query<T> sortDescending(String field) {
+        sorts.add(new Sort(Objects.requireNonNull(field, "field"), false));
+        return this;
+    }
+
+    /**
+     * Skips the first results.
+     *
+     * @param skip Number of results to skip
+     * @return This query
+     * @throws IllegalArgumentException if the number is negative
+     */
+    public Query<T> skip(int skip) {
+        if (skip < 0) {
+            throw new IllegalArgumentException("Skip cannot be negative: " + skip);
+        }
+        this.skip = skip;
+        return this;
+    }
+
+    /**
+     * Limits the number of results.
+     *
+     * @param limit Maximum number of results, or 0 for no limit
+     * @return This query
+     * @throws IllegalArgumentException if the number is negative
+     */
+    public Query<T> limit(int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Limit cannot be negative: " + limit);
+        }
+        this.limit = limit;
+        return this;
+    }
+
+    /**
+     * Only loads some fields of the objects; the other fields keep the value set by the constructor.
+     * The ID is always loaded, but the fields {@link StorageObject#getId()} reads must be included
+     * when the ID is not stored in a {@code @StorageId} field.
+     *
+     * @param fields The names of the fields to load
+     * @return This query
+     */
+    public Query<T> fields(String... fields) {
+        for (String field : fields) {
+            this.fields.add(Objects.requireNonNull(field, "field"));
+        }
+        return this;
+    }
+
+    /**
+     * Gets the storage class of the query.
+     *
+     * @return The storage class
+     */
+    public Class<T> getType() {
+        return type;
+    }
+
+    /**
+     * Gets the conditions of the query, all of which must match.
+     *
+     * @return The conditions
+     */
+    public List<Condition> getConditions() {
+        return Collections.unmodifiableList(conditions);
+    }
+
+    /**
+     * Gets the sorts of the query, in order of priority.
+     *
+     * @return The sorts
+     */
+    public List<Sort> getSorts() {
+        return Collections.unmodifiableList(sorts);
+    }
+
+    /**
+     * Gets the names of the fields to load.
+     *
+     * @return The fields to load, or an empty set to load every field
+     */
+    public Set<String> getFields() {
+        return Collections.unmodifiableSet(fields);
+    }
+
+    /**
+     * Gets the number of results to skip.
+     *
+     * @return The number of results to skip
+     */
+    public int getSkip() {
+        return skip;
+    }
+
+    /**
+     * Gets the maximum number of results.
+     *
+     * @return The maximum number of results, or 0 for no limit
+     */
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * Builds a predicate evaluating the conditions on objects, for providers without native queries.
+     *
+     * @param processor The processor giving access to the fields of the class
+     * @return The predicate
+     * @throws IllegalArgumentException if a field does not exist
+     */
+    Predicate<T> toPredicate(AnnotationProcessor processor) {
+        Predicate<T> predicate = object -> true;
+        for (Condition condition : conditions) {
+            Function<T, Object> getter = getter(processor, condition.field());
+            predicate = predicate.and(object -> condition.matches(getter.apply(object)));
+        }
+        return predicate;
+    }
+
+    /**
+     * Builds a comparator ordering objects by the sorts, for providers without native queries.
+     * Null values come first.
+     *
+     * @param processor The processor giving access to the fields of the class
+     * @return The comparator, or null if the query has no sorts
+     * @throws IllegalArgumentException if a field does not exist
+     */
+    Comparator<T> toComparator(AnnotationProcessor processor) {
+        Comparator<T> comparator = null;
+        for (Sort sort : sorts) {
+            Function<T, Object> getter = getter(processor, sort.field());
+            Comparator<T> next = (a, b) -> compareValues(getter.apply(a), getter.apply(b));
+            if (!sort.ascending()) {
+                next = next.reversed();
+            }
+            comparator = comparator == null ? next : comparator.thenComparing(next);
+        }
+        return comparator;
+    }
+
+    private Query<T> where(String field, Operator operator, Object value) {
+        conditions.add(new Condition(Objects.requireNonNull(field, "field"), operator, value));
+        return this;
+    }
+
+    private Function<T, Object> getter(AnnotationProcessor processor, String name) {
+        for (ClassCodec.FieldAccessor accessor : processor.getCodec(type).getFields()) {
+            Field field = accessor.getField();
+            if (field.getName().equals(name) || processor.getDbFieldName(field).equals(name)) {
+                return accessor::get;
+            }
+        }
+        if (name.equals("_id")) {
+            return StorageObject::getId;
+        }
+        throw new IllegalArgumentException("Unknown field " + name + " in " + type.getName());
+    }
+
+    private static int compareValues(Object a, Object b) {
+        if (a == null || b == null) {
+            return a == null ? (b == null ? 0 : -1) : 1;
+        }
+        if (a instanceof Enum<?> constant) {
+            a = constant.name();
+        }
+        if (b instanceof Enum<?> constant) {
+            b = constant.name();
+        }
+        if (a instanceof Number x && b instanceof Number y) {
+            if (x instanceof BigDecimal || y instanceof BigDecimal) {
+                return new BigDecimal(x.toString()).compareTo(new BigDecimal(y.toString()));
+            }
+            return Double.compare(x.doubleValue(), y.doubleValue());
+        }
+        if (a instanceof Comparable<?> && a.getClass() == b.getClass()) {
+            @SuppressWarnings("unchecked")
+            Comparable<Object> comparable = (Comparable<Object>) a;
+            return comparable.compareTo(b);
+        }
+        return a.toString().compareTo(b.toString());
+    }
+
+    /**
+     * Comparison of a condition.
+     */
+    public enum Operator {
+        EQ,
+        GT,
+        GTE,
+        LT,
+        LTE,
+        IN
+    }
+
+    /**
+     * Condition on the value of a field.
+     *
+     * @param field    The field name
+     * @param operator The comparison
+     * @param value    The value compared with, a list of values for {@link Operator#IN}
+     */
+    public record Condition(String field, Operator operator, Object value) {
+
+        private boolean matches(Object fieldValue) {
+            return switch (operator) {
+                case EQ -> compareValues(fieldValue, value) == 0;
+                case GT -> fieldValue != null && compareValues(fieldValue, value) > 0;
+                case GTE -> fieldValue != null && compareValues(fieldValue, value) >= 0;
+                case LT -> fieldValue != null && compareValues(fieldValue, value) < 0;
+                case LTE -> fieldValue != null && compareValues(fieldValue, value) <= 0;
+                case IN -> ((List<?>) value).stream().anyMatch(item -> compareValues(fieldValue, item) == 0);
+            };
+        }
+    }
+
+    /**
+     * Sort of the results by a field.
+     *
+     * @param field     The field name
+     * @param ascending Whether the lowest values come first
+     */
+    public record Sort(String field, boolean ascending) {
+    }
+}
@@ -0,0 +1,234 @@
+package lol.jisz.astra.database.providers;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded pool of JDBC connections.
+ * <p>
+ * Connections are opened on demand up to the size of the pool; past that, callers wait for one to be
+ * released. Idle connections are handed out most recently used first, so a quiet server keeps reusing
+ * the same few connections while the others time out on the database side, and a connection idle for
+ * a while, or released after an error, is validated before being handed out again. Every connection
+ * keeps the statements prepared on it, so a statement is only parsed once per connection.
+ */
+final class ConnectionPool {
+
+    private static final long VALIDATE_AFTER_NANOS = TimeUnit.SECONDS.toNanos(30);
+    private static final long WAIT_SLICE_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+    private static final int MAX_CACHED_STATEMENTS = 64;
+
+    private final String url;
+    private final Properties properties;
+    private final int maxSize;
+    private final BlockingDeque<Session> idle = new LinkedBlockingDeque<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private volatile boolean closed;
+
+    /**
+     * Creates an empty pool.
+     *
+     * @param url        JDBC URL of the database
+     * @param properties Connection properties, such as the user and password
+     * @param maxSize    Maximum number of open connections
+     */
+    ConnectionPool(String url, Properties properties, int maxSize) {
+        this.url = url;
+        this.properties = properties;
+        this.maxSize = Math.max(1, maxSize);
+    }
+
+    /**
+     * Takes a connection from the pool, opening one if the pool is not full.
+     *
+     * @param timeout Maximum time to wait for a connection
+     * @param unit    Unit of the timeout
+     * @return A connection, to give back with {@link #release(Session, boolean)}
+     * @throws SQLException if no connection is free in time, or a new one cannot be opened
+     */
+    Session acquire(long timeout, TimeUnit unit) throws SQLException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (true) {
+            if (closed) {
+                throw new SQLException("Connection pool is closed");
+            }
+
+            Session session = idle.pollFirst();
+            if (session == null) {
+                int current = size.get();
+                if (current < maxSize) {
+                    if (size.compareAndSet(current, current + 1)) {
+                        return open();
+                    }
+                    continue;
+                }
+
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    throw new SQLTimeoutException("Timed out waiting for a database connection, all " + maxSize + " are in use");
+                }
+                try {
+                    // Wakes up now and then, a slot freed by a discarded connection is not signalled
+                    session = idle.pollFirst(Math.min(remaining, WAIT_SLICE_NANOS), TimeUnit.NANOSECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new SQLException("Interrupted while waiting for a database connection", e);
+                }
+                if (session == null) {
+                    continue;
+                }
+            }
+
+            if (isUsable(session)) {
+                return session;
+            }
+            discard(session);
+        }
+    }
+
+    /**
+     * Gives a connection back to the pool.
+     *
+     * @param session The connection
+     * @param failed  Whether an operation failed on the connection, so it is validated before its next use
+     */
+    void release(Session session, boolean failed) {
+        if (closed || session.isClosed()) {
+            discard(session);
+            return;
+        }
+
+        session.suspect = failed;
+        session.idleSince = System.nanoTime();
+        idle.offerFirst(session);
+        if (closed && idle.remove(session)) {
+            discard(session);
+        }
+    }
+
+    /**
+     * Closes the idle connections and every connection given back from now on.
+     */
+    void close() {
+        closed = true;
+        Session session;
+        while ((session = idle.pollFirst()) != null) {
+            discard(session);
+        }
+    }
+
+    /**
+     * Gets the number of open connections, idle or in use.
+     *
+     * @return Number of open connections
+     */
+    int getSize() {
+        return size.get();
+    }
+
+    private Session open() throws SQLException {
+        try {
+            return new Session(DriverManager.getConnection(url, properties));
+        } catch (SQLException | RuntimeException e) {
+            size.decrementAndGet();
+            throw e;
+        }
+    }
+
+    private boolean isUsable(Session session) {
+        if (!session.suspect && System.nanoTime() - session.idleSince < VALIDATE_AFTER_NANOS) {
+            return true;
+        }
+        try {
+            return session.connection.isValid(VALIDATION_TIMEOUT_SECONDS);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void discard(Session session) {
+        size.decrementAndGet();
+        session.close();
+    }
+
+    /**
+     * A pooled connection and the statements prepared on it. Used by one thread at a time.
+     */
+    static final class Session {
+        private final Connection connection;
+        private final Map<String, PreparedStatement> statements;
+        private long idleSince;
+        private boolean suspect;
+
+        private Session(Connection connection) {
+            this.connection = connection;
+            this.idleSince = System.nanoTime();
+            this.statements = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                    if (size() <= MAX_CACHED_STATEMENTS) {
+                        return false;
+                    }
+                    try {
+                        eldest.getValue().close();
+                    } catch (SQLException ignored) {
+                        // Evicted anyway
+                    }
+                    return true;
+                }
+            };
+        }
+
+        /**
+         * Gets the connection.
+         *
+         * @return The JDBC connection
+         */
+        Connection connection() {
+            return connection;
+        }
+
+        /**
+         * Gets a prepared statement, preparing it the first time it is used on this connection.
+         *
+         * @param sql The SQL of the statement
+         * @return The prepared statement
+         * @throws SQLException if the statement cannot be prepared
+         */
+        PreparedStatement prepare(String sql) throws SQLException {
+            PreparedStatement statement = statements.get(sql);
+            if (statement == null) {
+                statement = connection.prepareStatement(sql);
+                statements.put(sql, statement);
+            }
+            return statement;
+        }
+
+        private boolean isClosed() {
+            try {
+                return connection.isClosed();
+            } catch (SQLException e) {
+                return true;
+            }
+        }
+
+        private void close() {
+            try {
+                connection.close();
+            } catch (SQLException ignored) {
+                // Closing anyway
+            }
+        }
+    }
+}
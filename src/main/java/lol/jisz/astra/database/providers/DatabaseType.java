@@ -1,23 +1,53 @@
 package lol.jisz.astra.database.providers;
 
 public enum DatabaseType {
-    MONGODB("MongoDB"),
-    MYSQL("MySQL"),
-    SQLITE("SQLite"),
-    POSTGRESQL("PostgreSQL"),
-    MARIADB("MariaDB"),
-    NONE("None");
+    MONGODB("MongoDB", null),
+    MYSQL("MySQL", "com.mysql.cj.jdbc.Driver"),
+    SQLITE("SQLite", "org.sqlite.JDBC"),
+    POSTGRESQL("PostgreSQL", "org.postgresql.Driver"),
+    MARIADB("MariaDB", "org.mariadb.jdbc.Driver"),
+    NONE("None", null);
 
     private final String name;
+    private final String driver;
 
-    DatabaseType(String name) {
+    DatabaseType(String name, String driver) {
         this.name = name;
+        this.driver = driver;
     }
 
     public String getName() {
         return name;
     }
 
+    /**
+     * Gets the class name of the JDBC driver of the database.
+     * Paper ships the SQLite and MySQL drivers; the others have to be shaded into the plugin
+     * or listed in the libraries of its plugin.yml.
+     *
+     * @return The driver class name, or null if the database does not use JDBC
+     */
+    public String getDriver() {
+        return driver;
+    }
+
+    /**
+     * Checks whether the JDBC driver of the database can be loaded.
+     *
+     * @return true if the driver is on the classpath or the database does not use JDBC
+     */
+    public boolean isDriverAvailable() {
+        if (driver == null) {
+            return true;
+        }
+        try {
+            Class.forName(driver, false, DatabaseType.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
     public static DatabaseType fromString(String name) {
         for (DatabaseType type : values()) {
             if (type.name.equalsIgnoreCase(name)) {
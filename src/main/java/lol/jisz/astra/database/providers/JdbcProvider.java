@@ -0,0 +1,594 @@
+package lol.jisz.astra.database.providers;
+
+import lol.jisz.astra.Astra;
+import lol.jisz.astra.database.AnnotationProcessor;
+import lol.jisz.astra.database.BatchedWriteDatabase;
+import lol.jisz.astra.database.Query;
+import lol.jisz.astra.database.interfaces.StorageObject;
+import org.bukkit.configuration.file.FileConfiguration;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Base of the providers for SQL database servers: MySQL, MariaDB and PostgreSQL.
+ * <p>
+ * Connections come from a bounded pool, sized by the {@code pool-size} setting. Each class is stored
+ * in its own table, created from its {@code @StorageCollection} and {@code @StorageField} annotations
+ * the first time the class is used: indexed fields get an index, and the maximum length of a text
+ * field sizes its VARCHAR. Saves are written with multi-row upserts, so a batch of saves costs one
+ * statement per few hundred objects, and {@link #streamAll(Class, int)} and {@link #findAllSync(Class)}
+ * read through a server-side cursor instead of loading the whole table in the driver first.
+ * <p>
+ * The JDBC driver of the database must be on the classpath: the server ships the MySQL driver,
+ * the MariaDB and PostgreSQL drivers have to be added by the plugin.
+ */
+public abstract class JdbcProvider extends BatchedWriteDatabase<JdbcProvider.Write> {
+
+    private static final int DEFAULT_POOL_SIZE = 10;
+    private static final int MAX_UPSERT_ROWS = 500;
+    private static final int MAX_UPSERT_PARAMETERS = 30000;
+    private static final long ACQUIRE_TIMEOUT_SECONDS = 10;
+
+    private final SqlDialect dialect;
+    private final String host;
+    private final int port;
+    private final String databaseName;
+    private final String username;
+    private final String password;
+    private final int poolSize;
+
+    private final Map<Class<?>, Statements> statements = new ConcurrentHashMap<>();
+    private final Map<Class<?>, SqlTable> tables = new ConcurrentHashMap<>();
+    private final Object schemaLock = new Object();
+    private volatile ConnectionPool pool;
+
+    JdbcProvider(Astra plugin, SqlDialect dialect, String host, int port, String databaseName,
+                 String username, String password, int poolSize) {
+        this.plugin = plugin;
+        this.dialect = dialect;
+        this.host = host;
+        this.port = port;
+        this.databaseName = databaseName;
+        this.username = username;
+        this.password = password;
+        this.poolSize = poolSize;
+    }
+
+    /**
+     * Reads the connection settings from the section of the dialect, for example {@code mysql.host}:
+     * host, port, database, username, password and pool-size.
+     */
+    JdbcProvider(Astra plugin, SqlDialect dialect, FileConfiguration config) {
+        this(plugin, dialect,
+                config.getString(dialect.getConfigSection() + ".host", "localhost"),
+                config.getInt(dialect.getConfigSection() + ".port", dialect.getDefaultPort()),
+                config.getString(dialect.getConfigSection() + ".database"),
+                config.getString(dialect.getConfigSection() + ".username"),
+                config.getString(dialect.getConfigSection() + ".password"),
+                config.getInt(dialect.getConfigSection() + ".pool-size", DEFAULT_POOL_SIZE));
+    }
+
+    /**
+     * Creates the connection pool and checks that the database can be reached,
+     * then creates the tables and indexes of the registered storage classes
+     *
+     * @throws Exception if the driver is missing or the database cannot be reached
+     */
+    @Override
+    public synchronized void initialize() throws Exception {
+        if (pool != null) {
+            return;
+        }
+        if (annotationProcessor == null) {
+            annotationProcessor = new AnnotationProcessor(plugin);
+        }
+
+        try {
+            Class.forName(dialect.getDriver());
+        } catch (ClassNotFoundException e) {
+            throw new SQLException(dialect.getName() + " JDBC driver not found: " + dialect.getDriver(), e);
+        }
+
+        Properties properties = new Properties();
+        if (username != null && !username.isEmpty()) {
+            properties.setProperty("user", username);
+        }
+        if (password != null && !password.isEmpty()) {
+            properties.setProperty("password", password);
+        }
+
+        ConnectionPool connectionPool = new ConnectionPool(dialect.url(host, port, databaseName), properties, poolSize);
+        try {
+            connectionPool.release(connectionPool.acquire(ACQUIRE_TIMEOUT_SECONDS, TimeUnit.SECONDS), false);
+        } catch (SQLException e) {
+            connectionPool.close();
+            throw e;
+        }
+
+        pool = connectionPool;
+        for (Class<?> clazz : getStorageClasses()) {
+            statements(clazz);
+        }
+        plugin.logger().info("Connected to " + dialect.getName() + " database: " + databaseName);
+    }
+
+    @Override
+    public void close() {
+        closeWriteBatcher();
+        ConnectionPool connectionPool;
+        synchronized (this) {
+            connectionPool = pool;
+            pool = null;
+        }
+        if (connectionPool != null) {
+            connectionPool.close();
+            statements.clear();
+            plugin.logger().info(dialect.getName() + " connection closed");
+        }
+    }
+
+    /**
+     * Returns the database provider type identifier.
+     *
+     * @return The name of the database, such as "MySQL"
+     */
+    @Override
+    public String getType() {
+        return dialect.getName();
+    }
+
+    /**
+     * Asynchronously finds an object in the database by its ID.
+     *
+     * @param <T>   the type of object to find, must implement StorageObject
+     * @param clazz the class of the object to find, used to determine the table
+     * @param id    the unique identifier of the object to find
+     * @return a CompletableFuture that will complete with an Optional containing the found object,
+     *         or an empty Optional if no object with the given ID exists
+     */
+    @Override
+    public <T extends StorageObject> CompletableFuture<Optional<T>> findById(Class<T> clazz, String id) {
+        return CompletableFuture.supplyAsync(() -> findByIdSync(clazz, id));
+    }
+
+    /**
+     * Synchronously finds an object in the database by its ID.
+     *
+     * @param <T>   the type of object to find, must implement StorageObject
+     * @param clazz the class of the object to find, used to determine the table
+     * @param id    the unique identifier of the object to find
+     * @return an Optional containing the found object if it exists in the database,
+     *         or an empty Optional if no object with the given ID exists
+     * @throws IllegalStateException if the database cannot be read
+     */
+    @Override
+    public <T extends StorageObject> Optional<T> findByIdSync(Class<T> clazz, String id) {
+        Statements table = statements(clazz);
+        return withConnection(session -> {
+            PreparedStatement statement = session.prepare(table.findById);
+            statement.setString(1, id);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() ? Optional.ofNullable(instantiateObject(clazz, table.table, resultSet)) : Optional.empty();
+            }
+        });
+    }
+
+    /**
+     * Asynchronously retrieves all objects of a specified class from the database.
+     *
+     * @param <T>   the type of objects to retrieve, must implement StorageObject
+     * @param clazz the class of the objects to retrieve, used to determine the table
+     * @return a CompletableFuture that will complete with a Set containing all objects of the specified class
+     */
+    @Override
+    public <T extends StorageObject> CompletableFuture<Set<T>> findAll(Class<T> clazz) {
+        return CompletableFuture.supplyAsync(() -> findAllSync(clazz));
+    }
+
+    /**
+     * Synchronously retrieves all objects of a specified class from the database.
+     * Rows are fetched through a server-side cursor, a few hundred at a time.
+     * Rows that cannot be turned back into an object are logged and skipped.
+     *
+     * @param <T>   the type of objects to retrieve, must implement StorageObject
+     * @param clazz the class of the objects to retrieve, used to determine the table
+     * @return a Set containing all objects of the specified class stored in the database
+     * @throws IllegalStateException if the database cannot be read
+     */
+    @Override
+    public <T extends StorageObject> Set<T> findAllSync(Class<T> clazz) {
+        try (Stream<T> stream = streamAll(clazz, DEFAULT_BATCH_SIZE)) {
+            return stream.collect(Collectors.toCollection(HashSet::new));
+        }
+    }
+
+    /**
+     * Streams all objects of a specified class from a server-side cursor.
+     * The cursor runs in a transaction on a pooled connection, both held until the stream is closed:
+     * an unclosed stream keeps a connection out of the pool.
+     * Rows that cannot be turned back into an object are logged and skipped.
+     *
+     * @param <T>       the type of objects to retrieve, must implement StorageObject
+     * @param clazz     the class of the objects to retrieve, used to determine the table
+     * @param batchSize the number of rows fetched from the server per round trip
+     * @return a Stream of the objects of the specified class, to be closed once consumed
+     * @throws IllegalStateException if the database cannot be read
+     */
+    @Override
+    public <T extends StorageObject> Stream<T> streamAll(Class<T> clazz, int batchSize) {
+        checkBatchSize(batchSize);
+        Statements table = statements(clazz);
+        ConnectionPool connectionPool = pool;
+        if (connectionPool == null) {
+            throw new IllegalStateException(dialect.getName() + " database is closed");
+        }
+
+        ConnectionPool.Session session;
+        try {
+            session = connectionPool.acquire(ACQUIRE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not get a " + dialect.getName() + " connection: " + e.getMessage(), e);
+        }
+
+        ResultSet resultSet;
+        try {
+            // PostgreSQL only fetches in batches outside of auto-commit mode
+            session.connection().setAutoCommit(false);
+            PreparedStatement statement = session.prepare(table.findAll);
+            statement.setFetchSize(batchSize);
+            resultSet = statement.executeQuery();
+        } catch (SQLException e) {
+            endCursor(connectionPool, session, null, true);
+            throw new IllegalStateException(dialect.getName() + " query failed: " + e.getMessage(), e);
+        }
+
+        return StreamSupport.stream(new RowSpliterator<>(resultSet, row -> instantiateObject(clazz, table.table, row), dialect.getName()), false)
+                .onClose(() -> endCursor(connectionPool, session, resultSet, false));
+    }
+
+    /**
+     * Synchronously finds the objects matching a query with a select of the table of its class.
+     * Rows that cannot be turned back into an object are logged and skipped.
+     *
+     * @param <T>   the type of objects to find, must implement StorageObject
+     * @param query the query
+     * @return the matching objects, in the order of the query
+     * @throws IllegalArgumentException if the query cannot be run on the table
+     * @throws IllegalStateException    if the database cannot be read
+     */
+    @Override
+    public <T extends StorageObject> List<T> findSync(Query<T> query) {
+        Statements table = statements(query.getType());
+        SqlQuery select = SqlQuery.of(dialect, table.table, query);
+        return withConnection(session -> {
+            PreparedStatement statement = session.prepare(select.getSql());
+            select.bind(statement);
+            List<T> results = new ArrayList<>();
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    T object = instantiateObject(query.getType(), table.table, resultSet, select.getColumns());
+                    if (object != null) {
+                        results.add(object);
+                    }
+                }
+            }
+            return results;
+        });
+    }
+
+    /**
+     * Asynchronously saves an object to the database.
+     * The row is read when this method is called, and queued with the other writes of the class:
+     * writes made within a few milliseconds of each other are written in a single transaction
+     * with multi-row upserts, in the order they were made.
+     *
+     * @param <T>    the type of object to save, must implement StorageObject
+     * @param object the object to save to the database
+     * @return a CompletableFuture that will complete when the save operation is finished
+     */
+    @Override
+    public <T extends StorageObject> CompletableFuture<Void> save(T object) {
+        SqlTable table = table(object.getClass());
+        return submitWrite(object.getClass(), new Upsert(table.toRow(object)));
+    }
+
+    /**
+     * Synchronously saves an object to the database, inserting it or updating the row with the same ID.
+     * The save is written after every write of the class queued before it.
+     *
+     * @param <T>    the type of object to save, must implement StorageObject
+     * @param object the object to save to the database
+     * @throws IllegalStateException if the object cannot be written
+     */
+    @Override
+    public <T extends StorageObject> void saveSync(T object) {
+        await(save(object), "Failed to save object with ID: " + object.getId());
+    }
+
+    /**
+     * Synchronously saves several objects to the database.
+     * Objects are queued with the other writes of their class and written with multi-row upserts.
+     * When an ID is saved more than once, the last save wins as if the objects were saved one by one.
+     *
+     * @param <T>     the type of objects to save, must implement StorageObject
+     * @param objects the objects to save to the database
+     * @throws IllegalStateException if the objects cannot be written
+     */
+    @Override
+    public <T extends StorageObject> void saveAllSync(Collection<T> objects) {
+        CompletableFuture<?>[] writes = new CompletableFuture<?>[objects.size()];
+        int index = 0;
+        for (T object : objects) {
+            writes[index++] = save(object);
+        }
+        await(CompletableFuture.allOf(writes), "Failed to save " + objects.size() + " objects");
+    }
+
+    /**
+     * Asynchronously deletes an object from the database by its ID.
+     * The delete is queued with the other writes of the class, so it runs after every save of
+     * the class made before it.
+     *
+     * @param <T>   the type of object to delete, must implement StorageObject
+     * @param clazz the class of the object to delete, used to determine the table
+     * @param id    the unique identifier of the object to delete
+     * @return a CompletableFuture that will complete when the deletion operation is finished
+     */
+    @Override
+    public <T extends StorageObject> CompletableFuture<Void> delete(Class<T> clazz, String id) {
+        return submitWrite(clazz, new Delete(id));
+    }
+
+    /**
+     * Synchronously deletes an object from the database by its ID.
+     * The delete runs after every write of the class queued before it.
+     *
+     * @param <T>   the type of object to delete, must implement StorageObject
+     * @param clazz the class of the object to delete, used to determine the table
+     * @param id    the unique identifier of the object to delete
+     * @throws IllegalStateException if the object cannot be deleted
+     */
+    @Override
+    public <T extends StorageObject> void deleteSync(Class<T> clazz, String id) {
+        await(delete(clazz, id), "Failed to delete object with ID: " + id);
+    }
+
+    /**
+     * Writes the queued writes of a class in a single transaction. Consecutive saves are grouped
+     * into multi-row upserts, and a delete first writes the saves queued before it.
+     */
+    @Override
+    protected void writeBatch(Class<?> type, List<Write> writes) {
+        Statements table = statements(type);
+        withConnection(session -> inTransaction(session, () -> {
+            Map<String, Object[]> rows = new LinkedHashMap<>();
+            for (Write write : writes) {
+                if (write instanceof Upsert upsert) {
+                    rows.put((String) upsert.row()[0], upsert.row());
+                    continue;
+                }
+
+                if (!rows.isEmpty()) {
+                    upsert(session, table, new ArrayList<>(rows.values()));
+                    rows.clear();
+                }
+                PreparedStatement statement = session.prepare(table.delete);
+                statement.setString(1, ((Delete) write).id());
+                statement.executeUpdate();
+            }
+            if (!rows.isEmpty()) {
+                upsert(session, table, new ArrayList<>(rows.values()));
+            }
+            return null;
+        }));
+    }
+
+    /**
+     * Gets the statements of a class, creating its table the first time the class is used.
+     */
+    private Statements statements(Class<?> clazz) {
+        ensureDatabaseConnected();
+        Statements cached = statements.get(clazz);
+        if (cached != null) {
+            return cached;
+        }
+
+        synchronized (schemaLock) {
+            cached = statements.get(clazz);
+            if (cached == null) {
+                SqlTable table = table(clazz);
+                withConnection(session -> {
+                    dialect.createSchema(session.connection(), table);
+                    return null;
+                });
+                cached = new Statements(dialect, table);
+                statements.put(clazz, cached);
+            }
+            return cached;
+        }
+    }
+
+    /**
+     * Gets the columns of a class, without creating its table, so saves can read their row on
+     * the calling thread and leave the table to the write that follows.
+     */
+    private SqlTable table(Class<?> clazz) {
+        return tables.computeIfAbsent(clazz, type -> SqlTable.of(type, annotationProcessor));
+    }
+
+    /**
+     * Writes rows with multi-row upserts of at most {@link #MAX_UPSERT_ROWS} rows each.
+     * The statement for a full chunk and the one for the last chunk are both cached by the connection.
+     */
+    private void upsert(ConnectionPool.Session session, Statements table, List<Object[]> rows) throws SQLException {
+        int columns = table.table.getColumns().size();
+        for (int from = 0; from < rows.size(); from += table.chunkRows) {
+            int count = Math.min(table.chunkRows, rows.size() - from);
+            PreparedStatement statement = session.prepare(count == table.chunkRows ? table.upsertChunk : dialect.upsert(table.table, count));
+            for (int i = 0; i < count; i++) {
+                table.table.bind(statement, i * columns, rows.get(from + i));
+            }
+            statement.executeUpdate();
+        }
+    }
+
+    private <T> T instantiateObject(Class<T> clazz, SqlTable table, ResultSet resultSet) throws SQLException {
+        return instantiateObject(clazz, table, resultSet, table.getColumns());
+    }
+
+    private <T> T instantiateObject(Class<T> clazz, SqlTable table, ResultSet resultSet, List<SqlTable.Column> columns) throws SQLException {
+        try {
+            return clazz.cast(table.fromRow(resultSet, columns));
+        } catch (RuntimeException e) {
+            plugin.logger().error("Failed to instantiate object of class: " + clazz.getName(), e);
+            return null;
+        }
+    }
+
+    /**
+     * Runs an action with a pooled connection.
+     */
+    private <R> R withConnection(SqlFunction<R> action) {
+        ConnectionPool connectionPool = pool;
+        if (connectionPool == null) {
+            throw new IllegalStateException(dialect.getName() + " database is closed");
+        }
+
+        ConnectionPool.Session session;
+        try {
+            session = connectionPool.acquire(ACQUIRE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not get a " + dialect.getName() + " connection: " + e.getMessage(), e);
+        }
+
+        boolean failed = true;
+        try {
+            R result = action.apply(session);
+            failed = false;
+            return result;
+        } catch (SQLException e) {
+            throw new IllegalStateException(dialect.getName() + " query failed: " + e.getMessage(), e);
+        } finally {
+            connectionPool.release(session, failed);
+        }
+    }
+
+    /**
+     * Closes the cursor of a stream, ends its transaction and gives its connection back to the pool.
+     */
+    private static void endCursor(ConnectionPool connectionPool, ConnectionPool.Session session, ResultSet resultSet, boolean failed) {
+        Connection connection = session.connection();
+        try {
+            if (resultSet != null) {
+                resultSet.close();
+            }
+            connection.rollback();
+            connection.setAutoCommit(true);
+        } catch (SQLException e) {
+            failed = true;
+        } finally {
+            connectionPool.release(session, failed);
+        }
+    }
+
+    /**
+     * Runs an action in a transaction, rolled back if the action fails.
+     * Cursors also need one: PostgreSQL only fetches in batches outside of auto-commit mode.
+     */
+    private static <R> R inTransaction(ConnectionPool.Session session, SqlSupplier<R> action) throws SQLException {
+        Connection connection = session.connection();
+        connection.setAutoCommit(false);
+        try {
+            R result = action.get();
+            connection.commit();
+            return result;
+        } catch (SQLException | RuntimeException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    private static void await(CompletableFuture<Void> future, String message) {
+        try {
+            future.join();
+        } catch (CompletionException e) {
+            throw new IllegalStateException(message, e.getCause());
+        }
+    }
+
+    /**
+     * Ensures that the database connection is established
+     * @throws IllegalStateException if the database connection is not established
+     */
+    private void ensureDatabaseConnected() {
+        if (pool == null) {
+            try {
+                initialize();
+            } catch (Exception e) {
+                throw new IllegalStateException("Database connection is not established", e);
+            }
+        }
+    }
+
+    /**
+     * SQL of the statements of a class, built once.
+     */
+    private static final class Statements {
+        private final SqlTable table;
+        private final String findById;
+        private final String findAll;
+        private final String delete;
+        private final String upsertChunk;
+        private final int chunkRows;
+
+        private Statements(SqlDialect dialect, SqlTable table) {
+            this.table = table;
+            this.findById = dialect.select(table, true);
+            this.findAll = dialect.select(table, false);
+            this.delete = dialect.delete(table);
+            this.chunkRows = Math.max(1, Math.min(MAX_UPSERT_ROWS, MAX_UPSERT_PARAMETERS / table.getColumns().size()));
+            this.upsertChunk = dialect.upsert(table, chunkRows);
+        }
+    }
+
+    /**
+     * Write queued by a provider: the save or the delete of a row.
+     */
+    sealed interface Write permits Upsert, Delete {
+    }
+
+    /**
+     * Queued save of a row, read from the object when it was saved.
+     */
+    private record Upsert(Object[] row) implements Write {
+    }
+
+    /**
+     * Queued delete of the row with an ID.
+     */
+    private record Delete(String id) implements Write {
+    }
+
+    @FunctionalInterface
+    private interface SqlFunction<R> {
+        R apply(ConnectionPool.Session session) throws SQLException;
+    }
+
+    @FunctionalInterface
+    private interface SqlSupplier<R> {
+        R get() throws SQLException;
+    }
+}
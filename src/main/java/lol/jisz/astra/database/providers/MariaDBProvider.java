@@ -0,0 +1,44 @@
+package lol.jisz.astra.database.providers;
+
+import lol.jisz.astra.Astra;
+import org.bukkit.configuration.file.FileConfiguration;
+
+/**
+ * MariaDB provider for Astra database
+ * This class stores objects in a MariaDB database through a pool of JDBC connections.
+ *
+ * @see JdbcProvider
+ */
+public class MariaDBProvider extends JdbcProvider {
+
+    /**
+     * Creates a MariaDB provider
+     *
+     * @param plugin The Astra plugin instance
+     * @param host The MariaDB host
+     * @param port The MariaDB port
+     * @param databaseName The database name
+     * @param username The username (can be empty)
+     * @param password The password (can be empty)
+     * @param poolSize The maximum number of open connections
+     */
+    public MariaDBProvider(Astra plugin, String host, int port, String databaseName, String username, String password, int poolSize) {
+        super(plugin, SqlDialect.MARIADB, host, port, databaseName, username, password, poolSize);
+    }
+
+    /**
+     * Creates a MariaDB provider using configuration values from a FileConfiguration.
+     *
+     * @param plugin The Astra plugin instance that will be used for logging
+     * @param config The FileConfiguration containing MariaDB connection parameters with the following keys:
+     *              - mariadb.host: The hostname or IP address of the MariaDB server (default: localhost)
+     *              - mariadb.port: The port number on which MariaDB is running (default: 3306)
+     *              - mariadb.database: The name of the database to connect to
+     *              - mariadb.username: The username for authentication (can be empty)
+     *              - mariadb.password: The password for authentication (can be empty)
+     *              - mariadb.pool-size: The maximum number of open connections (default: 10)
+     */
+    public MariaDBProvider(Astra plugin, FileConfiguration config) {
+        super(plugin, SqlDialect.MARIADB, config);
+    }
+}
@@ -2,26 +2,45 @@ package lol.jisz.astra.database.providers;
 
 import com.mongodb.ConnectionString;
 import com.mongodb.MongoClientSettings;
+import com.mongodb.client.FindIterable;
 import com.mongodb.client.MongoClient;
 import com.mongodb.client.MongoClients;
 import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
 import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.DeleteOneModel;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.InsertOneModel;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.ReplaceOneModel;
 import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.Sorts;
+import com.mongodb.client.model.WriteModel;
 import lol.jisz.astra.Astra;
-import lol.jisz.astra.database.AstraDatabase;
+import lol.jisz.astra.database.AnnotationProcessor;
+import lol.jisz.astra.database.BatchedWriteDatabase;
+import lol.jisz.astra.database.ClassCodec;
+import lol.jisz.astra.database.Query;
 import lol.jisz.astra.database.annotations.StorageCollection;
 import lol.jisz.astra.database.annotations.StorageField;
 import lol.jisz.astra.database.annotations.StorageId;
-import lol.jisz.astra.database.annotations.StorageIgnore;
 import lol.jisz.astra.database.interfaces.StorageObject;
 import lol.jisz.astra.task.AsyncAstraTask;
 import org.bson.Document;
+import org.bson.conversions.Bson;
 import org.bukkit.configuration.file.FileConfiguration;
 
 import java.lang.reflect.*;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import static com.mongodb.client.model.Filters.eq;
 
@@ -30,7 +49,7 @@ import static com.mongodb.client.model.Filters.eq;
  * This class provides methods to interact with a MongoDB database.
  * It allows for saving, finding, and deleting objects in the database.
  */
-public class MongoDBProvider extends AstraDatabase {
+public class MongoDBProvider extends BatchedWriteDatabase<WriteModel<Document>> {
 
     private MongoClient mongoClient;
     private MongoDatabase database;
@@ -43,8 +62,11 @@ public class MongoDBProvider extends AstraDatabase {
     private final Astra plugin;
 
     private final Map<Class<?>, String> collectionNameCache = new ConcurrentHashMap<>();
-    private final Map<Class<?>, List<Field>> classFieldsCache = new ConcurrentHashMap<>();
+    private final Map<Class<?>, DocumentMapping> mappingCache = new ConcurrentHashMap<>();
+    private final Set<Class<?>> indexedClasses = ConcurrentHashMap.newKeySet();
     private static final ReplaceOptions UPSERT_OPTIONS = new ReplaceOptions().upsert(true);
+    private static final Set<Class<?>> PLAIN_TYPES = Set.of(String.class, Boolean.class, Character.class,
+            Byte.class, Short.class, Integer.class, Long.class, Float.class, Double.class);
 
     /**
      * Creates a MongoDB provider
@@ -63,6 +85,7 @@ public class MongoDBProvider extends AstraDatabase {
         this.databaseName = databaseName;
         this.username = username;
         this.password = password;
+        this.annotationProcessor = new AnnotationProcessor(plugin);
     }
 
     /**
@@ -85,10 +108,11 @@ public class MongoDBProvider extends AstraDatabase {
         this.databaseName = config.getString("mongodb.database");
         this.username = config.getString("mongodb.username");
         this.password = config.getString("mongodb.password");
+        this.annotationProcessor = new AnnotationProcessor(plugin);
     }
 
     /**
-     * Initializes the MongoDB connection
+     * Initializes the MongoDB connection and creates the indexes of the registered storage classes
      *
      * @throws Exception if connection fails
      */
@@ -109,6 +133,7 @@ public class MongoDBProvider extends AstraDatabase {
 
                 mongoClient = MongoClients.create(settings);
                 database = mongoClient.getDatabase(databaseName);
+                getStorageClasses().forEach(this::ensureIndexes);
             } catch (Exception e) {
                 throw new RuntimeException("Failed to connect to MongoDB: " + e.getMessage(), e);
             }
@@ -120,6 +145,7 @@ public class MongoDBProvider extends AstraDatabase {
 
     @Override
     public void close() {
+        closeWriteBatcher();
         if (mongoClient != null) {
             mongoClient.close();
             plugin.logger().info("MongoDB connection closed");
@@ -169,8 +195,7 @@ public class MongoDBProvider extends AstraDatabase {
     public <T extends StorageObject> Optional<T> findByIdSync(Class<T> clazz, String id) {
         ensureDatabaseConnected();
 
-        String collectionName = getCollectionName(clazz);
-        MongoCollection<Document> collection = database.getCollection(collectionName);
+        MongoCollection<Document> collection = collection(clazz);
         Document document = collection.find(eq("_id", id)).first();
 
         if (document == null) {
@@ -208,26 +233,115 @@ public class MongoDBProvider extends AstraDatabase {
      */
     @Override
     public <T extends StorageObject> Set<T> findAllSync(Class<T> clazz) {
+        try (Stream<T> stream = streamAll(clazz, DEFAULT_BATCH_SIZE)) {
+            return stream.collect(Collectors.toCollection(HashSet::new));
+        }
+    }
+
+    /**
+     * Streams all objects of a specified class from a MongoDB cursor.
+     * The cursor fetches the documents of the collection batchSize at a time, and the objects are
+     * created as the stream is consumed. The cursor stays open on the server until the stream is closed
+     * or fully consumed. Documents that cannot be turned back into an object are logged and skipped.
+     *
+     * @param <T>       the type of objects to retrieve, must implement StorageObject
+     * @param clazz     the class of the objects to retrieve, used to determine the collection
+     * @param batchSize the number of documents fetched from the server per round trip
+     * @return a Stream of the objects of the specified class, to be closed once consumed
+     */
+    @Override
+    public <T extends StorageObject> Stream<T> streamAll(Class<T> clazz, int batchSize) {
+        checkBatchSize(batchSize);
+        ensureDatabaseConnected();
+
+        MongoCursor<Document> cursor = collection(clazz).find().batchSize(batchSize).cursor();
+
+        Spliterator<T> spliterator = new Spliterators.AbstractSpliterator<>(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super T> action) {
+                while (cursor.hasNext()) {
+                    T object = instantiateObject(clazz, cursor.next());
+                    if (object != null) {
+                        action.accept(object);
+                        return true;
+                    }
+                }
+                return false;
+            }
+        };
+        return StreamSupport.stream(spliterator, false).onClose(cursor::close);
+    }
+
+    /**
+     * Synchronously finds the objects matching a query.
+     * The conditions are translated to a MongoDB filter, and the sorts, skip, limit and fields
+     * to a sort, skip, limit and projection of the find, so MongoDB uses the indexes of the fields.
+     * Documents that cannot be turned back into an object are logged and skipped.
+     *
+     * @param <T>   the type of objects to find, must implement StorageObject
+     * @param query the query
+     * @return the matching objects, in the order of the query
+     * @throws IllegalArgumentException if the query names a field the class does not store
+     */
+    @Override
+    public <T extends StorageObject> List<T> findSync(Query<T> query) {
         ensureDatabaseConnected();
 
-        Set<T> results = new HashSet<>();
-        String collectionName = getCollectionName(clazz);
-        MongoCollection<Document> collection = database.getCollection(collectionName);
+        Class<T> clazz = query.getType();
+        DocumentMapping mapping = getMapping(clazz);
+
+        List<Bson> filters = new ArrayList<>();
+        for (Query.Condition condition : query.getConditions()) {
+            String name = mapping.documentName(condition.field());
+            Object value = queryValue(condition.value());
+            filters.add(switch (condition.operator()) {
+                case EQ -> Filters.eq(name, value);
+                case GT -> Filters.gt(name, value);
+                case GTE -> Filters.gte(name, value);
+                case LT -> Filters.lt(name, value);
+                case LTE -> Filters.lte(name, value);
+                case IN -> Filters.in(name, ((List<?>) condition.value()).stream().map(MongoDBProvider::queryValue).toList());
+            });
+        }
+
+        FindIterable<Document> find = collection(clazz).find(filters.isEmpty() ? new Document() : Filters.and(filters));
+        if (!query.getSorts().isEmpty()) {
+            List<Bson> sorts = new ArrayList<>();
+            for (Query.Sort sort : query.getSorts()) {
+                String name = mapping.documentName(sort.field());
+                sorts.add(sort.ascending() ? Sorts.ascending(name) : Sorts.descending(name));
+            }
+            find = find.sort(Sorts.orderBy(sorts));
+        }
+        if (!query.getFields().isEmpty()) {
+            List<String> names = new ArrayList<>();
+            for (String field : query.getFields()) {
+                names.add(mapping.documentName(field));
+            }
+            find = find.projection(Projections.include(names));
+        }
+        if (query.getSkip() > 0) {
+            find = find.skip(query.getSkip());
+        }
+        if (query.getLimit() > 0) {
+            find = find.limit(query.getLimit());
+        }
 
-        for (Document document : collection.find()) {
+        List<T> results = new ArrayList<>();
+        for (Document document : find.batchSize(DEFAULT_BATCH_SIZE)) {
             T object = instantiateObject(clazz, document);
             if (object != null) {
                 results.add(object);
             }
         }
-
         return results;
     }
 
     /**
      * Asynchronously saves an object to the database.
-     * This method performs a database save operation in a non-blocking manner
-     * by delegating to the synchronous implementation via a CompletableFuture.
+     * The document is built when this method is called, and queued with the other writes of the
+     * class: writes made within a few milliseconds of each other are sent with a single ordered
+     * bulk write, in the order they were made.
      *
      * @param <T>    the type of object to save, must implement StorageObject
      * @param object the object to save to the database
@@ -235,42 +349,48 @@ public class MongoDBProvider extends AstraDatabase {
      */
     @Override
     public <T extends StorageObject> CompletableFuture<Void> save(T object) {
-        return CompletableFuture.runAsync(() -> saveSync(object));
+        return submitWrite(object.getClass(), createWriteModel(object));
     }
 
     /**
      * Synchronously saves an object to the MongoDB database.
      * This method converts the provided object to a MongoDB document and either inserts it as a new document
      * or replaces an existing document with the same ID. If the object's ID is null, it will be inserted
-     * as a new document.
+     * as a new document. The save is written after every write of the class queued before it.
      *
      * @param <T>    the type of object to save, must implement StorageObject
      * @param object the object to save to the database, containing the data to be stored
-     * @throws IllegalStateException if the database connection is not established
+     * @throws IllegalStateException if the database connection is not established or the save fails
      */
     @Override
     public <T extends StorageObject> void saveSync(T object) {
-        ensureDatabaseConnected();
-
-        Document document = createDocumentFromObject(object);
-        String id = object.getId();
-        document.put("_id", id);
+        await(save(object), "Failed to save object with ID: " + object.getId());
+    }
 
-        String collectionName = getCollectionName(object.getClass());
-        MongoCollection<Document> collection = database.getCollection(collectionName);
-        
-        if (id == null) {
-            collection.insertOne(document);
-            return;
+    /**
+     * Synchronously saves several objects to the MongoDB database.
+     * Objects are queued with the other writes of their class and written with ordered bulk writes
+     * of upserts, so the last save of an ID wins as if the objects were saved one by one.
+     * Objects without an ID are inserted as new documents.
+     *
+     * @param <T>     the type of objects to save, must implement StorageObject
+     * @param objects the objects to save to the database
+     * @throws IllegalStateException if the database connection is not established or a save fails
+     */
+    @Override
+    public <T extends StorageObject> void saveAllSync(Collection<T> objects) {
+        CompletableFuture<?>[] writes = new CompletableFuture<?>[objects.size()];
+        int index = 0;
+        for (T object : objects) {
+            writes[index++] = submitWrite(object.getClass(), createWriteModel(object));
         }
-        
-        collection.replaceOne(eq("_id", id), document, UPSERT_OPTIONS);
+        await(CompletableFuture.allOf(writes), "Failed to save " + objects.size() + " objects");
     }
 
     /**
      * Asynchronously deletes an object from the database by its ID.
-     * This method performs a database deletion operation in a non-blocking manner
-     * by delegating to the synchronous implementation via a CompletableFuture.
+     * The delete is queued with the other writes of the class, so it runs after every save of
+     * the class made before it.
      *
      * @param <T>   the type of object to delete, must implement StorageObject
      * @param clazz the class of the object to delete, used to determine the collection
@@ -279,26 +399,102 @@ public class MongoDBProvider extends AstraDatabase {
      */
     @Override
     public <T extends StorageObject> CompletableFuture<Void> delete(Class<T> clazz, String id) {
-        return CompletableFuture.runAsync(() -> deleteSync(clazz, id));
+        return submitWrite(clazz, new DeleteOneModel<Document>(eq("_id", id)));
     }
 
     /**
      * Synchronously deletes an object from the MongoDB database by its ID.
-     * This method performs a direct database deletion operation to remove an object
-     * with the specified ID from the appropriate collection.
+     * The delete runs after every write of the class queued before it.
      *
      * @param <T>   the type of object to delete, must implement StorageObject
      * @param clazz the class of the object to delete, used to determine the collection
      * @param id    the unique identifier of the object to delete
-     * @throws IllegalStateException if the database connection is not established
+     * @throws IllegalStateException if the database connection is not established or the delete fails
      */
     @Override
     public <T extends StorageObject> void deleteSync(Class<T> clazz, String id) {
+        await(delete(clazz, id), "Failed to delete object with ID: " + id);
+    }
+
+    /**
+     * Sends the queued writes of a class with a single ordered bulk write.
+     */
+    @Override
+    protected void writeBatch(Class<?> type, List<WriteModel<Document>> writes) {
         ensureDatabaseConnected();
+        collection(type).bulkWrite(writes);
+    }
+
+    /**
+     * Snapshots an object as the write saving it: an upsert of its document, or an insert
+     * when it has no ID.
+     */
+    private WriteModel<Document> createWriteModel(StorageObject object) {
+        Document document = createDocumentFromObject(object);
+        String id = object.getId();
+        document.put("_id", id);
+        if (id == null) {
+            return new InsertOneModel<>(document);
+        }
+        return new ReplaceOneModel<>(eq("_id", id), document, UPSERT_OPTIONS);
+    }
+
+    private static void await(CompletableFuture<Void> future, String message) {
+        try {
+            future.join();
+        } catch (CompletionException e) {
+            throw new IllegalStateException(message, e.getCause());
+        }
+    }
+
+    /**
+     * Gets the collection of a class, creating the indexes of the class the first time it is used.
+     *
+     * @param clazz The storage class
+     * @return The collection of the class
+     */
+    private MongoCollection<Document> collection(Class<?> clazz) {
+        ensureIndexes(clazz);
+        return database.getCollection(getCollectionName(clazz));
+    }
 
-        String collectionName = getCollectionName(clazz);
-        MongoCollection<Document> collection = database.getCollection(collectionName);
-        collection.deleteOne(eq("_id", id));
+    /**
+     * Creates an ascending index on every field of a class marked {@code @StorageField(indexed = true)},
+     * once per class. Creating an index that already exists does nothing.
+     *
+     * @param clazz The storage class
+     */
+    private void ensureIndexes(Class<?> clazz) {
+        if (indexedClasses.contains(clazz) || !indexedClasses.add(clazz)) {
+            return;
+        }
+
+        MongoCollection<Document> collection = database.getCollection(getCollectionName(clazz));
+        for (ClassCodec.FieldAccessor accessor : getMapping(clazz).accessors) {
+            Field field = accessor.getField();
+            String name = getFieldName(field);
+            if (!annotationProcessor.isFieldIndexed(field) || name.equals("_id")) {
+                continue;
+            }
+            try {
+                collection.createIndex(Indexes.ascending(name));
+            } catch (RuntimeException e) {
+                plugin.logger().error("Failed to create index on " + name + " of collection " + getCollectionName(clazz), e);
+            }
+        }
+    }
+
+    /**
+     * Converts a value of a query to the form it is stored in.
+     */
+    private static Object queryValue(Object value) {
+        if (value instanceof Enum<?> constant) {
+            return constant.name();
+        }
+        if (value instanceof Character character) {
+            return character.toString();
+        }
+        return value;
     }
 
     /**
@@ -348,6 +544,20 @@ public class MongoDBProvider extends AstraDatabase {
         return field.getName();
     }
 
+    /**
+     * Gets the document mapping of a class, building it the first time the class is used.
+     *
+     * @param clazz The class to map
+     * @return The mapping of the class
+     */
+    private DocumentMapping getMapping(Class<?> clazz) {
+        DocumentMapping mapping = mappingCache.get(clazz);
+        if (mapping == null) {
+            mapping = mappingCache.computeIfAbsent(clazz, DocumentMapping::new);
+        }
+        return mapping;
+    }
+
     /**
      * Converts a Java object into a MongoDB Document.
      * This method recursively processes all fields of the given object and transforms them
@@ -361,23 +571,18 @@ public class MongoDBProvider extends AstraDatabase {
      */
     private Document createDocumentFromObject(Object obj) {
         Document document = new Document();
-        Class<?> objClass = obj.getClass();
-
-        List<Field> fields = getClassFields(objClass);
-
-        for (Field field : fields) {
-            try {
-                Object value = field.get(obj);
+        DocumentMapping mapping = getMapping(obj.getClass());
 
-                if (value == null) {
-                    continue;
-                }
-
-                String fieldName = getFieldName(field);
+        for (int i = 0; i < mapping.accessors.length; i++) {
+            Object value = mapping.accessors[i].get(obj);
+            if (value == null) {
+                continue;
+            }
 
-                processFieldValue(document, fieldName, value);
-            } catch (IllegalAccessException e) {
-                plugin.logger().error("Failed to access field: " + field.getName(), e);
+            if (mapping.plain[i]) {
+                document.put(mapping.names[i], value);
+            } else {
+                processFieldValue(document, mapping.names[i], value);
             }
         }
 
@@ -407,6 +612,8 @@ public class MongoDBProvider extends AstraDatabase {
             map.forEach((k, v) -> {
                 if (v instanceof StorageObject) {
                     mapDoc.put(k.toString(), createDocumentFromObject(v));
+                } else if (v instanceof Enum<?> constant) {
+                    mapDoc.put(k.toString(), constant.name());
                 } else {
                     mapDoc.put(k.toString(), v);
                 }
@@ -417,6 +624,8 @@ public class MongoDBProvider extends AstraDatabase {
             for (Object item : collection) {
                 if (item instanceof StorageObject) {
                     list.add(createDocumentFromObject(item));
+                } else if (item instanceof Enum<?> constant) {
+                    list.add(constant.name());
                 } else {
                     list.add(item);
                 }
@@ -446,6 +655,8 @@ public class MongoDBProvider extends AstraDatabase {
             Object item = Array.get(array, i);
             if (item instanceof StorageObject) {
                 list.add(createDocumentFromObject(item));
+            } else if (item instanceof Enum<?> constant) {
+                list.add(constant.name());
             } else {
                 list.add(item);
             }
@@ -457,37 +668,16 @@ public class MongoDBProvider extends AstraDatabase {
      * Gets all fields from a class, including inherited fields
      * and respecting @Ignore annotation
      */
+    @Override
     public List<Field> getClassFields(Class<?> clazz) {
-        return classFieldsCache.computeIfAbsent(clazz, this::getAllFields);
-    }
-
-    /**
-     * Gets all fields from a class hierarchy, respecting @Ignore annotation
-     */
-    private List<Field> getAllFields(Class<?> clazz) {
-        List<Field> fields = new ArrayList<>();
-        Class<?> currentClass = clazz;
-
-        while (currentClass != null && currentClass != Object.class) {
-            for (Field field : currentClass.getDeclaredFields()) {
-                if (!Modifier.isStatic(field.getModifiers()) &&
-                        !Modifier.isTransient(field.getModifiers()) &&
-                        !field.isAnnotationPresent(StorageIgnore.class)) {
-
-                    field.setAccessible(true);
-                    fields.add(field);
-                }
-            }
-            currentClass = currentClass.getSuperclass();
-        }
-
-        return fields;
+        return annotationProcessor.getClassFields(clazz);
     }
 
     /**
      * Instantiates an object of the specified class and populates its fields from a MongoDB Document.
-     * This method uses reflection to create an instance of the class and set its fields based on the
-     * values in the provided document. It handles nested objects, collections, maps, and arrays.
+     * The class is created and its fields are set through the compiled codec of the class, and every
+     * value goes through the reader chosen for the type of its field when the class was first mapped.
+     * It handles nested objects, collections, maps, arrays, enums and numbers stored with another width.
      *
      * @param <T> The type of object to instantiate
      * @param clazz The class of the object to instantiate
@@ -497,27 +687,17 @@ public class MongoDBProvider extends AstraDatabase {
      */
     private <T> T instantiateObject(Class<T> clazz, Document document) {
         try {
-            Constructor<T> constructor = clazz.getDeclaredConstructor();
-            constructor.setAccessible(true);
-            T instance = constructor.newInstance();
-
-            List<Field> fields = getClassFields(clazz);
-
-            for (Field field : fields) {
-                String fieldName = getFieldName(field);
-
-                if (!document.containsKey(fieldName)) {
-                    continue;
-                }
-
-                Object value = document.get(fieldName);
+            DocumentMapping mapping = getMapping(clazz);
+            @SuppressWarnings("unchecked")
+            T instance = (T) mapping.codec.newInstance();
 
+            for (int i = 0; i < mapping.accessors.length; i++) {
+                Object value = document.get(mapping.names[i]);
                 if (value == null) {
                     continue;
                 }
 
-                Class<?> fieldType = field.getType();
-                setFieldValue(instance, field, fieldType, value);
+                mapping.accessors[i].set(instance, mapping.readers[i].apply(value));
             }
             return instance;
         } catch (Exception e) {
@@ -527,73 +707,166 @@ public class MongoDBProvider extends AstraDatabase {
     }
 
     /**
-     * Sets the value of a field in the given instance.
-     * This method handles nested objects, collections, maps, and arrays.
+     * Chooses how a value read from a document is turned into a value of a field.
      *
-     * @param <T> The type of object to set the field value for
-     * @param instance The object instance to set the field value on
-     * @param field The field to set the value for
-     * @param fieldType The type of the field
-     * @param value The value to set in the field
+     * @param type        The type of the field
+     * @param genericType The generic type of the field, used for the elements of collections and maps
+     * @return The conversion of the stored value
      */
-    private <T> void setFieldValue(T instance, Field field, Class<?> fieldType, Object value) throws IllegalAccessException {
-        try {
-            switch (value) {
-                case Document document when StorageObject.class.isAssignableFrom(fieldType) -> {
-                    Object nestedObject = instantiateObject(fieldType, document);
-                    field.set(instance, nestedObject);
+    private Function<Object, Object> reader(Class<?> type, Type genericType) {
+        if (StorageObject.class.isAssignableFrom(type)) {
+            return value -> value instanceof Document document ? instantiateObject(type, document) : value;
+        }
+
+        if (Collection.class.isAssignableFrom(type)) {
+            Function<Object, Object> element = reader(typeArgument(genericType, 0), null);
+            boolean set = !type.isAssignableFrom(ArrayList.class) && type.isAssignableFrom(LinkedHashSet.class);
+            return value -> {
+                if (!(value instanceof Collection<?> stored)) {
+                    return value;
                 }
-                case List<?> list when StorageObject.class.isAssignableFrom(fieldType.getComponentType()) -> {
-                    List<Object> nestedObjects = new ArrayList<>();
-                    for (Object item : list) {
-                        if (item instanceof Document doc) {
-                            nestedObjects.add(instantiateObject(fieldType.getComponentType(), doc));
-                        } else {
-                            nestedObjects.add(item);
-                        }
-                    }
-                    field.set(instance, nestedObjects);
+                Collection<Object> collection = set ? new LinkedHashSet<>() : new ArrayList<>(stored.size());
+                for (Object item : stored) {
+                    collection.add(item == null ? null : element.apply(item));
                 }
-                case Map<?, ?> map when StorageObject.class.isAssignableFrom(fieldType) -> {
-                    Map<Object, Object> nestedMap = new HashMap<>();
-                    for (Map.Entry<?, ?> entry : map.entrySet()) {
-                        if (entry.getValue() instanceof Document doc) {
-                            nestedMap.put(entry.getKey(), instantiateObject(fieldType, doc));
-                        } else {
-                            nestedMap.put(entry.getKey(), entry.getValue());
-                        }
-                    }
-                    field.set(instance, nestedMap);
+                return collection;
+            };
+        }
+
+        if (Map.class.isAssignableFrom(type)) {
+            Function<Object, Object> element = reader(typeArgument(genericType, 1), null);
+            return value -> {
+                if (!(value instanceof Map<?, ?> stored)) {
+                    return value;
                 }
-                case null, default -> {
-                    if (Collection.class.isAssignableFrom(fieldType)) {
-                        Type genericType = field.getGenericType();
-                        if (genericType instanceof ParameterizedType) {
-                            Type[] typeArguments = ((ParameterizedType) genericType).getActualTypeArguments();
-                            if (typeArguments.length > 0 && typeArguments[0] instanceof Class<?> itemType) {
-                                List<Object> list = new ArrayList<>();
-
-                                assert value != null;
-                                for (Object item : (Collection<?>) value) {
-                                    if (item instanceof Document doc) {
-                                        list.add(instantiateObject(itemType, doc));
-                                    } else {
-                                        list.add(item);
-                                    }
-                                }
-
-                                field.set(instance, list);
-                            } else {
-                                field.set(instance, value);
-                            }
-                        }
-                    } else {
-                        field.set(instance, value);
+                Map<Object, Object> map = new LinkedHashMap<>(Math.max(16, stored.size() * 4 / 3 + 1));
+                for (Map.Entry<?, ?> entry : stored.entrySet()) {
+                    Object item = entry.getValue();
+                    map.put(entry.getKey(), item == null ? null : element.apply(item));
+                }
+                return map;
+            };
+        }
+
+        if (type.isArray() && type != byte[].class) {
+            Class<?> componentType = type.getComponentType();
+            Function<Object, Object> element = reader(componentType, null);
+            return value -> {
+                if (!(value instanceof List<?> stored)) {
+                    return value;
+                }
+                Object array = Array.newInstance(componentType, stored.size());
+                for (int i = 0; i < stored.size(); i++) {
+                    Object item = stored.get(i);
+                    if (item != null) {
+                        Array.set(array, i, element.apply(item));
                     }
                 }
+                return array;
+            };
+        }
+
+        if (type.isEnum()) {
+            @SuppressWarnings({"unchecked", "rawtypes"})
+            Function<Object, Object> parser = value -> value instanceof String name ? Enum.valueOf((Class<Enum>) type, name) : value;
+            return parser;
+        }
+
+        if (type == int.class || type == Integer.class) {
+            return value -> value instanceof Number number ? number.intValue() : value;
+        }
+        if (type == long.class || type == Long.class) {
+            return value -> value instanceof Number number ? number.longValue() : value;
+        }
+        if (type == double.class || type == Double.class) {
+            return value -> value instanceof Number number ? number.doubleValue() : value;
+        }
+        if (type == float.class || type == Float.class) {
+            return value -> value instanceof Number number ? number.floatValue() : value;
+        }
+        if (type == short.class || type == Short.class) {
+            return value -> value instanceof Number number ? number.shortValue() : value;
+        }
+        if (type == byte.class || type == Byte.class) {
+            return value -> value instanceof Number number ? number.byteValue() : value;
+        }
+        if (type == char.class || type == Character.class) {
+            return value -> value instanceof String text && !text.isEmpty() ? text.charAt(0) : value;
+        }
+
+        return Function.identity();
+    }
+
+    /**
+     * Gets a type argument of a parameterized type as a class.
+     *
+     * @param genericType The parameterized type, or null
+     * @param index       Position of the type argument
+     * @return The class of the type argument, or Object if it is not a plain class
+     */
+    private static Class<?> typeArgument(Type genericType, int index) {
+        if (genericType instanceof ParameterizedType parameterized) {
+            Type[] arguments = parameterized.getActualTypeArguments();
+            if (arguments.length > index) {
+                Type argument = arguments[index];
+                if (argument instanceof ParameterizedType nested && nested.getRawType() instanceof Class<?> raw) {
+                    return raw;
+                }
+                if (argument instanceof Class<?> argumentClass) {
+                    return argumentClass;
+                }
+            }
+        }
+        return Object.class;
+    }
+
+    /**
+     * How a class is stored as a document: the compiled codec of the class and, per field, the name
+     * of the field in the document, whether its values are stored as they are, and the reader turning
+     * stored values back into field values. Built once per class.
+     */
+    private final class DocumentMapping {
+        private final ClassCodec<?> codec;
+        private final ClassCodec.FieldAccessor[] accessors;
+        private final String[] names;
+        private final boolean[] plain;
+        private final Function<Object, Object>[] readers;
+
+        @SuppressWarnings("unchecked")
+        private DocumentMapping(Class<?> clazz) {
+            this.codec = annotationProcessor.getCodec(clazz);
+            List<ClassCodec.FieldAccessor> fields = codec.getFields();
+            this.accessors = fields.toArray(new ClassCodec.FieldAccessor[0]);
+            this.names = new String[accessors.length];
+            this.plain = new boolean[accessors.length];
+            this.readers = new Function[accessors.length];
+
+            for (int i = 0; i < accessors.length; i++) {
+                Field field = accessors[i].getField();
+                Class<?> type = field.getType();
+                names[i] = getFieldName(field);
+                plain[i] = type.isPrimitive() || PLAIN_TYPES.contains(type);
+                readers[i] = reader(type, field.getGenericType());
+            }
+        }
+
+        /**
+         * Gets the name in the document of a field of a query.
+         *
+         * @param field The Java or {@code @StorageField} name of the field, or {@code _id}
+         * @return The name of the field in the document
+         * @throws IllegalArgumentException if the class does not store the field
+         */
+        private String documentName(String field) {
+            for (int i = 0; i < accessors.length; i++) {
+                if (accessors[i].getField().getName().equals(field) || names[i].equals(field)) {
+                    return names[i];
+                }
+            }
+            if (field.equals("_id")) {
+                return field;
             }
-        } catch (IllegalAccessException e) {
-            plugin.logger().error("Failed to set field value for field: " + field.getName(), e);
+            throw new IllegalArgumentException("Unknown field " + field + " in " + codec.getType().getName());
         }
     }
 
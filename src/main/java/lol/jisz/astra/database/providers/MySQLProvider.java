@@ -1,66 +1,44 @@
 package lol.jisz.astra.database.providers;
 
-import lol.jisz.astra.database.AstraDatabase;
-import lol.jisz.astra.database.interfaces.StorageObject;
-
-import java.util.Optional;
-import java.util.Set;
-import java.util.concurrent.CompletableFuture;
-
-public class MySQLProvider extends AstraDatabase {
-
-    @Override
-    public void initialize() throws Exception {
-
-    }
-
-    @Override
-    public void close() {
-
-    }
-
-    @Override
-    public String getType() {
-        return "";
-    }
-
-    @Override
-    public <T extends StorageObject> CompletableFuture<Optional<T>> findById(Class<T> clazz, String id) {
-        return null;
-    }
-
-    @Override
-    public <T extends StorageObject> Optional<T> findByIdSync(Class<T> clazz, String id) {
-        return Optional.empty();
-    }
-
-    @Override
-    public <T extends StorageObject> CompletableFuture<Set<T>> findAll(Class<T> clazz) {
-        return null;
-    }
-
-    @Override
-    public <T extends StorageObject> Set<T> findAllSync(Class<T> clazz) {
-        return Set.of();
-    }
-
-    @Override
-    public <T extends StorageObject> CompletableFuture<Void> save(T object) {
-        return null;
-    }
-
-    @Override
-    public <T extends StorageObject> void saveSync(T object) {
-
-    }
-
-    @Override
-    public <T extends StorageObject> CompletableFuture<Void> delete(Class<T> clazz, String id) {
-        return null;
-    }
-
-    @Override
-    public <T extends StorageObject> void deleteSync(Class<T> clazz, String id) {
-
-    }
-}
\ No newline at end of file
+import lol.jisz.astra.Astra;
+import org.bukkit.configuration.file.FileConfiguration;
+
+/**
+ * MySQL provider for Astra database
+ * This class stores objects in a MySQL database through a pool of JDBC connections.
+ *
+ * @see JdbcProvider
+ */
+public class MySQLProvider extends JdbcProvider {
+
+    /**
+     * Creates a MySQL provider
+     *
+     * @param plugin The Astra plugin instance
+     * @param host The MySQL host
+     * @param port The MySQL port
+     * @param databaseName The database name
+     * @param username The username (can be empty)
+     * @param password The password (can be empty)
+     * @param poolSize The maximum number of open connections
+     */
+    public MySQLProvider(Astra plugin, String host, int port, String databaseName, String username, String password, int poolSize) {
+        super(plugin, SqlDialect.MYSQL, host, port, databaseName, username, password, poolSize);
+    }
+
+    /**
+     * Creates a MySQL provider using configuration values from a FileConfiguration.
+     *
+     * @param plugin The Astra plugin instance that will be used for logging
+     * @param config The FileConfiguration containing MySQL connection parameters with the following keys:
+     *              - mysql.host: The hostname or IP address of the MySQL server (default: localhost)
+     *              - mysql.port: The port number on which MySQL is running (default: 3306)
+     *              - mysql.database: The name of the database to connect to
+     *              - mysql.username: The username for authentication (can be empty)
+     *              - mysql.password: The password for authentication (can be empty)
+     *              - mysql.pool-size: The maximum number of open connections (default: 10)
+     */
+    public MySQLProvider(Astra plugin, FileConfiguration config) {
+        super(plugin, SqlDialect.MYSQL, config);
+    }
+}
@@ -0,0 +1,44 @@
+package lol.jisz.astra.database.providers;
+
+import lol.jisz.astra.Astra;
+import org.bukkit.configuration.file.FileConfiguration;
+
+/**
+ * PostgreSQL provider for Astra database
+ * This class stores objects in a PostgreSQL database through a pool of JDBC connections.
+ *
+ * @see JdbcProvider
+ */
+public class PostgreSQLProvider extends JdbcProvider {
+
+    /**
+     * Creates a PostgreSQL provider
+     *
+     * @param plugin The Astra plugin instance
+     * @param host The PostgreSQL host
+     * @param port The PostgreSQL port
+     * @param databaseName The database name
+     * @param username The username (can be empty)
+     * @param password The password (can be empty)
+     * @param poolSize The maximum number of open connections
+     */
+    public PostgreSQLProvider(Astra plugin, String host, int port, String databaseName, String username, String password, int poolSize) {
+        super(plugin, SqlDialect.POSTGRESQL, host, port, databaseName, username, password, poolSize);
+    }
+
+    /**
+     * Creates a PostgreSQL provider using configuration values from a FileConfiguration.
+     *
+     * @param plugin The Astra plugin instance that will be used for logging
+     * @param config The FileConfiguration containing PostgreSQL connection parameters with the following keys:
+     *              - postgresql.host: The hostname or IP address of the PostgreSQL server (default: localhost)
+     *              - postgresql.port: The port number on which PostgreSQL is running (default: 5432)
+     *              - postgresql.database: The name of the database to connect to
+     *              - postgresql.username: The username for authentication (can be empty)
+     *              - postgresql.password: The password for authentication (can be empty)
+     *              - postgresql.pool-size: The maximum number of open connections (default: 10)
+     */
+    public PostgreSQLProvider(Astra plugin, FileConfiguration config) {
+        super(plugin, SqlDialect.POSTGRESQL, config);
+    }
+}
@@ -0,0 +1,61 @@
+package lol.jisz.astra.database.providers;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+
+/**
+ * Spliterator over the rows of an open result set, creating one object per row as it is consumed.
+ * Rows mapped to null, such as rows that could not be turned back into an object, are skipped.
+ * The result set is not closed here: the stream built on it closes it.
+ *
+ * @param <T> Type of the objects created from the rows
+ */
+final class RowSpliterator<T> extends Spliterators.AbstractSpliterator<T> {
+
+    private final ResultSet resultSet;
+    private final RowMapper<T> mapper;
+    private final String databaseName;
+
+    /**
+     * Creates a spliterator over the remaining rows of a result set.
+     *
+     * @param resultSet    The result set, positioned before its first row
+     * @param mapper       Creates the object of a row
+     * @param databaseName Name of the database, for error messages
+     */
+    RowSpliterator(ResultSet resultSet, RowMapper<T> mapper, String databaseName) {
+        super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+        this.resultSet = resultSet;
+        this.mapper = mapper;
+        this.databaseName = databaseName;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+        try {
+            while (resultSet.next()) {
+                T object = mapper.map(resultSet);
+                if (object != null) {
+                    action.accept(object);
+                    return true;
+                }
+            }
+            return false;
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to read from " + databaseName + " database: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Creates the object of the current row of a result set.
+     *
+     * @param <T> Type of the created objects
+     */
+    @FunctionalInterface
+    interface RowMapper<T> {
+        T map(ResultSet resultSet) throws SQLException;
+    }
+}
@@ -1,66 +1,692 @@
 package lol.jisz.astra.database.providers;
 
+import lol.jisz.astra.Astra;
+import lol.jisz.astra.database.AnnotationProcessor;
 import lol.jisz.astra.database.AstraDatabase;
+import lol.jisz.astra.database.Query;
 import lol.jisz.astra.database.interfaces.StorageObject;
+import org.bukkit.configuration.file.FileConfiguration;
 
-import java.util.Optional;
-import java.util.Set;
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
+/**
+ * SQLite provider for Astra database
+ * This class stores objects in an embedded SQLite database file, one table per class.
+ * <p>
+ * The database runs in WAL mode, so reads never wait for writes. Every write goes through a single
+ * writer thread that owns the only writing connection: whatever writes are queued when it finishes
+ * a commit are applied together in the next transaction, so a burst of saves costs one commit
+ * instead of one per object. Reads use a small pool of read-only connections. Each connection
+ * keeps its prepared statements per class, so the SQL of a class is only parsed once per connection.
+ * <p>
+ * Tables are created from the fields of the class the first time it is used, and columns added to
+ * the class later are added to the table. The SQLite JDBC driver is provided by the server.
+ */
 public class SQLiteProvider extends AstraDatabase {
 
+    private static final int READERS = 4;
+    private static final int MAX_GROUP_COMMIT = 512;
+    private static final long CLOSE_TIMEOUT_SECONDS = 10;
+    private static final long ACQUIRE_TIMEOUT_SECONDS = 10;
+    private static final Write CLOSE = new Write(null, null);
+
+    private final File file;
+    private final Map<Class<?>, Schema> schemas = new ConcurrentHashMap<>();
+    private final BlockingQueue<Write> writes = new LinkedBlockingQueue<>();
+
+    private volatile boolean open;
+    private BlockingQueue<Session> readers;
+    private Thread writer;
+
+    /**
+     * Creates a SQLite provider
+     *
+     * @param plugin The Astra plugin instance
+     * @param file   The database file, created if it does not exist
+     */
+    public SQLiteProvider(Astra plugin, File file) {
+        this.plugin = plugin;
+        this.file = file;
+    }
+
+    /**
+     * Creates a SQLite provider using configuration values from a FileConfiguration.
+     *
+     * @param plugin The Astra plugin instance that will be used for logging
+     * @param config The FileConfiguration containing the following key:
+     *              - sqlite.file: The database file, relative to the plugin data folder (default: database.db)
+     */
+    public SQLiteProvider(Astra plugin, FileConfiguration config) {
+        this(plugin, resolveFile(plugin, config.getString("sqlite.file", "database.db")));
+    }
+
+    private static File resolveFile(Astra plugin, String path) {
+        File file = new File(path);
+        return file.isAbsolute() ? file : new File(plugin.getDataFolder(), path);
+    }
+
+    /**
+     * Opens the database file, switches it to WAL mode and starts the writer thread
+     *
+     * @throws Exception if the database cannot be opened
+     */
     @Override
-    public void initialize() throws Exception {
+    public synchronized void initialize() throws Exception {
+        if (open) {
+            return;
+        }
+        if (annotationProcessor == null) {
+            annotationProcessor = new AnnotationProcessor(plugin);
+        }
 
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+            throw new SQLException("Could not create directory: " + parent);
+        }
+        try {
+            Class.forName(SqlDialect.SQLITE.getDriver());
+        } catch (ClassNotFoundException e) {
+            throw new SQLException("SQLite JDBC driver not found", e);
+        }
+
+        String url = SqlDialect.SQLITE.url(null, 0, file.getAbsolutePath());
+        Session writerSession = new Session(DriverManager.getConnection(url));
+        BlockingQueue<Session> readerSessions = new ArrayBlockingQueue<>(READERS);
+        try {
+            try (Statement statement = writerSession.connection.createStatement()) {
+                statement.execute("PRAGMA journal_mode=WAL");
+                statement.execute("PRAGMA synchronous=NORMAL");
+                statement.execute("PRAGMA busy_timeout=5000");
+            }
+            writerSession.connection.setAutoCommit(false);
+
+            for (int i = 0; i < READERS; i++) {
+                Session reader = new Session(DriverManager.getConnection(url));
+                readerSessions.add(reader);
+                try (Statement statement = reader.connection.createStatement()) {
+                    statement.execute("PRAGMA busy_timeout=5000");
+                    statement.execute("PRAGMA query_only=ON");
+                }
+            }
+        } catch (SQLException e) {
+            writerSession.close();
+            readerSessions.forEach(Session::close);
+            throw e;
+        }
+
+        readers = readerSessions;
+        writer = new Thread(() -> runWriter(writerSession), "Astra-SQLite");
+        writer.setDaemon(true);
+        open = true;
+        writer.start();
+        for (Class<?> clazz : getStorageClasses()) {
+            awaitTable(clazz);
+        }
+        plugin.logger().info("Connected to SQLite database: " + file.getName());
     }
 
+    /**
+     * Commits every queued write, then closes the connections
+     */
     @Override
     public void close() {
+        Thread writerThread;
+        BlockingQueue<Session> readerSessions;
+        synchronized (this) {
+            if (!open) {
+                return;
+            }
+            open = false;
+            writerThread = writer;
+            readerSessions = readers;
+            writer = null;
+            readers = null;
+        }
+
+        writes.offer(CLOSE);
+        try {
+            writerThread.join(TimeUnit.SECONDS.toMillis(CLOSE_TIMEOUT_SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writerThread.isAlive()) {
+            plugin.logger().warning("Timed out writing pending SQLite writes");
+        }
 
+        for (int i = 0; i < READERS; i++) {
+            try {
+                Session reader = readerSessions.poll(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+                if (reader == null) {
+                    break;
+                }
+                reader.close();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        schemas.clear();
+        plugin.logger().info("SQLite connection closed");
     }
 
+    /**
+     * Returns the database provider type identifier.
+     *
+     * @return The string "SQLite" indicating this is a SQLite database provider
+     */
     @Override
     public String getType() {
-        return "";
+        return "SQLite";
     }
 
+    /**
+     * Asynchronously finds an object in the database by its ID.
+     *
+     * @param <T>   the type of object to find, must implement StorageObject
+     * @param clazz the class of the object to find, used to determine the table
+     * @param id    the unique identifier of the object to find
+     * @return a CompletableFuture that will complete with an Optional containing the found object,
+     *         or an empty Optional if no object with the given ID exists
+     */
     @Override
     public <T extends StorageObject> CompletableFuture<Optional<T>> findById(Class<T> clazz, String id) {
-        return null;
+        return CompletableFuture.supplyAsync(() -> findByIdSync(clazz, id));
     }
 
+    /**
+     * Synchronously finds an object in the database by its ID.
+     *
+     * @param <T>   the type of object to find, must implement StorageObject
+     * @param clazz the class of the object to find, used to determine the table
+     * @param id    the unique identifier of the object to find
+     * @return an Optional containing the found object if it exists in the database,
+     *         or an empty Optional if no object with the given ID exists
+     * @throws IllegalStateException if the database cannot be read
+     */
     @Override
     public <T extends StorageObject> Optional<T> findByIdSync(Class<T> clazz, String id) {
-        return Optional.empty();
+        SqlTable table = awaitTable(clazz);
+        return read(session -> {
+            PreparedStatement statement = session.prepare(table, Command.FIND);
+            statement.setString(1, id);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() ? Optional.ofNullable(instantiateObject(clazz, table, resultSet)) : Optional.empty();
+            }
+        });
     }
 
+    /**
+     * Asynchronously retrieves all objects of a specified class from the database.
+     *
+     * @param <T>   the type of objects to retrieve, must implement StorageObject
+     * @param clazz the class of the objects to retrieve, used to determine the table
+     * @return a CompletableFuture that will complete with a Set containing all objects of the specified class
+     */
     @Override
     public <T extends StorageObject> CompletableFuture<Set<T>> findAll(Class<T> clazz) {
-        return null;
+        return CompletableFuture.supplyAsync(() -> findAllSync(clazz));
     }
 
+    /**
+     * Synchronously retrieves all objects of a specified class from the database.
+     * Rows that cannot be turned back into an object are logged and skipped.
+     *
+     * @param <T>   the type of objects to retrieve, must implement StorageObject
+     * @param clazz the class of the objects to retrieve, used to determine the table
+     * @return a Set containing all objects of the specified class stored in the database
+     * @throws IllegalStateException if the database cannot be read
+     */
     @Override
     public <T extends StorageObject> Set<T> findAllSync(Class<T> clazz) {
-        return Set.of();
+        try (Stream<T> stream = streamAll(clazz, DEFAULT_BATCH_SIZE)) {
+            return stream.collect(Collectors.toCollection(HashSet::new));
+        }
+    }
+
+    /**
+     * Streams all objects of a specified class, reading the rows of the table as the stream is consumed.
+     * The stream holds one of the read connections until it is closed, and its read transaction keeps
+     * checkpoints from going past it, so it should be closed as soon as it is consumed.
+     * Rows that cannot be turned back into an object are logged and skipped.
+     *
+     * @param <T>       the type of objects to retrieve, must implement StorageObject
+     * @param clazz     the class of the objects to retrieve, used to determine the table
+     * @param batchSize the number of rows the driver reads ahead
+     * @return a Stream of the objects of the specified class, to be closed once consumed
+     * @throws IllegalStateException if the database cannot be read
+     */
+    @Override
+    public <T extends StorageObject> Stream<T> streamAll(Class<T> clazz, int batchSize) {
+        checkBatchSize(batchSize);
+        SqlTable table = awaitTable(clazz);
+        BlockingQueue<Session> sessions = readers;
+        Session session = takeReader(sessions);
+
+        ResultSet resultSet;
+        try {
+            PreparedStatement statement = session.prepare(table, Command.FIND_ALL);
+            statement.setFetchSize(batchSize);
+            resultSet = statement.executeQuery();
+        } catch (SQLException e) {
+            sessions.offer(session);
+            throw new IllegalStateException("Failed to read from SQLite database: " + e.getMessage(), e);
+        }
+
+        return StreamSupport.stream(new RowSpliterator<>(resultSet, row -> instantiateObject(clazz, table, row), "SQLite"), false)
+                .onClose(() -> {
+                    try {
+                        resultSet.close();
+                    } catch (SQLException ignored) {
+                        // The connection goes back to the pool anyway
+                    } finally {
+                        sessions.offer(session);
+                    }
+                });
     }
 
+    /**
+     * Synchronously finds the objects matching a query with a select of the table of its class.
+     * Rows that cannot be turned back into an object are logged and skipped.
+     *
+     * @param <T>   the type of objects to find, must implement StorageObject
+     * @param query the query
+     * @return the matching objects, in the order of the query
+     * @throws IllegalArgumentException if the query cannot be run on the table
+     * @throws IllegalStateException    if the database cannot be read
+     */
+    @Override
+    public <T extends StorageObject> List<T> findSync(Query<T> query) {
+        SqlTable table = awaitTable(query.getType());
+        SqlQuery select = SqlQuery.of(SqlDialect.SQLITE, table, query);
+        return read(session -> {
+            List<T> results = new ArrayList<>();
+            try (PreparedStatement statement = session.connection.prepareStatement(select.getSql())) {
+                select.bind(statement);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        T object = instantiateObject(query.getType(), table, resultSet, select.getColumns());
+                        if (object != null) {
+                            results.add(object);
+                        }
+                    }
+                }
+            }
+            return results;
+        });
+    }
+
+    /**
+     * Asynchronously saves an object to the database.
+     * The values of the object are read when this method is called, and written by the writer
+     * thread in the same transaction as every other write queued with it.
+     *
+     * @param <T>    the type of object to save, must implement StorageObject
+     * @param object the object to save to the database
+     * @return a CompletableFuture that will complete once the transaction holding the save is committed
+     */
     @Override
     public <T extends StorageObject> CompletableFuture<Void> save(T object) {
-        return null;
+        SqlTable table = table(object.getClass());
+        Object[] row = table.toRow(object);
+        return submit(session -> upsert(session, table, List.<Object[]>of(row)));
     }
 
+    /**
+     * Synchronously saves an object to the database, inserting it or replacing the row with the same ID.
+     *
+     * @param <T>    the type of object to save, must implement StorageObject
+     * @param object the object to save to the database
+     * @throws IllegalStateException if the object cannot be written
+     */
     @Override
     public <T extends StorageObject> void saveSync(T object) {
+        await(save(object), "Failed to save object with ID: " + object.getId());
+    }
 
+    /**
+     * Synchronously saves several objects to the database in a single transaction.
+     * Objects are written in order, so the last save of an ID wins as if the objects
+     * were saved one by one.
+     *
+     * @param <T>     the type of objects to save, must implement StorageObject
+     * @param objects the objects to save to the database
+     * @throws IllegalStateException if the objects cannot be written
+     */
+    @Override
+    public <T extends StorageObject> void saveAllSync(Collection<T> objects) {
+        Map<SqlTable, List<Object[]>> rowsByTable = new LinkedHashMap<>();
+        for (T object : objects) {
+            SqlTable table = table(object.getClass());
+            rowsByTable.computeIfAbsent(table, key -> new ArrayList<>()).add(table.toRow(object));
+        }
+        if (rowsByTable.isEmpty()) {
+            return;
+        }
+
+        await(submit(session -> {
+            for (Map.Entry<SqlTable, List<Object[]>> entry : rowsByTable.entrySet()) {
+                upsert(session, entry.getKey(), entry.getValue());
+            }
+        }), "Failed to save " + objects.size() + " objects");
     }
 
+    /**
+     * Asynchronously deletes an object from the database by its ID.
+     *
+     * @param <T>   the type of object to delete, must implement StorageObject
+     * @param clazz the class of the object to delete, used to determine the table
+     * @param id    the unique identifier of the object to delete
+     * @return a CompletableFuture that will complete once the deletion is committed
+     */
     @Override
     public <T extends StorageObject> CompletableFuture<Void> delete(Class<T> clazz, String id) {
-        return null;
+        SqlTable table = table(clazz);
+        return submit(session -> {
+            PreparedStatement statement = session.prepare(table, Command.DELETE);
+            statement.setString(1, id);
+            statement.executeUpdate();
+        });
     }
 
+    /**
+     * Synchronously deletes an object from the database by its ID.
+     *
+     * @param <T>   the type of object to delete, must implement StorageObject
+     * @param clazz the class of the object to delete, used to determine the table
+     * @param id    the unique identifier of the object to delete
+     * @throws IllegalStateException if the object cannot be deleted
+     */
     @Override
     public <T extends StorageObject> void deleteSync(Class<T> clazz, String id) {
+        await(delete(clazz, id), "Failed to delete object with ID: " + id);
+    }
+
+    /**
+     * Gets the table of a class, queuing the creation of its schema the first time.
+     * Writes queued afterwards run after the schema is created, so they do not need to wait for it.
+     * A schema whose creation failed is dropped and queued again, so a transient failure does not
+     * make every later write of the class fail.
+     */
+    private SqlTable table(Class<?> clazz) {
+        ensureDatabaseConnected();
+        Schema schema = schemas.get(clazz);
+        if (schema != null && schema.created().isCompletedExceptionally()) {
+            schemas.remove(clazz, schema);
+            schema = null;
+        }
+        if (schema == null) {
+            schema = schemas.computeIfAbsent(clazz, type -> {
+                SqlTable table = SqlTable.of(type, annotationProcessor);
+                return new Schema(table, submit(session -> SqlDialect.SQLITE.createSchema(session.connection, table)));
+            });
+        }
+        return schema.table();
+    }
+
+    /**
+     * Gets the table of a class once its schema exists, for reads.
+     */
+    private SqlTable awaitTable(Class<?> clazz) {
+        SqlTable table = table(clazz);
+        Schema schema = schemas.get(clazz);
+        if (schema != null) {
+            try {
+                schema.created().join();
+            } catch (CompletionException e) {
+                schemas.remove(clazz, schema);
+                throw new IllegalStateException("Failed to create table: " + table.getName(), e.getCause());
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Writes rows with a single batched statement, inserting new IDs and updating existing ones.
+     */
+    private void upsert(Session session, SqlTable table, List<Object[]> rows) throws SQLException {
+        PreparedStatement statement = session.prepare(table, Command.UPSERT);
+        for (Object[] row : rows) {
+            table.bind(statement, 0, row);
+            statement.addBatch();
+        }
+        statement.executeBatch();
+    }
+
+    private <T> T instantiateObject(Class<T> clazz, SqlTable table, ResultSet resultSet) throws SQLException {
+        return instantiateObject(clazz, table, resultSet, table.getColumns());
+    }
+
+    private <T> T instantiateObject(Class<T> clazz, SqlTable table, ResultSet resultSet, List<SqlTable.Column> columns) throws SQLException {
+        try {
+            return clazz.cast(table.fromRow(resultSet, columns));
+        } catch (RuntimeException e) {
+            plugin.logger().error("Failed to instantiate object of class: " + clazz.getName(), e);
+            return null;
+        }
+    }
+
+    /**
+     * Runs a read on one of the read connections, waiting for one to be free.
+     */
+    private <R> R read(SqlFunction<R> action) {
+        BlockingQueue<Session> sessions = readers;
+        Session session = takeReader(sessions);
+        try {
+            return action.apply(session);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to read from SQLite database: " + e.getMessage(), e);
+        } finally {
+            sessions.offer(session);
+        }
+    }
+
+    /**
+     * Takes a read connection, waiting up to {@link #ACQUIRE_TIMEOUT_SECONDS} for one to be free.
+     */
+    private static Session takeReader(BlockingQueue<Session> sessions) {
+        if (sessions == null) {
+            throw new IllegalStateException("SQLite database is closed");
+        }
+        Session session;
+        try {
+            session = sessions.poll(ACQUIRE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a SQLite connection", e);
+        }
+        if (session == null) {
+            throw new IllegalStateException("Timed out after " + ACQUIRE_TIMEOUT_SECONDS + " seconds waiting for a SQLite connection");
+        }
+        return session;
+    }
+
+    /**
+     * Queues a write for the writer thread.
+     */
+    private CompletableFuture<Void> submit(Operation operation) {
+        Write write = new Write(operation, new CompletableFuture<>());
+        writes.offer(write);
+        if (!open && writes.remove(write)) {
+            write.future().completeExceptionally(new IllegalStateException("SQLite database is closed"));
+        }
+        return write.future();
+    }
+
+    /**
+     * Loop of the writer thread. Takes every queued write, up to {@link #MAX_GROUP_COMMIT},
+     * and commits them as one transaction.
+     */
+    private void runWriter(Session session) {
+        boolean running = true;
+        while (running) {
+            List<Write> batch = new ArrayList<>();
+            try {
+                batch.add(writes.take());
+            } catch (InterruptedException e) {
+                break;
+            }
+            writes.drainTo(batch, MAX_GROUP_COMMIT - 1);
+
+            for (int i = 0; i < batch.size(); i++) {
+                if (batch.get(i) == CLOSE) {
+                    rejectAll(batch.subList(i + 1, batch.size()));
+                    batch = batch.subList(0, i);
+                    running = false;
+                    break;
+                }
+            }
+            if (!batch.isEmpty()) {
+                commit(session, batch);
+            }
+        }
+
+        List<Write> remaining = new ArrayList<>();
+        writes.drainTo(remaining);
+        rejectAll(remaining);
+        try (Statement statement = session.connection.createStatement()) {
+            statement.execute("PRAGMA wal_checkpoint(TRUNCATE)");
+        } catch (SQLException e) {
+            plugin.logger().warning("Could not checkpoint SQLite database: " + e.getMessage());
+        }
+        session.close();
+    }
+
+    /**
+     * Applies writes in one transaction. If the transaction fails, every write is retried in a
+     * transaction of its own, so a single failing write does not fail the writes queued with it.
+     * Futures are completed off the writer thread, so their callbacks cannot stall it.
+     */
+    private void commit(Session session, List<Write> batch) {
+        try {
+            for (Write write : batch) {
+                write.operation().apply(session);
+            }
+            session.connection.commit();
+        } catch (SQLException | RuntimeException e) {
+            try {
+                session.connection.rollback();
+            } catch (SQLException rollbackError) {
+                plugin.logger().error("Failed to roll back SQLite transaction", rollbackError);
+            }
+            if (batch.size() == 1) {
+                CompletableFuture.runAsync(() -> batch.getFirst().future().completeExceptionally(e));
+                return;
+            }
+            for (Write write : batch) {
+                commit(session, List.of(write));
+            }
+            return;
+        }
+        CompletableFuture.runAsync(() -> batch.forEach(write -> write.future().complete(null)));
+    }
+
+    private static void rejectAll(List<Write> rejected) {
+        IllegalStateException closed = new IllegalStateException("SQLite database is closed");
+        for (Write write : rejected) {
+            if (write != CLOSE) {
+                write.future().completeExceptionally(closed);
+            }
+        }
+    }
+
+    private static void await(CompletableFuture<Void> future, String message) {
+        try {
+            future.join();
+        } catch (CompletionException e) {
+            throw new IllegalStateException(message, e.getCause());
+        }
+    }
+
+    /**
+     * Ensures that the database connection is established
+     * @throws IllegalStateException if the database connection is not established
+     */
+    private void ensureDatabaseConnected() {
+        if (!open) {
+            try {
+                initialize();
+            } catch (Exception e) {
+                throw new IllegalStateException("Database connection is not established", e);
+            }
+        }
+    }
+
+    /**
+     * Statements prepared once per class and connection.
+     */
+    private enum Command {
+        FIND, FIND_ALL, UPSERT, DELETE;
+
+        private String sql(SqlTable table) {
+            return switch (this) {
+                case FIND -> SqlDialect.SQLITE.select(table, true);
+                case FIND_ALL -> SqlDialect.SQLITE.select(table, false);
+                case UPSERT -> SqlDialect.SQLITE.upsert(table, 1);
+                case DELETE -> SqlDialect.SQLITE.delete(table);
+            };
+        }
+    }
+
+    /**
+     * A connection and the statements prepared on it. Used by one thread at a time.
+     */
+    private static final class Session {
+        private final Connection connection;
+        private final Map<Class<?>, PreparedStatement[]> statements = new HashMap<>();
+
+        private Session(Connection connection) {
+            this.connection = connection;
+        }
+
+        private PreparedStatement prepare(SqlTable table, Command command) throws SQLException {
+            PreparedStatement[] cached = statements.computeIfAbsent(table.getType(), type -> new PreparedStatement[Command.values().length]);
+            PreparedStatement statement = cached[command.ordinal()];
+            if (statement == null) {
+                statement = connection.prepareStatement(command.sql(table));
+                cached[command.ordinal()] = statement;
+            }
+            return statement;
+        }
+
+        private void close() {
+            try {
+                connection.close();
+            } catch (SQLException ignored) {
+                // Closing anyway
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface Operation {
+        void apply(Session session) throws SQLException;
+    }
+
+    @FunctionalInterface
+    private interface SqlFunction<R> {
+        R apply(Session session) throws SQLException;
+    }
+
+    private record Schema(SqlTable table, CompletableFuture<Void> created) {
+    }
 
+    private record Write(Operation operation, CompletableFuture<Void> future) {
     }
-}
\ No newline at end of file
+}
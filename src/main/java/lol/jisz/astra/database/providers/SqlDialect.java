@@ -0,0 +1,294 @@
+package lol.jisz.astra.database.providers;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.StringJoiner;
+
+/**
+ * SQL flavour of each supported database: identifier quoting, column types, upserts and schema creation.
+ */
+enum SqlDialect {
+    SQLITE(DatabaseType.SQLITE, "sqlite", 0),
+    MYSQL(DatabaseType.MYSQL, "mysql", 3306),
+    MARIADB(DatabaseType.MARIADB, "mariadb", 3306),
+    POSTGRESQL(DatabaseType.POSTGRESQL, "postgresql", 5432);
+
+    private static final int MAX_IDENTIFIER_LENGTH = 60;
+    private static final int INDEXED_TEXT_LENGTH = 255;
+
+    private final String name;
+    private final String driver;
+    private final String configSection;
+    private final int defaultPort;
+
+    SqlDialect(DatabaseType type, String configSection, int defaultPort) {
+        this.name = type.getName();
+        this.driver = type.getDriver();
+        this.configSection = configSection;
+        this.defaultPort = defaultPort;
+    }
+
+    /**
+     * Gets the display name of the database.
+     *
+     * @return The database name
+     */
+    String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the class name of the JDBC driver.
+     *
+     * @return The driver class name
+     */
+    String getDriver() {
+        return driver;
+    }
+
+    /**
+     * Gets the configuration section holding the connection settings.
+     *
+     * @return The configuration section name
+     */
+    String getConfigSection() {
+        return configSection;
+    }
+
+    /**
+     * Gets the port the database listens on by default.
+     *
+     * @return The default port
+     */
+    int getDefaultPort() {
+        return defaultPort;
+    }
+
+    /**
+     * Builds the JDBC URL of a database server.
+     *
+     * @param host     The server host
+     * @param port     The server port
+     * @param database The database name
+     * @return The JDBC URL
+     */
+    String url(String host, int port, String database) {
+        return switch (this) {
+            case SQLITE -> "jdbc:sqlite:" + database;
+            // Server-side prepared statements are needed by useCursorFetch, which streams result sets
+            case MYSQL -> "jdbc:mysql://" + host + ":" + port + "/" + database
+                    + "?useUnicode=true&characterEncoding=utf8&useServerPrepStmts=true&useCursorFetch=true";
+            case MARIADB -> "jdbc:mariadb://" + host + ":" + port + "/" + database;
+            case POSTGRESQL -> "jdbc:postgresql://" + host + ":" + port + "/" + database;
+        };
+    }
+
+    /**
+     * Quotes a table, column or index name.
+     *
+     * @param identifier The name to quote
+     * @return The quoted name
+     */
+    String quote(String identifier) {
+        if (this == MYSQL || this == MARIADB) {
+            return "`" + identifier.replace("`", "``") + "`";
+        }
+        return "\"" + identifier.replace("\"", "\"\"") + "\"";
+    }
+
+    /**
+     * Gets the SQL type of a column. Text columns with a maximum length become VARCHARs of that length.
+     *
+     * @param column The column
+     * @return The SQL type
+     */
+    String columnType(SqlTable.Column column) {
+        boolean server = this != SQLITE;
+        if (server && column.getName().equals(SqlTable.ID_COLUMN)) {
+            return "VARCHAR(" + INDEXED_TEXT_LENGTH + ")";
+        }
+
+        return switch (column.getKind()) {
+            case BOOLEAN -> this == SQLITE ? "INTEGER" : "BOOLEAN";
+            case INTEGER -> server ? "BIGINT" : "INTEGER";
+            case REAL -> this == POSTGRESQL ? "DOUBLE PRECISION" : server ? "DOUBLE" : "REAL";
+            case TEXT -> {
+                if (column.getMaxLength() > 0) {
+                    yield "VARCHAR(" + column.getMaxLength() + ")";
+                }
+                // MySQL can only index text columns of a bounded length
+                yield (this == MYSQL || this == MARIADB) && column.isIndexed() ? "VARCHAR(" + INDEXED_TEXT_LENGTH + ")" : "TEXT";
+            }
+            case BLOB -> this == POSTGRESQL ? "BYTEA" : server ? "LONGBLOB" : "BLOB";
+            case JSON -> this == MYSQL || this == MARIADB ? "LONGTEXT" : "TEXT";
+        };
+    }
+
+    /**
+     * Builds the statement selecting every column of a table, optionally by ID.
+     *
+     * @param table The table
+     * @param byId  Whether the statement has an {@code _id} parameter
+     * @return The SQL of the statement
+     */
+    String select(SqlTable table, boolean byId) {
+        StringJoiner columns = new StringJoiner(", ");
+        for (SqlTable.Column column : table.getColumns()) {
+            columns.add(quote(column.getName()));
+        }
+        String sql = "SELECT " + columns + " FROM " + quote(table.getName());
+        return byId ? sql + " WHERE " + quote(SqlTable.ID_COLUMN) + " = ?" : sql;
+    }
+
+    /**
+     * Builds the clause limiting and offsetting the rows of a select, empty if there is neither.
+     *
+     * @param limit Maximum number of rows, or 0 for no limit
+     * @param skip  Number of rows to skip
+     * @return The clause, starting with a space
+     */
+    String limit(int limit, int skip) {
+        if (limit > 0) {
+            return " LIMIT " + limit + (skip > 0 ? " OFFSET " + skip : "");
+        }
+        if (skip == 0) {
+            return "";
+        }
+        // Only PostgreSQL takes an OFFSET without a LIMIT
+        return switch (this) {
+            case SQLITE -> " LIMIT -1 OFFSET " + skip;
+            case MYSQL, MARIADB -> " LIMIT 18446744073709551615 OFFSET " + skip;
+            case POSTGRESQL -> " OFFSET " + skip;
+        };
+    }
+
+    /**
+     * Builds the statement deleting a row of a table by ID.
+     *
+     * @param table The table
+     * @return The SQL of the statement
+     */
+    String delete(SqlTable table) {
+        return "DELETE FROM " + quote(table.getName()) + " WHERE " + quote(SqlTable.ID_COLUMN) + " = ?";
+    }
+
+    /**
+     * Builds a statement inserting several rows at once, updating the rows whose ID already exists.
+     * The IDs of the rows must be distinct.
+     *
+     * @param table The table
+     * @param rows  Number of rows written by the statement
+     * @return The SQL of the statement
+     */
+    String upsert(SqlTable table, int rows) {
+        List<SqlTable.Column> columns = table.getColumns();
+        StringJoiner names = new StringJoiner(", ");
+        StringJoiner placeholders = new StringJoiner(", ", "(", ")");
+        StringJoiner updates = new StringJoiner(", ");
+        for (SqlTable.Column column : columns) {
+            String name = quote(column.getName());
+            names.add(name);
+            placeholders.add("?");
+            if (!column.getName().equals(SqlTable.ID_COLUMN)) {
+                updates.add(this == MYSQL || this == MARIADB ? name + " = VALUES(" + name + ")" : name + " = excluded." + name);
+            }
+        }
+
+        StringBuilder sql = new StringBuilder("INSERT INTO ").append(quote(table.getName()))
+                .append(" (").append(names).append(") VALUES ");
+        String row = placeholders.toString();
+        for (int i = 0; i < rows; i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(row);
+        }
+
+        String id = quote(SqlTable.ID_COLUMN);
+        if (this == MYSQL || this == MARIADB) {
+            sql.append(" ON DUPLICATE KEY UPDATE ").append(updates.length() == 0 ? id + " = " + id : updates);
+        } else {
+            sql.append(" ON CONFLICT (").append(id).append(") DO ")
+                    .append(updates.length() == 0 ? "NOTHING" : "UPDATE SET " + updates);
+        }
+        return sql.toString();
+    }
+
+    /**
+     * Creates the table of a class if it does not exist, adds the columns it is missing and creates
+     * the indexes of its indexed columns. Columns are never dropped or changed, so data written by
+     * other versions of the class is kept.
+     *
+     * @param connection The connection to run the statements on
+     * @param table      The table to create
+     * @throws SQLException if the schema cannot be read or changed
+     */
+    void createSchema(Connection connection, SqlTable table) throws SQLException {
+        String tableName = quote(table.getName());
+        StringJoiner definitions = new StringJoiner(", ");
+        for (SqlTable.Column column : table.getColumns()) {
+            String definition = quote(column.getName()) + " " + columnType(column);
+            if (column.getName().equals(SqlTable.ID_COLUMN)) {
+                definition += " NOT NULL PRIMARY KEY";
+            } else if (column.isRequired()) {
+                definition += " NOT NULL";
+            }
+            definitions.add(definition);
+        }
+
+        try (Statement statement = connection.createStatement()) {
+            String options = this == MYSQL || this == MARIADB ? " ENGINE=InnoDB DEFAULT CHARSET=utf8mb4" : "";
+            statement.execute("CREATE TABLE IF NOT EXISTS " + tableName + " (" + definitions + ")" + options);
+
+            DatabaseMetaData metaData = connection.getMetaData();
+            String escape = metaData.getSearchStringEscape();
+            String pattern = escape == null ? table.getName()
+                    : table.getName().replace(escape, escape + escape).replace("_", escape + "_").replace("%", escape + "%");
+            Set<String> existingColumns = new HashSet<>();
+            try (ResultSet resultSet = metaData.getColumns(connection.getCatalog(), connection.getSchema(), pattern, null)) {
+                while (resultSet.next()) {
+                    existingColumns.add(resultSet.getString("COLUMN_NAME").toLowerCase(Locale.ROOT));
+                }
+            }
+            Set<String> existingIndexes = new HashSet<>();
+            try (ResultSet resultSet = metaData.getIndexInfo(connection.getCatalog(), connection.getSchema(), table.getName(), false, true)) {
+                while (resultSet.next()) {
+                    String index = resultSet.getString("INDEX_NAME");
+                    if (index != null) {
+                        existingIndexes.add(index.toLowerCase(Locale.ROOT));
+                    }
+                }
+            }
+
+            for (SqlTable.Column column : table.getColumns()) {
+                String columnName = quote(column.getName());
+                if (!existingColumns.contains(column.getName().toLowerCase(Locale.ROOT))) {
+                    statement.execute("ALTER TABLE " + tableName + " ADD COLUMN " + columnName + " " + columnType(column));
+                }
+
+                String index = indexName(table, column);
+                if (column.isIndexed() && isIndexable(column) && !existingIndexes.contains(index.toLowerCase(Locale.ROOT))) {
+                    // MySQL is the only one without IF NOT EXISTS for indexes
+                    statement.execute("CREATE INDEX " + (this == MYSQL ? "" : "IF NOT EXISTS ") + quote(index) + " ON " + tableName + " (" + columnName + ")");
+                }
+            }
+        }
+    }
+
+    private boolean isIndexable(SqlTable.Column column) {
+        SqlTable.Kind kind = column.getKind();
+        return this == SQLITE || (kind != SqlTable.Kind.BLOB && kind != SqlTable.Kind.JSON);
+    }
+
+    private static String indexName(SqlTable table, SqlTable.Column column) {
+        String name = "idx_" + table.getName() + "_" + column.getName();
+        return name.length() > MAX_IDENTIFIER_LENGTH ? name.substring(0, MAX_IDENTIFIER_LENGTH) : name;
+    }
+}
@@ -0,0 +1,158 @@
+package lol.jisz.astra.database.providers;
+
+import lol.jisz.astra.database.Query;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringJoiner;
+
+/**
+ * A {@link Query} translated to a select of a SQL table.
+ * <p>
+ * Conditions become a WHERE clause with one parameter per value, sorts an ORDER BY and the limit and
+ * skip a LIMIT and OFFSET, so the database picks the index of a queried or sorted column. Values are
+ * converted as the columns store them: enums by name, UUIDs as text. Fields stored as JSON or blobs
+ * cannot be queried.
+ */
+final class SqlQuery {
+
+    private final String sql;
+    private final List<Object> parameters;
+    private final List<SqlTable.Column> columns;
+
+    private SqlQuery(String sql, List<Object> parameters, List<SqlTable.Column> columns) {
+        this.sql = sql;
+        this.parameters = parameters;
+        this.columns = columns;
+    }
+
+    /**
+     * Translates a query.
+     *
+     * @param dialect The dialect of the database
+     * @param table   The table of the class of the query
+     * @param query   The query
+     * @return The translated query
+     * @throws IllegalArgumentException if the query names a field the table has no column for,
+     *                                  compares a JSON or blob column, or compares a column with a value of another type
+     */
+    static SqlQuery of(SqlDialect dialect, SqlTable table, Query<?> query) {
+        List<SqlTable.Column> selected = table.getColumns();
+        if (!query.getFields().isEmpty()) {
+            selected = new ArrayList<>();
+            selected.add(table.getColumns().getFirst());
+            for (String field : query.getFields()) {
+                SqlTable.Column column = table.column(field);
+                if (!selected.contains(column)) {
+                    selected.add(column);
+                }
+            }
+        }
+
+        StringJoiner select = new StringJoiner(", ", "SELECT ", " FROM " + dialect.quote(table.getName()));
+        for (SqlTable.Column column : selected) {
+            select.add(dialect.quote(column.getName()));
+        }
+
+        List<Object> parameters = new ArrayList<>();
+        StringJoiner where = new StringJoiner(" AND ", " WHERE ", "").setEmptyValue("");
+        for (Query.Condition condition : query.getConditions()) {
+            SqlTable.Column column = comparable(table, condition.field());
+            String name = dialect.quote(column.getName());
+            switch (condition.operator()) {
+                case EQ -> {
+                    if (condition.value() == null) {
+                        where.add(name + " IS NULL");
+                    } else {
+                        where.add(name + " = ?");
+                        parameters.add(parameter(column, condition.value()));
+                    }
+                }
+                case GT -> compare(where, parameters, column, name + " > ?", condition.value());
+                case GTE -> compare(where, parameters, column, name + " >= ?", condition.value());
+                case LT -> compare(where, parameters, column, name + " < ?", condition.value());
+                case LTE -> compare(where, parameters, column, name + " <= ?", condition.value());
+                case IN -> {
+                    List<?> values = (List<?>) condition.value();
+                    if (values.isEmpty()) {
+                        where.add("1 = 0");
+                        continue;
+                    }
+                    StringJoiner marks = new StringJoiner(", ", name + " IN (", ")");
+                    for (Object value : values) {
+                        marks.add("?");
+                        parameters.add(parameter(column, value));
+                    }
+                    where.add(marks.toString());
+                }
+            }
+        }
+
+        StringJoiner order = new StringJoiner(", ", " ORDER BY ", "").setEmptyValue("");
+        for (Query.Sort sort : query.getSorts()) {
+            order.add(dialect.quote(comparable(table, sort.field()).getName()) + (sort.ascending() ? " ASC" : " DESC"));
+        }
+
+        String sql = select.toString() + where + order + dialect.limit(query.getLimit(), query.getSkip());
+        return new SqlQuery(sql, parameters, List.copyOf(selected));
+    }
+
+    /**
+     * Gets the SQL of the select.
+     *
+     * @return The SQL
+     */
+    String getSql() {
+        return sql;
+    }
+
+    /**
+     * Gets the selected columns, in select order.
+     *
+     * @return The selected columns
+     */
+    List<SqlTable.Column> getColumns() {
+        return columns;
+    }
+
+    /**
+     * Binds the values of the conditions to the parameters of the select.
+     *
+     * @param statement The statement prepared from {@link #getSql()}
+     * @throws SQLException if a value cannot be bound
+     */
+    void bind(PreparedStatement statement) throws SQLException {
+        for (int i = 0; i < parameters.size(); i++) {
+            statement.setObject(i + 1, parameters.get(i));
+        }
+    }
+
+    private static void compare(StringJoiner where, List<Object> parameters, SqlTable.Column column, String clause, Object value) {
+        where.add(clause);
+        parameters.add(parameter(column, value));
+    }
+
+    private static SqlTable.Column comparable(SqlTable table, String field) {
+        SqlTable.Column column = table.column(field);
+        if (column.getKind() == SqlTable.Kind.JSON || column.getKind() == SqlTable.Kind.BLOB) {
+            throw new IllegalArgumentException("Field " + field + " of " + table.getType().getName() + " cannot be queried");
+        }
+        return column;
+    }
+
+    private static Object parameter(SqlTable.Column column, Object value) {
+        // Integer columns compare with decimal bounds as they are, instead of truncating the bound
+        if (column.getKind() == SqlTable.Kind.INTEGER
+                && (value instanceof Double || value instanceof Float || value instanceof BigDecimal)) {
+            return ((Number) value).doubleValue();
+        }
+        try {
+            return column.toValue(value);
+        } catch (ClassCastException e) {
+            throw new IllegalArgumentException("Value " + value + " does not fit field " + column.getName(), e);
+        }
+    }
+}
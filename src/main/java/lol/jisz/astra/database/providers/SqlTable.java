@@ -0,0 +1,379 @@
+package lol.jisz.astra.database.providers;
+
+import com.google.gson.Gson;
+import lol.jisz.astra.database.AnnotationProcessor;
+import lol.jisz.astra.database.ClassCodec;
+import lol.jisz.astra.database.annotations.StorageId;
+import lol.jisz.astra.database.interfaces.StorageObject;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Mapping between a storage class and the table of a SQL database.
+ * <p>
+ * The table has an {@code _id} primary key holding {@link StorageObject#getId()} and one column per
+ * field returned by {@link AnnotationProcessor#getClassFields(Class)}, named after the field or its
+ * {@code @StorageField} name. A text field marked with {@code @StorageId} is stored in the {@code _id}
+ * column itself. Booleans are stored as booleans, integral numbers as integers, decimal numbers as
+ * reals, strings, characters, enums, UUIDs and big numbers as text, byte arrays as blobs, and anything
+ * else, such as collections, maps and nested objects, as JSON text.
+ */
+final class SqlTable {
+
+    static final String ID_COLUMN = "_id";
+
+    private static final Gson GSON = new Gson();
+
+    private final Class<?> type;
+    private final String name;
+    private final List<Column> columns;
+    private final ClassCodec<?> codec;
+
+    private SqlTable(Class<?> type, String name, List<Column> columns, ClassCodec<?> codec) {
+        this.type = type;
+        this.name = name;
+        this.columns = columns;
+        this.codec = codec;
+    }
+
+    /**
+     * Builds the table of a storage class from its annotations.
+     *
+     * @param type      The storage class
+     * @param processor The processor reading the annotations of the class
+     * @return The table of the class
+     */
+    static SqlTable of(Class<?> type, AnnotationProcessor processor) {
+        ClassCodec<?> codec = processor.getCodec(type);
+        ClassCodec.FieldAccessor idField = null;
+        List<Column> columns = new ArrayList<>();
+        for (ClassCodec.FieldAccessor accessor : codec.getFields()) {
+            Field field = accessor.getField();
+            if (idField == null && field.isAnnotationPresent(StorageId.class) && Kind.of(field.getType()) == Kind.TEXT) {
+                idField = accessor;
+                continue;
+            }
+            String columnName = processor.getDbFieldName(field);
+            if (columnName.equals(ID_COLUMN)) {
+                continue;
+            }
+            columns.add(new Column(columnName, accessor, Kind.of(field.getType()),
+                    processor.isFieldIndexed(field), processor.isFieldRequired(field),
+                    processor.getFieldMaxLength(field)));
+        }
+        columns.addFirst(new Column(ID_COLUMN, idField, Kind.TEXT, false, true, 0));
+
+        return new SqlTable(type, processor.getCollectionName(type), Collections.unmodifiableList(columns), codec);
+    }
+
+    /**
+     * Gets the storage class of the table.
+     *
+     * @return The storage class
+     */
+    Class<?> getType() {
+        return type;
+    }
+
+    /**
+     * Gets the name of the table.
+     *
+     * @return The table name
+     */
+    String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the columns of the table, the {@code _id} column first.
+     *
+     * @return The columns of the table
+     */
+    List<Column> getColumns() {
+        return columns;
+    }
+
+    /**
+     * Finds a column by its name or by the name of the Java field it stores.
+     *
+     * @param name The column or field name
+     * @return The column
+     * @throws IllegalArgumentException if the table has no such column
+     */
+    Column column(String name) {
+        for (Column column : columns) {
+            if (column.name.equals(name) || column.field != null && column.field.getName().equals(name)) {
+                return column;
+            }
+        }
+        throw new IllegalArgumentException("Unknown field " + name + " in " + type.getName());
+    }
+
+    /**
+     * Converts an object into the values of a row, in column order.
+     * The values are plain JDBC values, so the row can be bound later from another thread
+     * while the object keeps changing.
+     *
+     * @param object The object to convert
+     * @return The values of the row
+     * @throws IllegalArgumentException if the object has no ID
+     */
+    Object[] toRow(StorageObject object) {
+        String id = object.getId();
+        if (id == null) {
+            throw new IllegalArgumentException("Cannot save an object of class " + type.getName() + " without an ID");
+        }
+
+        Object[] row = new Object[columns.size()];
+        row[0] = id;
+        for (int i = 1; i < row.length; i++) {
+            Column column = columns.get(i);
+            row[i] = column.toValue(column.accessor.get(object));
+        }
+        return row;
+    }
+
+    /**
+     * Binds the values of a row to the parameters of a statement.
+     *
+     * @param statement The statement to bind
+     * @param offset    Number of parameters before the first value of the row
+     * @param row       The values of the row, from {@link #toRow(StorageObject)}
+     * @throws SQLException if a value cannot be bound
+     */
+    void bind(PreparedStatement statement, int offset, Object[] row) throws SQLException {
+        for (int i = 0; i < row.length; i++) {
+            if (row[i] == null) {
+                statement.setNull(offset + i + 1, columns.get(i).kind.getSqlType());
+            } else {
+                statement.setObject(offset + i + 1, row[i]);
+            }
+        }
+    }
+
+    /**
+     * Creates an object from the current row of a result set selecting every column in column order.
+     * Columns holding null leave the field with the value set by the constructor.
+     *
+     * @param resultSet The result set positioned on the row
+     * @return The created object
+     * @throws SQLException          if a column cannot be read
+     * @throws IllegalStateException if the class has no constructor without parameters
+     */
+    Object fromRow(ResultSet resultSet) throws SQLException {
+        return fromRow(resultSet, columns);
+    }
+
+    /**
+     * Creates an object from the current row of a result set selecting some columns, in the given order.
+     * Fields without a selected column, and columns holding null, leave the field with the value set
+     * by the constructor.
+     *
+     * @param resultSet The result set positioned on the row
+     * @param selected  The selected columns
+     * @return The created object
+     * @throws SQLException          if a column cannot be read
+     * @throws IllegalStateException if the class has no constructor without parameters
+     */
+    Object fromRow(ResultSet resultSet, List<Column> selected) throws SQLException {
+        Object instance = codec.newInstance();
+        for (int i = 0; i < selected.size(); i++) {
+            Column column = selected.get(i);
+            if (column.accessor == null) {
+                continue;
+            }
+            Object value = column.read(resultSet, i + 1);
+            if (value != null) {
+                column.accessor.set(instance, value);
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Storage class of a column.
+     */
+    enum Kind {
+        BOOLEAN(Types.BOOLEAN),
+        INTEGER(Types.BIGINT),
+        REAL(Types.DOUBLE),
+        TEXT(Types.VARCHAR),
+        BLOB(Types.VARBINARY),
+        JSON(Types.VARCHAR);
+
+        private final int sqlType;
+
+        Kind(int sqlType) {
+            this.sqlType = sqlType;
+        }
+
+        /**
+         * Gets the {@link Types} constant used to bind a null value of this kind.
+         *
+         * @return The JDBC type
+         */
+        int getSqlType() {
+            return sqlType;
+        }
+
+        private static Kind of(Class<?> type) {
+            if (type == boolean.class || type == Boolean.class) {
+                return BOOLEAN;
+            }
+            if (type == int.class || type == Integer.class || type == long.class || type == Long.class
+                    || type == short.class || type == Short.class || type == byte.class || type == Byte.class) {
+                return INTEGER;
+            }
+            if (type == double.class || type == Double.class || type == float.class || type == Float.class) {
+                return REAL;
+            }
+            if (type == String.class || type == char.class || type == Character.class || type.isEnum()
+                    || type == UUID.class || type == BigInteger.class || type == BigDecimal.class) {
+                return TEXT;
+            }
+            if (type == byte[].class) {
+                return BLOB;
+            }
+            return JSON;
+        }
+    }
+
+    /**
+     * Column of a table, bound to the field it stores.
+     */
+    static final class Column {
+        private final String name;
+        private final ClassCodec.FieldAccessor accessor;
+        private final Field field;
+        private final Kind kind;
+        private final boolean indexed;
+        private final boolean required;
+        private final int maxLength;
+        private final Function<String, Object> parser;
+
+        private Column(String name, ClassCodec.FieldAccessor accessor, Kind kind, boolean indexed, boolean required, int maxLength) {
+            this.name = name;
+            this.accessor = accessor;
+            this.field = accessor != null ? accessor.getField() : null;
+            this.kind = kind;
+            this.indexed = indexed;
+            this.required = required;
+            this.maxLength = maxLength;
+            this.parser = field != null && kind == Kind.TEXT ? parser(field.getType()) : null;
+        }
+
+        String getName() {
+            return name;
+        }
+
+        Kind getKind() {
+            return kind;
+        }
+
+        boolean isIndexed() {
+            return indexed;
+        }
+
+        boolean isRequired() {
+            return required;
+        }
+
+        int getMaxLength() {
+            return maxLength;
+        }
+
+        Object toValue(Object value) {
+            if (value == null) {
+                return null;
+            }
+            return switch (kind) {
+                case BOOLEAN -> value;
+                case INTEGER -> ((Number) value).longValue();
+                case REAL -> ((Number) value).doubleValue();
+                case TEXT -> value instanceof Enum<?> constant ? constant.name() : value.toString();
+                case BLOB -> ((byte[]) value).clone();
+                case JSON -> GSON.toJson(value, field.getGenericType());
+            };
+        }
+
+        private Object read(ResultSet resultSet, int index) throws SQLException {
+            Class<?> type = field.getType();
+            switch (kind) {
+                case BOOLEAN -> {
+                    boolean value = resultSet.getBoolean(index);
+                    return resultSet.wasNull() ? null : value;
+                }
+                case INTEGER -> {
+                    long value = resultSet.getLong(index);
+                    if (resultSet.wasNull()) {
+                        return null;
+                    }
+                    if (type == int.class || type == Integer.class) {
+                        return (int) value;
+                    }
+                    if (type == short.class || type == Short.class) {
+                        return (short) value;
+                    }
+                    if (type == byte.class || type == Byte.class) {
+                        return (byte) value;
+                    }
+                    return value;
+                }
+                case REAL -> {
+                    double value = resultSet.getDouble(index);
+                    if (resultSet.wasNull()) {
+                        return null;
+                    }
+                    if (type == float.class || type == Float.class) {
+                        return (float) value;
+                    }
+                    return value;
+                }
+                case TEXT -> {
+                    String value = resultSet.getString(index);
+                    return value == null ? null : parser.apply(value);
+                }
+                case BLOB -> {
+                    return resultSet.getBytes(index);
+                }
+                default -> {
+                    String value = resultSet.getString(index);
+                    Type genericType = field.getGenericType();
+                    return value == null ? null : GSON.fromJson(value, genericType);
+                }
+            }
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        private static Function<String, Object> parser(Class<?> type) {
+            if (type == char.class || type == Character.class) {
+                return value -> value.isEmpty() ? '\0' : value.charAt(0);
+            }
+            if (type.isEnum()) {
+                return value -> Enum.valueOf((Class<Enum>) type, value);
+            }
+            if (type == UUID.class) {
+                return UUID::fromString;
+            }
+            if (type == BigInteger.class) {
+                return BigInteger::new;
+            }
+            if (type == BigDecimal.class) {
+                return BigDecimal::new;
+            }
+            return value -> value;
+        }
+    }
+}
@@ -3,8 +3,12 @@ package lol.jisz.astra.database.registry;
 import lol.jisz.astra.Astra;
 import lol.jisz.astra.database.AstraDatabase;
 import lol.jisz.astra.database.providers.DatabaseType;
+import lol.jisz.astra.database.providers.MariaDBProvider;
 import lol.jisz.astra.database.providers.MongoDBProvider;
+import lol.jisz.astra.database.providers.MySQLProvider;
 import lol.jisz.astra.database.providers.NullDBProvider;
+import lol.jisz.astra.database.providers.PostgreSQLProvider;
+import lol.jisz.astra.database.providers.SQLiteProvider;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.FileConfiguration;
 
@@ -26,6 +30,7 @@ public class DatabaseFactory {
      * @param path The path within the configuration to the database settings
      * @param type The type of database to create
      * @return The created database instance
+     * @throws IllegalStateException if the JDBC driver of the database is not on the classpath
      */
     public AstraDatabase createDatabase(FileConfiguration config, String path, DatabaseType type) {
         ConfigurationSection dbConfig = config.getConfigurationSection(path);
@@ -40,12 +45,18 @@ public class DatabaseFactory {
             type = DatabaseType.fromString(typeStr);
         }
 
+        if (!type.isDriverAvailable()) {
+            throw new IllegalStateException("Database type " + type.getName() + " at " + path + " needs the JDBC driver "
+                    + type.getDriver() + ", which this server does not provide: shade it into the plugin"
+                    + " or add it to the libraries of plugin.yml");
+        }
+
         return switch (type) {
             case MONGODB -> new MongoDBProvider(plugin, config);
-            case MYSQL, SQLITE, POSTGRESQL, MARIADB -> {
-                plugin.logger().warning("MySQL, SQLite, PostgreSQL, and MariaDB are not yet implemented. Using NullDatabase.");
-                yield new NullDBProvider();
-            }
+            case SQLITE -> new SQLiteProvider(plugin, config);
+            case MYSQL -> new MySQLProvider(plugin, config);
+            case MARIADB -> new MariaDBProvider(plugin, config);
+            case POSTGRESQL -> new PostgreSQLProvider(plugin, config);
             default -> {
                 plugin.logger().warning("Unsupported database type: " + type + ", using NullDatabase");
                 yield new NullDBProvider();
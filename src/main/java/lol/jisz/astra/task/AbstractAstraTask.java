@@ -1,12 +1,19 @@
 package lol.jisz.astra.task;
 
+import lol.jisz.astra.Astra;
+import lol.jisz.astra.api.Implements;
+import org.bukkit.Bukkit;
 import org.bukkit.scheduler.BukkitTask;
 
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Abstract base implementation of the AstraTask interface that provides common functionality
@@ -15,22 +22,36 @@ import java.util.concurrent.atomic.AtomicBoolean;
  */
 public abstract class AbstractAstraTask implements AstraTask {
 
+    private static final TaskListener[] NO_LISTENERS = new TaskListener[0];
+
     protected final String id;
     protected BukkitTask bukkitTask;
+    protected TaskExecutor executor;
     protected TaskPriority priority;
     protected final Set<String> dependencies;
     protected long timeoutMillis;
-    protected Runnable onCompleteAction;
-    protected ErrorHandler errorHandler;
+    private final AtomicReference<TaskListener[]> listeners;
+    protected final AtomicBoolean submitted;
     protected final AtomicBoolean cancelled;
     protected final AtomicBoolean running;
     protected final AtomicBoolean completed;
+    private final AtomicBoolean timedOut;
+    private final AtomicBoolean runOpen;
+    private final Object runLock;
+    private Thread runner;
+    private boolean runnerInterruptible;
+    private volatile HashedWheelTimer.Timeout timeoutHandle;
+    private final boolean anonymous;
+    private volatile long submittedNanos;
+    private volatile long readyNanos;
+    private volatile long startNanos;
+    private volatile long endNanos;
     
     /**
      * Creates a new task with a randomly generated UUID as its identifier.
      */
     public AbstractAstraTask() {
-        this(UUID.randomUUID().toString());
+        this(UUID.randomUUID().toString(), true);
     }
     
     /**
@@ -39,13 +60,23 @@ public abstract class AbstractAstraTask implements AstraTask {
      * @param id The unique identifier for this task
      */
     public AbstractAstraTask(String id) {
+        this(id, false);
+    }
+
+    private AbstractAstraTask(String id, boolean anonymous) {
         this.id = id;
+        this.anonymous = anonymous;
         this.priority = TaskPriority.NORMAL;
         this.dependencies = new HashSet<>();
         this.timeoutMillis = 0;
+        this.listeners = new AtomicReference<>(NO_LISTENERS);
+        this.submitted = new AtomicBoolean(false);
         this.cancelled = new AtomicBoolean(false);
         this.running = new AtomicBoolean(false);
         this.completed = new AtomicBoolean(false);
+        this.timedOut = new AtomicBoolean(false);
+        this.runOpen = new AtomicBoolean(false);
+        this.runLock = new Object();
     }
 
     /**
@@ -58,6 +89,15 @@ public abstract class AbstractAstraTask implements AstraTask {
         return id;
     }
 
+    /**
+     * Checks whether this task was created without an explicit identifier.
+     *
+     * @return true if the identifier of this task was generated
+     */
+    public boolean isAnonymous() {
+        return anonymous;
+    }
+
     /**
      * Returns the underlying Bukkit task if this task has been scheduled.
      *
@@ -68,8 +108,31 @@ public abstract class AbstractAstraTask implements AstraTask {
         return bukkitTask;
     }
 
+    /**
+     * Gets the executor used to run this task, if one was assigned.
+     *
+     * @return The task executor, or null to use the Bukkit scheduler
+     */
+    public TaskExecutor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Sets the executor used to run this task.
+     * Has no effect on a task that has already been submitted.
+     *
+     * @param executor The task executor, or null to use the Bukkit scheduler
+     * @return This task instance for method chaining
+     */
+    public AbstractAstraTask setExecutor(TaskExecutor executor) {
+        this.executor = executor;
+        return this;
+    }
+
     /**
      * Attempts to cancel this task if it's not already cancelled or completed.
+     * If the task is running off the main thread, the thread running it is interrupted
+     * so that blocking work can stop early.
      *
      * @return true if the task was cancelled, false if it was already cancelled or completed
      */
@@ -83,6 +146,7 @@ public abstract class AbstractAstraTask implements AstraTask {
         if (bukkitTask != null) {
             bukkitTask.cancel();
         }
+        interruptRunner();
         return true;
     }
 
@@ -103,7 +167,7 @@ public abstract class AbstractAstraTask implements AstraTask {
      */
     @Override
     public boolean isScheduled() {
-        return bukkitTask != null && !cancelled.get() && !completed.get();
+        return (bukkitTask != null || submitted.get()) && !cancelled.get() && !completed.get();
     }
 
     /**
@@ -185,8 +249,9 @@ public abstract class AbstractAstraTask implements AstraTask {
     }
 
     /**
-     * Sets a timeout for this task. If the task does not complete within the specified time,
-     * it may be cancelled or marked as failed depending on implementation.
+     * Sets a timeout for this task. If a run of the task does not finish within the specified time
+     * after it starts, the task is cancelled, its thread is interrupted unless it is the main thread,
+     * and it fails with a {@link AsyncAstraTask.TimeoutException}.
      *
      * @param timeout The timeout duration
      * @param unit The time unit of the timeout parameter
@@ -199,47 +264,156 @@ public abstract class AbstractAstraTask implements AstraTask {
     }
 
     /**
-     * Sets an action to run when this task completes successfully.
+     * Adds an action to run when this task completes successfully.
      *
      * @param runnable The action to run on completion
      * @return This task instance for method chaining
      */
     @Override
     public AstraTask onComplete(Runnable runnable) {
-        this.onCompleteAction = runnable;
+        if (runnable != null) {
+            addListener(TaskListener.onComplete(runnable));
+        }
         return this;
     }
 
     /**
-     * Sets an error handler to handle any exceptions thrown during task execution.
+     * Adds an error handler to handle any exceptions thrown during task execution.
      *
-     * @param errorHandler The error handler to use
+     * @param errorHandler The error handler to add
      * @return This task instance for method chaining
      */
     @Override
     public AstraTask onError(ErrorHandler errorHandler) {
-        this.errorHandler = errorHandler;
+        if (errorHandler != null) {
+            addListener(TaskListener.onError(errorHandler));
+        }
         return this;
     }
+
+    /**
+     * Adds a listener notified when this task completes or fails.
+     * The listener list is copied on write, so notifying listeners never takes a lock
+     * and adding an already attached listener allocates nothing.
+     *
+     * @param listener The listener to add
+     * @return This task instance for method chaining
+     */
+    @Override
+    public AstraTask addListener(TaskListener listener) {
+        if (listener == null) {
+            return this;
+        }
+
+        while (true) {
+            TaskListener[] current = listeners.get();
+            for (TaskListener attached : current) {
+                if (attached == listener) {
+                    return this;
+                }
+            }
+
+            TaskListener[] updated = Arrays.copyOf(current, current.length + 1);
+            updated[current.length] = listener;
+            if (listeners.compareAndSet(current, updated)) {
+                return this;
+            }
+        }
+    }
+
+    /**
+     * Removes a listener previously added to this task.
+     *
+     * @param listener The listener to remove
+     * @return true if the listener was removed, false if it was not attached
+     */
+    @Override
+    public boolean removeListener(TaskListener listener) {
+        while (true) {
+            TaskListener[] current = listeners.get();
+            int index = -1;
+            for (int i = 0; i < current.length; i++) {
+                if (current[i] == listener) {
+                    index = i;
+                    break;
+                }
+            }
+            if (index < 0) {
+                return false;
+            }
+
+            TaskListener[] updated = new TaskListener[current.length - 1];
+            System.arraycopy(current, 0, updated, 0, index);
+            System.arraycopy(current, index + 1, updated, index, updated.length - index);
+            if (listeners.compareAndSet(current, updated.length == 0 ? NO_LISTENERS : updated)) {
+                return true;
+            }
+        }
+    }
     
     /**
-     * Marks this task as currently running.
-     * Should be called at the beginning of task execution.
+     * Checks if this task failed because it exceeded its timeout.
+     *
+     * @return true if the task timed out
+     */
+    public boolean isTimedOut() {
+        return timedOut.get();
+    }
+
+    /**
+     * Marks this task as currently running and starts tracking its timeout, if any.
+     * Should be called at the beginning of task execution, on the thread running the task.
      */
     protected void markAsRunning() {
+        startNanos = System.nanoTime();
+        runOpen.set(true);
         running.set(true);
+        synchronized (runLock) {
+            runner = Thread.currentThread();
+            runnerInterruptible = !Bukkit.isPrimaryThread();
+        }
+        if (timeoutMillis > 0) {
+            timeoutHandle = HashedWheelTimer.shared().newTimeout(this::expire, timeoutMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Marks the end of a run of a repeating task, which stays scheduled.
+     */
+    protected void markAsIdle() {
+        finishRun();
+        running.set(false);
+    }
+
+    /**
+     * Stops treating the calling thread as the thread running this task.
+     * Used by tasks that hand their work off and complete later from another thread,
+     * so that cancelling them never interrupts an unrelated thread.
+     */
+    protected void detachRunner() {
+        synchronized (runLock) {
+            if (runner == Thread.currentThread()) {
+                runner = null;
+            }
+        }
     }
     
     /**
-     * Marks this task as completed and executes the completion callback if one is set.
-     * Any exceptions in the completion callback are passed to the error handler.
+     * Marks this task as completed and notifies the completion listeners.
+     * Any exceptions in a completion listener are passed to the error listeners,
+     * and the remaining completion listeners are still notified.
+     * A task that already timed out is not reported again.
      */
     protected void markAsCompleted() {
+        finishRun();
         running.set(false);
+        if (timedOut.get()) {
+            return;
+        }
         completed.set(true);
-        if (onCompleteAction != null) {
+        for (TaskListener listener : listeners.get()) {
             try {
-                onCompleteAction.run();
+                listener.onComplete(this);
             } catch (Exception e) {
                 handleError(e);
             }
@@ -247,14 +421,132 @@ public abstract class AbstractAstraTask implements AstraTask {
     }
     
     /**
-     * Handles an error that occurred during task execution by passing it to the
-     * registered error handler if one exists.
+     * Handles an error that occurred during task execution by passing it to every
+     * registered error listener. An error listener that throws does not prevent
+     * the others from being notified; its exception is added as suppressed.
      *
      * @param throwable The error that occurred
      */
     protected void handleError(Throwable throwable) {
-        if (errorHandler != null) {
-            errorHandler.handle(throwable);
+        finishRun();
+        if (timedOut.get() && !(throwable instanceof AsyncAstraTask.TimeoutException)) {
+            return;
+        }
+        for (TaskListener listener : listeners.get()) {
+            try {
+                listener.onError(this, throwable);
+            } catch (Exception e) {
+                if (e != throwable) {
+                    throwable.addSuppressed(e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Records the time this task was handed to the {@link TaskManager}.
+     */
+    void markSubmitted() {
+        submittedNanos = System.nanoTime();
+    }
+
+    /**
+     * Records the time this task had all of its dependencies satisfied and was queued to run.
+     */
+    void markReady() {
+        readyNanos = System.nanoTime();
+    }
+
+    long getSubmittedNanos() {
+        return submittedNanos;
+    }
+
+    long getReadyNanos() {
+        return readyNanos;
+    }
+
+    long getStartNanos() {
+        return startNanos;
+    }
+
+    long getEndNanos() {
+        return endNanos;
+    }
+
+    /**
+     * Called by the shared timer when a run exceeds the timeout of this task. The timer thread
+     * only flags the task and interrupts its run; the error is reported and the task cancelled
+     * from another thread, since listeners must not stall the timer.
+     */
+    private void expire() {
+        if (!running.get() || completed.get() || !timedOut.compareAndSet(false, true)) {
+            return;
+        }
+
+        cancelled.set(true);
+        interruptRunner();
+
+        Runnable report = () -> {
+            if (bukkitTask != null) {
+                bukkitTask.cancel();
+            }
+            handleError(new AsyncAstraTask.TimeoutException("The task " + id + " exceeded the time limit of " + timeoutMillis + "ms"));
+        };
+        TaskExecutor target = executor;
+        if (target != null && !KeyedLanes.isLane(target)) {
+            try {
+                target.execute(report);
+                return;
+            } catch (RejectedExecutionException ignored) {
+                // Report from the async pool instead
+            }
+        }
+        Astra plugin = Implements.getPlugin();
+        if (plugin != null && plugin.isEnabled()) {
+            Bukkit.getScheduler().runTaskAsynchronously(plugin, report);
+        } else {
+            ForkJoinPool.commonPool().execute(report);
+        }
+    }
+
+    /**
+     * Stops tracking the timeout of the current run and forgets the thread running it.
+     * When called from that thread, a pending interrupt caused by this task is cleared,
+     * so it never leaks into the next work the thread picks up.
+     * The end of a run is recorded once, even when a failing completion listener makes
+     * {@link #handleError(Throwable)} finish the run again.
+     */
+    private void finishRun() {
+        boolean firstEnd = runOpen.compareAndSet(true, false);
+        if (firstEnd || startNanos == 0) {
+            endNanos = System.nanoTime();
+        }
+        if (firstEnd && TaskTracer.isEnabled()) {
+            TaskTracer.record(id, startNanos, endNanos);
+        }
+        HashedWheelTimer.Timeout timeout = timeoutHandle;
+        if (timeout != null) {
+            timeoutHandle = null;
+            timeout.cancel();
+        }
+
+        boolean ownThread = false;
+        synchronized (runLock) {
+            if (runner == Thread.currentThread()) {
+                runner = null;
+                ownThread = true;
+            }
+        }
+        if (ownThread) {
+            Thread.interrupted();
+        }
+    }
+
+    private void interruptRunner() {
+        synchronized (runLock) {
+            if (runner != null && runnerInterruptible) {
+                runner.interrupt();
+            }
         }
     }
-}
\ No newline at end of file
+}
@@ -108,7 +108,8 @@ public interface AstraTask {
     AstraTask setTimeout(long timeout, TimeUnit unit);
     
     /**
-     * Sets a callback to be executed when this task completes successfully.
+     * Adds a callback to be executed when this task completes successfully.
+     * Callbacks added earlier are kept and run first.
      *
      * @param runnable The callback to execute on completion
      * @return This task instance for method chaining
@@ -116,13 +117,31 @@ public interface AstraTask {
     AstraTask onComplete(Runnable runnable);
     
     /**
-     * Sets an error handler to be called if this task encounters an error.
+     * Adds an error handler to be called if this task encounters an error.
+     * Handlers added earlier are kept and run first.
      *
      * @param errorHandler The handler for task errors
      * @return This task instance for method chaining
      */
     AstraTask onError(ErrorHandler errorHandler);
 
+    /**
+     * Adds a listener notified when this task completes or fails.
+     * Adding the same listener instance more than once has no effect.
+     *
+     * @param listener The listener to add
+     * @return This task instance for method chaining
+     */
+    AstraTask addListener(TaskListener listener);
+
+    /**
+     * Removes a listener previously added to this task.
+     *
+     * @param listener The listener to remove
+     * @return true if the listener was removed, false if it was not attached
+     */
+    boolean removeListener(TaskListener listener);
+
     /**
      * Functional interface for handling errors that occur during task execution.
      */
@@ -1,15 +1,18 @@
 package lol.jisz.astra.task;
 
 import lol.jisz.astra.Astra;
+import lol.jisz.astra.api.Implements;
 import org.bukkit.Bukkit;
 
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Represents an asynchronous task in the Astra plugin framework.
  * This class extends AbstractAstraTask to provide asynchronous execution capabilities
- * using Bukkit's scheduler.
+ * using Bukkit's scheduler, or the {@link TaskExecutor} assigned to the task.
  */
 public class AsyncAstraTask extends AbstractAstraTask {
 
@@ -41,6 +44,17 @@ public class AsyncAstraTask extends AbstractAstraTask {
         this.runnable = runnable;
     }
 
+    /**
+     * Constructs a task without a body, for subclasses that override both {@link #runBody()}
+     * and {@link #runRepeated()}.
+     *
+     * @param plugin The Astra plugin instance that owns this task
+     * @param id     The unique identifier for this task
+     */
+    private AsyncAstraTask(Astra plugin, String id) {
+        this(plugin, id, null);
+    }
+
     /**
      * Executes this task asynchronously immediately.
      * If the task is already scheduled, completed, or cancelled, this method has no effect.
@@ -52,17 +66,28 @@ public class AsyncAstraTask extends AbstractAstraTask {
             return this;
         }
 
-        bukkitTask = Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+        Runnable body = () -> {
             if (cancelled.get()) return;
 
             try {
-                markAsRunning();
-                runnable.run();
-                markAsCompleted();
+                runBody();
             } catch (Throwable t) {
                 handleError(t);
             }
-        });
+        };
+
+        if (executor == null) {
+            bukkitTask = Bukkit.getScheduler().runTaskAsynchronously(plugin, body);
+            return this;
+        }
+
+        submitted.set(true);
+        try {
+            executor.execute(body);
+        } catch (RejectedExecutionException e) {
+            submitted.set(false);
+            handleError(e);
+        }
 
         return this;
     }
@@ -79,23 +104,25 @@ public class AsyncAstraTask extends AbstractAstraTask {
             return this;
         }
 
-        bukkitTask = Bukkit.getScheduler().runTaskLaterAsynchronously(plugin, () -> {
+        bukkitTask = Bukkit.getScheduler().runTaskLaterAsynchronously(plugin, () -> runOnExecutor(() -> {
             if (cancelled.get()) return;
 
             try {
-                markAsRunning();
-                runnable.run();
-                markAsCompleted();
+                runBody();
             } catch (Throwable t) {
                 handleError(t);
             }
-        }, delayTicks);
+        }), delayTicks);
 
         return this;
     }
 
     /**
      * Schedules this task to execute asynchronously repeatedly at fixed intervals.
+     * Runs are driven by the shared async {@link TickWheel} of the plugin and handed off to the
+     * assigned executor. Without one, runs go to the async backend of the {@link TaskManager} in a
+     * lane of their own, taking an async slot only while they run, or to the Bukkit scheduler when
+     * no task manager is registered. A run is skipped while the previous one is still in progress.
      * If the task is already scheduled, completed, or cancelled, this method has no effect.
      *
      * @param delayTicks  The delay in server ticks before the first execution
@@ -107,29 +134,91 @@ public class AsyncAstraTask extends AbstractAstraTask {
             return this;
         }
 
-        bukkitTask = Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, () -> {
+        if (executor == null) {
+            TaskManager manager = Implements.fetch(TaskManager.class);
+            if (manager != null) {
+                executor = manager.repeatingExecutor(this);
+            }
+        }
+
+        AtomicBoolean inFlight = new AtomicBoolean(false);
+        bukkitTask = TickWheel.async(plugin).schedule(id, handle -> {
             if (cancelled.get()) {
-                if (bukkitTask != null) {
-                    bukkitTask.cancel();
+                handle.cancel();
+                return;
+            }
+            if (!inFlight.compareAndSet(false, true)) {
+                return;
+            }
+
+            Runnable body = () -> {
+                try {
+                    if (cancelled.get()) return;
+                    markAsRunning();
+                    runRepeated();
+                    markAsIdle();
+                } catch (Throwable t) {
+                    handleError(t);
+                    handle.cancel();
+                } finally {
+                    inFlight.set(false);
                 }
+            };
+
+            if (executor == null) {
+                Bukkit.getScheduler().runTaskAsynchronously(plugin, body);
                 return;
             }
 
             try {
-                markAsRunning();
-                runnable.run();
-                running.set(false);
-            } catch (Throwable t) {
-                handleError(t);
-                if (bukkitTask != null) {
-                    bukkitTask.cancel();
-                }
+                executor.execute(body);
+            } catch (RejectedExecutionException e) {
+                inFlight.set(false);
+                handleError(e);
+                handle.cancel();
             }
         }, delayTicks, periodTicks);
 
         return this;
     }
 
+    /**
+     * Runs the body of a single execution and completes the task.
+     * Subclasses may override it to complete the task later, from a continuation,
+     * instead of blocking the calling thread.
+     */
+    protected void runBody() {
+        markAsRunning();
+        runnable.run();
+        markAsCompleted();
+    }
+
+    /**
+     * Runs the body of one run of a repeating execution, which leaves the task scheduled.
+     */
+    protected void runRepeated() {
+        runnable.run();
+    }
+
+    /**
+     * Runs a timer callback on the assigned executor, or inline on the Bukkit async thread
+     * that fired the timer when no executor is assigned.
+     *
+     * @param body The work to run
+     */
+    private void runOnExecutor(Runnable body) {
+        if (executor == null) {
+            body.run();
+            return;
+        }
+
+        try {
+            executor.execute(body);
+        } catch (RejectedExecutionException e) {
+            handleError(e);
+        }
+    }
+
     /**
      * Registers an action to run on the main server thread after this task completes.
      *
@@ -175,26 +264,16 @@ public class AsyncAstraTask extends AbstractAstraTask {
     }
 
     /**
-     * Sets a timeout for this task, after which it will be cancelled if not completed.
-     * Overrides the parent method to provide asynchronous timeout handling.
+     * Sets a timeout for this task. Each run is tracked by the shared {@link HashedWheelTimer}
+     * with millisecond precision; a run that exceeds it is cancelled and its thread interrupted.
      *
-     * @param timeout The maximum time to allow the task to run
+     * @param timeout The maximum time to allow each run of the task
      * @param unit    The time unit of the timeout parameter
      * @return This task instance for method chaining
      */
     @Override
     public AsyncAstraTask setTimeout(long timeout, TimeUnit unit) {
         super.setTimeout(timeout, unit);
-        
-        if (timeout > 0) {
-            Bukkit.getScheduler().runTaskLaterAsynchronously(plugin, () -> {
-                if (isRunning() && !isCompleted() && !isCancelled()) {
-                    cancel();
-                    handleError(new TimeoutException("The asynchronous task " + getId() + " exceeded the time limit of " + timeout + " " + unit.name().toLowerCase()));
-                }
-            }, Math.max(1, unit.toSeconds(timeout) * 20));
-        }
-        
         return this;
     }
 
@@ -213,43 +292,35 @@ public class AsyncAstraTask extends AbstractAstraTask {
     }
 
     /**
-     * Creates a new task that executes the specified action on the main server thread
-     * while blocking the current asynchronous thread until completion.
+     * Creates a new task that executes the specified action on the main server thread.
+     * The action is handed to the {@link MainThreadDispatcher} of the plugin, so no asynchronous
+     * thread is blocked while it waits; the returned task completes once the action has run,
+     * or fails with the error the action threw.
      * This is useful for accessing Bukkit API methods that require synchronous execution.
      *
      * @param bukkitAction The action to run on the main server thread
      * @return A new AsyncAstraTask that will execute the wrapped action
      */
     public AsyncAstraTask withBukkitContext(Runnable bukkitAction) {
-        Runnable wrappedRunnable = () -> {
-            try {
-                Object lock = new Object();
-                AtomicReference<Throwable> error = new AtomicReference<>();
-
-                synchronized (lock) {
-                    Bukkit.getScheduler().runTask(plugin, () -> {
-                        try {
-                            bukkitAction.run();
-                        } catch (Throwable t) {
-                            error.set(t);
-                        } finally {
-                            synchronized (lock) {
-                                lock.notify();
-                            }
-                        }
-                    });
-
-                    lock.wait();
-                }
+        return new AsyncAstraTask(plugin, getId()) {
+            @Override
+            protected void runRepeated() {
+                MainThreadDispatcher.of(plugin).execute(bukkitAction);
+            }
 
-                if (error.get() != null) {
-                    throw error.get();
-                }
-            } catch (Throwable t) {
-                handleError(t);
+            @Override
+            protected void runBody() {
+                markAsRunning();
+                detachRunner();
+                MainThreadDispatcher.of(plugin).run(bukkitAction).whenComplete((ignored, error) -> {
+                    if (error == null) {
+                        markAsCompleted();
+                    } else {
+                        running.set(false);
+                        handleError(error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+                    }
+                });
             }
         };
-
-        return new AsyncAstraTask(plugin, getId(), wrappedRunnable);
     }
-}
\ No newline at end of file
+}
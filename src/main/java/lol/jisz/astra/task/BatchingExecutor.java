@@ -0,0 +1,351 @@
+package lol.jisz.astra.task;
+
+import org.bukkit.Bukkit;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Stage that groups small units of work into batches before handing them to a consumer.
+ * <p>
+ * Items are submitted under a batch key and buffered per key. A buffer is handed to the consumer,
+ * on the executor of this stage, as soon as it holds {@code maxBatchSize} items or its oldest item
+ * has waited {@code maxDelay}, whichever comes first, so a burst of N saves costs one round trip
+ * instead of N. The latency deadline of each buffer is a single timeout on the shared
+ * {@link HashedWheelTimer}. Batches of the same key are consumed one at a time, in the order their
+ * items were submitted, so a later item of a key never overtakes an earlier one.
+ * <p>
+ * The number of items buffered or being consumed is bounded. Once the bound is reached, callers
+ * off the main thread wait until the consumer catches up, while the main thread is never blocked
+ * nor refused: its submissions are accepted past the bound. Waiting callers park on a
+ * {@link Condition} rather than a monitor, so a waiting virtual thread does not pin its carrier.
+ *
+ * @param <K> Type of the batch keys, which should be a small set such as the type of the stored objects
+ * @param <T> Type of the batched items
+ */
+public final class BatchingExecutor<K, T> {
+
+    private final String name;
+    private final int maxBatchSize;
+    private final long maxDelayNanos;
+    private final int maxPending;
+    private final AtomicInteger pending;
+    private final ReentrantLock roomLock;
+    private final Condition released;
+    private final Executor executor;
+    private final BatchConsumer<K, T> consumer;
+    private final Map<K, Buffer> buffers;
+    private volatile boolean closed;
+
+    /**
+     * Creates a new batching stage.
+     *
+     * @param name         Name of the stage, used in error messages
+     * @param maxBatchSize Largest number of items handed to the consumer at once
+     * @param maxDelay     Longest time an item waits for its batch to fill up
+     * @param unit         Time unit of the delay
+     * @param maxPending   Largest number of items buffered or being consumed at the same time
+     * @param executor     Executor running the consumer
+     * @param consumer     Consumer receiving every batch
+     */
+    public BatchingExecutor(String name, int maxBatchSize, long maxDelay, TimeUnit unit, int maxPending,
+                            Executor executor, BatchConsumer<K, T> consumer) {
+        this.name = name;
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.maxDelayNanos = Math.max(0, unit.toNanos(maxDelay));
+        this.maxPending = Math.max(this.maxBatchSize, maxPending);
+        this.pending = new AtomicInteger();
+        this.roomLock = new ReentrantLock();
+        this.released = roomLock.newCondition();
+        this.executor = executor;
+        this.consumer = consumer;
+        this.buffers = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Adds an item to the batch of a key.
+     *
+     * @param key  Key of the batch
+     * @param item The item to add
+     * @return A future completed once the batch holding the item has been consumed,
+     *         or failed with the error thrown by the consumer
+     */
+    public CompletableFuture<Void> submit(K key, T item) {
+        if (closed) {
+            return CompletableFuture.failedFuture(new RejectedExecutionException(name + " is closed"));
+        }
+
+        if (!tryReserve()) {
+            if (Bukkit.isPrimaryThread()) {
+                pending.incrementAndGet();
+            } else {
+                try {
+                    roomLock.lockInterruptibly();
+                    try {
+                        while (!tryReserve()) {
+                            released.await();
+                        }
+                    } finally {
+                        roomLock.unlock();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return CompletableFuture.failedFuture(e);
+                }
+            }
+        }
+
+        Buffer buffer = buffers.get(key);
+        if (buffer == null) {
+            buffer = buffers.computeIfAbsent(key, Buffer::new);
+        }
+
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        Batch full = null;
+        synchronized (buffer) {
+            buffer.items.add(item);
+            buffer.futures.add(future);
+            if (buffer.items.size() >= maxBatchSize) {
+                full = buffer.drain();
+            } else if (buffer.items.size() == 1) {
+                Buffer target = buffer;
+                buffer.deadline = HashedWheelTimer.shared().newTimeout(() -> flush(target), maxDelayNanos, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        if (full != null) {
+            dispatch(full);
+        }
+        return future;
+    }
+
+    /**
+     * Hands every buffered item to the consumer right away, without waiting for the thresholds.
+     */
+    public void flush() {
+        for (Buffer buffer : buffers.values()) {
+            flush(buffer);
+        }
+    }
+
+    /**
+     * Rejects new items, flushes the buffered ones and waits for the consumer to finish them.
+     *
+     * @param timeout Longest time to wait
+     * @param unit    Time unit of the timeout
+     * @return true if every item was consumed in time
+     */
+    public boolean close(long timeout, TimeUnit unit) {
+        closed = true;
+        flush();
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        try {
+            roomLock.lockInterruptibly();
+            try {
+                while (pending.get() > 0) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        return false;
+                    }
+                    released.awaitNanos(remaining);
+                }
+            } finally {
+                roomLock.unlock();
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Gets the number of items buffered or being consumed.
+     *
+     * @return Number of pending items
+     */
+    public int getPendingCount() {
+        return pending.get();
+    }
+
+    /**
+     * Counts one more pending item if the bound allows it.
+     */
+    private boolean tryReserve() {
+        while (true) {
+            int current = pending.get();
+            if (current >= maxPending) {
+                return false;
+            }
+            if (pending.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Stops counting consumed items and wakes up the callers waiting for room.
+     */
+    private void release(int items) {
+        pending.addAndGet(-items);
+        roomLock.lock();
+        try {
+            released.signalAll();
+        } finally {
+            roomLock.unlock();
+        }
+    }
+
+    private void flush(Buffer buffer) {
+        Batch batch;
+        synchronized (buffer) {
+            if (buffer.items.isEmpty()) {
+                return;
+            }
+            batch = buffer.drain();
+        }
+        if (batch != null) {
+            dispatch(batch);
+        }
+    }
+
+    /**
+     * Hands the first batch of a key to the consumer. The batches drained while it is consumed
+     * are picked up by the same consumer run.
+     */
+    private void dispatch(Batch batch) {
+        Buffer buffer = batch.buffer;
+        try {
+            executor.execute(() -> consume(batch));
+        } catch (RejectedExecutionException e) {
+            List<Batch> rejected = new ArrayList<>();
+            rejected.add(batch);
+            synchronized (buffer) {
+                rejected.addAll(buffer.ready);
+                buffer.ready.clear();
+                buffer.consuming = false;
+            }
+            rejected.forEach(failed -> failed.fail(e));
+        }
+    }
+
+    /**
+     * Consumes a batch, then every batch of its key queued meanwhile.
+     */
+    private void consume(Batch batch) {
+        Buffer buffer = batch.buffer;
+        while (batch != null) {
+            try {
+                consumer.accept(buffer.key, Collections.unmodifiableList(batch.items));
+                batch.complete();
+            } catch (Throwable t) {
+                batch.fail(t);
+            }
+
+            synchronized (buffer) {
+                batch = buffer.ready.poll();
+                if (batch == null) {
+                    buffer.consuming = false;
+                }
+            }
+        }
+    }
+
+    /**
+     * Items of a key waiting for their batch to fill up, guarded by its own monitor.
+     */
+    private final class Buffer {
+        private final K key;
+        private final Deque<Batch> ready = new ArrayDeque<>();
+        private List<T> items = new ArrayList<>();
+        private List<CompletableFuture<Void>> futures = new ArrayList<>();
+        private HashedWheelTimer.Timeout deadline;
+        private boolean consuming;
+
+        private Buffer(K key) {
+            this.key = key;
+        }
+
+        /**
+         * Turns the buffered items into a batch. Called with the monitor held, so batches are
+         * queued in the order they were drained.
+         *
+         * @return The batch, if it has to be dispatched, or null if it was queued behind the
+         *         batch being consumed
+         */
+        private Batch drain() {
+            if (deadline != null) {
+                deadline.cancel();
+                deadline = null;
+            }
+            Batch batch = new Batch(this, items, futures);
+            items = new ArrayList<>(Math.min(maxBatchSize, 64));
+            futures = new ArrayList<>(Math.min(maxBatchSize, 64));
+            if (consuming) {
+                ready.add(batch);
+                return null;
+            }
+            consuming = true;
+            return batch;
+        }
+    }
+
+    /**
+     * Items handed to the consumer together, with the futures of their submitters.
+     */
+    private final class Batch {
+        private final Buffer buffer;
+        private final List<T> items;
+        private final List<CompletableFuture<Void>> futures;
+
+        private Batch(Buffer buffer, List<T> items, List<CompletableFuture<Void>> futures) {
+            this.buffer = buffer;
+            this.items = items;
+            this.futures = futures;
+        }
+
+        private void complete() {
+            release(items.size());
+            for (CompletableFuture<Void> future : futures) {
+                future.complete(null);
+            }
+        }
+
+        private void fail(Throwable throwable) {
+            release(items.size());
+            for (CompletableFuture<Void> future : futures) {
+                future.completeExceptionally(throwable);
+            }
+        }
+    }
+
+    /**
+     * Consumer receiving the batches of a {@link BatchingExecutor}.
+     *
+     * @param <K> Type of the batch keys
+     * @param <T> Type of the batched items
+     */
+    @FunctionalInterface
+    public interface BatchConsumer<K, T> {
+        /**
+         * Processes a batch of items.
+         *
+         * @param key   Key of the batch
+         * @param batch Items of the batch, in the order they were submitted
+         * @throws Exception If the batch could not be processed, which fails every item in it
+         */
+        void accept(K key, List<T> batch) throws Exception;
+    }
+}
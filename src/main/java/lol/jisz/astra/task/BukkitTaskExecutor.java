@@ -0,0 +1,40 @@
+package lol.jisz.astra.task;
+
+import lol.jisz.astra.Astra;
+import org.bukkit.Bukkit;
+
+/**
+ * Task executor backed by the Bukkit asynchronous scheduler.
+ * This is the default backend: tasks share the bounded thread pool that Bukkit
+ * uses for every plugin, so it is best suited for short, CPU bound work.
+ */
+public class BukkitTaskExecutor implements TaskExecutor {
+
+    private static final int MAX_CONCURRENCY = 20;
+
+    private final Astra plugin;
+
+    /**
+     * Creates a new executor that submits work to the Bukkit asynchronous scheduler.
+     *
+     * @param plugin The plugin that owns the submitted tasks
+     */
+    public BukkitTaskExecutor(Astra plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, command);
+    }
+
+    @Override
+    public String getName() {
+        return "Bukkit";
+    }
+
+    @Override
+    public int getMaxConcurrency() {
+        return MAX_CONCURRENCY;
+    }
+}
@@ -0,0 +1,135 @@
+package lol.jisz.astra.task;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Limits how many asynchronous tasks run at the same time, overall and per {@link TaskPriority}.
+ * <p>
+ * Each priority level may only use a share of the global limit, so lower priority work
+ * always leaves room for more important tasks. The global limit itself is adjusted by the
+ * {@link TaskManager} when adaptive concurrency is enabled.
+ */
+final class ConcurrencyLimiter {
+
+    private static final double[] PRIORITY_SHARES = {1.0, 0.9, 0.75, 0.5, 0.25};
+
+    private final AtomicInteger inFlight;
+    private final AtomicIntegerArray inFlightByPriority;
+    private volatile int limit;
+
+    /**
+     * Creates a new limiter.
+     *
+     * @param limit Initial global limit
+     */
+    ConcurrencyLimiter(int limit) {
+        this.inFlight = new AtomicInteger();
+        this.inFlightByPriority = new AtomicIntegerArray(TaskPriority.values().length);
+        setLimit(limit);
+    }
+
+    /**
+     * Checks whether a task of the given priority could acquire a slot right now.
+     *
+     * @param priority Priority of the task
+     * @return true if a slot is available
+     */
+    boolean hasCapacity(TaskPriority priority) {
+        return inFlight.get() < limit && inFlightByPriority.get(priority.ordinal()) < getLimit(priority);
+    }
+
+    /**
+     * Tries to acquire a slot for a task of the given priority.
+     *
+     * @param priority Priority of the task
+     * @return true if the slot was acquired and must be released later
+     */
+    boolean tryAcquire(TaskPriority priority) {
+        int level = priority.ordinal();
+        int levelLimit = getLimit(priority);
+
+        while (true) {
+            int total = inFlight.get();
+            if (total >= limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(total, total + 1)) {
+                break;
+            }
+        }
+
+        while (true) {
+            int current = inFlightByPriority.get(level);
+            if (current >= levelLimit) {
+                inFlight.decrementAndGet();
+                return false;
+            }
+            if (inFlightByPriority.compareAndSet(level, current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Releases a slot previously acquired with {@link #tryAcquire(TaskPriority)}.
+     *
+     * @param priority Priority used to acquire the slot
+     */
+    void release(TaskPriority priority) {
+        inFlightByPriority.decrementAndGet(priority.ordinal());
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * Gets the global limit.
+     *
+     * @return Maximum number of tasks in flight
+     */
+    int getLimit() {
+        return limit;
+    }
+
+    /**
+     * Gets the limit of a single priority level.
+     *
+     * @param priority Priority level
+     * @return Maximum number of tasks of that priority in flight
+     */
+    int getLimit(TaskPriority priority) {
+        return Math.max(1, (int) Math.ceil(limit * PRIORITY_SHARES[priority.ordinal()]));
+    }
+
+    /**
+     * Sets the global limit. Slots already acquired are kept until released.
+     *
+     * @param limit New global limit
+     */
+    void setLimit(int limit) {
+        this.limit = Math.max(1, limit);
+    }
+
+    /**
+     * Gets the number of slots in use.
+     *
+     * @return Number of tasks in flight
+     */
+    int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * Gets the number of slots in use per priority level.
+     *
+     * @return Map of priority to number of tasks in flight
+     */
+    Map<TaskPriority, Integer> getInFlightByPriority() {
+        Map<TaskPriority, Integer> snapshot = new EnumMap<>(TaskPriority.class);
+        for (TaskPriority priority : TaskPriority.values()) {
+            snapshot.put(priority, inFlightByPriority.get(priority.ordinal()));
+        }
+        return snapshot;
+    }
+}
@@ -0,0 +1,347 @@
+package lol.jisz.astra.task;
+
+import lol.jisz.astra.Astra;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Queue of tasks that survive a restart of the server.
+ * <p>
+ * A durable task is a serializable descriptor, a type and a string payload, instead of a closure:
+ * the code that runs it is a handler registered for its type. Every submitted task is written to a
+ * memory-mapped journal in the data folder of the plugin before it is dispatched to the
+ * {@link TaskManager}, and an acknowledgement is written once it completes. Tasks that were not
+ * acknowledged when the server stopped, because they were pending, running, failed or cancelled,
+ * are replayed when the queue is opened again and their handler is registered, so every task runs
+ * at least once. Handlers must therefore be idempotent.
+ * <p>
+ * Submitting only enqueues the descriptor: a single writer thread appends it to the journal and
+ * dispatches it, so thousands of tasks per second can be journaled without any disk access on the
+ * calling thread. The journal is forced to the storage device every {@value #FORCE_INTERVAL_MILLIS}
+ * milliseconds, and when the queue closes.
+ */
+public final class DurableTaskQueue {
+
+    /**
+     * Name of the directory, inside the data folder of the plugin, that holds the journal.
+     */
+    public static final String DIRECTORY = "journal";
+
+    private static final long FORCE_INTERVAL_MILLIS = 100;
+    private static final long CLOSE_TIMEOUT_MILLIS = 5000;
+
+    private final TaskManager taskManager;
+    private final Astra plugin;
+    private final TaskJournal journal;
+    private final Map<String, Handler> handlers;
+    private final ConcurrentSkipListMap<Long, Pending> pending;
+    private final ConcurrentLinkedQueue<Object> outbox;
+    private final AtomicLong sequence;
+    private final Thread writer;
+    private volatile boolean idle;
+    private volatile boolean closed;
+
+    DurableTaskQueue(TaskManager taskManager, Astra plugin, Path directory) {
+        this.taskManager = taskManager;
+        this.plugin = plugin;
+        this.journal = new TaskJournal(directory, plugin.logger());
+        this.handlers = new ConcurrentHashMap<>();
+        this.pending = new ConcurrentSkipListMap<>();
+        this.outbox = new ConcurrentLinkedQueue<>();
+        this.sequence = new AtomicLong();
+        this.writer = new Thread(this::writeLoop, "Astra-Journal");
+        this.writer.setDaemon(true);
+    }
+
+    /**
+     * Reads the journal, keeps the tasks that were never acknowledged for replay,
+     * and starts the writer thread.
+     *
+     * @throws IOException If the journal cannot be read or created
+     */
+    void open() throws IOException {
+        Map<Long, TaskJournal.Record> unacknowledged = new ConcurrentSkipListMap<>();
+        long last = 0;
+        for (TaskJournal.Record record : journal.open()) {
+            last = Math.max(last, record.sequence);
+            if (record.kind == TaskJournal.KIND_TASK) {
+                unacknowledged.put(record.sequence, record);
+            } else {
+                unacknowledged.remove(record.sequence);
+            }
+        }
+
+        for (TaskJournal.Record record : unacknowledged.values()) {
+            pending.put(record.sequence, new Pending(record));
+        }
+        sequence.set(last);
+        writer.start();
+
+        if (!pending.isEmpty()) {
+            plugin.logger().info("Durable task journal has " + pending.size() + " tasks to replay");
+        }
+    }
+
+    /**
+     * Registers the handler that runs the tasks of a type, and replays the pending tasks of
+     * that type found in the journal. Registering a type again replaces its handler.
+     *
+     * @param type    Type of the tasks handled
+     * @param async   Whether the handler runs asynchronously or on the main thread
+     * @param handler Handler receiving the payload of each task
+     */
+    public void registerHandler(String type, boolean async, TaskHandler handler) {
+        handlers.put(type, new Handler(async, handler));
+        for (Pending entry : pending.values()) {
+            if (entry.record.type.equals(type)) {
+                dispatch(entry);
+            }
+        }
+    }
+
+    /**
+     * Submits a task to run as soon as it has been journaled.
+     *
+     * @param type    Type of the task, selecting its handler
+     * @param payload Payload handed to the handler
+     * @return Sequence number of the task in the journal
+     */
+    public long submit(String type, String payload) {
+        return submit(type, payload, 0, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Submits a task to run after a delay. The delay is measured in wall clock time, so a task
+     * whose time passed while the server was stopped runs as soon as it is replayed.
+     *
+     * @param type    Type of the task, selecting its handler
+     * @param payload Payload handed to the handler
+     * @param delay   Delay before the task runs
+     * @param unit    Time unit of the delay
+     * @return Sequence number of the task in the journal
+     * @throws IllegalStateException If the queue is closed
+     */
+    public long submit(String type, String payload, long delay, TimeUnit unit) {
+        if (closed) {
+            throw new IllegalStateException("Durable task queue is closed");
+        }
+        long runAt = delay > 0 ? System.currentTimeMillis() + unit.toMillis(delay) : 0;
+        long id = sequence.incrementAndGet();
+        offer(new TaskJournal.Record(TaskJournal.KIND_TASK, id, type, payload, runAt));
+        return id;
+    }
+
+    /**
+     * Gets the number of tasks journaled but not acknowledged yet.
+     *
+     * @return Number of pending tasks
+     */
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Stops accepting tasks, journals everything already submitted, and closes the journal.
+     * Tasks still pending are replayed the next time the queue is opened.
+     */
+    void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(CLOSE_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writer.isAlive()) {
+            plugin.logger().warning("Durable task journal did not close in time, the latest tasks may be replayed");
+        }
+    }
+
+    private void offer(Object command) {
+        outbox.offer(command);
+        if (idle) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    /**
+     * Body of the writer thread, the only thread touching the journal.
+     */
+    private void writeLoop() {
+        long forceInterval = TimeUnit.MILLISECONDS.toNanos(FORCE_INTERVAL_MILLIS);
+        long lastForce = System.nanoTime();
+
+        while (true) {
+            Object command;
+            while ((command = outbox.poll()) != null) {
+                write(command);
+            }
+
+            long now = System.nanoTime();
+            if (now - lastForce >= forceInterval) {
+                journal.force();
+                lastForce = now;
+            }
+
+            if (closed) {
+                if (outbox.isEmpty()) {
+                    break;
+                }
+                continue;
+            }
+
+            idle = true;
+            if (outbox.isEmpty()) {
+                LockSupport.parkNanos(this, forceInterval);
+            }
+            idle = false;
+        }
+
+        journal.close();
+    }
+
+    private void write(Object command) {
+        if (command instanceof TaskJournal.Record record) {
+            append(record);
+            Pending entry = new Pending(record);
+            pending.put(record.sequence, entry);
+            dispatch(entry);
+        } else {
+            append(((Pending) command).acknowledgement());
+        }
+    }
+
+    private void append(TaskJournal.Record record) {
+        try {
+            journal.append(record, this::pendingRecords);
+        } catch (IOException | RuntimeException e) {
+            plugin.logger().error("Error writing durable task " + record.sequence + " to the journal", e);
+        }
+    }
+
+    private List<TaskJournal.Record> pendingRecords() {
+        List<TaskJournal.Record> records = new ArrayList<>(pending.size());
+        for (Pending entry : pending.values()) {
+            records.add(entry.record);
+        }
+        return records;
+    }
+
+    /**
+     * Hands a journaled task to the task manager, once its handler is registered and its time
+     * has come. A task is dispatched at most once per opening of the queue. Delayed tasks wait on
+     * the shared timer, whose thread only hands them to the async executor of the task manager.
+     */
+    private void dispatch(Pending entry) {
+        Handler handler = handlers.get(entry.record.type);
+        if (handler == null || closed || !entry.dispatched.compareAndSet(false, true)) {
+            return;
+        }
+
+        long delay = entry.record.runAt - System.currentTimeMillis();
+        if (entry.record.runAt > 0 && delay > 0) {
+            HashedWheelTimer.shared().newTimeout(() -> startLater(entry, handler), delay, TimeUnit.MILLISECONDS);
+        } else {
+            start(entry, handler);
+        }
+    }
+
+    private void startLater(Pending entry, Handler handler) {
+        if (closed) {
+            return;
+        }
+        try {
+            taskManager.getAsyncExecutor().execute(() -> start(entry, handler));
+        } catch (RejectedExecutionException e) {
+            plugin.logger().error("Error dispatching durable task " + entry.record.sequence, e);
+        }
+    }
+
+    private void start(Pending entry, Handler handler) {
+        if (closed) {
+            return;
+        }
+
+        String payload = entry.record.payload;
+        Runnable body = () -> handler.handler.handle(payload);
+        AstraTask task = handler.async ? taskManager.createAsyncTask(body) : taskManager.createSyncTask(body);
+        task.addListener(entry);
+
+        try {
+            taskManager.scheduleTask(task);
+        } catch (RuntimeException e) {
+            plugin.logger().error("Error dispatching durable task " + entry.record.sequence, e);
+        }
+    }
+
+    /**
+     * Task journaled and not acknowledged yet. Acknowledges itself when its task completes.
+     */
+    private final class Pending implements TaskListener {
+        private final TaskJournal.Record record;
+        private final AtomicBoolean dispatched = new AtomicBoolean(false);
+
+        private Pending(TaskJournal.Record record) {
+            this.record = record;
+        }
+
+        private TaskJournal.Record acknowledgement() {
+            return new TaskJournal.Record(TaskJournal.KIND_ACK, record.sequence, null, null, 0);
+        }
+
+        @Override
+        public void onComplete(AstraTask task) {
+            if (pending.remove(record.sequence, this) && !closed) {
+                offer(this);
+            }
+        }
+
+        @Override
+        public void onError(AstraTask task, Throwable throwable) {
+            plugin.logger().warning("Durable task " + record.sequence + " of type " + record.type
+                    + " failed and will be replayed on the next start");
+        }
+    }
+
+    /**
+     * Handler registered for a type, with the thread it runs on.
+     */
+    private static final class Handler {
+        private final boolean async;
+        private final TaskHandler handler;
+
+        private Handler(boolean async, TaskHandler handler) {
+            this.async = async;
+            this.handler = handler;
+        }
+    }
+
+    /**
+     * Code that runs the durable tasks of a type.
+     */
+    @FunctionalInterface
+    public interface TaskHandler {
+        /**
+         * Runs a durable task. May be called more than once for the same task,
+         * if the server stops before its completion is journaled.
+         *
+         * @param payload Payload the task was submitted with
+         */
+        void handle(String payload);
+    }
+}
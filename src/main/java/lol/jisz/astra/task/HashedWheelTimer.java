@@ -0,0 +1,320 @@
+package lol.jisz.astra.task;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Timer that tracks a large number of deadlines on a single thread.
+ * <p>
+ * Deadlines are hashed into a fixed ring of buckets by the tick they expire on, so scheduling
+ * and cancelling a timeout are O(1) and each tick only looks at one bucket. Timeouts are handed
+ * to the timer thread through lock-free queues, and the thread sleeps while nothing is pending.
+ * Expired actions run on the timer thread, so they must be short and never block.
+ */
+public final class HashedWheelTimer {
+
+    private static final Object SHARED_LOCK = new Object();
+    private static volatile HashedWheelTimer shared;
+
+    private final long tickNanos;
+    private final Bucket[] wheel;
+    private final int mask;
+    private final Queue<Timeout> added;
+    private final Queue<Timeout> cancelled;
+    private final AtomicInteger pending;
+    private final AtomicBoolean stopped;
+    private final Thread worker;
+    private final long startTime;
+    private long tick;
+
+    /**
+     * Creates and starts a new timer.
+     *
+     * @param name          Name of the timer thread
+     * @param tickDuration  Precision of the timer
+     * @param unit          Time unit of the tick duration
+     * @param ticksPerWheel Number of buckets in the wheel, rounded up to a power of two
+     */
+    public HashedWheelTimer(String name, long tickDuration, TimeUnit unit, int ticksPerWheel) {
+        if (tickDuration <= 0) {
+            throw new IllegalArgumentException("Tick duration must be positive");
+        }
+
+        this.tickNanos = unit.toNanos(tickDuration);
+        this.wheel = new Bucket[Integer.highestOneBit(Math.max(1, ticksPerWheel - 1)) << 1];
+        for (int i = 0; i < wheel.length; i++) {
+            wheel[i] = new Bucket();
+        }
+        this.mask = wheel.length - 1;
+        this.added = new ConcurrentLinkedQueue<>();
+        this.cancelled = new ConcurrentLinkedQueue<>();
+        this.pending = new AtomicInteger();
+        this.stopped = new AtomicBoolean(false);
+        this.startTime = System.nanoTime();
+
+        this.worker = new Thread(this::run, name);
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Gets the timer shared by the whole task system, with millisecond precision.
+     *
+     * @return The shared timer
+     */
+    public static HashedWheelTimer shared() {
+        HashedWheelTimer timer = shared;
+        if (timer == null) {
+            synchronized (SHARED_LOCK) {
+                timer = shared;
+                if (timer == null) {
+                    timer = new HashedWheelTimer("Astra-Timer", 1, TimeUnit.MILLISECONDS, 512);
+                    shared = timer;
+                }
+            }
+        }
+        return timer;
+    }
+
+    /**
+     * Stops the shared timer, if it was started. The next call to {@link #shared()} starts a new one.
+     * Called when the task system is disabled, so its thread does not outlive the plugin.
+     */
+    public static void stopShared() {
+        synchronized (SHARED_LOCK) {
+            if (shared != null) {
+                shared.stop();
+                shared = null;
+            }
+        }
+    }
+
+    /**
+     * Schedules an action to run once the delay has elapsed.
+     *
+     * @param action The action to run on the timer thread
+     * @param delay  Delay before the action runs
+     * @param unit   Time unit of the delay
+     * @return A handle that can cancel the timeout
+     */
+    public Timeout newTimeout(Runnable action, long delay, TimeUnit unit) {
+        if (stopped.get()) {
+            throw new IllegalStateException("Timer has been stopped");
+        }
+
+        long deadline = System.nanoTime() - startTime + Math.max(0, unit.toNanos(delay));
+        Timeout timeout = new Timeout(this, action, deadline);
+        added.offer(timeout);
+        if (pending.getAndIncrement() == 0) {
+            LockSupport.unpark(worker);
+        }
+        return timeout;
+    }
+
+    /**
+     * Gets the number of timeouts that have not expired or been cancelled yet.
+     *
+     * @return Number of pending timeouts
+     */
+    public int getPendingTimeouts() {
+        return pending.get();
+    }
+
+    /**
+     * Gets the number of scheduled and cancelled timeouts the timer thread has not picked up yet.
+     *
+     * @return Number of queued timeouts
+     */
+    public int getQueuedTimeouts() {
+        return added.size() + cancelled.size();
+    }
+
+    /**
+     * Stops the timer thread. Pending timeouts never expire.
+     */
+    public void stop() {
+        if (stopped.compareAndSet(false, true)) {
+            worker.interrupt();
+        }
+    }
+
+    private void run() {
+        while (!stopped.get()) {
+            if (pending.get() == 0) {
+                // Timeouts cancelled before their first tick are still queued, drop them before sleeping
+                removeCancelled();
+                transferAdded();
+                if (pending.get() != 0) {
+                    continue;
+                }
+                LockSupport.park(this);
+                tick = Math.max(tick, (System.nanoTime() - startTime) / tickNanos);
+                continue;
+            }
+
+            long deadline = (tick + 1) * tickNanos;
+            long sleep = deadline - (System.nanoTime() - startTime);
+            if (sleep > 0) {
+                LockSupport.parkNanos(this, sleep);
+                continue;
+            }
+
+            removeCancelled();
+            transferAdded();
+            wheel[(int) (tick & mask)].expire(deadline);
+            tick++;
+        }
+    }
+
+    private void transferAdded() {
+        Timeout timeout;
+        while ((timeout = added.poll()) != null) {
+            if (timeout.state.get() != Timeout.PENDING) {
+                continue;
+            }
+
+            long expiresAt = timeout.deadline / tickNanos;
+            timeout.remainingRounds = (expiresAt - tick) / wheel.length;
+            wheel[(int) (Math.max(expiresAt, tick) & mask)].add(timeout);
+        }
+    }
+
+    private void removeCancelled() {
+        Timeout timeout;
+        while ((timeout = cancelled.poll()) != null) {
+            if (timeout.bucket != null) {
+                timeout.bucket.remove(timeout);
+            }
+        }
+    }
+
+    /**
+     * Handle of a scheduled action.
+     */
+    public static final class Timeout {
+        private static final int PENDING = 0;
+        private static final int CANCELLED = 1;
+        private static final int EXPIRED = 2;
+
+        private final HashedWheelTimer timer;
+        private final Runnable action;
+        private final long deadline;
+        private final AtomicInteger state = new AtomicInteger(PENDING);
+
+        private long remainingRounds;
+        private Bucket bucket;
+        private Timeout prev;
+        private Timeout next;
+
+        private Timeout(HashedWheelTimer timer, Runnable action, long deadline) {
+            this.timer = timer;
+            this.action = action;
+            this.deadline = deadline;
+        }
+
+        /**
+         * Cancels this timeout so its action never runs.
+         *
+         * @return true if the timeout was cancelled, false if it had already expired or been cancelled
+         */
+        public boolean cancel() {
+            if (!state.compareAndSet(PENDING, CANCELLED)) {
+                return false;
+            }
+            timer.pending.decrementAndGet();
+            timer.cancelled.offer(this);
+            return true;
+        }
+
+        /**
+         * Checks if this timeout has been cancelled.
+         *
+         * @return true if the timeout was cancelled
+         */
+        public boolean isCancelled() {
+            return state.get() == CANCELLED;
+        }
+
+        /**
+         * Checks if this timeout has expired and its action has run.
+         *
+         * @return true if the timeout expired
+         */
+        public boolean isExpired() {
+            return state.get() == EXPIRED;
+        }
+
+        private void expire() {
+            if (!state.compareAndSet(PENDING, EXPIRED)) {
+                return;
+            }
+            timer.pending.decrementAndGet();
+            try {
+                action.run();
+            } catch (Throwable t) {
+                Thread.currentThread().getUncaughtExceptionHandler().uncaughtException(Thread.currentThread(), t);
+            }
+        }
+    }
+
+    /**
+     * Doubly linked list of timeouts, only touched by the timer thread.
+     */
+    private static final class Bucket {
+        private Timeout head;
+        private Timeout tail;
+
+        private void add(Timeout timeout) {
+            timeout.bucket = this;
+            if (head == null) {
+                head = tail = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.prev = tail;
+                tail = timeout;
+            }
+        }
+
+        private void expire(long deadline) {
+            Timeout timeout = head;
+            while (timeout != null) {
+                Timeout next = timeout.next;
+                if (timeout.remainingRounds <= 0 && timeout.deadline <= deadline) {
+                    remove(timeout);
+                    timeout.expire();
+                } else if (timeout.state.get() == Timeout.CANCELLED) {
+                    remove(timeout);
+                } else {
+                    timeout.remainingRounds--;
+                }
+                timeout = next;
+            }
+        }
+
+        private void remove(Timeout timeout) {
+            if (timeout.bucket != this) {
+                return;
+            }
+
+            if (timeout.prev != null) {
+                timeout.prev.next = timeout.next;
+            }
+            if (timeout.next != null) {
+                timeout.next.prev = timeout.prev;
+            }
+            if (timeout == head) {
+                head = timeout.next;
+            }
+            if (timeout == tail) {
+                tail = timeout.prev;
+            }
+            timeout.prev = null;
+            timeout.next = null;
+            timeout.bucket = null;
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package lol.jisz.astra.task;
+
+import lol.jisz.astra.Astra;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Spliterator;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * A synchronous task that processes a sequence of elements a slice at a time.
+ * <p>
+ * Every tick the task pulls elements from its {@link Spliterator} and processes them on the main
+ * server thread until the time budget of the tick is spent, then resumes from the same position
+ * on the next tick. Jobs such as visiting every loaded chunk or every online player are spread
+ * over as many ticks as needed instead of stalling a single one. The task can be cancelled
+ * between slices through {@link #cancel()}, and reports its progress after every slice.
+ * Slices are driven by the shared sync {@link TickWheel} of the plugin, so running tasks cost
+ * the Bukkit scheduler no timer of their own.
+ *
+ * @param <E> Type of the processed elements
+ */
+public class IncrementalTask<E> extends AbstractAstraTask {
+
+    private static final long DEFAULT_BUDGET_NANOS = TimeUnit.MILLISECONDS.toNanos(2);
+
+    private final Astra plugin;
+    private final Spliterator<E> source;
+    private final Consumer<? super E> action;
+    private final Consumer<E> countingAction;
+    private final long total;
+    private volatile long processed;
+    private volatile long budgetNanos;
+    private volatile ProgressListener progressListener;
+
+    /**
+     * Constructs a new incremental task with a generated ID.
+     *
+     * @param plugin The Astra plugin instance that owns this task
+     * @param source The elements to process
+     * @param action The action applied to every element on the main server thread
+     */
+    public IncrementalTask(Astra plugin, Spliterator<E> source, Consumer<? super E> action) {
+        super();
+        this.plugin = plugin;
+        this.source = source;
+        this.action = action;
+        this.countingAction = this::accept;
+        this.total = source.getExactSizeIfKnown();
+        this.budgetNanos = DEFAULT_BUDGET_NANOS;
+    }
+
+    /**
+     * Constructs a new incremental task with a specified ID.
+     *
+     * @param plugin The Astra plugin instance that owns this task
+     * @param id     The unique identifier for this task
+     * @param source The elements to process
+     * @param action The action applied to every element on the main server thread
+     */
+    public IncrementalTask(Astra plugin, String id, Spliterator<E> source, Consumer<? super E> action) {
+        super(id);
+        this.plugin = plugin;
+        this.source = source;
+        this.action = action;
+        this.countingAction = this::accept;
+        this.total = source.getExactSizeIfKnown();
+        this.budgetNanos = DEFAULT_BUDGET_NANOS;
+    }
+
+    /**
+     * Constructs a new incremental task over a copy of a collection, so the collection
+     * may change while the task is in progress.
+     *
+     * @param plugin   The Astra plugin instance that owns this task
+     * @param id       The unique identifier for this task
+     * @param elements The elements to process
+     * @param action   The action applied to every element on the main server thread
+     */
+    public IncrementalTask(Astra plugin, String id, Collection<? extends E> elements, Consumer<? super E> action) {
+        this(plugin, id, new ArrayList<E>(elements).spliterator(), action);
+    }
+
+    /**
+     * Starts processing elements, one slice per tick, beginning with the next tick.
+     * If the task is already scheduled, completed, or cancelled, this method has no effect.
+     *
+     * @return This task instance for method chaining
+     */
+    public IncrementalTask<E> execute() {
+        if (isScheduled() || isCompleted() || isCancelled()) {
+            return this;
+        }
+
+        bukkitTask = TickWheel.sync(plugin).schedule(id, this::runSlice, 1L, 1L);
+        return this;
+    }
+
+    /**
+     * Sets the main thread time each slice may use.
+     *
+     * @param budget Budget per tick, at least one element is processed per tick if 0 or less
+     * @param unit   Time unit of the budget
+     * @return This task instance for method chaining
+     */
+    public IncrementalTask<E> setBudget(long budget, TimeUnit unit) {
+        this.budgetNanos = Math.max(0, unit.toNanos(budget));
+        return this;
+    }
+
+    /**
+     * Sets a listener notified on the main thread after every slice.
+     *
+     * @param listener The progress listener
+     * @return This task instance for method chaining
+     */
+    public IncrementalTask<E> onProgress(ProgressListener listener) {
+        this.progressListener = listener;
+        return this;
+    }
+
+    /**
+     * Gets the number of elements processed so far.
+     *
+     * @return Number of processed elements
+     */
+    public long getProcessedCount() {
+        return processed;
+    }
+
+    /**
+     * Gets the total number of elements, if the source knows it.
+     *
+     * @return Total number of elements, or -1 if unknown
+     */
+    public long getTotalCount() {
+        return total;
+    }
+
+    /**
+     * Gets the fraction of elements processed so far.
+     *
+     * @return Value between 0.0 and 1.0, or -1 if the total number of elements is unknown
+     */
+    public double getProgress() {
+        if (isCompleted()) {
+            return 1.0;
+        }
+        if (total < 0) {
+            return -1;
+        }
+        return total == 0 ? 1.0 : Math.min(1.0, (double) processed / total);
+    }
+
+    /**
+     * Processes elements until the source is exhausted or the budget of this tick is spent.
+     */
+    private void runSlice(BukkitTask handle) {
+        if (cancelled.get()) {
+            handle.cancel();
+            return;
+        }
+
+        if (!isRunning()) {
+            markAsRunning();
+        }
+
+        long start = System.nanoTime();
+        long budget = budgetNanos;
+        boolean more;
+
+        try {
+            do {
+                more = source.tryAdvance(countingAction);
+            } while (more && !cancelled.get() && System.nanoTime() - start < budget);
+        } catch (Throwable t) {
+            handle.cancel();
+            running.set(false);
+            handleError(t);
+            return;
+        }
+
+        notifyProgress();
+
+        if (!more) {
+            handle.cancel();
+            markAsCompleted();
+        }
+    }
+
+    private void accept(E element) {
+        action.accept(element);
+        processed++;
+    }
+
+    private void notifyProgress() {
+        ProgressListener listener = progressListener;
+        if (listener == null) {
+            return;
+        }
+
+        try {
+            listener.progress(processed, total);
+        } catch (Exception e) {
+            plugin.logger().error("Error in progress listener of task " + getId(), e);
+        }
+    }
+
+    /**
+     * Listener notified with the progress of an incremental task.
+     */
+    @FunctionalInterface
+    public interface ProgressListener {
+        /**
+         * Called after every slice of work.
+         *
+         * @param processed Number of elements processed so far
+         * @param total     Total number of elements, or -1 if unknown
+         */
+        void progress(long processed, long total);
+    }
+}
@@ -0,0 +1,249 @@
+package lol.jisz.astra.task;
+
+import lol.jisz.astra.Astra;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Serialized execution lanes, one per key, on top of the async executor.
+ * <p>
+ * Work submitted under the same key runs strictly one at a time, in the order it was submitted,
+ * while different keys run in parallel. A lane is a lock-free queue with a counter of the work it
+ * holds: the submission that finds the lane empty hands a drain loop to the async executor, and
+ * later submissions only enqueue. Once the drain loop empties the lane, the lane retires itself
+ * and leaves the map, so idle keys cost nothing. A lane only retires once its last command has
+ * finished, so a submission that races with the retirement and creates a new lane for the key
+ * cannot overtake it.
+ * <p>
+ * A lane takes an async slot from the concurrency limiter only while it runs a command, never
+ * while commands wait in it, so a busy key uses one slot at a time and cannot starve other keys.
+ * A lane that finds no free slot parks with its next command and is started again once a slot
+ * is released.
+ */
+final class KeyedLanes {
+
+    private static final int DEAD = -1;
+    private static final int DRAIN_BATCH = 32;
+
+    private final Astra plugin;
+    private final Supplier<? extends Executor> executor;
+    private final ConcurrencyLimiter slots;
+    private final Runnable onRelease;
+    private final Map<Object, Lane> lanes;
+    private final ConcurrentLinkedQueue<Lane> parked;
+
+    /**
+     * Creates the lanes of a plugin.
+     *
+     * @param plugin    The plugin that owns the lanes
+     * @param executor  Supplier of the executor the lanes drain on
+     * @param slots     Limiter the lanes take a slot from for every command they run
+     * @param onRelease Called after a lane gives its slot back
+     */
+    KeyedLanes(Astra plugin, Supplier<? extends Executor> executor, ConcurrencyLimiter slots, Runnable onRelease) {
+        this.plugin = plugin;
+        this.executor = executor;
+        this.slots = slots;
+        this.onRelease = onRelease;
+        this.lanes = new ConcurrentHashMap<>();
+        this.parked = new ConcurrentLinkedQueue<>();
+    }
+
+    /**
+     * Gets an executor running its commands in the lane of a key.
+     *
+     * @param key      Key of the lane
+     * @param priority Priority of the slot taken for each command
+     * @return Executor of the lane
+     */
+    TaskExecutor executor(Object key, TaskPriority priority) {
+        return new LaneExecutor(key, priority);
+    }
+
+    /**
+     * Checks whether an executor is the executor of a lane, whose tasks take their slot in the lane.
+     *
+     * @param executor Executor to check
+     * @return true if the executor runs its commands in a lane
+     */
+    static boolean isLane(TaskExecutor executor) {
+        return executor instanceof LaneExecutor;
+    }
+
+    /**
+     * Runs a command in the lane of a key, after every command submitted before it under that key.
+     *
+     * @param key      Key of the lane
+     * @param priority Priority of the slot taken to run the command
+     * @param command  The command to run
+     */
+    void execute(Object key, TaskPriority priority, Runnable command) {
+        while (true) {
+            Lane lane = lanes.get(key);
+            if (lane == null) {
+                lane = lanes.computeIfAbsent(key, Lane::new);
+            }
+
+            int pending = lane.pending.get();
+            if (pending == DEAD) {
+                lanes.remove(key, lane);
+                continue;
+            }
+            if (!lane.pending.compareAndSet(pending, pending + 1)) {
+                continue;
+            }
+
+            lane.queue.offer(new Command(command, priority));
+            if (pending == 0) {
+                lane.start();
+            }
+            return;
+        }
+    }
+
+    /**
+     * Gets the number of lanes with work queued or running.
+     *
+     * @return Number of active lanes
+     */
+    int size() {
+        return lanes.size();
+    }
+
+    /**
+     * Starts the parked lanes whose next command can take a slot now. Called whenever a slot is
+     * released.
+     */
+    void resume() {
+        for (Lane lane : parked) {
+            Command waiting = lane.next;
+            if (waiting != null && slots.hasCapacity(waiting.priority()) && parked.remove(lane)) {
+                lane.start();
+            }
+        }
+    }
+
+    /**
+     * Queue of a key, drained by at most one thread at a time.
+     */
+    private final class Lane implements Runnable {
+        private final Object key;
+        private final ConcurrentLinkedQueue<Command> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger pending = new AtomicInteger();
+        // Command taken from the queue that could not get a slot yet
+        private volatile Command next;
+
+        private Lane(Object key) {
+            this.key = key;
+        }
+
+        /**
+         * Hands the drain loop to the async executor. If the executor refuses it, for example
+         * while it shuts down, the lane drains on a virtual thread instead, so queued work is
+         * never stranded.
+         */
+        private void start() {
+            try {
+                executor.get().execute(this);
+            } catch (RejectedExecutionException e) {
+                Thread.ofVirtual().name("Astra-Lane").start(this);
+            }
+        }
+
+        /**
+         * Runs queued commands one after another, each with a slot of its own. After a batch, the
+         * loop goes back to the executor, so one busy key cannot hold a pool thread forever.
+         */
+        @Override
+        public void run() {
+            for (int ran = 0; ran < DRAIN_BATCH; ran++) {
+                Command command = next != null ? next : poll();
+                next = null;
+
+                if (!slots.tryAcquire(command.priority())) {
+                    park(command);
+                    return;
+                }
+                try {
+                    command.action().run();
+                } catch (Throwable t) {
+                    plugin.logger().error("Uncaught error in keyed lane " + key, t);
+                } finally {
+                    slots.release(command.priority());
+                    onRelease.run();
+                }
+
+                if (pending.decrementAndGet() == 0) {
+                    // A submission that raises the counter from zero starts its own drain loop
+                    if (pending.compareAndSet(0, DEAD)) {
+                        lanes.remove(key, this);
+                    }
+                    return;
+                }
+            }
+            start();
+        }
+
+        private Command poll() {
+            Command command = queue.poll();
+            while (command == null) {
+                // Counted by a submission that has not enqueued its command yet
+                Thread.onSpinWait();
+                command = queue.poll();
+            }
+            return command;
+        }
+
+        /**
+         * Stops the drain loop until a slot is free. A slot released between the failed acquire
+         * and the lane being parked is caught by the check that follows.
+         */
+        private void park(Command command) {
+            next = command;
+            parked.offer(this);
+            if (slots.hasCapacity(command.priority())) {
+                resume();
+            }
+        }
+    }
+
+    /**
+     * Command queued in a lane with the priority of the slot it runs with.
+     */
+    private record Command(Runnable action, TaskPriority priority) {
+    }
+
+    /**
+     * Executor view of one lane, assigned to the tasks scheduled under its key.
+     */
+    private final class LaneExecutor implements TaskExecutor {
+        private final Object key;
+        private final TaskPriority priority;
+
+        private LaneExecutor(Object key, TaskPriority priority) {
+            this.key = key;
+            this.priority = priority;
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            KeyedLanes.this.execute(key, priority, command);
+        }
+
+        @Override
+        public String getName() {
+            return "Lane " + key;
+        }
+
+        @Override
+        public int getMaxConcurrency() {
+            return 1;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package lol.jisz.astra.task;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Concurrent latency histogram with log-linear buckets.
+ * <p>
+ * Values are recorded in microseconds. Every power of two is split into eight linear
+ * sub-buckets, which keeps the relative error of any percentile under 12.5% while the whole
+ * histogram fits in a few hundred counters. Recording never allocates and never locks, so it is
+ * safe to call from the completion path of every task.
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_MAGNITUDE = 36;
+    private static final int BUCKETS = (MAX_MAGNITUDE - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+    private static final long MAX_VALUE = (1L << MAX_MAGNITUDE + 1) - 1;
+
+    private final AtomicLongArray buckets;
+    private final LongAdder count;
+    private final LongAdder sum;
+    private final AtomicLong max;
+
+    /**
+     * Creates an empty histogram.
+     */
+    public LatencyHistogram() {
+        this.buckets = new AtomicLongArray(BUCKETS);
+        this.count = new LongAdder();
+        this.sum = new LongAdder();
+        this.max = new AtomicLong();
+    }
+
+    /**
+     * Records a duration.
+     *
+     * @param nanos Duration in nanoseconds, negative values are ignored
+     */
+    public void recordNanos(long nanos) {
+        if (nanos < 0) {
+            return;
+        }
+
+        long micros = Math.min(MAX_VALUE, TimeUnit.NANOSECONDS.toMicros(nanos));
+        buckets.incrementAndGet(indexOf(micros));
+        count.increment();
+        sum.add(micros);
+
+        long current = max.get();
+        while (micros > current && !max.compareAndSet(current, micros)) {
+            current = max.get();
+        }
+    }
+
+    /**
+     * Takes a consistent enough copy of the histogram for reporting.
+     * Values recorded while the copy is taken may or may not be included.
+     *
+     * @return A snapshot of the recorded values
+     */
+    public Snapshot snapshot() {
+        long[] copy = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            copy[i] = buckets.get(i);
+            total += copy[i];
+        }
+
+        if (total == 0) {
+            return new Snapshot(0, 0, 0, 0, 0, 0);
+        }
+
+        long highest = max.get();
+        return new Snapshot(
+                total,
+                (double) sum.sum() / Math.max(1, count.sum()),
+                Math.min(highest, percentile(copy, total, 0.50)),
+                Math.min(highest, percentile(copy, total, 0.90)),
+                Math.min(highest, percentile(copy, total, 0.99)),
+                highest
+        );
+    }
+
+    /**
+     * Clears every recorded value.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets.set(i, 0);
+        }
+        count.reset();
+        sum.reset();
+        max.set(0);
+    }
+
+    private static int indexOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+
+        int magnitude = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (magnitude - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (magnitude - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * Gets the highest value that falls in a bucket.
+     */
+    private static long upperBoundOf(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+
+        int magnitude = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        int subBucket = index % SUB_BUCKETS;
+        long width = 1L << (magnitude - SUB_BUCKET_BITS);
+        return (1L << magnitude) + (subBucket + 1) * width - 1;
+    }
+
+    private static long percentile(long[] buckets, long total, double quantile) {
+        long rank = Math.max(1, (long) Math.ceil(total * quantile));
+        long seen = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            seen += buckets[i];
+            if (seen >= rank) {
+                return upperBoundOf(i);
+            }
+        }
+        return upperBoundOf(buckets.length - 1);
+    }
+
+    /**
+     * Point in time summary of a histogram. Every duration is in microseconds.
+     *
+     * @param count Number of recorded values
+     * @param mean  Mean of the recorded values
+     * @param p50   Median
+     * @param p90   90th percentile
+     * @param p99   99th percentile
+     * @param max   Highest recorded value
+     */
+    public record Snapshot(long count, double mean, long p50, long p90, long p99, long max) {
+
+        @Override
+        public String toString() {
+            return String.format("n=%d mean=%.0fus p50=%dus p90=%dus p99=%dus max=%dus", count, mean, p50, p90, p99, max);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package lol.jisz.astra.task;
+
+import lol.jisz.astra.Astra;
+import org.bukkit.Bukkit;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Executor that moves work onto the main server thread without blocking the caller.
+ * <p>
+ * Work submitted from any thread is queued, and a single Bukkit task drains the queue on the
+ * next tick. Every hop submitted before that tick starts shares the same scheduler submission,
+ * so a burst of async tasks hopping to the main thread costs one Bukkit task instead of one each.
+ * Callers get a {@link CompletableFuture} to continue from, instead of waiting on a monitor.
+ */
+public final class MainThreadDispatcher implements Executor {
+
+    private static final Map<Astra, MainThreadDispatcher> DISPATCHERS = new ConcurrentHashMap<>();
+
+    private final Astra plugin;
+    private final ConcurrentLinkedQueue<Runnable> queue;
+    private final AtomicBoolean scheduled;
+
+    private MainThreadDispatcher(Astra plugin) {
+        this.plugin = plugin;
+        this.queue = new ConcurrentLinkedQueue<>();
+        this.scheduled = new AtomicBoolean(false);
+    }
+
+    /**
+     * Gets the dispatcher shared by every task of a plugin.
+     *
+     * @param plugin The plugin that owns the dispatched work
+     * @return The dispatcher of the plugin
+     */
+    public static MainThreadDispatcher of(Astra plugin) {
+        return DISPATCHERS.computeIfAbsent(plugin, MainThreadDispatcher::new);
+    }
+
+    /**
+     * Forgets the dispatcher of a plugin, so a reloaded plugin instance gets a new one.
+     *
+     * @param plugin The plugin being disabled
+     */
+    static void remove(Astra plugin) {
+        DISPATCHERS.remove(plugin);
+    }
+
+    /**
+     * Queues work to run on the main server thread during the next drain.
+     *
+     * @param command The work to run
+     */
+    @Override
+    public void execute(Runnable command) {
+        queue.offer(command);
+        if (scheduled.compareAndSet(false, true)) {
+            try {
+                Bukkit.getScheduler().runTask(plugin, this::drain);
+            } catch (RuntimeException e) {
+                scheduled.set(false);
+                queue.remove(command);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Runs an action on the main server thread.
+     * The action runs right away when called from the main thread.
+     *
+     * @param action The action to run
+     * @return A future completed once the action has run
+     */
+    public CompletableFuture<Void> run(Runnable action) {
+        if (Bukkit.isPrimaryThread()) {
+            try {
+                action.run();
+                return CompletableFuture.completedFuture(null);
+            } catch (Throwable t) {
+                return CompletableFuture.failedFuture(t);
+            }
+        }
+        return CompletableFuture.runAsync(action, this);
+    }
+
+    /**
+     * Computes a value on the main server thread.
+     * The supplier runs right away when called from the main thread.
+     *
+     * @param supplier The supplier producing the value
+     * @param <T>      Type of the value
+     * @return A future completed with the value
+     */
+    public <T> CompletableFuture<T> supply(Supplier<? extends T> supplier) {
+        if (Bukkit.isPrimaryThread()) {
+            try {
+                return CompletableFuture.completedFuture(supplier.get());
+            } catch (Throwable t) {
+                return CompletableFuture.failedFuture(t);
+            }
+        }
+        return CompletableFuture.<T>supplyAsync(supplier::get, this);
+    }
+
+    /**
+     * Gets the number of hops waiting for the next drain.
+     *
+     * @return Number of queued hops
+     */
+    public int getPendingCount() {
+        return queue.size();
+    }
+
+    /**
+     * Runs every queued hop. Hops queued after the queue is found empty schedule a new drain,
+     * so none of them is left behind.
+     */
+    private void drain() {
+        do {
+            Runnable command;
+            while ((command = queue.poll()) != null) {
+                try {
+                    command.run();
+                } catch (Throwable t) {
+                    plugin.logger().error("Uncaught error in main thread hop", t);
+                }
+            }
+            scheduled.set(false);
+        } while (!queue.isEmpty() && scheduled.compareAndSet(false, true));
+    }
+}
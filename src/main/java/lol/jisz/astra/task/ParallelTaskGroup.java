@@ -0,0 +1,295 @@
+package lol.jisz.astra.task;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * A group of CPU bound subtasks that run in parallel and complete as a single task.
+ * <p>
+ * Subtasks run on a dedicated {@link ForkJoinPool} sized to the available cores, separate from the
+ * Bukkit async pool, so idle workers steal work from busy ones and large jobs such as sorting a
+ * leaderboard or processing a schematic use every core without starving other plugins. The group
+ * itself is one task: it uses a single async slot in the {@link TaskManager}, and other tasks can
+ * depend on the whole group through its ID.
+ *
+ * @param <T> Type of the values produced by the subtasks
+ */
+public class ParallelTaskGroup<T> extends AbstractAstraTask {
+
+    private static final Object POOL_LOCK = new Object();
+    private static volatile ForkJoinPool pool;
+
+    private final List<Callable<? extends T>> subtasks;
+    private final CompletableFuture<List<T>> future;
+    private volatile List<ForkJoinTask<? extends T>> forked;
+
+    /**
+     * Constructs a new empty group with a generated ID.
+     */
+    public ParallelTaskGroup() {
+        super();
+        this.subtasks = new ArrayList<>();
+        this.future = new CompletableFuture<>();
+    }
+
+    /**
+     * Constructs a new empty group with a specified ID.
+     *
+     * @param id The unique identifier for this group
+     */
+    public ParallelTaskGroup(String id) {
+        super(id);
+        this.subtasks = new ArrayList<>();
+        this.future = new CompletableFuture<>();
+    }
+
+    /**
+     * Creates a group that applies an action to every element of a list, splitting the list in
+     * halves until each piece has at most {@code threshold} elements.
+     *
+     * @param id        The unique identifier for this group
+     * @param elements  The elements to process, they must not change while the group runs
+     * @param threshold Largest piece processed by a single subtask
+     * @param action    The action applied to every element, from any worker thread
+     * @param <E>       Type of the elements
+     * @return A new group that is not executed yet
+     */
+    public static <E> ParallelTaskGroup<Void> forEach(String id, List<? extends E> elements,
+                                                      int threshold, Consumer<? super E> action) {
+        ParallelTaskGroup<Void> group = new ParallelTaskGroup<>(id);
+        int pieceSize = Math.max(1, threshold);
+        group.add(() -> {
+            ForkJoinTask.invokeAll(new ForEachSlice<>(elements, 0, elements.size(), pieceSize, action));
+            return null;
+        });
+        return group;
+    }
+
+    /**
+     * Gets the pool shared by every parallel group.
+     *
+     * @return The fork join pool
+     */
+    public static ForkJoinPool getPool() {
+        ForkJoinPool current = pool;
+        if (current == null) {
+            synchronized (POOL_LOCK) {
+                current = pool;
+                if (current == null) {
+                    AtomicInteger counter = new AtomicInteger();
+                    int parallelism = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+                    current = new ForkJoinPool(parallelism, forkJoinPool -> {
+                        ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+                        thread.setName("Astra-Parallel-" + counter.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }, null, true);
+                    pool = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Shuts the shared pool down, if it was started. Subtasks already running are left to finish,
+     * and the next call to {@link #getPool()} starts a new pool. Called when the task system is
+     * disabled, so its workers do not outlive the plugin.
+     */
+    public static void shutdownPool() {
+        synchronized (POOL_LOCK) {
+            if (pool != null) {
+                pool.shutdown();
+                pool = null;
+            }
+        }
+    }
+
+    /**
+     * Adds a subtask that produces a value.
+     * Has no effect once the group has been executed.
+     *
+     * @param subtask The subtask to add
+     * @return This group for method chaining
+     */
+    public ParallelTaskGroup<T> add(Callable<? extends T> subtask) {
+        if (!isScheduled() && !isCompleted() && !isCancelled()) {
+            subtasks.add(subtask);
+        }
+        return this;
+    }
+
+    /**
+     * Adds a subtask that produces no value. Its slot in the results is null.
+     * Has no effect once the group has been executed.
+     *
+     * @param subtask The subtask to add
+     * @return This group for method chaining
+     */
+    public ParallelTaskGroup<T> add(Runnable subtask) {
+        return add(() -> {
+            subtask.run();
+            return null;
+        });
+    }
+
+    /**
+     * Gets the number of subtasks in this group.
+     *
+     * @return Number of subtasks
+     */
+    public int size() {
+        return subtasks.size();
+    }
+
+    /**
+     * Runs every subtask on the shared pool. The group completes once all of them have finished,
+     * or fails with the first error thrown by a subtask.
+     * If the group is already scheduled, completed, or cancelled, this method has no effect.
+     *
+     * @return This group for method chaining
+     */
+    public ParallelTaskGroup<T> execute() {
+        if (isScheduled() || isCompleted() || isCancelled()) {
+            return this;
+        }
+
+        submitted.set(true);
+        try {
+            getPool().execute(this::runAll);
+        } catch (RejectedExecutionException e) {
+            submitted.set(false);
+            handleError(e);
+        }
+        return this;
+    }
+
+    /**
+     * Cancels this group. Subtasks that have not started yet are skipped.
+     *
+     * @return true if the group was cancelled
+     */
+    @Override
+    public boolean cancel() {
+        boolean cancelledNow = super.cancel();
+        if (cancelledNow) {
+            List<ForkJoinTask<? extends T>> tasks = forked;
+            if (tasks != null) {
+                for (ForkJoinTask<? extends T> task : tasks) {
+                    task.cancel(false);
+                }
+            }
+            future.cancel(false);
+        }
+        return cancelledNow;
+    }
+
+    /**
+     * Gets a stage completed with the values of every subtask, in the order they were added.
+     * Completing or cancelling the returned stage does not affect this group.
+     *
+     * @return The completion stage of this group
+     */
+    public CompletionStage<List<T>> toStage() {
+        return future.copy();
+    }
+
+    /**
+     * Reports the error to the listeners of this group and fails its stage with it.
+     *
+     * @param throwable The error that occurred
+     */
+    @Override
+    protected void handleError(Throwable throwable) {
+        super.handleError(throwable);
+        future.completeExceptionally(throwable);
+    }
+
+    /**
+     * Forks every subtask and joins them on a pool worker, which helps run pending subtasks
+     * while it waits instead of blocking.
+     */
+    private void runAll() {
+        if (cancelled.get()) return;
+
+        List<ForkJoinTask<? extends T>> tasks = new ArrayList<>(subtasks.size());
+        for (Callable<? extends T> subtask : subtasks) {
+            tasks.add(ForkJoinTask.adapt(subtask));
+        }
+        forked = tasks;
+
+        List<T> results = new ArrayList<>(tasks.size());
+        try {
+            markAsRunning();
+            ForkJoinTask.invokeAll(tasks);
+            for (ForkJoinTask<? extends T> task : tasks) {
+                results.add(task.join());
+            }
+        } catch (Throwable t) {
+            running.set(false);
+            if (!cancelled.get()) {
+                handleError(unwrap(t));
+            }
+            return;
+        } finally {
+            forked = null;
+        }
+
+        future.complete(results);
+        markAsCompleted();
+    }
+
+    /**
+     * Unwraps the checked exceptions that {@link ForkJoinTask#adapt(Callable)} wraps
+     * in a plain RuntimeException.
+     */
+    private static Throwable unwrap(Throwable throwable) {
+        if (throwable.getClass() == RuntimeException.class && throwable.getCause() != null) {
+            return throwable.getCause();
+        }
+        return throwable;
+    }
+
+    /**
+     * Recursive slice of a list, split in halves until it is small enough to process directly.
+     */
+    private static final class ForEachSlice<E> extends RecursiveAction {
+        private final List<? extends E> elements;
+        private final int from;
+        private final int to;
+        private final int threshold;
+        private final Consumer<? super E> action;
+
+        private ForEachSlice(List<? extends E> elements, int from, int to, int threshold, Consumer<? super E> action) {
+            this.elements = elements;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+            this.action = action;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= threshold) {
+                for (int i = from; i < to; i++) {
+                    action.accept(elements.get(i));
+                }
+                return;
+            }
+
+            int middle = (from + to) >>> 1;
+            invokeAll(new ForEachSlice<>(elements, from, middle, threshold, action),
+                    new ForEachSlice<>(elements, middle, to, threshold, action));
+        }
+    }
+}
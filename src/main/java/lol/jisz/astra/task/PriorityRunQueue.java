@@ -0,0 +1,213 @@
+package lol.jisz.astra.task;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+/**
+ * Multi-level run queue with one lock-free queue per {@link TaskPriority}.
+ * <p>
+ * Any number of threads may offer elements concurrently, while polling is meant to be done
+ * by a single consumer at a time (the drain loop of the owner). Elements are served in strict
+ * priority order, except when the head of a level has been waiting longer than the aging
+ * threshold: in that case the oldest aged head is served first so low priority work cannot
+ * starve forever.
+ *
+ * @param <E> Type of the queued elements
+ */
+final class PriorityRunQueue<E> {
+
+    private static final TaskPriority[] LEVELS = TaskPriority.values();
+
+    private final ConcurrentLinkedQueue<Entry<E>>[] levels;
+    private final LongAdder size;
+    private volatile long agingNanos;
+
+    /**
+     * Creates a new run queue.
+     *
+     * @param agingThreshold Time after which a waiting element is served regardless of its priority
+     * @param unit           Time unit of the aging threshold
+     */
+    @SuppressWarnings("unchecked")
+    PriorityRunQueue(long agingThreshold, TimeUnit unit) {
+        this.levels = new ConcurrentLinkedQueue[LEVELS.length];
+        for (int i = 0; i < LEVELS.length; i++) {
+            levels[i] = new ConcurrentLinkedQueue<>();
+        }
+        this.size = new LongAdder();
+        setAgingThreshold(agingThreshold, unit);
+    }
+
+    /**
+     * Adds an element to the level of the given priority.
+     *
+     * @param element  Element to add
+     * @param priority Priority level of the element
+     */
+    void offer(E element, TaskPriority priority) {
+        levels[levelOf(priority)].offer(new Entry<>(element, System.nanoTime()));
+        size.increment();
+    }
+
+    /**
+     * Removes the next element to run.
+     *
+     * @return The next element, or null if the queue is empty
+     */
+    E poll() {
+        return poll(element -> true);
+    }
+
+    /**
+     * Removes the next element accepted by the given filter.
+     * A level whose head is rejected is skipped entirely, so the relative order
+     * of elements inside a level is always preserved.
+     *
+     * @param filter Filter deciding whether the head of a level can run now
+     * @return The next accepted element, or null if there is none
+     */
+    E poll(Predicate<? super E> filter) {
+        int level = select(filter);
+        return level < 0 ? null : take(level);
+    }
+
+    /**
+     * Removes the next element accepted by the given filter, if a claim on it succeeds.
+     * The claim is made on the head of its level before the head is removed, so an element whose
+     * claim fails stays at the head of its level and keeps the time it was enqueued, preserving
+     * both the order of the level and the aging of the element. Relies on a single consumer,
+     * so the head cannot change between the claim and its removal.
+     *
+     * @param filter Filter deciding whether the head of a level can run now
+     * @param claim  Claim on the chosen element, such as taking the resources it runs with
+     * @return The next accepted and claimed element, or null if there is none or the claim failed
+     */
+    E poll(Predicate<? super E> filter, Predicate<? super E> claim) {
+        int level = select(filter);
+        if (level < 0) {
+            return null;
+        }
+        Entry<E> head = levels[level].peek();
+        if (head == null || !claim.test(head.element)) {
+            return null;
+        }
+        return take(level);
+    }
+
+    /**
+     * Removes every queued element.
+     *
+     * @return The removed elements in priority order
+     */
+    List<E> drain() {
+        List<E> drained = new ArrayList<>();
+        for (ConcurrentLinkedQueue<Entry<E>> level : levels) {
+            Entry<E> entry;
+            while ((entry = level.poll()) != null) {
+                size.decrement();
+                drained.add(entry.element);
+            }
+        }
+        return drained;
+    }
+
+    /**
+     * Gets the approximate number of queued elements.
+     *
+     * @return Number of queued elements
+     */
+    int size() {
+        return (int) Math.max(0, size.sum());
+    }
+
+    /**
+     * Gets the approximate number of queued elements of a priority level.
+     *
+     * @param priority Priority level
+     * @return Number of queued elements with that priority
+     */
+    int size(TaskPriority priority) {
+        return levels[levelOf(priority)].size();
+    }
+
+    /**
+     * Sets the time after which a waiting element is served regardless of its priority.
+     *
+     * @param agingThreshold Aging threshold, 0 or less disables aging
+     * @param unit           Time unit of the threshold
+     */
+    void setAgingThreshold(long agingThreshold, TimeUnit unit) {
+        this.agingNanos = agingThreshold > 0 ? unit.toNanos(agingThreshold) : Long.MAX_VALUE;
+    }
+
+    /**
+     * Finds the level of the next element accepted by the filter: the oldest aged head, or else
+     * the head of the highest priority level that the filter accepts.
+     *
+     * @return The level, or -1 if no head is accepted
+     */
+    private int select(Predicate<? super E> filter) {
+        int aged = findAgedLevel(filter);
+        if (aged >= 0) {
+            return aged;
+        }
+
+        for (int i = 0; i < levels.length; i++) {
+            Entry<E> head = levels[i].peek();
+            if (head != null && filter.test(head.element)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Finds the level whose head has waited the longest past the aging threshold.
+     * The highest priority level never needs aging, so it is not inspected.
+     */
+    private int findAgedLevel(Predicate<? super E> filter) {
+        long threshold = agingNanos;
+        if (threshold == Long.MAX_VALUE) {
+            return -1;
+        }
+
+        long now = System.nanoTime();
+        int oldestLevel = -1;
+        long oldestEnqueuedAt = 0;
+
+        for (int i = 1; i < levels.length; i++) {
+            Entry<E> head = levels[i].peek();
+            if (head == null || now - head.enqueuedAt < threshold || !filter.test(head.element)) {
+                continue;
+            }
+            if (oldestLevel < 0 || head.enqueuedAt - oldestEnqueuedAt < 0) {
+                oldestLevel = i;
+                oldestEnqueuedAt = head.enqueuedAt;
+            }
+        }
+        return oldestLevel;
+    }
+
+    private E take(int level) {
+        Entry<E> entry = levels[level].poll();
+        if (entry == null) {
+            return null;
+        }
+        size.decrement();
+        return entry.element;
+    }
+
+    private static int levelOf(TaskPriority priority) {
+        return priority == null ? TaskPriority.NORMAL.ordinal() : priority.ordinal();
+    }
+
+    /**
+     * Queued element together with the time it was enqueued.
+     */
+    private record Entry<E>(E element, long enqueuedAt) {
+    }
+}
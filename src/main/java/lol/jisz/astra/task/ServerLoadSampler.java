@@ -0,0 +1,165 @@
+package lol.jisz.astra.task;
+
+import lol.jisz.astra.Astra;
+import org.bukkit.Bukkit;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.util.List;
+
+/**
+ * Load model of the server, refreshed once per tick on the main thread.
+ * <p>
+ * Every tick the sampler reads the mean tick time (MSPT) and TPS reported by the server, which
+ * are cheap. Once per second it also reads the process CPU load and the time spent in garbage
+ * collection, which need management beans. The combined load is the worst of the four signals,
+ * each normalized to the range 0.0 - 1.0, so readers only ever do a volatile read.
+ */
+final class ServerLoadSampler {
+
+    private static final double TICK_MILLIS = 50.0;
+    private static final int SLOW_SAMPLE_PERIOD = 20;
+
+    private final Astra plugin;
+    private final Runnable onSample;
+    private final List<GarbageCollectorMXBean> collectors;
+    private final com.sun.management.OperatingSystemMXBean osBean;
+
+    private BukkitTask task;
+    private volatile long ticks;
+    private long lastGcMillis;
+    private long lastGcSample;
+
+    private volatile double mspt;
+    private volatile double tps = 20.0;
+    private volatile double processCpu;
+    private volatile double gcFraction;
+    private volatile double load;
+
+    /**
+     * Creates a new sampler.
+     *
+     * @param plugin   The plugin that owns the sampling task
+     * @param onSample Action run on the main thread after every sample
+     */
+    ServerLoadSampler(Astra plugin, Runnable onSample) {
+        this.plugin = plugin;
+        this.onSample = onSample;
+        this.collectors = ManagementFactory.getGarbageCollectorMXBeans();
+
+        OperatingSystemMXBean bean = ManagementFactory.getOperatingSystemMXBean();
+        this.osBean = bean instanceof com.sun.management.OperatingSystemMXBean sunBean ? sunBean : null;
+    }
+
+    /**
+     * Starts sampling every tick.
+     */
+    void start() {
+        if (task != null) {
+            return;
+        }
+        lastGcMillis = totalGcMillis();
+        lastGcSample = System.nanoTime();
+        task = Bukkit.getScheduler().runTaskTimer(plugin, this::sample, 1L, 1L);
+    }
+
+    /**
+     * Stops sampling. The last sampled values stay available.
+     */
+    void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+
+    /**
+     * Gets the combined load of the server.
+     *
+     * @return Value between 0.0 and 1.0 representing server load
+     */
+    double getLoad() {
+        return load;
+    }
+
+    double getMspt() {
+        return mspt;
+    }
+
+    double getTps() {
+        return tps;
+    }
+
+    double getProcessCpu() {
+        return processCpu;
+    }
+
+    double getGcFraction() {
+        return gcFraction;
+    }
+
+    /**
+     * Gets the number of ticks sampled since the sampler started, used as a tick clock.
+     *
+     * @return Number of sampled ticks
+     */
+    long getTick() {
+        return ticks;
+    }
+
+    private void sample() {
+        try {
+            mspt = Bukkit.getServer().getAverageTickTime();
+            tps = Bukkit.getServer().getTPS()[0];
+        } catch (RuntimeException | LinkageError e) {
+            plugin.logger().debug("Error sampling tick times: " + e.getMessage());
+        }
+
+        long tick = ++ticks;
+        if (TaskTracer.isEnabled()) {
+            TaskTracer.tick(tick);
+        }
+        if (tick % SLOW_SAMPLE_PERIOD == 0) {
+            sampleSlowSignals();
+        }
+
+        double tickLoad = mspt / TICK_MILLIS;
+        double tpsLoad = (20.0 - tps) / 20.0;
+        load = clamp(Math.max(Math.max(tickLoad, tpsLoad), Math.max(processCpu, gcFraction)));
+
+        onSample.run();
+    }
+
+    private void sampleSlowSignals() {
+        if (osBean != null) {
+            double cpu = osBean.getProcessCpuLoad();
+            processCpu = cpu < 0 ? 0 : clamp(cpu);
+        }
+
+        long now = System.nanoTime();
+        long gcMillis = totalGcMillis();
+        double elapsedMillis = (now - lastGcSample) / 1_000_000.0;
+        if (elapsedMillis > 0) {
+            gcFraction = clamp((gcMillis - lastGcMillis) / elapsedMillis);
+        }
+        lastGcMillis = gcMillis;
+        lastGcSample = now;
+    }
+
+    private long totalGcMillis() {
+        long total = 0;
+        for (GarbageCollectorMXBean collector : collectors) {
+            long time = collector.getCollectionTime();
+            if (time > 0) {
+                total += time;
+            }
+        }
+        return total;
+    }
+
+    private static double clamp(double value) {
+        return Math.max(0.0, Math.min(1.0, value));
+    }
+}
@@ -0,0 +1,306 @@
+package lol.jisz.astra.task;
+
+import lol.jisz.astra.Astra;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Keyed debounce, throttle and token bucket limits for work submitted through the {@link TaskManager}.
+ * <p>
+ * Each key owns a small state object created on its first submission. Later submissions only
+ * update its fields, so a burst of submissions for the same key allocates nothing; a timer is
+ * armed once per burst, on the shared {@link HashedWheelTimer} for debounces and on the main
+ * thread {@link TickWheel} for throttles. The timer thread only hands a due debounce to the async
+ * executor, where it is checked, dispatched and re-armed, so submitting never runs on the timer.
+ * States that stay idle are dropped by {@link #sweep()}.
+ */
+final class SubmissionLimiter {
+
+    private final Astra plugin;
+    private final LongSupplier tickClock;
+    private final Executor asyncExecutor;
+    private final Map<String, Debounce> debounces;
+    private final Map<String, Throttle> throttles;
+    private final Map<String, TokenBucket> buckets;
+    private volatile boolean closed;
+
+    /**
+     * Creates a new limiter.
+     *
+     * @param plugin        The plugin that owns the limited work
+     * @param tickClock     Supplier of the current server tick
+     * @param asyncExecutor Executor debounces are handed to when their timer fires
+     */
+    SubmissionLimiter(Astra plugin, LongSupplier tickClock, Executor asyncExecutor) {
+        this.plugin = plugin;
+        this.tickClock = tickClock;
+        this.asyncExecutor = asyncExecutor;
+        this.debounces = new ConcurrentHashMap<>();
+        this.throttles = new ConcurrentHashMap<>();
+        this.buckets = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Runs an action once, a delay after the last submission for its key.
+     * Every submission restarts the delay, and the action of the last one is the one that runs.
+     *
+     * @param key        Key grouping the submissions
+     * @param action     The action to run
+     * @param delayNanos Quiet period in nanoseconds
+     * @param dispatch   Function that submits the action when the quiet period ends
+     */
+    void debounce(String key, Runnable action, long delayNanos, Consumer<Runnable> dispatch) {
+        Debounce debounce = debounces.get(key);
+        if (debounce == null) {
+            debounce = debounces.computeIfAbsent(key, ignored -> new Debounce());
+        }
+        debounce.submit(action, delayNanos, dispatch);
+    }
+
+    /**
+     * Runs an action at most once per period for its key. The first submission runs right away;
+     * submissions made during the period are merged into a single run at its end.
+     *
+     * @param key         Key grouping the submissions
+     * @param action      The action to run
+     * @param periodTicks Shortest number of ticks between two runs
+     * @param dispatch    Function that submits the action
+     */
+    void throttle(String key, Runnable action, long periodTicks, Consumer<Runnable> dispatch) {
+        Throttle throttle = throttles.get(key);
+        if (throttle == null) {
+            throttle = throttles.computeIfAbsent(key, ignored -> new Throttle());
+        }
+        throttle.submit(action, Math.max(1, periodTicks), dispatch);
+    }
+
+    /**
+     * Takes a permit from the token bucket of a key. The bucket starts full and refills
+     * continuously at the given rate, up to its burst size.
+     *
+     * @param key              Key of the bucket
+     * @param permitsPerSecond Refill rate of the bucket
+     * @param burst            Largest number of permits the bucket holds
+     * @return true if a permit was taken, false if the bucket is empty
+     */
+    boolean tryAcquire(String key, double permitsPerSecond, int burst) {
+        TokenBucket bucket = buckets.get(key);
+        if (bucket == null) {
+            bucket = buckets.computeIfAbsent(key, ignored -> new TokenBucket(burst));
+        }
+        return bucket.tryAcquire(permitsPerSecond, Math.max(1, burst), System.nanoTime());
+    }
+
+    /**
+     * Drops the state of every key that has nothing pending. A submission racing with the sweep
+     * may create a new state, which at worst lets one extra run or permit through.
+     *
+     * @return Number of dropped keys
+     */
+    int sweep() {
+        int removed = 0;
+        long now = System.nanoTime();
+        long tick = tickClock.getAsLong();
+
+        for (Map.Entry<String, Debounce> entry : debounces.entrySet()) {
+            if (entry.getValue().isIdle(now) && debounces.remove(entry.getKey(), entry.getValue())) {
+                removed++;
+            }
+        }
+        for (Map.Entry<String, Throttle> entry : throttles.entrySet()) {
+            if (entry.getValue().isIdle(tick) && throttles.remove(entry.getKey(), entry.getValue())) {
+                removed++;
+            }
+        }
+        for (Map.Entry<String, TokenBucket> entry : buckets.entrySet()) {
+            if (entry.getValue().isFull(now) && buckets.remove(entry.getKey(), entry.getValue())) {
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Forgets every key. Debounces and throttles still armed are dropped when their timer fires.
+     */
+    void close() {
+        closed = true;
+        debounces.clear();
+        throttles.clear();
+        buckets.clear();
+    }
+
+    private void dispatch(Consumer<Runnable> dispatch, Runnable action) {
+        if (closed) {
+            return;
+        }
+        try {
+            dispatch.accept(action);
+        } catch (RuntimeException e) {
+            plugin.logger().error("Error submitting limited task", e);
+        }
+    }
+
+    /**
+     * Debounce state of a key. The timer is armed by the first submission of a burst; when it
+     * fires early because of later submissions, it re-arms itself for the remaining time.
+     * The timer only hands the state to the async executor, which runs the rest.
+     */
+    private final class Debounce implements Runnable {
+        private final AtomicBoolean armed = new AtomicBoolean(false);
+        private volatile Runnable action;
+        private volatile Consumer<Runnable> dispatch;
+        private volatile long delayNanos;
+        private volatile long lastSubmit;
+
+        private void submit(Runnable action, long delayNanos, Consumer<Runnable> dispatch) {
+            this.action = action;
+            this.dispatch = dispatch;
+            this.delayNanos = Math.max(0, delayNanos);
+            this.lastSubmit = System.nanoTime();
+            if (armed.compareAndSet(false, true)) {
+                arm(this.delayNanos);
+            }
+        }
+
+        private void arm(long nanos) {
+            HashedWheelTimer.shared().newTimeout(this::handOff, Math.max(0, nanos), TimeUnit.NANOSECONDS);
+        }
+
+        private void handOff() {
+            if (closed) {
+                return;
+            }
+            try {
+                asyncExecutor.execute(this);
+            } catch (RejectedExecutionException e) {
+                armed.set(false);
+                plugin.logger().error("Error submitting limited task", e);
+            }
+        }
+
+        @Override
+        public void run() {
+            long last = lastSubmit;
+            long remaining = last + delayNanos - System.nanoTime();
+            if (remaining > 0) {
+                arm(remaining);
+                return;
+            }
+
+            Runnable current = action;
+            armed.set(false);
+            SubmissionLimiter.this.dispatch(dispatch, current);
+
+            if (lastSubmit != last && armed.compareAndSet(false, true)) {
+                arm(lastSubmit + delayNanos - System.nanoTime());
+            }
+        }
+
+        private boolean isIdle(long now) {
+            return !armed.get() && now - lastSubmit > delayNanos;
+        }
+    }
+
+    /**
+     * Throttle state of a key, guarded by its own monitor.
+     */
+    private final class Throttle implements Runnable {
+        private Runnable action;
+        private Consumer<Runnable> dispatch;
+        private long periodTicks;
+        private long nextAllowedTick = Long.MIN_VALUE;
+        private boolean trailing;
+
+        private void submit(Runnable action, long periodTicks, Consumer<Runnable> dispatch) {
+            long wait;
+            synchronized (this) {
+                this.action = action;
+                this.dispatch = dispatch;
+                this.periodTicks = periodTicks;
+                if (trailing) {
+                    return;
+                }
+
+                long tick = tickClock.getAsLong();
+                if (tick >= nextAllowedTick) {
+                    nextAllowedTick = tick + periodTicks;
+                    wait = 0;
+                } else {
+                    trailing = true;
+                    wait = nextAllowedTick - tick;
+                }
+            }
+
+            if (wait == 0) {
+                SubmissionLimiter.this.dispatch(dispatch, action);
+            } else {
+                TickWheel.sync(plugin).schedule(this, wait, 0);
+            }
+        }
+
+        @Override
+        public void run() {
+            Runnable current;
+            Consumer<Runnable> currentDispatch;
+            synchronized (this) {
+                trailing = false;
+                nextAllowedTick = tickClock.getAsLong() + periodTicks;
+                current = action;
+                currentDispatch = dispatch;
+            }
+            SubmissionLimiter.this.dispatch(currentDispatch, current);
+        }
+
+        private synchronized boolean isIdle(long tick) {
+            return !trailing && tick >= nextAllowedTick;
+        }
+    }
+
+    /**
+     * Token bucket of a key, refilled lazily whenever it is read.
+     */
+    private static final class TokenBucket {
+        private double tokens;
+        private double permitsPerSecond;
+        private int burst;
+        private long lastRefill;
+
+        private TokenBucket(int burst) {
+            this.tokens = Math.max(1, burst);
+            this.burst = Math.max(1, burst);
+            this.lastRefill = System.nanoTime();
+        }
+
+        private synchronized boolean tryAcquire(double permitsPerSecond, int burst, long now) {
+            this.permitsPerSecond = permitsPerSecond;
+            this.burst = burst;
+            refill(now);
+            if (tokens >= 1.0) {
+                tokens -= 1.0;
+                return true;
+            }
+            return false;
+        }
+
+        private synchronized boolean isFull(long now) {
+            refill(now);
+            return tokens >= burst;
+        }
+
+        private void refill(long now) {
+            long elapsed = now - lastRefill;
+            if (elapsed > 0) {
+                tokens = Math.min(burst, tokens + elapsed * permitsPerSecond / 1_000_000_000.0);
+                lastRefill = now;
+            }
+        }
+    }
+}
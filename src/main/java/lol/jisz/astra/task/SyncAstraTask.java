@@ -38,7 +38,9 @@ public class SyncAstraTask extends AbstractAstraTask {
     }
 
     /**
-     * Executes the task immediately on the main server thread.
+     * Executes the task on the main server thread.
+     * When an executor is assigned, such as a {@link TickBudgetExecutor}, the task is handed to it
+     * and may run in a later tick; otherwise it is submitted directly to the Bukkit scheduler.
      * If the task is already scheduled, completed, or cancelled, this method has no effect.
      *
      * @return This task instance for method chaining
@@ -48,17 +50,12 @@ public class SyncAstraTask extends AbstractAstraTask {
             return this;
         }
 
-        bukkitTask = Bukkit.getScheduler().runTask(plugin, () -> {
-            if (cancelled.get()) return;
-
-            try {
-                markAsRunning();
-                runnable.run();
-                markAsCompleted();
-            } catch (Throwable t) {
-                handleError(t);
-            }
-        });
+        if (executor == null) {
+            bukkitTask = Bukkit.getScheduler().runTask(plugin, this::runOnce);
+        } else {
+            submitted.set(true);
+            executor.execute(this::runOnce, priority);
+        }
 
         return this;
     }
@@ -76,14 +73,10 @@ public class SyncAstraTask extends AbstractAstraTask {
         }
 
         bukkitTask = Bukkit.getScheduler().runTaskLater(plugin, () -> {
-            if (cancelled.get()) return;
-
-            try {
-                markAsRunning();
-                runnable.run();
-                markAsCompleted();
-            } catch (Throwable t) {
-                handleError(t);
+            if (executor == null) {
+                runOnce();
+            } else {
+                executor.execute(this::runOnce, priority);
             }
         }, delayTicks);
 
@@ -93,6 +86,7 @@ public class SyncAstraTask extends AbstractAstraTask {
     /**
      * Schedules the task to be executed repeatedly on the main server thread.
      * The task will first run after the specified delay and then repeatedly at the specified interval.
+     * Runs are driven by the shared {@link TickWheel} of the plugin instead of a timer of their own.
      * If the task is already scheduled, completed, or cancelled, this method has no effect.
      *
      * @param delayTicks  The number of server ticks to wait before the first execution
@@ -104,26 +98,37 @@ public class SyncAstraTask extends AbstractAstraTask {
             return this;
         }
 
-        bukkitTask = Bukkit.getScheduler().runTaskTimer(plugin, () -> {
+        bukkitTask = TickWheel.sync(plugin).schedule(id, handle -> {
             if (cancelled.get()) {
-                if (bukkitTask != null) {
-                    bukkitTask.cancel();
-                }
+                handle.cancel();
                 return;
             }
 
             try {
                 markAsRunning();
                 runnable.run();
-                running.set(false);
+                markAsIdle();
             } catch (Throwable t) {
                 handleError(t);
-                if (bukkitTask != null) {
-                    bukkitTask.cancel();
-                }
+                handle.cancel();
             }
         }, delayTicks, periodTicks);
 
         return this;
     }
+
+    /**
+     * Runs the task body once, unless it was cancelled while waiting.
+     */
+    private void runOnce() {
+        if (cancelled.get()) return;
+
+        try {
+            markAsRunning();
+            runnable.run();
+            markAsCompleted();
+        } catch (Throwable t) {
+            handleError(t);
+        }
+    }
 }
\ No newline at end of file
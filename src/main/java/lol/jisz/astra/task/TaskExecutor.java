@@ -0,0 +1,45 @@
+package lol.jisz.astra.task;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Execution backend used to run the body of tasks.
+ * Implementations decide which threads run the work, while the {@link TaskManager}
+ * keeps deciding when and how much work is dispatched.
+ */
+public interface TaskExecutor extends Executor {
+
+    /**
+     * Gets a short name describing this backend, used in statistics and logs.
+     *
+     * @return The backend name
+     */
+    String getName();
+
+    /**
+     * Gets the highest number of tasks this backend can reasonably run at the same time.
+     * The adaptive concurrency limiter never goes above this value.
+     *
+     * @return Maximum number of concurrent tasks
+     */
+    int getMaxConcurrency();
+
+    /**
+     * Submits work together with the priority of the task it belongs to.
+     * Backends that do not order their work ignore the priority.
+     *
+     * @param command  The work to run
+     * @param priority Priority of the task that owns the work
+     */
+    default void execute(Runnable command, TaskPriority priority) {
+        execute(command);
+    }
+
+    /**
+     * Releases the resources held by this backend.
+     * Tasks that are already running are allowed to finish.
+     */
+    default void shutdown() {
+        // Nothing to release by default
+    }
+}
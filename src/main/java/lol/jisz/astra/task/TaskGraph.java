@@ -0,0 +1,184 @@
+package lol.jisz.astra.task;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Dependency graph used by the {@link TaskManager} to decide when a task is ready to run.
+ * <p>
+ * Every linked task owns a node with a counter of dependencies that have not completed yet,
+ * and every dependency keeps a reverse index of the tasks waiting on it. Completing a task
+ * therefore only touches its direct dependents, and cycles are detected once, when the task
+ * is linked into the graph.
+ */
+final class TaskGraph {
+
+    /**
+     * Result of linking a task into the graph.
+     */
+    enum LinkResult {
+        /** All dependencies are satisfied, the task can be queued right away. */
+        READY,
+        /** The task is waiting for at least one dependency to complete. */
+        WAITING,
+        /** The task was already linked, nothing changed. */
+        ALREADY_LINKED,
+        /** The dependencies of the task form a cycle. */
+        CYCLE,
+        /** One of the dependencies is not registered. */
+        MISSING_DEPENDENCY
+    }
+
+    private final Map<String, Node> nodes = new ConcurrentHashMap<>();
+
+    /**
+     * Links a task into the graph, registering it as a dependent of every pending dependency.
+     *
+     * @param task   The task to link
+     * @param lookup Function used to resolve registered tasks by their ID
+     * @return The outcome of the operation
+     */
+    LinkResult link(AstraTask task, Function<String, AstraTask> lookup) {
+        Set<String> dependencies = task.getDependencies();
+
+        for (String dependencyId : dependencies) {
+            if (lookup.apply(dependencyId) == null) {
+                return LinkResult.MISSING_DEPENDENCY;
+            }
+        }
+
+        if (!dependencies.isEmpty() && hasCycle(task, lookup)) {
+            return LinkResult.CYCLE;
+        }
+
+        Node node = nodes.computeIfAbsent(task.getId(), Node::new);
+        synchronized (node) {
+            if (node.linked) {
+                return LinkResult.ALREADY_LINKED;
+            }
+            node.linked = true;
+            node.task = task;
+        }
+
+        for (String dependencyId : dependencies) {
+            AstraTask dependency = lookup.apply(dependencyId);
+            if (dependency == null || dependency.isCompleted()) {
+                continue;
+            }
+
+            Node dependencyNode = nodes.computeIfAbsent(dependencyId, Node::new);
+            synchronized (dependencyNode) {
+                if (dependencyNode.released || dependency.isCompleted()) {
+                    if (!dependencyNode.linked && dependencyNode.dependents.isEmpty()) {
+                        nodes.remove(dependencyId, dependencyNode);
+                    }
+                    continue;
+                }
+                dependencyNode.dependents.add(node);
+                node.remaining.incrementAndGet();
+            }
+        }
+
+        return node.remaining.decrementAndGet() == 0 ? LinkResult.READY : LinkResult.WAITING;
+    }
+
+    /**
+     * Marks a task as completed and releases the dependents that have no other pending dependencies.
+     *
+     * @param taskId ID of the completed task
+     * @return Tasks that became ready to run, in the order they were linked
+     */
+    List<AstraTask> release(String taskId) {
+        Node node = nodes.remove(taskId);
+        if (node == null) {
+            return Collections.emptyList();
+        }
+
+        List<Node> dependents;
+        synchronized (node) {
+            node.released = true;
+            if (node.dependents.isEmpty()) {
+                return Collections.emptyList();
+            }
+            dependents = new ArrayList<>(node.dependents);
+            node.dependents.clear();
+        }
+
+        List<AstraTask> ready = new ArrayList<>(dependents.size());
+        for (Node dependent : dependents) {
+            if (dependent.remaining.decrementAndGet() == 0 && dependent.task != null) {
+                ready.add(dependent.task);
+            }
+        }
+        return ready;
+    }
+
+    /**
+     * Removes a task from the graph without releasing its dependents.
+     *
+     * @param taskId ID of the task to forget
+     */
+    void remove(String taskId) {
+        nodes.remove(taskId);
+    }
+
+    /**
+     * Removes every node from the graph.
+     */
+    void clear() {
+        nodes.clear();
+    }
+
+    /**
+     * Walks the dependencies of a task looking for a path that leads back to it.
+     * Completed tasks are not followed, since they can no longer block anything.
+     */
+    private boolean hasCycle(AstraTask task, Function<String, AstraTask> lookup) {
+        Set<String> visited = new HashSet<>();
+        Deque<AstraTask> stack = new ArrayDeque<>();
+        stack.push(task);
+
+        while (!stack.isEmpty()) {
+            AstraTask current = stack.pop();
+            for (String dependencyId : current.getDependencies()) {
+                if (dependencyId.equals(task.getId())) {
+                    return true;
+                }
+                if (!visited.add(dependencyId)) {
+                    continue;
+                }
+
+                AstraTask dependency = lookup.apply(dependencyId);
+                if (dependency != null && !dependency.isCompleted()) {
+                    stack.push(dependency);
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Graph node holding the reverse dependency index of a task.
+     */
+    private static final class Node {
+        private final String id;
+        private final AtomicInteger remaining = new AtomicInteger(1);
+        private final List<Node> dependents = new ArrayList<>(2);
+        private volatile AstraTask task;
+        private boolean linked;
+        private boolean released;
+
+        private Node(String id) {
+            this.id = id;
+        }
+    }
+}
@@ -0,0 +1,295 @@
+package lol.jisz.astra.task;
+
+import lol.jisz.astra.utils.Logger;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of durable task records, stored in memory-mapped segment files.
+ * <p>
+ * Every record is framed with its length and a CRC32 of its body, so a record torn by a crash is
+ * detected and ends the replay of its segment. Appending is a copy into the mapped segment; the
+ * operating system writes it back even if the process dies, and {@link #force()} makes it survive
+ * a power loss as well. When a segment is full, the records still pending are copied into a new
+ * segment and older segments are deleted, so the journal never grows beyond the pending work.
+ * Deleting old segments is best effort: a segment whose file cannot be deleted yet, such as a file
+ * Windows still holds mapped until its buffer is collected, is kept with every newer segment and
+ * deleted by a later roll. Kept segments are replayed along with the others, which only repeats
+ * records whose acknowledgements are replayed as well.
+ * <p>
+ * Not thread safe: the {@link DurableTaskQueue} only touches it from its writer thread.
+ */
+final class TaskJournal {
+
+    static final byte KIND_TASK = 1;
+    static final byte KIND_ACK = 2;
+
+    private static final int MIN_SEGMENT_SIZE = 16 * 1024 * 1024;
+    private static final int HEADER_SIZE = 8;
+    private static final String PREFIX = "journal-";
+    private static final String SUFFIX = ".log";
+
+    private final Path directory;
+    private final Logger logger;
+    private final CRC32 crc;
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private long firstSegment;
+    private long segment;
+    private boolean dirty;
+
+    TaskJournal(Path directory, Logger logger) {
+        this.directory = directory;
+        this.logger = logger;
+        this.crc = new CRC32();
+    }
+
+    /**
+     * Opens the journal and reads every valid record of every segment, oldest first.
+     * New records are appended after the last valid record of the newest segment.
+     *
+     * @return The records found in the journal
+     * @throws IOException If the journal cannot be read or created
+     */
+    List<Record> open() throws IOException {
+        Files.createDirectories(directory);
+
+        TreeMap<Long, Path> segments = new TreeMap<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+            for (Path path : stream) {
+                String name = path.getFileName().toString();
+                try {
+                    segments.put(Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length())), path);
+                } catch (NumberFormatException ignored) {
+                    // Not a segment of this journal
+                }
+            }
+        }
+
+        List<Record> records = new ArrayList<>();
+        for (Map.Entry<Long, Path> entry : segments.entrySet()) {
+            FileChannel file = FileChannel.open(entry.getValue(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+            MappedByteBuffer mapped = file.map(FileChannel.MapMode.READ_WRITE, 0, file.size());
+            readRecords(mapped, records);
+            if (entry.getKey().equals(segments.lastKey())) {
+                channel = file;
+                buffer = mapped;
+                segment = entry.getKey();
+            } else {
+                file.close();
+            }
+        }
+
+        firstSegment = segments.isEmpty() ? 0 : segments.firstKey();
+        if (buffer == null) {
+            createSegment(0, MIN_SEGMENT_SIZE);
+        }
+        return records;
+    }
+
+    /**
+     * Appends a record. When the current segment is full, the journal rolls over to a new segment
+     * that starts with a copy of the pending tasks, so acknowledgements no longer need to be kept
+     * and are dropped.
+     *
+     * @param record  The record to append
+     * @param pending Supplier of the task records still pending, oldest first, not including
+     *                the record being appended nor the task it acknowledges
+     * @throws IOException If a new segment cannot be created
+     */
+    void append(Record record, Supplier<? extends Collection<Record>> pending) throws IOException {
+        byte[] body = encode(record);
+        if (buffer.remaining() < HEADER_SIZE + body.length + HEADER_SIZE) {
+            roll(pending.get(), body.length);
+            if (record.kind == KIND_ACK) {
+                return;
+            }
+        }
+        write(body);
+    }
+
+    /**
+     * Writes every appended record back to the storage device.
+     */
+    void force() {
+        if (dirty) {
+            buffer.force();
+            dirty = false;
+        }
+    }
+
+    /**
+     * Forces and closes the current segment.
+     */
+    void close() {
+        if (channel == null) {
+            return;
+        }
+        force();
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // Nothing left to write
+        }
+        channel = null;
+        buffer = null;
+    }
+
+    private void roll(Collection<Record> pending, int extra) throws IOException {
+        List<byte[]> live = new ArrayList<>(pending.size());
+        long size = HEADER_SIZE * 2L + extra;
+        for (Record record : pending) {
+            byte[] body = encode(record);
+            live.add(body);
+            size += HEADER_SIZE + body.length;
+        }
+
+        long previous = segment;
+        FileChannel previousChannel = channel;
+        force();
+        createSegment(previous + 1, (int) Math.min(Integer.MAX_VALUE, Math.max(MIN_SEGMENT_SIZE, size * 2)));
+        for (byte[] body : live) {
+            write(body);
+        }
+        force();
+        try {
+            previousChannel.close();
+        } catch (IOException ignored) {
+            // Every record of the segment was forced above
+        }
+        deleteOldSegments();
+    }
+
+    /**
+     * Deletes the segments older than the current one, oldest first. Stops at the first segment
+     * that cannot be deleted, so the kept segments stay contiguous up to the current one and no
+     * acknowledgement of a kept record is lost; the next roll tries again from there.
+     */
+    private void deleteOldSegments() {
+        while (firstSegment < segment) {
+            try {
+                Files.deleteIfExists(pathOf(firstSegment));
+            } catch (IOException e) {
+                logger.warning("Could not delete durable task journal segment " + pathOf(firstSegment)
+                        + ", it will be deleted later: " + e.getMessage());
+                return;
+            }
+            firstSegment++;
+        }
+    }
+
+    /**
+     * Creates and maps a new segment, which becomes the current one only once it is mapped, so a
+     * failure leaves the current segment in place.
+     */
+    private void createSegment(long index, int size) throws IOException {
+        FileChannel file = FileChannel.open(pathOf(index), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer mapped;
+        try {
+            mapped = file.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        } catch (IOException | RuntimeException e) {
+            file.close();
+            throw e;
+        }
+        channel = file;
+        buffer = mapped;
+        segment = index;
+    }
+
+    private Path pathOf(long index) {
+        return directory.resolve(PREFIX + index + SUFFIX);
+    }
+
+    private void write(byte[] body) {
+        crc.reset();
+        crc.update(body);
+        buffer.putInt(body.length);
+        buffer.putInt((int) crc.getValue());
+        buffer.put(body);
+        dirty = true;
+    }
+
+    private void readRecords(MappedByteBuffer mapped, List<Record> records) {
+        while (mapped.remaining() >= HEADER_SIZE) {
+            int start = mapped.position();
+            int length = mapped.getInt();
+            int checksum = mapped.getInt();
+            if (length <= 0 || length > mapped.remaining()) {
+                mapped.position(start);
+                return;
+            }
+
+            byte[] body = new byte[length];
+            mapped.get(body);
+            crc.reset();
+            crc.update(body);
+            if ((int) crc.getValue() != checksum) {
+                mapped.position(start);
+                return;
+            }
+            records.add(decode(body));
+        }
+    }
+
+    private static byte[] encode(Record record) {
+        byte[] type = record.type == null ? new byte[0] : record.type.getBytes(StandardCharsets.UTF_8);
+        byte[] payload = record.payload == null ? new byte[0] : record.payload.getBytes(StandardCharsets.UTF_8);
+
+        ByteBuffer body = ByteBuffer.allocate(1 + 8 + 8 + 4 + type.length + 4 + payload.length);
+        body.put(record.kind);
+        body.putLong(record.sequence);
+        body.putLong(record.runAt);
+        body.putInt(type.length);
+        body.put(type);
+        body.putInt(payload.length);
+        body.put(payload);
+        return body.array();
+    }
+
+    private static Record decode(byte[] bytes) {
+        ByteBuffer body = ByteBuffer.wrap(bytes);
+        byte kind = body.get();
+        long sequence = body.getLong();
+        long runAt = body.getLong();
+        byte[] type = new byte[body.getInt()];
+        body.get(type);
+        byte[] payload = new byte[body.getInt()];
+        body.get(payload);
+        return new Record(kind, sequence, new String(type, StandardCharsets.UTF_8),
+                new String(payload, StandardCharsets.UTF_8), runAt);
+    }
+
+    /**
+     * Entry of the journal: a durable task, or the acknowledgement that a task finished.
+     */
+    static final class Record {
+        final byte kind;
+        final long sequence;
+        final String type;
+        final String payload;
+        final long runAt;
+
+        Record(byte kind, long sequence, String type, String payload, long runAt) {
+            this.kind = kind;
+            this.sequence = sequence;
+            this.type = type;
+            this.payload = payload;
+            this.runAt = runAt;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package lol.jisz.astra.task;
+
+/**
+ * Listener notified when a task completes or fails.
+ * Any number of listeners can be attached to a task through {@link AstraTask#addListener(TaskListener)},
+ * and they are notified in the order they were added.
+ */
+public interface TaskListener {
+
+    /**
+     * Called after the task completed successfully.
+     *
+     * @param task The completed task
+     */
+    default void onComplete(AstraTask task) {
+        // Nothing to do by default
+    }
+
+    /**
+     * Called when the task fails, or when a completion listener throws.
+     *
+     * @param task      The failed task
+     * @param throwable The error that occurred
+     */
+    default void onError(AstraTask task, Throwable throwable) {
+        // Nothing to do by default
+    }
+
+    /**
+     * Creates a listener that only reacts to successful completion.
+     *
+     * @param action The action to run on completion
+     * @return A new listener
+     */
+    static TaskListener onComplete(Runnable action) {
+        return new TaskListener() {
+            @Override
+            public void onComplete(AstraTask task) {
+                action.run();
+            }
+        };
+    }
+
+    /**
+     * Creates a listener that only reacts to errors.
+     *
+     * @param errorHandler The handler for task errors
+     * @return A new listener
+     */
+    static TaskListener onError(AstraTask.ErrorHandler errorHandler) {
+        return new TaskListener() {
+            @Override
+            public void onError(AstraTask task, Throwable throwable) {
+                errorHandler.handle(throwable);
+            }
+        };
+    }
+}
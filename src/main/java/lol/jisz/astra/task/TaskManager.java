@@ -6,37 +6,72 @@ import lol.jisz.astra.utils.Logger;
 import lol.jisz.astra.utils.Text;
 import org.bukkit.Bukkit;
 
-import java.lang.reflect.Field;
-import java.util.HashSet;
+import java.io.File;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 /**
  * Centralized task manager for the Astra framework.
  * Implements a priority and dependency system for task execution.
  */
 public class TaskManager extends AbstractModule {
+    private static final int ADJUSTMENT_PERIOD_TICKS = 20;
+    private static final double LIMIT_DECREASE_FACTOR = 0.7;
+
     private Astra plugin;
     private Logger logger;
 
-    private PriorityBlockingQueue<AstraTask> pendingTasks;
+    private PriorityRunQueue<AstraTask> pendingTasks;
+    private final Predicate<AstraTask> dispatchFilter = this::canDispatch;
+    private final Predicate<AstraTask> dispatchClaim = this::claimDispatch;
+    private boolean claimedStale;
 
-    private Map<String, AstraTask> taskRegistry;
+    private TaskRegistry taskRegistry;
+    private TaskGraph taskGraph;
 
-    private AtomicInteger runningAsyncTasks;
-    private int maxConcurrentAsyncTasks;
+    private ConcurrencyLimiter concurrencyLimiter;
+    private Map<String, TaskPriority> asyncSlots;
+    private TaskExecutor asyncExecutor;
+    private TickBudgetExecutor syncExecutor;
 
-    private Map<TaskPriority, Integer> tasksByPriority;
+    private AtomicIntegerArray tasksByPriority;
+    private TaskMetrics metrics;
     private AtomicInteger completedTasks;
     private AtomicInteger failedTasks;
+    private AtomicInteger timedOutTasks;
+
+    private final AtomicInteger drainRequests = new AtomicInteger();
+    private final TaskListener taskListener = new TaskListener() {
+        @Override
+        public void onComplete(AstraTask task) {
+            onTaskCompleted(task);
+        }
+
+        @Override
+        public void onError(AstraTask task, Throwable throwable) {
+            onTaskFailed(task, throwable);
+        }
+    };
 
-    private ReentrantLock processingLock;
+    private final Consumer<Runnable> asyncDispatch = this::runAsync;
+    private final Consumer<Runnable> syncDispatch = this::runSync;
 
     private double serverLoadThreshold;
+    private ServerLoadSampler loadSampler;
+    private SubmissionLimiter submissionLimiter;
+    private KeyedLanes keyedLanes;
+    private DurableTaskQueue durableQueue;
+    private int ticksSinceAdjustment;
     private boolean adaptiveConcurrency;
 
     @Override
@@ -44,29 +79,38 @@ public class TaskManager extends AbstractModule {
         this.plugin = getPlugin();
         this.logger = new Logger(plugin, Text.gradient("AstraTask", "9863E7", "C69FFF") + " &8| &r");
 
-        this.pendingTasks = new PriorityBlockingQueue<>(32,
-                (t1, t2) -> Integer.compare(t1.getPriority().getValue(), t2.getPriority().getValue()));
-        this.taskRegistry = new ConcurrentHashMap<>();
+        this.pendingTasks = new PriorityRunQueue<>(2, TimeUnit.SECONDS);
+        this.taskGraph = new TaskGraph();
+        this.taskRegistry = new TaskRegistry(taskGraph::remove);
+        this.submissionLimiter = new SubmissionLimiter(plugin, () -> loadSampler.getTick(), command -> asyncExecutor.execute(command));
 
-        this.runningAsyncTasks = new AtomicInteger(0);
-        this.maxConcurrentAsyncTasks = 10;
+        this.concurrencyLimiter = new ConcurrencyLimiter(10);
+        this.asyncSlots = new ConcurrentHashMap<>();
+        this.asyncExecutor = new BukkitTaskExecutor(plugin);
+        this.syncExecutor = new TickBudgetExecutor(plugin);
+        this.keyedLanes = new KeyedLanes(plugin, () -> asyncExecutor, concurrencyLimiter, this::onLaneSlotReleased);
 
-        this.tasksByPriority = new ConcurrentHashMap<>();
-        for (TaskPriority priority : TaskPriority.values()) {
-            tasksByPriority.put(priority, 0);
-        }
+        this.tasksByPriority = new AtomicIntegerArray(TaskPriority.values().length);
+        this.metrics = new TaskMetrics();
         this.completedTasks = new AtomicInteger(0);
         this.failedTasks = new AtomicInteger(0);
-
-        this.processingLock = new ReentrantLock();
+        this.timedOutTasks = new AtomicInteger(0);
 
         this.serverLoadThreshold = 0.7;
         this.adaptiveConcurrency = true;
 
         startResourceMonitoring();
 
+        if (new File(plugin.getDataFolder(), DurableTaskQueue.DIRECTORY).isDirectory()) {
+            try {
+                getDurableQueue();
+            } catch (IllegalStateException e) {
+                logger.error("Durable tasks will not be replayed", e);
+            }
+        }
+
         if (plugin.isDebugMode()) {
-            logger.info("Task system initialized with limit of " + maxConcurrentAsyncTasks + " concurrent async tasks");
+            logger.info("Task system initialized with limit of " + concurrencyLimiter.getLimit() + " concurrent async tasks");
         }
     }
 
@@ -75,7 +119,21 @@ public class TaskManager extends AbstractModule {
         if (plugin.isDebugMode()) {
             logger.info("Disabling task system, cancelling all tasks...");
         }
+        synchronized (this) {
+            if (durableQueue != null) {
+                durableQueue.close();
+                durableQueue = null;
+            }
+        }
         cancelAllTasks();
+        submissionLimiter.close();
+        loadSampler.stop();
+        asyncExecutor.shutdown();
+        syncExecutor.shutdown();
+        MainThreadDispatcher.remove(plugin);
+        TickWheel.remove(plugin);
+        HashedWheelTimer.stopShared();
+        ParallelTaskGroup.shutdownPool();
     }
 
     /**
@@ -86,7 +144,7 @@ public class TaskManager extends AbstractModule {
     public AstraTask registerTask(AstraTask task) {
         if (task == null) return null;
 
-        taskRegistry.put(task.getId(), task);
+        taskRegistry.register(task);
         return task;
     }
 
@@ -99,7 +157,7 @@ public class TaskManager extends AbstractModule {
     public AstraTask registerTask(AstraTask task, boolean schedule) {
         if (task == null) return null;
 
-        taskRegistry.put(task.getId(), task);
+        taskRegistry.register(task);
         return schedule ? scheduleTask(task) : task;
     }
 
@@ -113,23 +171,15 @@ public class TaskManager extends AbstractModule {
             throw new IllegalArgumentException("Task cannot be null");
         }
 
-        taskRegistry.put(task.getId(), task);
+        taskRegistry.register(task);
+        if (task instanceof AbstractAstraTask abstractTask) {
+            abstractTask.markSubmitted();
+        }
 
-        TaskPriority priority = task.getPriority();
-        tasksByPriority.put(priority, tasksByPriority.get(priority) + 1);
+        countActive(task.getPriority(), 1);
 
         configureTaskCallbacks(task);
-
-        if (!hasPendingDependencies(task)) {
-            pendingTasks.add(task);
-            if (plugin.isDebugMode()) {
-                logger.debug("Task " + task.getId() + " scheduled with priority " + priority);
-            }
-        } else {
-            if (plugin.isDebugMode()) {
-                logger.debug("Task " + task.getId() + " has pending dependencies, not scheduling yet");
-            }
-        }
+        linkTask(task);
 
         processNextTasks();
 
@@ -137,278 +187,410 @@ public class TaskManager extends AbstractModule {
     }
 
     /**
-     * Configures task callbacks for monitoring and management.
+     * Attaches the manager listener to a task for monitoring and management.
+     * The listener is shared by every task and attaching it twice has no effect.
      * @param task Task to configure
      */
     private void configureTaskCallbacks(AstraTask task) {
-        Runnable originalOnComplete = getOriginalCallback(task, "onCompleteAction");
-        AstraTask.ErrorHandler originalOnError = getOriginalErrorHandler(task);
-
-        task.onComplete(() -> {
-            if (originalOnComplete != null) {
-                try {
-                    originalOnComplete.run();
-                } catch (Exception e) {
-                    logger.error("Error in original task callback " + task.getId(), e);
-                }
-            }
+        task.addListener(taskListener);
+    }
 
-            completedTasks.incrementAndGet();
-            TaskPriority priority = task.getPriority();
-            tasksByPriority.put(priority, Math.max(0, tasksByPriority.get(priority) - 1));
+    /**
+     * Called when a task scheduled through this manager completes.
+     * @param task The completed task
+     */
+    private void onTaskCompleted(AstraTask task) {
+        completedTasks.incrementAndGet();
+        countActive(task.getPriority(), -1);
+        recordMetrics(task);
 
-            if (task instanceof AsyncAstraTask && task.isRunning()) {
-                runningAsyncTasks.decrementAndGet();
-            }
+        releaseAsyncSlot(task);
 
-            checkDependentTasks(task.getId());
-            processNextTasks();
+        releaseDependentTasks(task.getId());
+        taskRegistry.finished(task);
+        processNextTasks();
 
-            if (plugin.isDebugMode()) {
-                logger.debug("Task " + task.getId() + " completed successfully");
+        if (plugin.isDebugMode()) {
+            logger.debug("Task " + task.getId() + " completed successfully");
+        }
+    }
+
+    /**
+     * Called when a task scheduled through this manager fails.
+     * Errors thrown by completion callbacks of an already completed task are only logged.
+     * @param task The failed task
+     * @param throwable The error that occurred
+     */
+    private void onTaskFailed(AstraTask task, Throwable throwable) {
+        if (task.isCompleted()) {
+            logger.error("Error in completion callback of task " + task.getId(), throwable);
+            return;
+        }
+
+        failedTasks.incrementAndGet();
+        if (throwable instanceof AsyncAstraTask.TimeoutException) {
+            timedOutTasks.incrementAndGet();
+        }
+        countActive(task.getPriority(), -1);
+        recordMetrics(task);
+
+        releaseAsyncSlot(task);
+        taskRegistry.finished(task);
+
+        processNextTasks();
+
+        logger.error("Task " + task.getId() + " failed with error: " + throwable.getMessage(), throwable);
+    }
+
+    /**
+     * Links a task into the dependency graph and queues it if all of its dependencies are satisfied.
+     * Missing dependencies and dependency cycles make the task fail immediately.
+     *
+     * @param task Task to link
+     */
+    private void linkTask(AstraTask task) {
+        TaskGraph.LinkResult result = taskGraph.link(task, taskRegistry::find);
+
+        switch (result) {
+            case READY -> {
+                enqueue(task);
+                if (plugin.isDebugMode()) {
+                    logger.debug("Task " + task.getId() + " scheduled with priority " + task.getPriority());
+                }
             }
-        });
-
-        task.onError(throwable -> {
-            if (originalOnError != null) {
-                try {
-                    originalOnError.handle(throwable);
-                } catch (Exception e) {
-                    logger.error("Error in original error handler for task " + task.getId(), e);
+            case WAITING -> {
+                if (plugin.isDebugMode()) {
+                    logger.debug("Task " + task.getId() + " has pending dependencies, not scheduling yet");
                 }
             }
-
-            failedTasks.incrementAndGet();
-            TaskPriority priority = task.getPriority();
-            tasksByPriority.put(priority, Math.max(0, tasksByPriority.get(priority) - 1));
-
-            if (task instanceof AsyncAstraTask && task.isRunning()) {
-                runningAsyncTasks.decrementAndGet();
+            case CYCLE -> failTask(task, new IllegalStateException("Circular dependency detected involving task " + task.getId()));
+            case MISSING_DEPENDENCY -> {
+                logger.warning("Task " + task.getId() + " depends on a non-existent task. Marking as failed.");
+                failTask(task, new IllegalStateException("Dependency not found for task " + task.getId()));
             }
+            case ALREADY_LINKED -> {
+                // Scheduled twice, the first link is still valid
+            }
+        }
+    }
 
-            processNextTasks();
-
+    /**
+     * Marks a task as failed before it was ever executed.
+     * @param task Task that failed
+     * @param throwable Cause of the failure
+     */
+    private void failTask(AstraTask task, Throwable throwable) {
+        if (task instanceof AbstractAstraTask abstractTask) {
+            abstractTask.handleError(throwable);
+        } else {
+            task.cancel();
+            failedTasks.incrementAndGet();
+            countActive(task.getPriority(), -1);
+            taskRegistry.finished(task);
             logger.error("Task " + task.getId() + " failed with error: " + throwable.getMessage(), throwable);
-        });
+        }
     }
 
     /**
-     * Gets the original completion callback of a task.
-     * @param task Task to get the callback from
-     * @param fieldName Name of the field containing the callback
-     * @return Original callback or null if it doesn't exist
+     * Queues a task whose dependencies are all satisfied, recording when it became ready.
+     * @param task Task ready to run
      */
-    private Runnable getOriginalCallback(AstraTask task, String fieldName) {
-        try {
-            Field field = AbstractAstraTask.class.getDeclaredField(fieldName);
-            field.setAccessible(true);
-            return (Runnable) field.get(task);
-        } catch (Exception e) {
-            logger.debug("Could not access original callback: " + e.getMessage());
-            return null;
+    private void enqueue(AstraTask task) {
+        if (task instanceof AbstractAstraTask abstractTask) {
+            abstractTask.markReady();
         }
+        pendingTasks.offer(task, task.getPriority());
+    }
+
+    /**
+     * Updates the number of scheduled tasks of a priority that have not finished yet.
+     * @param priority Priority of the task
+     * @param delta Amount to add, the count never goes below zero
+     */
+    private void countActive(TaskPriority priority, int delta) {
+        int index = (priority == null ? TaskPriority.NORMAL : priority).ordinal();
+        int count;
+        do {
+            count = tasksByPriority.get(index);
+        } while (!tasksByPriority.compareAndSet(index, count, Math.max(0, count + delta)));
     }
 
     /**
-     * Gets the original error handler of a task.
-     * @param task Task to get the handler from
-     * @return Original handler or null if it doesn't exist
+     * Records the latency of a finished task.
+     * @param task The finished task
      */
-    private AstraTask.ErrorHandler getOriginalErrorHandler(AstraTask task) {
-        try {
-            Field field = AbstractAstraTask.class.getDeclaredField("errorHandler");
-            field.setAccessible(true);
-            return (AstraTask.ErrorHandler) field.get(task);
-        } catch (Exception e) {
-            logger.debug("Could not access original error handler: " + e.getMessage());
-            return null;
+    private void recordMetrics(AstraTask task) {
+        if (task instanceof AbstractAstraTask abstractTask) {
+            metrics.record(abstractTask);
         }
     }
 
-    private boolean hasPendingDependencies(AstraTask task) {
-        Set<String> dependencies = task.getDependencies();
-        if (dependencies.isEmpty()) {
-            return false;
+    /**
+     * Queues the tasks that were only waiting for the given task to complete.
+     * Only the direct dependents of the completed task are visited.
+     * @param completedTaskId ID of the completed task
+     */
+    private void releaseDependentTasks(String completedTaskId) {
+        for (AstraTask task : taskGraph.release(completedTaskId)) {
+            if (task.isScheduled() || task.isCompleted() || task.isCancelled()) {
+                continue;
+            }
+
+            enqueue(task);
+            if (plugin.isDebugMode()) {
+                logger.debug("Task " + task.getId() + " ready to execute after completing dependency " + completedTaskId);
+            }
         }
+    }
 
-        Set<String> visited = new HashSet<>();
-        visited.add(task.getId());
+    /**
+     * Processes the next pending tasks according to priority and available resources.
+     * Only one thread drains the queue at a time; calls made while a drain is in progress
+     * are counted and make the draining thread run another pass, so no wakeup is lost.
+     */
+    private void processNextTasks() {
+        if (drainRequests.getAndIncrement() != 0) {
+            return;
+        }
 
-        return hasPendingDependenciesRecursive(task, visited);
+        int missed = 1;
+        do {
+            drainPendingTasks();
+            missed = drainRequests.addAndGet(-missed);
+        } while (missed != 0);
     }
 
     /**
-     * Checks if the given task has any pending dependencies recursively.
-     *
-     * @param task The task to check for pending dependencies.
-     * @param visited A set to keep track of visited tasks to avoid circular dependencies.
-     * @return true if the task or any of its dependencies have pending dependencies, false otherwise.
+     * Dispatches queued tasks until the queue is empty, the server is overloaded
+     * or only async tasks remain while every async slot is in use.
      */
-    private boolean hasPendingDependenciesRecursive(AstraTask task, Set<String> visited) {
-        for (String dependencyId : task.getDependencies()) {
-            if (visited.contains(dependencyId)) {
-                if (plugin.isDebugMode()) {
-                    logger.error("Circular dependency detected involving task " + task.getId() +
-                            " and " + dependencyId);
+    private void drainPendingTasks() {
+        double currentLoad = getServerLoad();
+
+        while (currentLoad < serverLoadThreshold) {
+            AstraTask nextTask = pendingTasks.poll(dispatchFilter, dispatchClaim);
+            if (nextTask == null) {
+                if (plugin.isDebugMode() && pendingTasks.size() > 0) {
+                    logger.debug("Async task limit reached (" + concurrencyLimiter.getLimit() + "), waiting...");
                 }
-                return true;
+                break;
             }
 
-            AstraTask dependency = taskRegistry.get(dependencyId);
-            if (dependency == null) {
-                logger.warning("Task " + task.getId() + " depends on a non-existent task: " +
-                              dependencyId + ". Marking as failed.");
-                task.onError((AstraTask.ErrorHandler) new IllegalStateException("Dependency not found: " + dependencyId));
-                return true;
+            if (claimedStale) {
+                continue;
             }
+            dispatch(nextTask, true);
 
-            if (!dependency.isCompleted()) {
-                visited.add(dependencyId);
-                if (hasPendingDependenciesRecursive(dependency, visited)) {
-                    return true;
-                }
-                visited.remove(dependencyId);
-            }
+            currentLoad = getServerLoad();
         }
+    }
 
-        return false;
+    /**
+     * Checks whether a queued task can be dispatched with the current async slot usage.
+     * @param task Task at the head of a priority level
+     * @return true if the task can be dispatched now
+     */
+    private boolean canDispatch(AstraTask task) {
+        return !isAsync(task) || isKeyed(task) || concurrencyLimiter.hasCapacity(task.getPriority());
     }
 
     /**
-     * Checks which dependent tasks can now be executed after a task has completed.
-     * @param completedTaskId ID of the completed task
+     * Takes the async slot of the task chosen to run next, while it is still queued, so a task
+     * losing the race for the last slot keeps its place and its waiting time in the queue.
+     * Stale tasks, which are dropped instead of dispatched, take no slot; the claim records them
+     * in {@code claimedStale}, only touched by the draining thread.
+     * @param task Task at the head of its priority level
+     * @return true if the task can be removed from the queue
      */
-    private void checkDependentTasks(String completedTaskId) {
-        for (AstraTask task : taskRegistry.values()) {
-            if (!task.isScheduled() && !task.isCompleted() && !task.isCancelled() &&
-                    task.getDependencies().contains(completedTaskId)) {
+    private boolean claimDispatch(AstraTask task) {
+        claimedStale = isStale(task);
+        return claimedStale || !isAsync(task) || isKeyed(task) || acquireAsyncSlot(task);
+    }
 
-                if (!hasPendingDependencies(task)) {
-                    pendingTasks.add(task);
-                    logger.debug("Task " + task.getId() + " ready to execute after completing dependency " + completedTaskId);
-                }
-            }
-        }
+    /**
+     * Checks whether a queued task was already started, completed or cancelled elsewhere.
+     * @param task Queued task
+     * @return true if the task must not be dispatched
+     */
+    private static boolean isStale(AstraTask task) {
+        return task.isScheduled() || task.isCompleted() || task.isCancelled();
     }
 
     /**
-     * Processes the next pending tasks according to priority and available resources.
+     * Checks whether a task runs in a keyed lane, which takes the async slot only while the
+     * task runs instead of when it is dispatched.
+     * @param task Task to check
+     * @return true if the task runs in a keyed lane
      */
-    private void processNextTasks() {
-        if (!processingLock.tryLock()) {
-            return;
-        }
+    private static boolean isKeyed(AstraTask task) {
+        return task instanceof AbstractAstraTask abstractTask && KeyedLanes.isLane(abstractTask.getExecutor());
+    }
 
-        try {
-            double currentLoad = getServerLoad();
-            int availableAsyncSlots = maxConcurrentAsyncTasks - runningAsyncTasks.get();
+    /**
+     * Checks whether a task runs off the main server thread and therefore uses an async slot.
+     * @param task Task to check
+     * @return true if the task is asynchronous
+     */
+    private static boolean isAsync(AstraTask task) {
+        return task instanceof AsyncAstraTask
+                || task instanceof ParallelTaskGroup<?>
+                || task instanceof ValueTask<?> valueTask && valueTask.isAsync();
+    }
 
-            if (adaptiveConcurrency) {
-                adjustConcurrencyLimits(currentLoad);
-            }
+    /**
+     * Hands a task to its backend. Async tasks get the configured async backend, and sync tasks
+     * dispatched from the queue get the tick budget executor; sync tasks executed directly keep
+     * running on the Bukkit scheduler.
+     * @param task Task to execute
+     * @param budgeted Whether sync tasks should run within the per-tick budget
+     */
+    private void dispatch(AstraTask task, boolean budgeted) {
+        boolean async = isAsync(task);
+        if (task instanceof AbstractAstraTask abstractTask && !(task instanceof ParallelTaskGroup<?>) && (async || budgeted)) {
+            assignExecutor(abstractTask, async ? asyncExecutor : syncExecutor);
+        }
 
-            while (!pendingTasks.isEmpty() && (currentLoad < serverLoadThreshold)) {
-                AstraTask nextTask = pendingTasks.peek();
-                if (nextTask instanceof AsyncAstraTask && availableAsyncSlots <= 0) {
-                    if (plugin.isDebugMode()) {
-                        logger.debug("Async task limit reached (" + maxConcurrentAsyncTasks + "), waiting...");
-                    }
-                    break;
-                }
+        if (task instanceof AsyncAstraTask asyncTask) {
+            asyncTask.execute();
+        } else if (task instanceof SyncAstraTask syncTask) {
+            syncTask.execute();
+        } else if (task instanceof ValueTask<?> valueTask) {
+            valueTask.execute();
+        } else if (task instanceof IncrementalTask<?> incrementalTask) {
+            incrementalTask.execute();
+        } else if (task instanceof ParallelTaskGroup<?> group) {
+            group.execute();
+        } else {
+            return;
+        }
 
-                nextTask = pendingTasks.poll();
-                if (nextTask == null) continue;
+        if (plugin.isDebugMode()) {
+            logger.debug("Executing " + (async ? "async" : "sync") + " task " + task.getId() + " with priority " + task.getPriority());
+        }
+    }
 
-                if (nextTask.isScheduled() || nextTask.isCompleted() || nextTask.isCancelled()) {
-                    continue;
-                }
+    /**
+     * Acquires an async slot for a task, remembering the priority it was acquired with.
+     * @param task Async task about to be dispatched
+     * @return true if the slot was acquired
+     */
+    private boolean acquireAsyncSlot(AstraTask task) {
+        TaskPriority priority = task.getPriority();
+        if (!concurrencyLimiter.tryAcquire(priority)) {
+            return false;
+        }
+        asyncSlots.put(task.getId(), priority);
+        return true;
+    }
 
-                if (hasPendingDependencies(nextTask)) {
-                    if (plugin.isDebugMode()) {
-                        logger.debug("Task " + nextTask.getId() + " has pending dependencies, returning to queue");
-                    }
-                    pendingTasks.add(nextTask);
-                    continue;
-                }
+    /**
+     * Releases the async slot held by a task, if any.
+     * Safe to call more than once for the same task.
+     * @param task Task that finished, failed or was cancelled
+     */
+    private void releaseAsyncSlot(AstraTask task) {
+        TaskPriority priority = asyncSlots.remove(task.getId());
+        if (priority != null) {
+            concurrencyLimiter.release(priority);
+            keyedLanes.resume();
+        }
+    }
 
-                if (nextTask instanceof AsyncAstraTask) {
-                    runningAsyncTasks.incrementAndGet();
-                    availableAsyncSlots--;
-                    ((AsyncAstraTask) nextTask).execute();
-                    if (plugin.isDebugMode()) {
-                        logger.debug("Executing async task " + nextTask.getId() + " with priority " + nextTask.getPriority());
-                    }
-                } else if (nextTask instanceof SyncAstraTask) {
-                    ((SyncAstraTask) nextTask).execute();
-                    if (plugin.isDebugMode()) {
-                        logger.debug("Executing sync task " + nextTask.getId() + " with priority " + nextTask.getPriority());
-                    }
-                }
+    /**
+     * Called when a keyed lane gives back the slot of a command it ran, so parked lanes and
+     * queued tasks waiting for a slot can take it.
+     */
+    private void onLaneSlotReleased() {
+        keyedLanes.resume();
+        if (pendingTasks.size() > 0) {
+            processNextTasks();
+        }
+    }
 
-                currentLoad = getServerLoad();
-            }
-        } finally {
-            processingLock.unlock();
+    /**
+     * Gets the executor for the runs of a repeating async task that has no executor of its own.
+     * The runs go to the async backend in a lane of the task, so each one takes an async slot
+     * only while it runs, and the task never holds a slot between runs.
+     * @param task Repeating task about to be started
+     * @return Executor of the lane of the task
+     */
+    TaskExecutor repeatingExecutor(AstraTask task) {
+        return keyedLanes.executor(task, task.getPriority());
+    }
+
+    /**
+     * Assigns a backend to a task that has no executor of its own.
+     * @param task Task about to be executed
+     * @param executor Backend to assign
+     */
+    private void assignExecutor(AbstractAstraTask task, TaskExecutor executor) {
+        if (task.getExecutor() == null) {
+            task.setExecutor(executor);
         }
     }
 
     /**
-     * Gets the current server load.
+     * Gets the current server load, as last sampled by the load model.
      * @return Value between 0.0 and 1.0 representing server load
      */
     private double getServerLoad() {
-        try {
-            java.lang.management.OperatingSystemMXBean osBean =
-                java.lang.management.ManagementFactory.getOperatingSystemMXBean();
-            
-            if (osBean instanceof com.sun.management.OperatingSystemMXBean) {
-                com.sun.management.OperatingSystemMXBean sunOsBean = 
-                    (com.sun.management.OperatingSystemMXBean) osBean;
-                return sunOsBean.getSystemCpuLoad();
-            }
-            
-            double tps = Bukkit.getServer().getTPS()[0];
-            return Math.max(0.0, Math.min(1.0, (20.0 - tps) / 20.0));
-        } catch (Exception e) {
-            logger.debug("Error getting server load: " + e.getMessage());
-            return 0.5;
+        return loadSampler.getLoad();
+    }
+
+    /**
+     * Called on the main thread after every load sample. Adjusts the concurrency limit once per
+     * second and retries queued tasks that were held back while the server was overloaded.
+     */
+    private void onLoadSampled() {
+        if (adaptiveConcurrency && ++ticksSinceAdjustment >= ADJUSTMENT_PERIOD_TICKS) {
+            ticksSinceAdjustment = 0;
+            adjustConcurrencyLimits(getServerLoad());
+        }
+
+        if (pendingTasks.size() > 0) {
+            processNextTasks();
         }
     }
 
     /**
-     * Adjusts the concurrency limits for asynchronous tasks based on the current server load.
-     *
-     * @param currentLoad The current server load, represented as a value between 0.0 and 1.0.
+     * Adjusts the maximum number of concurrent asynchronous tasks with an AIMD controller.
+     * While the server is above the load threshold the limit is cut multiplicatively, and while
+     * it is below the threshold and the current limit is nearly used up, the limit grows by a
+     * small additive step. The limit always stays within the range supported by the async backend.
      *
-     * The method calculates a new limit for the maximum number of concurrent asynchronous tasks
-     * based on the current load and a predefined range. The new limit is then clamped to ensure it falls
-     * within the specified range. If the new limit is higher than the current limit, the limit is increased
-     * by 2. If the new limit is lower than the current limit, the limit is decreased by 2.
-     *
-     * The method logs a debug message indicating the adjusted limit and the current server load.
+     * @param currentLoad The current server load as a fraction between 0.0 and 1.0
      */
     private void adjustConcurrencyLimits(double currentLoad) {
         int minTasks = 2;
-        int maxTasks = 20;
+        int maxTasks = Math.max(minTasks, asyncExecutor.getMaxConcurrency());
+        int currentLimit = concurrencyLimiter.getLimit();
+
+        int newLimit;
+        if (currentLoad >= serverLoadThreshold) {
+            newLimit = (int) (currentLimit * LIMIT_DECREASE_FACTOR);
+        } else if (concurrencyLimiter.getInFlight() * 10 >= currentLimit * 8) {
+            newLimit = currentLimit + Math.max(1, (maxTasks - minTasks) / 20);
+        } else {
+            return;
+        }
 
-        int newLimit = (int) Math.round(maxTasks - (currentLoad * (maxTasks - minTasks)));
         newLimit = Math.max(minTasks, Math.min(maxTasks, newLimit));
-
-        if (newLimit > maxConcurrentAsyncTasks) {
-            maxConcurrentAsyncTasks = Math.min(newLimit, maxConcurrentAsyncTasks + 2);
-        } else if (newLimit < maxConcurrentAsyncTasks) {
-            maxConcurrentAsyncTasks = Math.max(newLimit, maxConcurrentAsyncTasks - 2);
+        if (newLimit == currentLimit) {
+            return;
         }
 
-        logger.debug("Adjusted concurrent async tasks limit to " + maxConcurrentAsyncTasks +
+        concurrencyLimiter.setLimit(newLimit);
+        logger.debug("Adjusted concurrent async tasks limit to " + newLimit +
                     " (server load: " + String.format("%.2f", currentLoad * 100) + "%)");
-
     }
-    
+
     /**
-     * Starts periodic server resource monitoring.
+     * Starts sampling the server load every tick and the periodic cleanup of finished tasks.
      */
     private void startResourceMonitoring() {
+        loadSampler = new ServerLoadSampler(plugin, this::onLoadSampled);
+        loadSampler.start();
+
         Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, () -> {
             double load = getServerLoad();
             if (load > serverLoadThreshold) {
@@ -423,32 +605,12 @@ public class TaskManager extends AbstractModule {
     }
     
     /**
-     * Cleans up completed or cancelled tasks from the registry.
+     * Evicts the registered tasks that completed or were cancelled without the manager being
+     * notified. Tasks finished through the manager are evicted as soon as they finish.
      */
     private void cleanupTasks() {
-        Set<String> taskIds = new HashSet<>(taskRegistry.keySet());
-        int removed = 0;
-        for (String taskId : taskIds) {
-            AstraTask task = taskRegistry.get(taskId);
-            if (task == null) continue;
-
-            if (task.isCompleted() || task.isCancelled()) {
-                boolean hasDependents = false;
-                for (AstraTask otherTask : taskRegistry.values()) {
-                    if (!otherTask.isCompleted() && !otherTask.isCancelled() &&
-                        otherTask.getDependencies().contains(taskId)) {
-                        hasDependents = true;
-                        break;
-                    }
-                }
-
-                if (!hasDependents) {
-                    taskRegistry.remove(taskId);
-                    removed++;
-                }
-            }
-        }
-
+        submissionLimiter.sweep();
+        int removed = taskRegistry.sweep();
         if (removed > 0) {
             if (plugin.isDebugMode()) {
                 logger.debug("Task cleanup: " + removed + " tasks removed from registry");
@@ -460,24 +622,20 @@ public class TaskManager extends AbstractModule {
      * Cancels all pending and running tasks.
      */
     public void cancelAllTasks() {
-        processingLock.lock();
-        try {
-            for (AstraTask task : pendingTasks) {
+        for (AstraTask task : pendingTasks.drain()) {
+            task.cancel();
+        }
+        taskGraph.clear();
+
+        for (AstraTask task : taskRegistry.values()) {
+            if (task.isScheduled() || task.isRunning()) {
                 task.cancel();
             }
-            pendingTasks.clear();
-            
-            for (AstraTask task : taskRegistry.values()) {
-                if (task.isScheduled() || task.isRunning()) {
-                    task.cancel();
-                }
-            }
-            
-            if (plugin.isDebugMode()) {
-                logger.info("All tasks have been cancelled");
-            }
-        } finally {
-            processingLock.unlock();
+        }
+        taskRegistry.sweep();
+
+        if (plugin.isDebugMode()) {
+            logger.info("All tasks have been cancelled");
         }
     }
     
@@ -490,6 +648,15 @@ public class TaskManager extends AbstractModule {
         return taskRegistry.get(taskId);
     }
 
+    /**
+     * Gets the tasks most recently removed from the registry after finishing, newest first.
+     * Finished tasks are only kept here for diagnostics, and only the last few hundred.
+     * @return List of recently finished tasks
+     */
+    public List<AstraTask> getRecentTasks() {
+        return taskRegistry.recent();
+    }
+
     /**
      * Executes a registered task by its ID.
      * This method retrieves a task from the registry and executes it immediately,
@@ -501,17 +668,7 @@ public class TaskManager extends AbstractModule {
     public AstraTask executeTask(String taskId) {
         AstraTask task = taskRegistry.get(taskId);
         if (task != null) {
-            if (task instanceof AsyncAstraTask) {
-                ((AsyncAstraTask) task).execute();
-                if (plugin.isDebugMode()) {
-                    logger.debug("Executing async task " + task.getId() + " with priority " + task.getPriority());
-                }
-            } else if (task instanceof SyncAstraTask) {
-                ((SyncAstraTask) task).execute();
-                if (plugin.isDebugMode()) {
-                    logger.debug("Executing sync task " + task.getId() + " with priority " + task.getPriority());
-                }
-            }
+            dispatch(task, false);
             configureTaskCallbacks(task);
 
             return task;
@@ -529,17 +686,7 @@ public class TaskManager extends AbstractModule {
      */
     public AstraTask executeTask(AstraTask task) {
         if (task != null) {
-            if (task instanceof AsyncAstraTask) {
-                ((AsyncAstraTask) task).execute();
-                if (plugin.isDebugMode()) {
-                    logger.debug("Executing async task " + task.getId() + " with priority " + task.getPriority());
-                }
-            } else if (task instanceof SyncAstraTask) {
-                ((SyncAstraTask) task).execute();
-                if (plugin.isDebugMode()) {
-                    logger.debug("Executing sync task " + task.getId() + " with priority " + task.getPriority());
-                }
-            }
+            dispatch(task, false);
             configureTaskCallbacks(task);
 
             return task;
@@ -555,7 +702,13 @@ public class TaskManager extends AbstractModule {
     public boolean cancelTask(String taskId) {
         AstraTask task = taskRegistry.get(taskId);
         if (task != null) {
-            return task.cancel();
+            boolean cancelled = task.cancel();
+            if (cancelled) {
+                taskGraph.remove(taskId);
+                releaseAsyncSlot(task);
+                taskRegistry.finished(task);
+            }
+            return cancelled;
         }
         return false;
     }
@@ -568,15 +721,48 @@ public class TaskManager extends AbstractModule {
         Map<String, Object> stats = new ConcurrentHashMap<>();
         stats.put("completedTasks", completedTasks.get());
         stats.put("failedTasks", failedTasks.get());
+        stats.put("timedOutTasks", timedOutTasks.get());
         stats.put("pendingTasks", pendingTasks.size());
-        stats.put("runningAsyncTasks", runningAsyncTasks.get());
-        stats.put("maxConcurrentAsyncTasks", maxConcurrentAsyncTasks);
-        stats.put("tasksByPriority", new ConcurrentHashMap<>(tasksByPriority));
+        stats.put("registeredTasks", taskRegistry.size());
+        stats.put("keyedLanes", keyedLanes.size());
+        stats.put("runningAsyncTasks", concurrencyLimiter.getInFlight());
+        stats.put("runningAsyncTasksByPriority", concurrencyLimiter.getInFlightByPriority());
+        stats.put("maxConcurrentAsyncTasks", concurrencyLimiter.getLimit());
+        stats.put("asyncBackend", asyncExecutor.getName());
+        stats.put("queuedSyncTasks", syncExecutor.getQueuedTasks());
+        Map<TaskPriority, Integer> activeByPriority = new EnumMap<>(TaskPriority.class);
+        for (TaskPriority priority : TaskPriority.values()) {
+            activeByPriority.put(priority, tasksByPriority.get(priority.ordinal()));
+        }
+        stats.put("tasksByPriority", activeByPriority);
+        stats.put("latencyByPriority", metrics.snapshotByPriority());
+        stats.put("latencyByTask", metrics.snapshotByTask());
         stats.put("serverLoad", String.format("%.2f%%", getServerLoad() * 100));
+        stats.put("mspt", loadSampler.getMspt());
+        stats.put("tps", loadSampler.getTps());
+        stats.put("processCpuLoad", loadSampler.getProcessCpu());
+        stats.put("gcTimeFraction", loadSampler.getGcFraction());
         
         return stats;
     }
     
+    /**
+     * Gets the latency histograms of a task ID: time waiting in the queue, time running and
+     * time from scheduling to completion. Tasks created without an ID are grouped together.
+     * @param taskId ID of the task
+     * @return Map of histogram name to snapshot, or null if the task never finished
+     */
+    public Map<String, LatencyHistogram.Snapshot> getTaskLatency(String taskId) {
+        return metrics.snapshotOf(taskId);
+    }
+
+    /**
+     * Clears every recorded latency histogram.
+     */
+    public void resetMetrics() {
+        metrics.reset();
+    }
+
     /**
      * Sets the server load threshold.
      * @param threshold New threshold (0.0 - 1.0)
@@ -586,6 +772,17 @@ public class TaskManager extends AbstractModule {
         logger.info("Server load threshold set to " + String.format("%.2f%%", serverLoadThreshold * 100));
     }
     
+    /**
+     * Sets the time after which a queued task is dispatched ahead of higher priority tasks,
+     * preventing low priority tasks from starving while the queue is busy.
+     * @param threshold Aging threshold, 0 or less to disable aging
+     * @param unit Time unit of the threshold
+     */
+    public void setTaskAgingThreshold(long threshold, TimeUnit unit) {
+        pendingTasks.setAgingThreshold(threshold, unit);
+        logger.info("Task aging threshold set to " + unit.toMillis(threshold) + "ms");
+    }
+
     /**
      * Sets whether to use adaptive concurrency.
      * @param adaptive true to enable, false to disable
@@ -600,8 +797,76 @@ public class TaskManager extends AbstractModule {
      * @param max Maximum number of tasks
      */
     public void setMaxConcurrentAsyncTasks(int max) {
-        this.maxConcurrentAsyncTasks = Math.max(1, max);
-        logger.info("Concurrent asynchronous task limit set to " + maxConcurrentAsyncTasks);
+        concurrencyLimiter.setLimit(max);
+        logger.info("Concurrent asynchronous task limit set to " + concurrencyLimiter.getLimit());
+    }
+
+    /**
+     * Sets the backend used to run asynchronous tasks scheduled through this manager.
+     * Tasks that already have an executor assigned keep using it. The previous backend
+     * is shut down once replaced.
+     * @param executor New async backend, for example a {@link VirtualThreadTaskExecutor}
+     *                 for tasks that mostly wait on blocking I/O
+     */
+    public void setAsyncExecutor(TaskExecutor executor) {
+        if (executor == null) {
+            throw new IllegalArgumentException("Executor cannot be null");
+        }
+
+        TaskExecutor previous = this.asyncExecutor;
+        this.asyncExecutor = executor;
+        if (previous != null && previous != executor) {
+            previous.shutdown();
+        }
+        logger.info("Async task backend set to " + executor.getName());
+    }
+
+    /**
+     * Gets the backend used to run asynchronous tasks scheduled through this manager.
+     * @return The async task executor
+     */
+    public TaskExecutor getAsyncExecutor() {
+        return asyncExecutor;
+    }
+
+    /**
+     * Gets the dispatcher used to hop from async tasks to the main thread without blocking.
+     * @return The main thread dispatcher of the plugin
+     */
+    public MainThreadDispatcher getMainThreadDispatcher() {
+        return MainThreadDispatcher.of(plugin);
+    }
+
+    /**
+     * Gets the queue of tasks that survive restarts, opening its journal on first use.
+     * Once the journal exists, it is opened again on every enable, so the tasks left pending
+     * are replayed as soon as their handlers are registered.
+     * @return The durable task queue of the plugin
+     * @throws IllegalStateException If the journal cannot be opened
+     */
+    public synchronized DurableTaskQueue getDurableQueue() {
+        if (durableQueue == null) {
+            DurableTaskQueue queue = new DurableTaskQueue(this, plugin,
+                    new File(plugin.getDataFolder(), DurableTaskQueue.DIRECTORY).toPath());
+            try {
+                queue.open();
+            } catch (IOException e) {
+                throw new IllegalStateException("Could not open the durable task journal", e);
+            }
+            durableQueue = queue;
+        }
+        return durableQueue;
+    }
+
+    /**
+     * Sets how much main thread time scheduled synchronous tasks may use per tick.
+     * Tasks that do not fit in the budget of a tick are carried over to the next one.
+     * @param budget Budget per tick
+     * @param unit Time unit of the budget
+     */
+    public void setSyncTickBudget(long budget, TimeUnit unit) {
+        syncExecutor.setBudget(budget, unit);
+        logger.info("Synchronous task budget set to " + String.format("%.2fms", syncExecutor.getBudget(TimeUnit.MICROSECONDS) / 1000.0) + " per tick");
     }
 
     /**
@@ -667,6 +932,189 @@ public class TaskManager extends AbstractModule {
         scheduleTask(task);
         return task;
     }
+
+    /**
+     * Runs an asynchronous task once, a delay after the last call made with the same key.
+     * Every call restarts the delay and replaces the action, so a burst of calls such as
+     * re-saving a profile on every event results in a single run with the latest action.
+     * Keys are shared with {@link #runSyncDebounced(String, Runnable, long, TimeUnit)}.
+     * @param key Key grouping the calls
+     * @param runnable Action to execute
+     * @param delay Quiet period after the last call
+     * @param unit Time unit of the delay
+     */
+    public void runAsyncDebounced(String key, Runnable runnable, long delay, TimeUnit unit) {
+        submissionLimiter.debounce(key, runnable, unit.toNanos(delay), asyncDispatch);
+    }
+
+    /**
+     * Runs a synchronous task once, a delay after the last call made with the same key.
+     * Keys are shared with {@link #runAsyncDebounced(String, Runnable, long, TimeUnit)}.
+     * @param key Key grouping the calls
+     * @param runnable Action to execute
+     * @param delay Quiet period after the last call
+     * @param unit Time unit of the delay
+     */
+    public void runSyncDebounced(String key, Runnable runnable, long delay, TimeUnit unit) {
+        submissionLimiter.debounce(key, runnable, unit.toNanos(delay), syncDispatch);
+    }
+
+    /**
+     * Runs an asynchronous task at most once per period for the same key. The first call runs
+     * right away, and calls made during the period are merged into one run at its end.
+     * Keys are shared with {@link #runSyncThrottled(String, Runnable, long)}.
+     * @param key Key grouping the calls
+     * @param runnable Action to execute
+     * @param periodTicks Shortest number of ticks between two runs
+     */
+    public void runAsyncThrottled(String key, Runnable runnable, long periodTicks) {
+        submissionLimiter.throttle(key, runnable, periodTicks, asyncDispatch);
+    }
+
+    /**
+     * Runs a synchronous task at most once per period for the same key, such as recomputing
+     * a scoreboard. Keys are shared with {@link #runAsyncThrottled(String, Runnable, long)}.
+     * @param key Key grouping the calls
+     * @param runnable Action to execute
+     * @param periodTicks Shortest number of ticks between two runs
+     */
+    public void runSyncThrottled(String key, Runnable runnable, long periodTicks) {
+        submissionLimiter.throttle(key, runnable, periodTicks, syncDispatch);
+    }
+
+    /**
+     * Runs an asynchronous task if the token bucket of its key has a permit left.
+     * Buckets start full and refill continuously; calls made while a bucket is empty are dropped.
+     * @param key Key of the token bucket, shared with {@link #runSyncRateLimited(String, Runnable, double, int)}
+     * @param runnable Action to execute
+     * @param permitsPerSecond Refill rate of the bucket
+     * @param burst Largest number of runs allowed at once
+     * @return Scheduled task, or null if the call was dropped
+     */
+    public AsyncAstraTask runAsyncRateLimited(String key, Runnable runnable, double permitsPerSecond, int burst) {
+        return submissionLimiter.tryAcquire(key, permitsPerSecond, burst) ? runAsync(runnable) : null;
+    }
+
+    /**
+     * Runs a synchronous task if the token bucket of its key has a permit left.
+     * @param key Key of the token bucket, shared with {@link #runAsyncRateLimited(String, Runnable, double, int)}
+     * @param runnable Action to execute
+     * @param permitsPerSecond Refill rate of the bucket
+     * @param burst Largest number of runs allowed at once
+     * @return Scheduled task, or null if the call was dropped
+     */
+    public SyncAstraTask runSyncRateLimited(String key, Runnable runnable, double permitsPerSecond, int burst) {
+        return submissionLimiter.tryAcquire(key, permitsPerSecond, burst) ? runSync(runnable) : null;
+    }
+
+    /**
+     * Runs an asynchronous task in the lane of a key, so it never overlaps with other tasks of
+     * the same key, such as two saves of the same player, while tasks of other keys run in parallel.
+     * @param key Key of the lane, for example the UUID of the player the task works on
+     * @param runnable Action to execute
+     * @return Scheduled task
+     * @see #scheduleKeyed(Object, AstraTask)
+     */
+    public AsyncAstraTask runAsyncKeyed(Object key, Runnable runnable) {
+        AsyncAstraTask task = createAsyncTask(runnable);
+        scheduleKeyed(key, task);
+        return task;
+    }
+
+    /**
+     * Registers and schedules an asynchronous task in the lane of a key. Tasks of a lane run one
+     * at a time, in the order they are dispatched, which is the order they were scheduled for
+     * tasks of the same priority with no pending dependencies. A task only takes an async slot
+     * while it runs, not while it waits for its lane, so a busy key uses one slot at a time.
+     * @param key Key of the lane
+     * @param task Asynchronous task without an executor of its own
+     * @return The registered task
+     * @throws IllegalArgumentException If the task does not run asynchronously or already has an executor
+     */
+    public AstraTask scheduleKeyed(Object key, AstraTask task) {
+        if (key == null) {
+            throw new IllegalArgumentException("Lane key cannot be null");
+        }
+        if (!(task instanceof AbstractAstraTask abstractTask) || !isAsync(task) || task instanceof ParallelTaskGroup<?>) {
+            throw new IllegalArgumentException("Only asynchronous tasks can run in a keyed lane");
+        }
+        if (abstractTask.getExecutor() != null) {
+            throw new IllegalArgumentException("Task " + task.getId() + " already has an executor");
+        }
+
+        abstractTask.setExecutor(keyedLanes.executor(key, task.getPriority()));
+        return scheduleTask(task);
+    }
+
+    /**
+     * Processes a collection on the main thread a slice at a time, within a time budget per tick,
+     * and registers the task.
+     * @param id Unique ID for the task
+     * @param elements Elements to process, copied when the task is created
+     * @param action Action applied to every element
+     * @return Scheduled task, which reports its progress while it runs
+     * @param <E> Type of the elements
+     */
+    public <E> IncrementalTask<E> runIncremental(String id, Collection<? extends E> elements, Consumer<? super E> action) {
+        IncrementalTask<E> task = new IncrementalTask<>(plugin, id, elements, action);
+        scheduleTask(task);
+        return task;
+    }
+
+    /**
+     * Creates an empty group of parallel subtasks. Once filled, schedule it with
+     * {@link #scheduleTask(AstraTask)}; other tasks can depend on the whole group through its ID.
+     * @param id Unique ID for the group
+     * @return Created group
+     * @param <T> Type of the values produced by the subtasks
+     */
+    public <T> ParallelTaskGroup<T> createParallelGroup(String id) {
+        return new ParallelTaskGroup<>(id);
+    }
+
+    /**
+     * Creates a task that produces a value asynchronously.
+     * @param callable Code producing the value
+     * @return Created task
+     * @param <T> Type of the value
+     */
+    public <T> ValueTask<T> createValueTaskAsync(Callable<? extends T> callable) {
+        return new ValueTask<>(plugin, callable, true);
+    }
+
+    /**
+     * Creates a task that produces a value on the main thread.
+     * @param callable Code producing the value
+     * @return Created task
+     * @param <T> Type of the value
+     */
+    public <T> ValueTask<T> createValueTaskSync(Callable<? extends T> callable) {
+        return new ValueTask<>(plugin, callable, false);
+    }
+
+    /**
+     * Produces a value asynchronously through the task queue.
+     * @param callable Code producing the value
+     * @return Scheduled task, whose stage completes with the value
+     * @param <T> Type of the value
+     */
+    public <T> ValueTask<T> supplyAsync(Callable<? extends T> callable) {
+        ValueTask<T> task = createValueTaskAsync(callable);
+        scheduleTask(task);
+        return task;
+    }
+
+    /**
+     * Produces a value on the main thread through the task queue.
+     * @param callable Code producing the value
+     * @return Scheduled task, whose stage completes with the value
+     * @param <T> Type of the value
+     */
+    public <T> ValueTask<T> supplySync(Callable<? extends T> callable) {
+        ValueTask<T> task = createValueTaskSync(callable);
+        scheduleTask(task);
+        return task;
+    }
     
     /**
      * Executes a synchronous task after a delay and registers it.
@@ -0,0 +1,141 @@
+package lol.jisz.astra.task;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Latency histograms of the tasks run through the {@link TaskManager}, per task ID and per priority.
+ * <p>
+ * Three durations are recorded for every finished task: the time it waited between becoming
+ * ready and starting, the time it ran, and the time between being scheduled and finishing.
+ * Tasks created without an explicit ID share a single entry, and once the number of tracked
+ * IDs reaches its limit, further IDs share an overflow entry, so the map cannot grow unbounded.
+ */
+final class TaskMetrics {
+
+    static final String ANONYMOUS_KEY = "<anonymous>";
+    static final String OVERFLOW_KEY = "<other>";
+
+    private static final int MAX_TRACKED_IDS = 1024;
+
+    private final Map<String, Timers> byTask;
+    private final Timers[] byPriority;
+
+    TaskMetrics() {
+        this.byTask = new ConcurrentHashMap<>();
+        this.byPriority = new Timers[TaskPriority.values().length];
+        for (int i = 0; i < byPriority.length; i++) {
+            byPriority[i] = new Timers();
+        }
+    }
+
+    /**
+     * Records the durations of a finished task.
+     *
+     * @param task The finished task
+     */
+    void record(AbstractAstraTask task) {
+        long ready = task.getReadyNanos();
+        long start = task.getStartNanos();
+        long end = task.getEndNanos();
+        long submitted = task.getSubmittedNanos();
+
+        Timers taskTimers = timersOf(task);
+        Timers priorityTimers = byPriority[(task.getPriority() == null ? TaskPriority.NORMAL : task.getPriority()).ordinal()];
+
+        if (start != 0 && ready != 0) {
+            taskTimers.queueWait.recordNanos(start - ready);
+            priorityTimers.queueWait.recordNanos(start - ready);
+        }
+        if (start != 0 && end != 0) {
+            taskTimers.run.recordNanos(end - start);
+            priorityTimers.run.recordNanos(end - start);
+        }
+        if (submitted != 0 && end != 0) {
+            taskTimers.endToEnd.recordNanos(end - submitted);
+            priorityTimers.endToEnd.recordNanos(end - submitted);
+        }
+    }
+
+    /**
+     * Takes a snapshot of the histograms of every tracked task ID.
+     *
+     * @return Map of task ID to its histograms
+     */
+    Map<String, Map<String, LatencyHistogram.Snapshot>> snapshotByTask() {
+        Map<String, Map<String, LatencyHistogram.Snapshot>> snapshot = new LinkedHashMap<>();
+        byTask.forEach((id, timers) -> snapshot.put(id, timers.snapshot()));
+        return snapshot;
+    }
+
+    /**
+     * Takes a snapshot of the histograms of a single task ID.
+     *
+     * @param taskId ID of the task
+     * @return The histograms of the task, or null if it was never recorded
+     */
+    Map<String, LatencyHistogram.Snapshot> snapshotOf(String taskId) {
+        Timers timers = byTask.get(taskId);
+        return timers == null ? null : timers.snapshot();
+    }
+
+    /**
+     * Takes a snapshot of the histograms of every priority level.
+     *
+     * @return Map of priority to its histograms
+     */
+    Map<TaskPriority, Map<String, LatencyHistogram.Snapshot>> snapshotByPriority() {
+        Map<TaskPriority, Map<String, LatencyHistogram.Snapshot>> snapshot = new EnumMap<>(TaskPriority.class);
+        for (TaskPriority priority : TaskPriority.values()) {
+            snapshot.put(priority, byPriority[priority.ordinal()].snapshot());
+        }
+        return snapshot;
+    }
+
+    /**
+     * Forgets every recorded value.
+     */
+    void reset() {
+        byTask.clear();
+        for (Timers timers : byPriority) {
+            timers.reset();
+        }
+    }
+
+    private Timers timersOf(AbstractAstraTask task) {
+        String key = task.isAnonymous() ? ANONYMOUS_KEY : task.getId();
+        Timers timers = byTask.get(key);
+        if (timers != null) {
+            return timers;
+        }
+        if (byTask.size() >= MAX_TRACKED_IDS) {
+            key = OVERFLOW_KEY;
+        }
+        return byTask.computeIfAbsent(key, ignored -> new Timers());
+    }
+
+    /**
+     * Histograms of a single task ID or priority level.
+     */
+    private static final class Timers {
+        private final LatencyHistogram queueWait = new LatencyHistogram();
+        private final LatencyHistogram run = new LatencyHistogram();
+        private final LatencyHistogram endToEnd = new LatencyHistogram();
+
+        private Map<String, LatencyHistogram.Snapshot> snapshot() {
+            Map<String, LatencyHistogram.Snapshot> snapshot = new LinkedHashMap<>();
+            snapshot.put("queueWait", queueWait.snapshot());
+            snapshot.put("run", run.snapshot());
+            snapshot.put("endToEnd", endToEnd.snapshot());
+            return snapshot;
+        }
+
+        private void reset() {
+            queueWait.reset();
+            run.reset();
+            endToEnd.reset();
+        }
+    }
+}
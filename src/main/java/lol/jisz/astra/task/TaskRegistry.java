@@ -0,0 +1,280 @@
+package lol.jisz.astra.task;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Registry of the tasks known to the {@link TaskManager}, bounded by reference counting.
+ * <p>
+ * Every registered task holds a reference on each of its dependencies until it finishes. A finished
+ * task is evicted as soon as no unfinished task references it, so it stays resolvable exactly as
+ * long as something may still depend on it. Eviction happens when the task finishes, in constant
+ * time, instead of scanning the whole registry. Evicted tasks are kept in a small ring of recent
+ * history, which is all that remains of the fire-and-forget tasks created without an ID.
+ */
+final class TaskRegistry {
+
+    private static final int HISTORY_SIZE = 256;
+
+    private final Map<String, Entry> entries;
+    private final AtomicReferenceArray<AstraTask> history;
+    private final AtomicLong historyCursor;
+    private final Consumer<String> onEvict;
+
+    /**
+     * Creates an empty registry.
+     *
+     * @param onEvict Action run with the ID of every evicted task
+     */
+    TaskRegistry(Consumer<String> onEvict) {
+        this.entries = new ConcurrentHashMap<>();
+        this.history = new AtomicReferenceArray<>(HISTORY_SIZE);
+        this.historyCursor = new AtomicLong();
+        this.onEvict = onEvict;
+    }
+
+    /**
+     * Gets a registered task by its ID.
+     *
+     * @param taskId ID of the task
+     * @return The task, or null if it is not registered or was evicted
+     */
+    AstraTask get(String taskId) {
+        Entry entry = entries.get(taskId);
+        return entry == null ? null : entry.task;
+    }
+
+    /**
+     * Gets a task by its ID, looking in the recent history when it is no longer registered,
+     * so a task scheduled shortly after its dependency was evicted can still resolve it.
+     *
+     * @param taskId ID of the task
+     * @return The task, or null if it is neither registered nor in the recent history
+     */
+    AstraTask find(String taskId) {
+        AstraTask task = get(taskId);
+        if (task != null) {
+            return task;
+        }
+
+        long end = historyCursor.get();
+        for (long i = end - 1; i >= Math.max(0, end - HISTORY_SIZE); i--) {
+            AstraTask recent = history.get((int) (i % HISTORY_SIZE));
+            if (recent != null && recent.getId().equals(taskId)) {
+                return recent;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Registers a task, replacing any other task with the same ID, and takes a reference on every
+     * dependency it has not referenced yet. Registering the same task again is cheap.
+     *
+     * @param task The task to register
+     */
+    void register(AstraTask task) {
+        List<String> toRetain = new ArrayList<>(0);
+        Outcome outcome = new Outcome();
+
+        entries.compute(task.getId(), (id, entry) -> {
+            if (entry == null) {
+                entry = new Entry();
+            }
+            if (entry.task != task) {
+                if (!entry.finished) {
+                    outcome.released = entry.retained;
+                }
+                entry.task = task;
+                entry.finished = false;
+                entry.retained = null;
+            }
+            for (String dependencyId : task.getDependencies()) {
+                if (entry.retained == null) {
+                    entry.retained = new HashSet<>(2);
+                }
+                if (entry.retained.add(dependencyId)) {
+                    toRetain.add(dependencyId);
+                }
+            }
+            return entry;
+        });
+
+        for (String dependencyId : toRetain) {
+            entries.compute(dependencyId, (id, entry) -> {
+                if (entry == null) {
+                    entry = new Entry();
+                }
+                entry.references++;
+                return entry;
+            });
+        }
+
+        releaseAll(outcome.released);
+    }
+
+    /**
+     * Marks a task as finished, drops the references it holds on its dependencies, and evicts it
+     * if nothing references it. Calling it again for the same task has no effect.
+     *
+     * @param task The task that completed, failed, or was cancelled
+     * @return true if the task was evicted
+     */
+    boolean finished(AstraTask task) {
+        Outcome outcome = new Outcome();
+
+        entries.compute(task.getId(), (id, entry) -> {
+            if (entry == null || entry.task != task || entry.finished) {
+                return entry;
+            }
+            entry.finished = true;
+            outcome.released = entry.retained;
+            entry.retained = null;
+            if (entry.references == 0) {
+                outcome.evicted = task;
+                return null;
+            }
+            return entry;
+        });
+
+        releaseAll(outcome.released);
+        if (outcome.evicted != null) {
+            evicted(task);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Marks every registered task that completed or was cancelled as finished. Only catches tasks
+     * that finished without the manager being notified, such as registered tasks executed directly.
+     *
+     * @return Number of evicted tasks
+     */
+    int sweep() {
+        int removed = 0;
+        for (Entry entry : entries.values()) {
+            AstraTask task = entry.task;
+            if (task != null && !entry.finished && (task.isCompleted() || task.isCancelled()) && finished(task)) {
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Gets every registered task that has not been evicted.
+     *
+     * @return Snapshot of the registered tasks
+     */
+    Collection<AstraTask> values() {
+        List<AstraTask> tasks = new ArrayList<>(entries.size());
+        for (Entry entry : entries.values()) {
+            AstraTask task = entry.task;
+            if (task != null) {
+                tasks.add(task);
+            }
+        }
+        return tasks;
+    }
+
+    /**
+     * Gets the number of IDs tracked by the registry, including placeholders of dependencies
+     * that are referenced but not registered yet.
+     *
+     * @return Number of tracked IDs
+     */
+    int size() {
+        return entries.size();
+    }
+
+    /**
+     * Gets the most recently evicted tasks, newest first.
+     *
+     * @return Up to the last 256 evicted tasks
+     */
+    List<AstraTask> recent() {
+        long end = historyCursor.get();
+        long start = Math.max(0, end - HISTORY_SIZE);
+        List<AstraTask> tasks = new ArrayList<>((int) (end - start));
+        for (long i = end - 1; i >= start; i--) {
+            AstraTask task = history.get((int) (i % HISTORY_SIZE));
+            if (task != null) {
+                tasks.add(task);
+            }
+        }
+        return tasks;
+    }
+
+    /**
+     * Forgets every registered task and the recent history.
+     */
+    void clear() {
+        entries.clear();
+        for (int i = 0; i < HISTORY_SIZE; i++) {
+            history.set(i, null);
+        }
+    }
+
+    /**
+     * Drops one reference on a task, evicting it if it already finished and was the last one.
+     */
+    private void release(String taskId) {
+        Outcome outcome = new Outcome();
+
+        entries.computeIfPresent(taskId, (id, entry) -> {
+            if (entry.references > 0) {
+                entry.references--;
+            }
+            if (entry.references == 0 && (entry.task == null || entry.finished)) {
+                outcome.evicted = entry.task;
+                return null;
+            }
+            return entry;
+        });
+
+        if (outcome.evicted != null) {
+            evicted(outcome.evicted);
+        }
+    }
+
+    private void releaseAll(Set<String> taskIds) {
+        if (taskIds != null) {
+            for (String taskId : taskIds) {
+                release(taskId);
+            }
+        }
+    }
+
+    private void evicted(AstraTask task) {
+        history.set((int) (historyCursor.getAndIncrement() % HISTORY_SIZE), task);
+        onEvict.accept(task.getId());
+    }
+
+    /**
+     * Registry slot of a task ID. Only mutated inside the compute functions of the map,
+     * which serializes every change to the same ID.
+     */
+    private static final class Entry {
+        private volatile AstraTask task;
+        private volatile boolean finished;
+        private int references;
+        private Set<String> retained;
+    }
+
+    /**
+     * What a compute function decided, acted upon once the map lock is released.
+     */
+    private static final class Outcome {
+        private Set<String> released;
+        private AstraTask evicted;
+    }
+}
@@ -0,0 +1,390 @@
+package lol.jisz.astra.task;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.invoke.VarHandle;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Low overhead recorder of task executions, exported as a Chrome trace.
+ * <p>
+ * While enabled, every run of a task records its start and end time, its thread and its ID, and the
+ * main thread records a marker at the start of every tick, so the main thread time of each tick can
+ * be attributed to the tasks that used it. Events go into a preallocated ring buffer owned by the
+ * recording thread, so recording takes no lock and allocates nothing; when a buffer is full, its
+ * oldest events are overwritten. Virtual threads share a small set of striped buffers instead of
+ * getting one each, and so do platform threads started once the buffers in use reach
+ * {@link #MAX_TRACE_BYTES}. While disabled, the only cost left is one volatile read per task run.
+ * <p>
+ * The export uses the trace event format understood by {@code chrome://tracing} and Perfetto.
+ */
+public final class TaskTracer {
+
+    /**
+     * Default number of events kept per thread.
+     */
+    public static final int DEFAULT_CAPACITY = 16384;
+
+    /**
+     * Largest number of events kept per thread.
+     */
+    public static final int MAX_CAPACITY = 1 << 16;
+
+    /**
+     * Largest amount of memory taken by the buffers of one recording session, in bytes.
+     */
+    public static final long MAX_TRACE_BYTES = 64L << 20;
+
+    /**
+     * Approximate size of one event: a name reference, three longs and a sequence number.
+     */
+    private static final int EVENT_BYTES = 40;
+    private static final String TICK_PREFIX = "Tick ";
+    private static final int MAX_RINGS = 64;
+    private static final long VIRTUAL_THREAD_IDS = 1L << 40;
+    private static final Ring[] VIRTUAL_RINGS = new Ring[Math.max(2, Integer.highestOneBit(Runtime.getRuntime().availableProcessors()))];
+    private static final List<Ring> RINGS = new CopyOnWriteArrayList<>();
+    private static final ThreadLocal<Ring> LOCAL_RING = new ThreadLocal<>();
+
+    private static volatile boolean enabled;
+    private static volatile int capacity = DEFAULT_CAPACITY;
+    private static volatile long generation;
+    private static volatile long originNanos;
+    private static long reservedEvents;
+
+    private TaskTracer() {
+    }
+
+    /**
+     * Starts recording with the default capacity. Events recorded by a previous session are discarded.
+     */
+    public static void enable() {
+        enable(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Starts recording. Events recorded by a previous session are discarded.
+     *
+     * @param eventsPerThread Number of events kept per thread, rounded up to a power of two
+     *                        between 16 and {@link #MAX_CAPACITY}, and lowered so the striped
+     *                        buffers and at least one thread buffer fit in {@link #MAX_TRACE_BYTES}
+     * @return The number of events kept per thread after rounding
+     */
+    public static synchronized int enable(int eventsPerThread) {
+        int clamped = Math.min(MAX_CAPACITY, Math.max(16, eventsPerThread));
+        int affordable = (int) Math.min(Integer.MAX_VALUE, MAX_TRACE_BYTES / EVENT_BYTES / (VIRTUAL_RINGS.length + 1));
+        capacity = Math.min(Integer.highestOneBit(clamped - 1) << 1, Integer.highestOneBit(affordable));
+        clear();
+        reservedEvents = (long) VIRTUAL_RINGS.length * capacity;
+        originNanos = System.nanoTime();
+        enabled = true;
+        return capacity;
+    }
+
+    /**
+     * Stops recording. Events already recorded are kept until the next {@link #enable()} or {@link #clear()}.
+     */
+    public static void disable() {
+        enabled = false;
+    }
+
+    /**
+     * Checks if task executions are being recorded.
+     *
+     * @return true while recording
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Discards every recorded event and the buffers holding them.
+     */
+    public static synchronized void clear() {
+        generation++;
+        reservedEvents = 0;
+        RINGS.clear();
+        for (int i = 0; i < VIRTUAL_RINGS.length; i++) {
+            VIRTUAL_RINGS[i] = null;
+        }
+    }
+
+    /**
+     * Records a run of a task. Callers check {@link #isEnabled()} first.
+     *
+     * @param name       Name of the run, usually the ID of the task
+     * @param startNanos Start of the run, from {@link System#nanoTime()}
+     * @param endNanos   End of the run, from {@link System#nanoTime()}
+     */
+    static void record(String name, long startNanos, long endNanos) {
+        if (startNanos == 0 || endNanos < startNanos || startNanos < originNanos) {
+            return;
+        }
+        ring().add(name, startNanos, endNanos - startNanos, 0);
+    }
+
+    /**
+     * Records the start of a server tick. Called on the main thread.
+     *
+     * @param tick Number of the tick
+     */
+    static void tick(long tick) {
+        ring().add(TICK_PREFIX, System.nanoTime(), -1, tick);
+    }
+
+    /**
+     * Writes every recorded event to a file, in the Chrome trace event format.
+     *
+     * @param file File to write, replaced if it exists
+     * @return Number of events written
+     * @throws IOException If the file cannot be written
+     */
+    public static int exportChromeTrace(Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            return writeChromeTrace(writer);
+        }
+    }
+
+    /**
+     * Writes every recorded event in the Chrome trace event format. Recording may go on
+     * while exporting; events overwritten during the export are skipped.
+     *
+     * @param writer Writer receiving the JSON document
+     * @return Number of events written
+     * @throws IOException If writing fails
+     */
+    public static int writeChromeTrace(Writer writer) throws IOException {
+        Writer out = writer instanceof BufferedWriter ? writer : new BufferedWriter(writer);
+        long origin = originNanos;
+        List<Ring> rings = new ArrayList<>(RINGS);
+        for (Ring ring : VIRTUAL_RINGS) {
+            if (ring != null) {
+                rings.add(ring);
+            }
+        }
+
+        int count = 0;
+        boolean first = true;
+        out.write("{\"displayTimeUnit\":\"ms\",\"traceEvents\":[");
+        for (Ring ring : rings) {
+            if (!first) {
+                out.write(',');
+            }
+            first = false;
+            out.write("{\"ph\":\"M\",\"name\":\"thread_name\",\"pid\":1,\"tid\":");
+            out.write(Long.toString(ring.threadId));
+            out.write(",\"args\":{\"name\":");
+            writeString(out, ring.threadName);
+            out.write("}}");
+            count += ring.write(out, origin);
+        }
+        out.write("]}");
+        out.flush();
+        return count;
+    }
+
+    private static Ring ring() {
+        Thread thread = Thread.currentThread();
+        if (thread.isVirtual()) {
+            return sharedRing(thread);
+        }
+
+        Ring ring = LOCAL_RING.get();
+        if (ring == null || ring.generation != generation) {
+            ring = register(thread);
+            LOCAL_RING.set(ring);
+        }
+        return ring;
+    }
+
+    private static Ring sharedRing(Thread thread) {
+        int index = (int) thread.threadId() & (VIRTUAL_RINGS.length - 1);
+        Ring ring = VIRTUAL_RINGS[index];
+        if (ring == null || ring.generation != generation) {
+            ring = createVirtualRing(index);
+        }
+        return ring;
+    }
+
+    private static synchronized Ring createVirtualRing(int index) {
+        Ring ring = VIRTUAL_RINGS[index];
+        if (ring == null || ring.generation != generation) {
+            ring = new Ring(VIRTUAL_THREAD_IDS + index, "Virtual threads " + index, capacity, generation, null);
+            VIRTUAL_RINGS[index] = ring;
+        }
+        return ring;
+    }
+
+    /**
+     * Creates the buffer of a new thread, dropping the buffers of dead threads once there are too many.
+     * When no room is left for another buffer, the thread shares the striped buffers instead.
+     */
+    private static synchronized Ring register(Thread thread) {
+        int size = capacity;
+        long budget = MAX_TRACE_BYTES / EVENT_BYTES;
+        if (RINGS.size() >= MAX_RINGS || reservedEvents + size > budget) {
+            List<Ring> dead = new ArrayList<>();
+            for (Ring existing : RINGS) {
+                if (!existing.owner.isAlive()) {
+                    dead.add(existing);
+                }
+            }
+            RINGS.removeAll(dead);
+            reservedEvents -= (long) dead.size() * size;
+        }
+        if (RINGS.size() >= MAX_RINGS || reservedEvents + size > budget) {
+            return sharedRing(thread);
+        }
+        Ring ring = new Ring(thread.threadId(), thread.getName(), size, generation, thread);
+        reservedEvents += size;
+        RINGS.add(ring);
+        return ring;
+    }
+
+    private static void writeString(Writer out, String value) throws IOException {
+        out.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.write('\\');
+                out.write(c);
+            } else if (c < 0x20) {
+                out.write(String.format("\\u%04x", (int) c));
+            } else {
+                out.write(c);
+            }
+        }
+        out.write('"');
+    }
+
+    /**
+     * Ring buffer of events. Each slot is published with a sequence number written after its
+     * fields, so the exporter can tell a complete event from one being overwritten.
+     */
+    private static final class Ring {
+        private final long threadId;
+        private final String threadName;
+        private final long generation;
+        private final Thread owner;
+        private final int mask;
+        private final String[] names;
+        private final long[] starts;
+        private final long[] durations;
+        private final long[] values;
+        private final AtomicLongArray sequences;
+        private final AtomicLong cursor;
+
+        private Ring(long threadId, String threadName, int capacity, long generation, Thread owner) {
+            this.threadId = threadId;
+            this.threadName = threadName;
+            this.generation = generation;
+            this.owner = owner;
+            this.mask = capacity - 1;
+            this.names = new String[capacity];
+            this.starts = new long[capacity];
+            this.durations = new long[capacity];
+            this.values = new long[capacity];
+            this.sequences = new AtomicLongArray(capacity);
+            this.cursor = new AtomicLong();
+        }
+
+        /**
+         * Adds an event. A duration of -1 marks an instant event, whose value is appended to its
+         * name at export; other events on a shared buffer keep the ID of their thread instead.
+         * The buffer of a platform thread only has its owner writing to it, so claiming a slot is
+         * a plain increment; the shared buffers claim slots atomically.
+         */
+        private void add(String name, long start, long duration, long value) {
+            long sequence;
+            if (owner != null) {
+                sequence = cursor.getPlain();
+                cursor.setRelease(sequence + 1);
+            } else {
+                sequence = cursor.getAndIncrement();
+            }
+
+            int slot = (int) sequence & mask;
+            sequences.setOpaque(slot, -1);
+            VarHandle.storeStoreFence();
+            names[slot] = name;
+            starts[slot] = start;
+            durations[slot] = duration;
+            values[slot] = duration < 0 || owner != null ? value : Thread.currentThread().threadId();
+            sequences.setRelease(slot, sequence);
+        }
+
+        private int write(Writer out, long origin) throws IOException {
+            long end = cursor.get();
+            long start = Math.max(0, end - names.length);
+            int count = 0;
+
+            for (long sequence = start; sequence < end; sequence++) {
+                int slot = (int) sequence & mask;
+                if (sequences.getAcquire(slot) != sequence) {
+                    continue;
+                }
+                String name = names[slot];
+                long startNanos = starts[slot];
+                long duration = durations[slot];
+                long value = values[slot];
+                VarHandle.loadLoadFence();
+                if (sequences.getOpaque(slot) != sequence || name == null) {
+                    continue;
+                }
+
+                out.write(",{\"name\":");
+                if (duration < 0) {
+                    out.write('"');
+                    out.write(name);
+                    out.write(Long.toString(value));
+                    out.write('"');
+                } else {
+                    writeString(out, name);
+                }
+                out.write(",\"pid\":1,\"tid\":");
+                out.write(Long.toString(threadId));
+                out.write(",\"ts\":");
+                writeMicros(out, startNanos - origin);
+                if (duration < 0) {
+                    out.write(",\"ph\":\"i\",\"s\":\"t\"}");
+                } else {
+                    out.write(",\"ph\":\"X\",\"dur\":");
+                    writeMicros(out, duration);
+                    if (owner == null) {
+                        out.write(",\"args\":{\"thread\":");
+                        out.write(Long.toString(value));
+                        out.write('}');
+                    }
+                    out.write('}');
+                }
+                count++;
+            }
+            return count;
+        }
+
+        private static void writeMicros(Writer out, long nanos) throws IOException {
+            out.write(Long.toString(nanos / 1000));
+            out.write('.');
+            long fraction = Math.abs(nanos % 1000);
+            if (fraction < 100) {
+                out.write('0');
+            }
+            if (fraction < 10) {
+                out.write('0');
+            }
+            out.write(Long.toString(fraction));
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package lol.jisz.astra.task;
+
+import lol.jisz.astra.Astra;
+import org.bukkit.Bukkit;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Task executor that runs work on the main server thread within a time budget per tick.
+ * <p>
+ * Instead of submitting one Bukkit task per piece of work, submitted work is queued by priority
+ * and a single repeating task drains the queue once per tick until the budget is spent. Work that
+ * does not fit is carried over to the next tick, so bursts of synchronous tasks are spread over
+ * several ticks instead of stalling one. At least one task runs every tick, so a single task
+ * longer than the budget can never block the queue.
+ */
+public class TickBudgetExecutor implements TaskExecutor {
+
+    private static final long DEFAULT_BUDGET_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+
+    private final Astra plugin;
+    private final PriorityRunQueue<Runnable> queue;
+    private final AtomicBoolean started;
+    private volatile long budgetNanos;
+    private volatile BukkitTask drainTask;
+
+    /**
+     * Creates a new executor with the default budget of 5 milliseconds per tick.
+     *
+     * @param plugin The plugin that owns the drain task
+     */
+    public TickBudgetExecutor(Astra plugin) {
+        this(plugin, DEFAULT_BUDGET_NANOS, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Creates a new executor with a custom budget per tick.
+     *
+     * @param plugin The plugin that owns the drain task
+     * @param budget Main thread time that may be spent per tick
+     * @param unit   Time unit of the budget
+     */
+    public TickBudgetExecutor(Astra plugin, long budget, TimeUnit unit) {
+        this.plugin = plugin;
+        this.queue = new PriorityRunQueue<>(2, TimeUnit.SECONDS);
+        this.started = new AtomicBoolean(false);
+        setBudget(budget, unit);
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        execute(command, TaskPriority.NORMAL);
+    }
+
+    @Override
+    public void execute(Runnable command, TaskPriority priority) {
+        queue.offer(command, priority);
+        if (!started.get() && started.compareAndSet(false, true)) {
+            drainTask = Bukkit.getScheduler().runTaskTimer(plugin, this::drain, 0L, 1L);
+        }
+    }
+
+    /**
+     * Runs queued work until the queue is empty or the budget of this tick is spent.
+     */
+    private void drain() {
+        long start = System.nanoTime();
+        long budget = budgetNanos;
+
+        Runnable command;
+        while ((command = queue.poll()) != null) {
+            try {
+                command.run();
+            } catch (Throwable t) {
+                plugin.logger().error("Uncaught error in main thread task", t);
+            }
+
+            if (System.nanoTime() - start >= budget) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Sets the main thread time that may be spent per tick.
+     *
+     * @param budget Budget per tick, at least one task still runs each tick if 0 or less
+     * @param unit   Time unit of the budget
+     */
+    public void setBudget(long budget, TimeUnit unit) {
+        this.budgetNanos = Math.max(0, unit.toNanos(budget));
+    }
+
+    /**
+     * Gets the main thread time that may be spent per tick.
+     *
+     * @param unit Time unit of the returned value
+     * @return The budget per tick
+     */
+    public long getBudget(TimeUnit unit) {
+        return unit.convert(budgetNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Gets the number of tasks waiting for a later tick.
+     *
+     * @return Number of queued tasks
+     */
+    public int getQueuedTasks() {
+        return queue.size();
+    }
+
+    @Override
+    public String getName() {
+        return "TickBudget";
+    }
+
+    @Override
+    public int getMaxConcurrency() {
+        return 1;
+    }
+
+    @Override
+    public void shutdown() {
+        BukkitTask task = drainTask;
+        if (task != null) {
+            task.cancel();
+        }
+        queue.drain();
+    }
+}
@@ -0,0 +1,436 @@
+package lol.jisz.astra.task;
+
+import lol.jisz.astra.Astra;
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel, measured in server ticks, that drives the repeating work of a plugin
+ * from a single Bukkit timer.
+ * <p>
+ * Every plugin has one wheel on the main thread and one on the async pool. Each wheel owns one
+ * Bukkit timer firing every tick, so hundreds of repeating tasks and animations cost the Bukkit
+ * scheduler one entry instead of one each. The wheel has four levels of 64 slots: a level covers
+ * 64 times the span of the level below, and entries cascade down as their tick approaches, so
+ * scheduling, rescheduling and cancelling are constant time whatever the number of entries.
+ * <p>
+ * Entries can be aligned to a multiple of their period, so tasks sharing a period run in the same
+ * tick and share its cache-warm state, or spread with a random phase so they do not all land in
+ * the same tick. Actions of the async wheel run one after another on the thread firing its timer,
+ * so long running work should be handed off to an executor.
+ */
+public final class TickWheel {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+    private static final long MAX_SPAN = 1L << (SLOT_BITS * LEVELS);
+
+    private static final Map<Astra, TickWheel> SYNC_WHEELS = new ConcurrentHashMap<>();
+    private static final Map<Astra, TickWheel> ASYNC_WHEELS = new ConcurrentHashMap<>();
+    private static final AtomicInteger HANDLE_IDS = new AtomicInteger();
+
+    private final Astra plugin;
+    private final boolean sync;
+    private final Entry[][] slots;
+    private final ConcurrentLinkedQueue<Entry> incoming;
+    private final AtomicLong pendingTicks;
+    private final AtomicBoolean ticking;
+    private final AtomicInteger size;
+    private final Object timerLock;
+
+    private volatile long currentTick;
+    private BukkitTask timer;
+
+    private TickWheel(Astra plugin, boolean sync) {
+        this.plugin = plugin;
+        this.sync = sync;
+        this.slots = new Entry[LEVELS][SLOTS];
+        this.incoming = new ConcurrentLinkedQueue<>();
+        this.pendingTicks = new AtomicLong();
+        this.ticking = new AtomicBoolean(false);
+        this.size = new AtomicInteger();
+        this.timerLock = new Object();
+    }
+
+    /**
+     * Gets the wheel whose actions run on the main server thread.
+     *
+     * @param plugin The plugin that owns the scheduled work
+     * @return The main thread wheel of the plugin
+     */
+    public static TickWheel sync(Astra plugin) {
+        return SYNC_WHEELS.computeIfAbsent(plugin, owner -> new TickWheel(owner, true));
+    }
+
+    /**
+     * Gets the wheel whose actions run on a Bukkit async thread.
+     *
+     * @param plugin The plugin that owns the scheduled work
+     * @return The async wheel of the plugin
+     */
+    public static TickWheel async(Astra plugin) {
+        return ASYNC_WHEELS.computeIfAbsent(plugin, owner -> new TickWheel(owner, false));
+    }
+
+    /**
+     * Stops the wheels of a plugin and forgets them, so a reloaded plugin instance gets new ones.
+     * Entries still scheduled on them never run again.
+     *
+     * @param plugin The plugin being disabled
+     */
+    static void remove(Astra plugin) {
+        TickWheel syncWheel = SYNC_WHEELS.remove(plugin);
+        if (syncWheel != null) {
+            syncWheel.stop();
+        }
+        TickWheel asyncWheel = ASYNC_WHEELS.remove(plugin);
+        if (asyncWheel != null) {
+            asyncWheel.stop();
+        }
+    }
+
+    /**
+     * Schedules an action to run after a delay, and then every period.
+     *
+     * @param action      The action to run
+     * @param delayTicks  Delay in ticks before the first run
+     * @param periodTicks Ticks between runs, or 0 or less to run only once
+     * @return Handle used to cancel the action
+     */
+    public BukkitTask schedule(Runnable action, long delayTicks, long periodTicks) {
+        return schedule(nameOf(action), handle -> action.run(), delayTicks, periodTicks);
+    }
+
+    /**
+     * Schedules an action to run after a delay, and then every period.
+     * The action receives its own handle, so it can cancel itself.
+     *
+     * @param action      The action to run
+     * @param delayTicks  Delay in ticks before the first run
+     * @param periodTicks Ticks between runs, or 0 or less to run only once
+     * @return Handle used to cancel the action
+     */
+    public BukkitTask schedule(Consumer<? super BukkitTask> action, long delayTicks, long periodTicks) {
+        return schedule(nameOf(action), action, delayTicks, periodTicks);
+    }
+
+    /**
+     * Schedules a named action to run after a delay, and then every period.
+     * The action receives its own handle, so it can cancel itself.
+     *
+     * @param name        Name of the action in task traces, such as the ID of its task
+     * @param action      The action to run
+     * @param delayTicks  Delay in ticks before the first run
+     * @param periodTicks Ticks between runs, or 0 or less to run only once
+     * @return Handle used to cancel the action
+     */
+    public BukkitTask schedule(String name, Consumer<? super BukkitTask> action, long delayTicks, long periodTicks) {
+        return add(new Entry(this, name, action, periodTicks), currentTick + Math.max(1, delayTicks));
+    }
+
+    /**
+     * Schedules an action to run every period, starting at the next tick that is a multiple of
+     * the period plus a random phase between 0 and {@code jitterTicks}.
+     * <p>
+     * With no jitter, every action sharing a period runs in the same tick. With a jitter equal to
+     * the period, actions are spread evenly over the ticks of their period.
+     *
+     * @param action      The action to run
+     * @param periodTicks Ticks between runs, at least 1
+     * @param jitterTicks Largest random phase in ticks, 0 to run exactly on the multiples
+     * @return Handle used to cancel the action
+     */
+    public BukkitTask scheduleAligned(Runnable action, long periodTicks, long jitterTicks) {
+        return scheduleAligned(nameOf(action), handle -> action.run(), periodTicks, jitterTicks);
+    }
+
+    /**
+     * Schedules an action to run every period, aligned as in {@link #scheduleAligned(Runnable, long, long)}.
+     * The action receives its own handle, so it can cancel itself.
+     *
+     * @param action      The action to run
+     * @param periodTicks Ticks between runs, at least 1
+     * @param jitterTicks Largest random phase in ticks, 0 to run exactly on the multiples
+     * @return Handle used to cancel the action
+     */
+    public BukkitTask scheduleAligned(Consumer<? super BukkitTask> action, long periodTicks, long jitterTicks) {
+        return scheduleAligned(nameOf(action), action, periodTicks, jitterTicks);
+    }
+
+    /**
+     * Schedules a named action to run every period, aligned as in {@link #scheduleAligned(Runnable, long, long)}.
+     * The action receives its own handle, so it can cancel itself.
+     *
+     * @param name        Name of the action in task traces
+     * @param action      The action to run
+     * @param periodTicks Ticks between runs, at least 1
+     * @param jitterTicks Largest random phase in ticks, 0 to run exactly on the multiples
+     * @return Handle used to cancel the action
+     */
+    public BukkitTask scheduleAligned(String name, Consumer<? super BukkitTask> action, long periodTicks, long jitterTicks) {
+        long period = Math.max(1, periodTicks);
+        long next = currentTick + 1;
+        long aligned = (next + period - 1) / period * period;
+        long phase = jitterTicks > 0 ? ThreadLocalRandom.current().nextLong(Math.min(jitterTicks, period - 1) + 1) : 0;
+        return add(new Entry(this, name, action, period), aligned + phase);
+    }
+
+    /**
+     * Gets the number of actions scheduled on this wheel that have not been cancelled yet.
+     *
+     * @return Number of scheduled actions
+     */
+    public int getScheduledCount() {
+        return size.get();
+    }
+
+    /**
+     * Checks if the actions of this wheel run on the main server thread.
+     *
+     * @return true for the main thread wheel
+     */
+    public boolean isSync() {
+        return sync;
+    }
+
+    /**
+     * Names an unnamed action after the class that declares it, since lambdas have generated class names.
+     */
+    private static String nameOf(Object action) {
+        String name = action.getClass().getName();
+        int lambda = name.indexOf("$$Lambda");
+        return lambda > 0 ? name.substring(0, lambda) : name;
+    }
+
+    private BukkitTask add(Entry entry, long deadline) {
+        entry.deadline = deadline;
+        size.incrementAndGet();
+        incoming.offer(entry);
+        ensureStarted();
+        return entry;
+    }
+
+    /**
+     * Starts the Bukkit timer of this wheel, unless it is already running.
+     */
+    private void ensureStarted() {
+        synchronized (timerLock) {
+            if (timer != null) {
+                return;
+            }
+            timer = sync
+                    ? Bukkit.getScheduler().runTaskTimer(plugin, this::onTimer, 1L, 1L)
+                    : Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, this::onTimer, 1L, 1L);
+        }
+    }
+
+    /**
+     * Stops the Bukkit timer once nothing is left to run. A later schedule starts it again.
+     */
+    private void stopIfIdle() {
+        synchronized (timerLock) {
+            if (timer != null && size.get() == 0 && incoming.isEmpty()) {
+                timer.cancel();
+                timer = null;
+            }
+        }
+    }
+
+    private void stop() {
+        synchronized (timerLock) {
+            if (timer != null) {
+                timer.cancel();
+                timer = null;
+            }
+        }
+    }
+
+    /**
+     * Called by the Bukkit timer once per tick. If the async timer fires while a previous tick is
+     * still being processed, the thread processing it catches up with the missed ticks, so the
+     * wheel never runs on two threads at once and never falls behind.
+     */
+    private void onTimer() {
+        pendingTicks.incrementAndGet();
+        if (!ticking.compareAndSet(false, true)) {
+            return;
+        }
+
+        do {
+            while (pendingTicks.get() > 0) {
+                pendingTicks.decrementAndGet();
+                advance();
+            }
+            ticking.set(false);
+        } while (pendingTicks.get() > 0 && ticking.compareAndSet(false, true));
+
+        stopIfIdle();
+    }
+
+    /**
+     * Moves the wheel forward one tick and runs the entries due on it.
+     */
+    private void advance() {
+        long tick = currentTick + 1;
+        currentTick = tick;
+
+        Entry entry;
+        while ((entry = incoming.poll()) != null) {
+            insert(entry, tick);
+        }
+
+        for (int level = LEVELS - 1; level > 0; level--) {
+            int shift = SLOT_BITS * level;
+            if ((tick & ((1L << shift) - 1)) == 0) {
+                cascade(level, (int) (tick >>> shift) & SLOT_MASK, tick);
+            }
+        }
+
+        int index = (int) tick & SLOT_MASK;
+        Entry due = slots[0][index];
+        slots[0][index] = null;
+
+        while (due != null) {
+            Entry next = due.next;
+            due.next = null;
+
+            if (due.cancelled) {
+                size.decrementAndGet();
+            } else if (due.deadline > tick) {
+                insert(due, tick);
+            } else {
+                run(due);
+                if (due.period > 0 && !due.cancelled) {
+                    due.deadline += due.period;
+                    if (due.deadline <= tick) {
+                        due.deadline = tick + due.period;
+                    }
+                    insert(due, tick);
+                } else {
+                    due.cancelled = true;
+                    size.decrementAndGet();
+                }
+            }
+            due = next;
+        }
+    }
+
+    private void run(Entry entry) {
+        long start = TaskTracer.isEnabled() ? System.nanoTime() : 0;
+        try {
+            entry.action.accept(entry);
+        } catch (Throwable t) {
+            plugin.logger().error("Uncaught error in scheduled action of tick wheel", t);
+        }
+        if (start != 0) {
+            TaskTracer.record(entry.name, start, System.nanoTime());
+        }
+    }
+
+    /**
+     * Moves the entries of a slot one or more levels down, now that their tick is close enough.
+     */
+    private void cascade(int level, int index, long tick) {
+        Entry entry = slots[level][index];
+        slots[level][index] = null;
+
+        while (entry != null) {
+            Entry next = entry.next;
+            entry.next = null;
+            if (entry.cancelled) {
+                size.decrementAndGet();
+            } else {
+                insert(entry, tick);
+            }
+            entry = next;
+        }
+    }
+
+    /**
+     * Links an entry into the slot of the lowest level whose span covers its deadline.
+     * Entries due now or in the past go into the slot of the current tick.
+     */
+    private void insert(Entry entry, long tick) {
+        long deadline = Math.max(entry.deadline, tick);
+        long delta = deadline - tick;
+
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= 1L << (SLOT_BITS * (level + 1))) {
+            level++;
+        }
+
+        int index;
+        if (delta >= MAX_SPAN) {
+            index = (int) ((tick >>> (SLOT_BITS * level)) - 1) & SLOT_MASK;
+        } else {
+            index = (int) (deadline >>> (SLOT_BITS * level)) & SLOT_MASK;
+        }
+
+        entry.next = slots[level][index];
+        slots[level][index] = entry;
+    }
+
+    /**
+     * Action scheduled on a wheel. Cancelling it only flags it; the wheel unlinks it the next time
+     * it reaches its slot, so cancelling never contends with the thread running the wheel.
+     */
+    private static final class Entry implements BukkitTask {
+        private final TickWheel wheel;
+        private final String name;
+        private final Consumer<? super BukkitTask> action;
+        private final long period;
+        private final int id;
+        private volatile boolean cancelled;
+        private long deadline;
+        private Entry next;
+
+        private Entry(TickWheel wheel, String name, Consumer<? super BukkitTask> action, long period) {
+            this.wheel = wheel;
+            this.name = name;
+            this.action = action;
+            this.period = Math.max(0, period);
+            this.id = HANDLE_IDS.decrementAndGet();
+        }
+
+        /**
+         * Gets the ID of this handle. It is negative, so it never matches a task of the
+         * Bukkit scheduler.
+         */
+        @Override
+        public int getTaskId() {
+            return id;
+        }
+
+        @Override
+        public Plugin getOwner() {
+            return wheel.plugin;
+        }
+
+        @Override
+        public boolean isSync() {
+            return wheel.sync;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+    }
+}
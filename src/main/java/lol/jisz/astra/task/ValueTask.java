@@ -0,0 +1,291 @@
+package lol.jisz.astra.task;
+
+import lol.jisz.astra.Astra;
+import org.bukkit.Bukkit;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * A task that produces a value, exposed as a {@link CompletionStage}.
+ * <p>
+ * The task body runs either on the main server thread or asynchronously, and its result can be
+ * composed with other value tasks. Every continuation is scheduled on the thread it needs instead
+ * of blocking a thread until the previous step finishes, so a pipeline such as
+ * "load from the database, compute, apply on the main thread" never parks an async thread.
+ *
+ * @param <T> Type of the value produced by the task
+ */
+public class ValueTask<T> extends AbstractAstraTask {
+
+    private final Astra plugin;
+    private final Callable<? extends T> callable;
+    private final boolean async;
+    private final CompletableFuture<T> future;
+
+    /**
+     * Constructs a new value task with a generated ID.
+     *
+     * @param plugin   The Astra plugin instance that owns this task
+     * @param callable The code producing the value
+     * @param async    Whether the task runs asynchronously or on the main server thread
+     */
+    public ValueTask(Astra plugin, Callable<? extends T> callable, boolean async) {
+        super();
+        this.plugin = plugin;
+        this.callable = callable;
+        this.async = async;
+        this.future = new CompletableFuture<>();
+    }
+
+    /**
+     * Constructs a new value task with a specified ID.
+     *
+     * @param plugin   The Astra plugin instance that owns this task
+     * @param id       The unique identifier for this task
+     * @param callable The code producing the value
+     * @param async    Whether the task runs asynchronously or on the main server thread
+     */
+    public ValueTask(Astra plugin, String id, Callable<? extends T> callable, boolean async) {
+        super(id);
+        this.plugin = plugin;
+        this.callable = callable;
+        this.async = async;
+        this.future = new CompletableFuture<>();
+    }
+
+    /**
+     * Checks whether this task runs asynchronously.
+     *
+     * @return true if the task runs off the main server thread
+     */
+    public boolean isAsync() {
+        return async;
+    }
+
+    /**
+     * Executes this task on its assigned executor, or on the Bukkit scheduler if none is assigned.
+     * If the task is already scheduled, completed, or cancelled, this method has no effect.
+     *
+     * @return This task instance for method chaining
+     */
+    public ValueTask<T> execute() {
+        if (isScheduled() || isCompleted() || isCancelled()) {
+            return this;
+        }
+
+        if (executor == null) {
+            bukkitTask = async
+                    ? Bukkit.getScheduler().runTaskAsynchronously(plugin, this::runOnce)
+                    : Bukkit.getScheduler().runTask(plugin, this::runOnce);
+            return this;
+        }
+
+        submitted.set(true);
+        try {
+            executor.execute(this::runOnce, priority);
+        } catch (RejectedExecutionException e) {
+            submitted.set(false);
+            handleError(e);
+        }
+        return this;
+    }
+
+    /**
+     * Cancels this task and its stage, if it has not completed yet.
+     *
+     * @return true if the task was cancelled
+     */
+    @Override
+    public boolean cancel() {
+        boolean cancelledNow = super.cancel();
+        if (cancelledNow) {
+            future.cancel(false);
+        }
+        return cancelledNow;
+    }
+
+    /**
+     * Gets a stage completed with the value of this task.
+     * Completing or cancelling the returned stage does not affect this task.
+     *
+     * @return The completion stage of this task
+     */
+    public CompletionStage<T> toStage() {
+        return future.copy();
+    }
+
+    /**
+     * Applies a function to the value of this task on the main server thread.
+     *
+     * @param function The function to apply
+     * @param <U>      Type of the result
+     * @return A stage completed with the result of the function
+     */
+    public <U> CompletionStage<U> thenApplySync(Function<? super T, ? extends U> function) {
+        return future.thenApplyAsync(function, mainThread(plugin));
+    }
+
+    /**
+     * Applies a function to the value of this task asynchronously.
+     *
+     * @param function The function to apply
+     * @param <U>      Type of the result
+     * @return A stage completed with the result of the function
+     */
+    public <U> CompletionStage<U> thenApplyAsync(Function<? super T, ? extends U> function) {
+        return future.thenApplyAsync(function, asyncExecutor());
+    }
+
+    /**
+     * Consumes the value of this task on the main server thread.
+     *
+     * @param action The action to run with the value
+     * @return A stage completed once the action has run
+     */
+    public CompletionStage<Void> thenAcceptSync(Consumer<? super T> action) {
+        return future.thenAcceptAsync(action, mainThread(plugin));
+    }
+
+    /**
+     * Combines the value of this task with the value of another one once both complete.
+     * The function runs on the thread that completes the last of the two tasks.
+     *
+     * @param other    The other task
+     * @param function The function combining both values
+     * @param <U>      Type of the value of the other task
+     * @param <R>      Type of the combined result
+     * @return A stage completed with the combined result
+     */
+    public <U, R> CompletionStage<R> thenCombine(ValueTask<? extends U> other,
+                                                 BiFunction<? super T, ? super U, ? extends R> function) {
+        return future.thenCombine(other.future, function);
+    }
+
+    /**
+     * Combines the value of this task with the value of another one on the main server thread.
+     *
+     * @param other    The other task
+     * @param function The function combining both values
+     * @param <U>      Type of the value of the other task
+     * @param <R>      Type of the combined result
+     * @return A stage completed with the combined result
+     */
+    public <U, R> CompletionStage<R> thenCombineSync(ValueTask<? extends U> other,
+                                                     BiFunction<? super T, ? super U, ? extends R> function) {
+        return future.thenCombineAsync(other.future, function, mainThread(plugin));
+    }
+
+    /**
+     * Creates a stage completed with the values of every given task, in the same order,
+     * once all of them complete. If any task fails, the stage fails with its error.
+     *
+     * @param tasks The tasks to wait for
+     * @param <T>   Type of the values
+     * @return A stage completed with the list of values
+     */
+    @SafeVarargs
+    public static <T> CompletionStage<List<T>> allOf(ValueTask<? extends T>... tasks) {
+        return allOf(List.of(tasks));
+    }
+
+    /**
+     * Creates a stage completed with the values of every given task, in the same order,
+     * once all of them complete. If any task fails, the stage fails with its error.
+     *
+     * @param tasks The tasks to wait for
+     * @param <T>   Type of the values
+     * @return A stage completed with the list of values
+     */
+    public static <T> CompletionStage<List<T>> allOf(List<? extends ValueTask<? extends T>> tasks) {
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[tasks.size()];
+        for (int i = 0; i < futures.length; i++) {
+            ValueTask<? extends T> task = tasks.get(i);
+            futures[i] = task.future;
+        }
+
+        return CompletableFuture.allOf(futures).thenApply(ignored -> {
+            List<T> values = new ArrayList<>(tasks.size());
+            for (ValueTask<? extends T> task : tasks) {
+                values.add(task.future.join());
+            }
+            return values;
+        });
+    }
+
+    /**
+     * Creates a stage completed with the value of the first given task to complete.
+     *
+     * @param tasks The tasks to wait for
+     * @param <T>   Type of the values
+     * @return A stage completed with the first value, or the first error
+     */
+    @SafeVarargs
+    @SuppressWarnings("unchecked")
+    public static <T> CompletionStage<T> anyOf(ValueTask<? extends T>... tasks) {
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[tasks.length];
+        for (int i = 0; i < futures.length; i++) {
+            futures[i] = tasks[i].future;
+        }
+        return CompletableFuture.anyOf(futures).thenApply(value -> (T) value);
+    }
+
+    /**
+     * Gets the executor that runs continuations on the main server thread.
+     * Continuations of many tasks completing in the same tick share one scheduler submission.
+     */
+    private static Executor mainThread(Astra plugin) {
+        return MainThreadDispatcher.of(plugin);
+    }
+
+    /**
+     * Gets the executor used for asynchronous continuations of this task: the assigned executor
+     * of an async task, or the Bukkit async scheduler otherwise.
+     */
+    private Executor asyncExecutor() {
+        TaskExecutor assigned = executor;
+        if (async && assigned != null) {
+            return assigned;
+        }
+        return command -> Bukkit.getScheduler().runTaskAsynchronously(plugin, command);
+    }
+
+    /**
+     * Runs the task body once, unless it was cancelled while waiting.
+     */
+    private void runOnce() {
+        if (cancelled.get()) return;
+
+        T value;
+        try {
+            markAsRunning();
+            value = callable.call();
+        } catch (Throwable t) {
+            running.set(false);
+            handleError(t);
+            return;
+        }
+
+        future.complete(value);
+        markAsCompleted();
+    }
+
+    /**
+     * Reports the error to the listeners of this task and fails its stage with it.
+     *
+     * @param throwable The error that occurred
+     */
+    @Override
+    protected void handleError(Throwable throwable) {
+        super.handleError(throwable);
+        future.completeExceptionally(throwable);
+    }
+}
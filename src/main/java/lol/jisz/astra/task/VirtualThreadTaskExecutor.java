@@ -0,0 +1,61 @@
+package lol.jisz.astra.task;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Task executor that runs every task on its own virtual thread.
+ * <p>
+ * Virtual threads are unmounted from their carrier while they block, so tasks that spend
+ * most of their time waiting on I/O (database queries, HTTP calls) can scale to thousands
+ * in flight without exhausting the Bukkit asynchronous pool.
+ */
+public class VirtualThreadTaskExecutor implements TaskExecutor {
+
+    private static final int DEFAULT_MAX_CONCURRENCY = 1024;
+
+    private final ExecutorService executor;
+    private final int maxConcurrency;
+
+    /**
+     * Creates a new virtual thread executor with the default concurrency ceiling.
+     *
+     * @param threadPrefix Prefix used to name the virtual threads
+     */
+    public VirtualThreadTaskExecutor(String threadPrefix) {
+        this(threadPrefix, DEFAULT_MAX_CONCURRENCY);
+    }
+
+    /**
+     * Creates a new virtual thread executor.
+     *
+     * @param threadPrefix   Prefix used to name the virtual threads
+     * @param maxConcurrency Highest number of tasks allowed in flight at the same time
+     */
+    public VirtualThreadTaskExecutor(String threadPrefix, int maxConcurrency) {
+        ThreadFactory factory = Thread.ofVirtual().name(threadPrefix + "-", 0).factory();
+        this.executor = Executors.newThreadPerTaskExecutor(factory);
+        this.maxConcurrency = Math.max(1, maxConcurrency);
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        executor.execute(command);
+    }
+
+    @Override
+    public String getName() {
+        return "VirtualThreads";
+    }
+
+    @Override
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    @Override
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
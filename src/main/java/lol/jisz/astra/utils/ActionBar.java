@@ -1,21 +1,18 @@
 package lol.jisz.astra.utils;
 
 import lol.jisz.astra.api.Implements;
+import lol.jisz.astra.task.TickWheel;
 import net.md_5.bungee.api.ChatMessageType;
 import net.md_5.bungee.api.chat.TextComponent;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
-import org.bukkit.scheduler.BukkitRunnable;
 import org.bukkit.scheduler.BukkitTask;
 
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
-
-// TODO: In the official release, this class should be changed to use AstraTasks for
-// better task management and better compatibility with the overall system.
-// It is not used yet because I have to make some changes in AstraTask.
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 
 /**
  * Utility class for sending action bar messages to players.
@@ -23,7 +20,7 @@ import java.util.UUID;
  */
 public class ActionBar {
 
-    private static final Map<UUID, BukkitTask> persistentBars = new HashMap<>();
+    private static final Map<UUID, BukkitTask> persistentBars = new ConcurrentHashMap<>();
     private static final int DEFAULT_DURATION = 60;
     private static final int DEFAULT_UPDATE_INTERVAL = 20;
 
@@ -76,26 +73,19 @@ public class ActionBar {
         cancelPersistentActionBar(player);
         sendActionBar(player, message);
         
-        BukkitTask task = new BukkitRunnable() {
+        TickWheel.async(Implements.getPlugin()).schedule(new Consumer<BukkitTask>() {
             private int counter = 0;
             
             @Override
-            public void run() {
+            public void accept(BukkitTask self) {
                 counter += 2;
                 if (counter >= durationTicks || !player.isOnline()) {
-                    this.cancel();
+                    self.cancel();
                     return;
                 }
                 sendActionBar(player, message);
             }
-        }.runTaskTimerAsynchronously(Implements.getPlugin(), 2L, 2L);
-        
-        new BukkitRunnable() {
-            @Override
-            public void run() {
-                task.cancel();
-            }
-        }.runTaskLaterAsynchronously(Implements.getPlugin(), durationTicks);
+        }, 2L, 2L);
     }
 
     /**
@@ -111,26 +101,19 @@ public class ActionBar {
         cancelPersistentActionBar(player);
         sendTranslatedActionBar(player, message);
         
-        BukkitTask task = new BukkitRunnable() {
+        TickWheel.async(Implements.getPlugin()).schedule(new Consumer<BukkitTask>() {
             private int counter = 0;
             
             @Override
-            public void run() {
+            public void accept(BukkitTask self) {
                 counter += 2;
                 if (counter >= durationTicks || !player.isOnline()) {
-                    this.cancel();
+                    self.cancel();
                     return;
                 }
                 sendTranslatedActionBar(player, message);
             }
-        }.runTaskTimerAsynchronously(Implements.getPlugin(), 2L, 2L);
-        
-        new BukkitRunnable() {
-            @Override
-            public void run() {
-                task.cancel();
-            }
-        }.runTaskLaterAsynchronously(Implements.getPlugin(), durationTicks);
+        }, 2L, 2L);
     }
 
     /**
@@ -157,18 +140,17 @@ public class ActionBar {
         if (player == null) return null;
         
         cancelPersistentActionBar(player);
+        sendActionBar(player, message);
         
-        BukkitTask task = new BukkitRunnable() {
-            @Override
-            public void run() {
-                if (!player.isOnline()) {
-                    this.cancel();
-                    persistentBars.remove(player.getUniqueId());
-                    return;
-                }
-                sendActionBar(player, message);
+        int period = Math.max(1, updateIntervalTicks);
+        BukkitTask task = TickWheel.async(Implements.getPlugin()).scheduleAligned(self -> {
+            if (!player.isOnline()) {
+                self.cancel();
+                persistentBars.remove(player.getUniqueId(), self);
+                return;
             }
-        }.runTaskTimerAsynchronously(Implements.getPlugin(), 0L, Math.max(1, updateIntervalTicks));
+            sendActionBar(player, message);
+        }, period, period);
         
         persistentBars.put(player.getUniqueId(), task);
         
@@ -199,18 +181,17 @@ public class ActionBar {
         if (player == null) return null;
         
         cancelPersistentActionBar(player);
+        sendTranslatedActionBar(player, message);
         
-        BukkitTask task = new BukkitRunnable() {
-            @Override
-            public void run() {
-                if (!player.isOnline()) {
-                    this.cancel();
-                    persistentBars.remove(player.getUniqueId());
-                    return;
-                }
-                sendTranslatedActionBar(player, message);
+        int period = Math.max(1, updateIntervalTicks);
+        BukkitTask task = TickWheel.async(Implements.getPlugin()).scheduleAligned(self -> {
+            if (!player.isOnline()) {
+                self.cancel();
+                persistentBars.remove(player.getUniqueId(), self);
+                return;
             }
-        }.runTaskTimerAsynchronously(Implements.getPlugin(), 0L, Math.max(1, updateIntervalTicks));
+            sendTranslatedActionBar(player, message);
+        }, period, period);
         
         persistentBars.put(player.getUniqueId(), task);
         
@@ -1,22 +1,20 @@
 package lol.jisz.astra.utils;
 
 import lol.jisz.astra.api.Implements;
+import lol.jisz.astra.task.MainThreadDispatcher;
+import lol.jisz.astra.task.TickWheel;
 import org.bukkit.Bukkit;
 import org.bukkit.boss.BarColor;
 import org.bukkit.boss.BarFlag;
 import org.bukkit.boss.BarStyle;
 import org.bukkit.entity.Player;
-import org.bukkit.scheduler.BukkitRunnable;
 import org.bukkit.scheduler.BukkitTask;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
-
-// TODO: In the official release, this class should be changed to use AstraTasks for
-// better task management and better compatibility with the overall system.
-// It is not used yet because I have to make some changes in AstraTask.
+import java.util.function.Consumer;
 
 /**
  * Utility class for creating and managing boss bars.
@@ -283,12 +281,7 @@ public class BossBar {
         org.bukkit.boss.BossBar bar = create(id, title, color, style, flags);
         show(id, player);
         
-        BukkitTask task = new BukkitRunnable() {
-            @Override
-            public void run() {
-                remove(id);
-            }
-        }.runTaskLater(Implements.getPlugin(), durationTicks);
+        BukkitTask task = TickWheel.sync(Implements.getPlugin()).schedule(() -> remove(id), durationTicks, 0);
         
         BAR_TASKS.put(id, task);
         return true;
@@ -329,11 +322,11 @@ public class BossBar {
         show(id, player);
         bar.setProgress(1.0);
         
-        BukkitTask task = new BukkitRunnable() {
+        BukkitTask task = TickWheel.sync(Implements.getPlugin()).schedule(new Consumer<BukkitTask>() {
             private int ticksLeft = durationTicks;
             
             @Override
-            public void run() {
+            public void accept(BukkitTask self) {
                 ticksLeft--;
                 
                 double progress = (double) ticksLeft / durationTicks;
@@ -350,10 +343,10 @@ public class BossBar {
                     if (onComplete != null) {
                         onComplete.run();
                     }
-                    cancel();
+                    self.cancel();
                 }
             }
-        }.runTaskTimer(Implements.getPlugin(), 0, 1);
+        }, 0, 1);
         
         BAR_TASKS.put(id, task);
         return true;
@@ -391,7 +384,7 @@ public class BossBar {
         org.bukkit.boss.BossBar bar = create(id, title, color, style, flags);
         show(id, player);
         
-        BukkitTask task = new BukkitRunnable() {
+        BukkitTask task = TickWheel.sync(Implements.getPlugin()).schedule(new Runnable() {
             private double direction = -0.01;
             private double progress = 1.0;
             
@@ -405,7 +398,7 @@ public class BossBar {
                 
                 bar.setProgress(progress);
             }
-        }.runTaskTimer(Implements.getPlugin(), 0, pulseTicks / 100);
+        }, 0, Math.max(1, pulseTicks / 100));
         
         BAR_TASKS.put(id, task);
         return true;
@@ -453,43 +446,35 @@ public class BossBar {
     
         AtomicInteger ticksLeft = new AtomicInteger(durationTicks);
     
-        BukkitTask asyncTask = new BukkitRunnable() {
-            @Override
-            public void run() {
-                int currentTicks = ticksLeft.decrementAndGet();
-                final double progress = (double) currentTicks / totalTicks;
+        BukkitTask asyncTask = TickWheel.async(Implements.getPlugin()).schedule(() -> {
+            int currentTicks = ticksLeft.decrementAndGet();
+            final double progress = (double) currentTicks / totalTicks;
             
-                new BukkitRunnable() {
-                    @Override
-                    public void run() {
-                        org.bukkit.boss.BossBar currentBar = ACTIVE_BARS.get(id);
-                        Player currentPlayer = Bukkit.getPlayer(playerUuid);
+            MainThreadDispatcher.of(Implements.getPlugin()).execute(() -> {
+                org.bukkit.boss.BossBar currentBar = ACTIVE_BARS.get(id);
+                Player currentPlayer = Bukkit.getPlayer(playerUuid);
                     
-                        if (currentBar == null || currentPlayer == null || !currentPlayer.isOnline()) {
-                            remove(id);
-                            cancel();
-                            return;
-                        }
+                if (currentBar == null || currentPlayer == null || !currentPlayer.isOnline()) {
+                    remove(id);
+                    return;
+                }
                     
-                        currentBar.setProgress(Math.max(0.0, progress));
+                currentBar.setProgress(Math.max(0.0, progress));
                     
-                        if (progress <= 0.25) {
-                            currentBar.setColor(BarColor.RED);
-                        } else if (progress <= 0.5) {
-                            currentBar.setColor(BarColor.YELLOW);
-                        }
+                if (progress <= 0.25) {
+                    currentBar.setColor(BarColor.RED);
+                } else if (progress <= 0.5) {
+                    currentBar.setColor(BarColor.YELLOW);
+                }
                     
-                        if (currentTicks <= 0) {
-                            remove(id);
-                            if (onComplete != null) {
-                                onComplete.run();
-                            }
-                            cancel();
-                        }
+                if (currentTicks <= 0) {
+                    remove(id);
+                    if (onComplete != null) {
+                        onComplete.run();
                     }
-                }.runTask(Implements.getPlugin());
-            }
-        }.runTaskTimerAsynchronously(Implements.getPlugin(), 0, 1);
+                }
+            });
+        }, 0, 1);
     
         BAR_TASKS.put(id, asyncTask);
         return true;
@@ -534,39 +519,32 @@ public class BossBar {
         AtomicReference<Double> direction = new AtomicReference<>(-0.01);
         AtomicReference<Double> progress = new AtomicReference<>(1.0);
     
-        BukkitTask asyncTask = new BukkitRunnable() {
-            @Override
-            public void run() {
-                double currentProgress = progress.get();
-                double currentDirection = direction.get();
+        BukkitTask asyncTask = TickWheel.async(Implements.getPlugin()).schedule(() -> {
+            double currentProgress = progress.get();
+            double currentDirection = direction.get();
             
-                currentProgress += currentDirection;
+            currentProgress += currentDirection;
             
-                if (currentProgress >= 1.0 || currentProgress <= 0.0) {
-                    currentDirection *= -1;
-                    direction.set(currentDirection);
-                }
+            if (currentProgress >= 1.0 || currentProgress <= 0.0) {
+                currentDirection *= -1;
+                direction.set(currentDirection);
+            }
             
-                progress.set(currentProgress);
+            progress.set(currentProgress);
             
-                final double finalProgress = currentProgress;
-                new BukkitRunnable() {
-                    @Override
-                    public void run() {
-                        org.bukkit.boss.BossBar currentBar = ACTIVE_BARS.get(id);
-                        Player currentPlayer = Bukkit.getPlayer(playerUuid);
+            final double finalProgress = currentProgress;
+            MainThreadDispatcher.of(Implements.getPlugin()).execute(() -> {
+                org.bukkit.boss.BossBar currentBar = ACTIVE_BARS.get(id);
+                Player currentPlayer = Bukkit.getPlayer(playerUuid);
                     
-                        if (currentBar == null || currentPlayer == null || !currentPlayer.isOnline()) {
-                            remove(id);
-                            cancel();
-                            return;
-                        }
+                if (currentBar == null || currentPlayer == null || !currentPlayer.isOnline()) {
+                    remove(id);
+                    return;
+                }
                     
-                        currentBar.setProgress(finalProgress);
-                    }
-                }.runTask(Implements.getPlugin());
-            }
-        }.runTaskTimerAsynchronously(Implements.getPlugin(), 0, pulseTicks / 100);
+                currentBar.setProgress(finalProgress);
+            });
+        }, 0, Math.max(1, pulseTicks / 100));
     
         BAR_TASKS.put(id, asyncTask);
         return true;
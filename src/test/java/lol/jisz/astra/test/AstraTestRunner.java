@@ -15,6 +15,8 @@ public class AstraTestRunner extends Astra {
         
         runModuleTests();
         runCommandTests();
+        runTaskTests();
+        runDatabaseTests();
         
         logger.info(TEST_PREFIX + "Pruebas completadas.");
     }
@@ -38,4 +40,14 @@ public class AstraTestRunner extends Astra {
         logger().info(TEST_PREFIX + "Ejecutando pruebas de comandos...");
         new CommandTests(this).runTests();
     }
+
+    private void runTaskTests() {
+        logger().info(TEST_PREFIX + "Ejecutando pruebas de tareas...");
+        new TaskTests(this).runTests();
+    }
+
+    private void runDatabaseTests() {
+        logger().info(TEST_PREFIX + "Ejecutando pruebas de bases de datos...");
+        new DatabaseTests(this).runTests();
+    }
 }
\ No newline at end of file
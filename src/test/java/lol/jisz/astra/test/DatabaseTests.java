@@ -0,0 +1,215 @@
+package lol.jisz.astra.test;
+
+import lol.jisz.astra.Astra;
+import lol.jisz.astra.database.AstraDatabase;
+import lol.jisz.astra.database.Query;
+import lol.jisz.astra.database.annotations.StorageCollection;
+import lol.jisz.astra.database.annotations.StorageField;
+import lol.jisz.astra.database.annotations.StorageId;
+import lol.jisz.astra.database.interfaces.StorageObject;
+import lol.jisz.astra.database.providers.DatabaseType;
+import lol.jisz.astra.database.providers.SQLiteProvider;
+import lol.jisz.astra.database.registry.DatabaseFactory;
+import lol.jisz.astra.utils.Logger;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Pruebas para los proveedores de base de datos de Astra.
+ * Verifica la creaci&oacute;n del esquema, la sustituci&oacute;n de objetos con el mismo ID,
+ * la lectura por cursor, las consultas y el orden entre guardados y borrados.
+ * SQLite se prueba siempre; MySQL, MariaDB y PostgreSQL solo si la configuraci&oacute;n
+ * del plugin de pruebas tiene su secci&oacute;n y el servidor incluye su driver.
+ */
+public class DatabaseTests {
+
+    private static final int STREAMED_RECORDS = 100;
+
+    private final Astra plugin;
+    private final Logger logger;
+
+    public DatabaseTests(Astra plugin) {
+        this.plugin = plugin;
+        this.logger = plugin.logger();
+    }
+
+    /**
+     * Ejecuta todas las pruebas relacionadas con bases de datos
+     */
+    public void runTests() {
+        File file = new File(plugin.getDataFolder(), "astra-test.db");
+        file.delete();
+        runSuite("SQLite", new SQLiteProvider(plugin, file));
+
+        for (DatabaseType type : List.of(DatabaseType.MYSQL, DatabaseType.MARIADB, DatabaseType.POSTGRESQL)) {
+            String section = type.getName().toLowerCase();
+            if (!plugin.getConfig().isConfigurationSection(section)) {
+                logger.info("- Pruebas de " + type.getName() + " omitidas: sin secci&oacute;n '" + section + "' en la configuraci&oacute;n");
+            } else if (!type.isDriverAvailable()) {
+                logger.info("- Pruebas de " + type.getName() + " omitidas: el servidor no incluye " + type.getDriver());
+            } else {
+                runSuite(type.getName(), new DatabaseFactory(plugin).createDatabase(plugin.getConfig(), section, type));
+            }
+        }
+    }
+
+    private void runSuite(String name, AstraDatabase database) {
+        try {
+            database.registerStorageClass(TestRecord.class);
+            database.initialize();
+            database.deleteSync(TestRecord.class, "test-record");
+            for (int i = 0; i < STREAMED_RECORDS; i++) {
+                database.deleteSync(TestRecord.class, "test-record-" + i);
+            }
+
+            testSchema(name, database);
+            testUpsert(name, database);
+            testStream(name, database);
+            testQuery(name, database);
+            testDeleteAfterSave(name, database);
+        } catch (Exception e) {
+            logger.error("✗ Error en pruebas de " + name, e);
+        } finally {
+            database.close();
+        }
+    }
+
+    /**
+     * Prueba que la tabla de una clase se cree y que un objeto guardado se lea igual
+     */
+    private void testSchema(String name, AstraDatabase database) {
+        try {
+            database.saveSync(new TestRecord("test-record", "astra", 7));
+            Optional<TestRecord> loaded = database.findByIdSync(TestRecord.class, "test-record");
+
+            if (loaded.isPresent() && loaded.get().name.equals("astra") && loaded.get().score == 7) {
+                logger.info("✓ Prueba de esquema de " + name + " exitosa");
+            } else {
+                logger.error("✗ Prueba de esquema de " + name + " fallida: " + loaded);
+            }
+        } catch (Exception e) {
+            logger.error("✗ Error en prueba de esquema de " + name, e);
+        }
+    }
+
+    /**
+     * Prueba que guardar un ID existente sustituya la fila en lugar de duplicarla
+     */
+    private void testUpsert(String name, AstraDatabase database) {
+        try {
+            database.saveSync(new TestRecord("test-record", "astra", 8));
+            database.saveAllSync(List.of(new TestRecord("test-record", "astra", 9), new TestRecord("test-record", "astra", 10)));
+
+            long copies = database.findAllSync(TestRecord.class).stream()
+                    .filter(record -> record.id.equals("test-record"))
+                    .count();
+            int score = database.findByIdSync(TestRecord.class, "test-record").map(record -> record.score).orElse(-1);
+
+            if (copies == 1 && score == 10) {
+                logger.info("✓ Prueba de sustituci&oacute;n de " + name + " exitosa");
+            } else {
+                logger.error("✗ Prueba de sustituci&oacute;n de " + name + " fallida: " + copies + " filas, puntuaci&oacute;n " + score);
+            }
+        } catch (Exception e) {
+            logger.error("✗ Error en prueba de sustituci&oacute;n de " + name, e);
+        }
+    }
+
+    /**
+     * Prueba que la lectura por cursor devuelva todos los objetos aunque ocupen varios lotes
+     */
+    private void testStream(String name, AstraDatabase database) {
+        try {
+            database.deleteSync(TestRecord.class, "test-record");
+            List<TestRecord> records = new ArrayList<>();
+            for (int i = 0; i < STREAMED_RECORDS; i++) {
+                records.add(new TestRecord("test-record-" + i, "record " + i, i));
+            }
+            database.saveAllSync(records);
+
+            long count;
+            try (Stream<TestRecord> stream = database.streamAll(TestRecord.class, 16)) {
+                count = stream.count();
+            }
+
+            if (count == STREAMED_RECORDS) {
+                logger.info("✓ Prueba de lectura por cursor de " + name + " exitosa");
+            } else {
+                logger.error("✗ Prueba de lectura por cursor de " + name + " fallida: " + count + " objetos");
+            }
+        } catch (Exception e) {
+            logger.error("✗ Error en prueba de lectura por cursor de " + name, e);
+        }
+    }
+
+    /**
+     * Prueba que las consultas filtren, ordenen y limiten en la base de datos
+     */
+    private void testQuery(String name, AstraDatabase database) {
+        try {
+            List<TestRecord> top = database.findSync(Query.of(TestRecord.class)
+                    .gte("score", 50)
+                    .sortDescending("score")
+                    .limit(10));
+
+            boolean ordered = top.size() == 10;
+            for (int i = 0; ordered && i < top.size(); i++) {
+                ordered = top.get(i).score == STREAMED_RECORDS - 1 - i;
+            }
+
+            if (ordered) {
+                logger.info("✓ Prueba de consultas de " + name + " exitosa");
+            } else {
+                logger.error("✗ Prueba de consultas de " + name + " fallida: " + top.stream().map(record -> record.score).toList());
+            }
+        } catch (Exception e) {
+            logger.error("✗ Error en prueba de consultas de " + name, e);
+        }
+    }
+
+    /**
+     * Prueba que un borrado hecho justo despu&eacute;s de un guardado no sea adelantado por este
+     */
+    private void testDeleteAfterSave(String name, AstraDatabase database) {
+        try {
+            TestRecord record = new TestRecord("test-record", "astra", 1);
+            database.save(record);
+            database.delete(TestRecord.class, "test-record").join();
+
+            if (database.findByIdSync(TestRecord.class, "test-record").isEmpty()) {
+                logger.info("✓ Prueba de orden entre guardado y borrado de " + name + " exitosa");
+            } else {
+                logger.error("✗ Prueba de orden entre guardado y borrado de " + name + " fallida: el objeto sigue guardado");
+            }
+        } catch (Exception e) {
+            logger.error("✗ Error en prueba de orden entre guardado y borrado de " + name, e);
+        }
+    }
+
+    @StorageCollection("astra_test_records")
+    public static class TestRecord implements StorageObject {
+        @StorageId
+        private String id;
+        private String name;
+        @StorageField(indexed = true)
+        private int score;
+
+        public TestRecord() {
+        }
+
+        public TestRecord(String id, String name, int score) {
+            this.id = id;
+            this.name = name;
+            this.score = score;
+        }
+
+        @Override
+        public String getId() {
+            return id;
+        }
+    }
+}
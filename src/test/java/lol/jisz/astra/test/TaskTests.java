@@ -0,0 +1,264 @@
+package lol.jisz.astra.test;
+
+import lol.jisz.astra.Astra;
+import lol.jisz.astra.api.Implements;
+import lol.jisz.astra.task.AsyncAstraTask;
+import lol.jisz.astra.task.HashedWheelTimer;
+import lol.jisz.astra.task.SyncAstraTask;
+import lol.jisz.astra.task.TaskManager;
+import lol.jisz.astra.task.ValueTask;
+import lol.jisz.astra.utils.Logger;
+import org.bukkit.Bukkit;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pruebas para el sistema de tareas de Astra.
+ * Verifica la resoluci&oacute;n de dependencias, la detecci&oacute;n de ciclos, la composici&oacute;n de valores,
+ * la liberaci&oacute;n del registro de tareas, la agrupaci&oacute;n de env&iacute;os repetidos
+ * la ejecuci&oacute;n en orden de las tareas con la misma clave sin bloquear otras claves
+ * y la limpieza de los plazos cancelados del temporizador.
+ */
+public class TaskTests {
+
+    private final Astra plugin;
+    private final Logger logger;
+    private final TaskManager taskManager;
+
+    public TaskTests(Astra plugin) {
+        this.plugin = plugin;
+        this.logger = plugin.logger();
+        this.taskManager = Implements.isRegistered(TaskManager.class)
+                ? Implements.fetch(TaskManager.class)
+                : plugin.registerModule(new TaskManager());
+    }
+
+    /**
+     * Ejecuta todas las pruebas relacionadas con tareas
+     */
+    public void runTests() {
+        testDependencyRelease();
+        testCycleDetection();
+        testValueComposition();
+        testRegistryEviction();
+        testDebounce();
+        testKeyedLanes();
+        testBusyKeyedLane();
+        testCancelledTimeouts();
+    }
+
+    /**
+     * Prueba que una tarea dependiente solo se ejecute al completar su dependencia
+     */
+    private void testDependencyRelease() {
+        try {
+            AtomicBoolean parentDone = new AtomicBoolean(false);
+
+            AsyncAstraTask parent = taskManager.createAsyncTask("test-parent", () -> parentDone.set(true));
+            SyncAstraTask child = taskManager.createSyncTask("test-child", () -> {
+                if (parentDone.get()) {
+                    logger.info("✓ Prueba de liberaci&oacute;n de dependencias exitosa");
+                } else {
+                    logger.error("✗ Prueba de liberaci&oacute;n de dependencias fallida");
+                }
+            });
+            child.addDependency(parent.getId());
+
+            taskManager.registerTask(parent);
+            taskManager.scheduleTask(child);
+            taskManager.scheduleTask(parent);
+        } catch (Exception e) {
+            logger.error("✗ Error en prueba de liberaci&oacute;n de dependencias", e);
+        }
+    }
+
+    /**
+     * Prueba que las dependencias circulares se detecten al programar la tarea
+     */
+    private void testCycleDetection() {
+        try {
+            AtomicBoolean failed = new AtomicBoolean(false);
+
+            SyncAstraTask first = taskManager.createSyncTask("test-cycle-a", () -> { });
+            SyncAstraTask second = taskManager.createSyncTask("test-cycle-b", () -> { });
+            first.addDependency(second.getId());
+            second.addDependency(first.getId());
+            first.onError(throwable -> failed.set(true));
+
+            taskManager.registerTask(second);
+            taskManager.scheduleTask(first);
+
+            if (failed.get()) {
+                logger.info("✓ Prueba de detecci&oacute;n de ciclos exitosa");
+            } else {
+                logger.error("✗ Prueba de detecci&oacute;n de ciclos fallida");
+            }
+        } catch (Exception e) {
+            logger.error("✗ Error en prueba de detecci&oacute;n de ciclos", e);
+        }
+    }
+
+    /**
+     * Prueba que los valores de dos tareas se combinen en el hilo principal
+     */
+    private void testValueComposition() {
+        try {
+            ValueTask<Integer> first = taskManager.supplyAsync(() -> 20);
+            ValueTask<Integer> second = taskManager.supplyAsync(() -> 22);
+
+            first.thenCombineSync(second, Integer::sum).whenComplete((sum, error) -> {
+                if (error == null && sum == 42 && Bukkit.isPrimaryThread()) {
+                    logger.info("✓ Prueba de composici&oacute;n de valores exitosa");
+                } else {
+                    logger.error("✗ Prueba de composici&oacute;n de valores fallida");
+                }
+            });
+        } catch (Exception e) {
+            logger.error("✗ Error en prueba de composici&oacute;n de valores", e);
+        }
+    }
+
+    /**
+     * Prueba que las tareas terminadas salgan del registro cuando ninguna otra depende de ellas
+     */
+    private void testRegistryEviction() {
+        try {
+            AsyncAstraTask parent = taskManager.createAsyncTask("test-evict-parent", () -> { });
+            SyncAstraTask child = taskManager.createSyncTask("test-evict-child", () -> { });
+            child.addDependency(parent.getId());
+            child.onComplete(() -> Bukkit.getScheduler().runTask(plugin, () -> {
+                boolean evicted = taskManager.getTask(parent.getId()) == null
+                        && taskManager.getTask(child.getId()) == null;
+                boolean inHistory = taskManager.getRecentTasks().contains(parent);
+
+                if (evicted && inHistory) {
+                    logger.info("✓ Prueba de liberaci&oacute;n del registro exitosa");
+                } else {
+                    logger.error("✗ Prueba de liberaci&oacute;n del registro fallida");
+                }
+            }));
+
+            taskManager.scheduleTask(child);
+            taskManager.scheduleTask(parent);
+        } catch (Exception e) {
+            logger.error("✗ Error en prueba de liberaci&oacute;n del registro", e);
+        }
+    }
+
+    /**
+     * Prueba que varios env&iacute;os con la misma clave se ejecuten una sola vez
+     */
+    private void testDebounce() {
+        try {
+            AtomicInteger runs = new AtomicInteger();
+            Runnable save = runs::incrementAndGet;
+
+            for (int i = 0; i < 10; i++) {
+                taskManager.runAsyncDebounced("test-debounce", save, 100, TimeUnit.MILLISECONDS);
+            }
+
+            Bukkit.getScheduler().runTaskLater(plugin, () -> {
+                if (runs.get() == 1) {
+                    logger.info("✓ Prueba de agrupaci&oacute;n de env&iacute;os exitosa");
+                } else {
+                    logger.error("✗ Prueba de agrupaci&oacute;n de env&iacute;os fallida: " + runs.get() + " ejecuciones");
+                }
+            }, 20L);
+        } catch (Exception e) {
+            logger.error("✗ Error en prueba de agrupaci&oacute;n de env&iacute;os", e);
+        }
+    }
+
+    /**
+     * Prueba que las tareas con la misma clave se ejecuten de una en una y en orden
+     */
+    private void testKeyedLanes() {
+        try {
+            AtomicInteger inFlight = new AtomicInteger();
+            AtomicInteger next = new AtomicInteger();
+            AtomicBoolean ordered = new AtomicBoolean(true);
+
+            for (int i = 0; i < 20; i++) {
+                int index = i;
+                taskManager.runAsyncKeyed("test-lane", () -> {
+                    if (inFlight.incrementAndGet() != 1 || next.getAndIncrement() != index) {
+                        ordered.set(false);
+                    }
+                    inFlight.decrementAndGet();
+                });
+            }
+
+            Bukkit.getScheduler().runTaskLater(plugin, () -> {
+                if (ordered.get() && next.get() == 20) {
+                    logger.info("✓ Prueba de carriles por clave exitosa");
+                } else {
+                    logger.error("✗ Prueba de carriles por clave fallida: " + next.get() + " ejecuciones en orden");
+                }
+            }, 40L);
+        } catch (Exception e) {
+            logger.error("✗ Error en prueba de carriles por clave", e);
+        }
+    }
+
+    /**
+     * Prueba que una clave con muchas tareas en espera no impida avanzar a las tareas de otra clave
+     */
+    private void testBusyKeyedLane() {
+        try {
+            AtomicInteger busyRuns = new AtomicInteger();
+            AtomicInteger busyRunsBeforeOther = new AtomicInteger(-1);
+
+            for (int i = 0; i < 40; i++) {
+                taskManager.runAsyncKeyed("test-busy-lane", () -> {
+                    try {
+                        Thread.sleep(25);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    busyRuns.incrementAndGet();
+                });
+            }
+            taskManager.runAsyncKeyed("test-other-lane", () -> busyRunsBeforeOther.set(busyRuns.get()));
+
+            Bukkit.getScheduler().runTaskLater(plugin, () -> {
+                int before = busyRunsBeforeOther.get();
+                if (before >= 0 && before < 10) {
+                    logger.info("✓ Prueba de carril ocupado exitosa");
+                } else {
+                    logger.error("✗ Prueba de carril ocupado fallida: la otra clave esper&oacute; " + before + " tareas");
+                }
+            }, 40L);
+        } catch (Exception e) {
+            logger.error("✗ Error en prueba de carril ocupado", e);
+        }
+    }
+
+    /**
+     * Prueba que los plazos cancelados antes de su primer tick no queden retenidos en el temporizador
+     */
+    private void testCancelledTimeouts() {
+        try {
+            HashedWheelTimer timer = new HashedWheelTimer("Astra-Test-Timer", 1, TimeUnit.MILLISECONDS, 64);
+
+            for (int i = 0; i < 10000; i++) {
+                timer.newTimeout(() -> { }, 1, TimeUnit.SECONDS).cancel();
+            }
+
+            Bukkit.getScheduler().runTaskLater(plugin, () -> {
+                int queued = timer.getQueuedTimeouts();
+                int pending = timer.getPendingTimeouts();
+                timer.stop();
+
+                if (queued == 0 && pending == 0) {
+                    logger.info("✓ Prueba de plazos cancelados exitosa");
+                } else {
+                    logger.error("✗ Prueba de plazos cancelados fallida: " + queued + " en cola, " + pending + " pendientes");
+                }
+            }, 10L);
+        } catch (Exception e) {
+            logger.error("✗ Error en prueba de plazos cancelados", e);
+        }
+    }
+}